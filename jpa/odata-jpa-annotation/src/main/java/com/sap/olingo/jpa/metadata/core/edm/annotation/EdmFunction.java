@@ -93,6 +93,21 @@ public @interface EdmFunction {
    */
   boolean hasFunctionImport() default false;
 
+  /**
+   * Time in milliseconds a result of the function may be taken from the function result cache of the service instead
+   * of executing the function again. Caching is switched off by default. It shall only be switched on for functions
+   * that have no side effects and whose result only depends on the parameter and the content of the database.
+   * @return
+   */
+  long cacheTimeToLive() default 0;
+
+  /**
+   * Entities the result of a cached function depends on, besides the returned entity. Creating, changing or deleting
+   * an entity of one of the types via the service removes the cached results of the function.
+   * @return
+   */
+  Class<?>[] cacheDependencies() default {};
+
   /**
    * Define the return type of this function
    * 
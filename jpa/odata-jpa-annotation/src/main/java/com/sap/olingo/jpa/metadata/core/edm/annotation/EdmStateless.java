@@ -0,0 +1,17 @@
+package com.sap.olingo.jpa.metadata.core.edm.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class implementing Java functions or actions as stateless. One instance of the class is used for all calls,
+ * so the class has to be thread safe. The annotation is only taken into account if the class provides a constructor
+ * without parameter, as an instance that gets an entity manager can not be shared.
+ */
+@Target({ ElementType.TYPE })
+@Retention(value = RetentionPolicy.RUNTIME)
+public @interface EdmStateless {
+
+}
@@ -0,0 +1,25 @@
+package com.sap.olingo.jpa.metadata.core.edm.annotation.processor;
+
+/**
+ * Layout of the model index written by the {@link EdmModelIndexProcessor}.
+ * <p>
+ * The index is a UTF-8 text resource, stored at {@link #RESOURCE_NAME} of the class path root the types have been
+ * compiled into. Each line contains a kind and the binary name of a type, separated by a blank e.g.
+ * <code>function com.example.MyFunctions</code>. A type may be listed for more than one kind.
+ */
+public final class EdmModelIndex {
+  public static final String RESOURCE_NAME = "META-INF/olingo-jpa/model.index";
+  public static final String SEPARATOR = " ";
+  /** Implementation of interface <code>ODataFunction</code> */
+  public static final String FUNCTION = "function";
+  /** Implementation of interface <code>ODataAction</code> */
+  public static final String ACTION = "action";
+  /** Enumeration annotated with <code>@EdmEnumeration</code> */
+  public static final String ENUMERATION = "enumeration";
+  /** Entity annotated with <code>@EdmFunction</code> or <code>@EdmFunctions</code> */
+  public static final String ENTITY = "entity";
+
+  private EdmModelIndex() {
+    super();
+  }
+}
@@ -0,0 +1,158 @@
+package com.sap.olingo.jpa.metadata.core.edm.annotation.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.persistence.Entity;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmAction;
+import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmEnumeration;
+import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmFunction;
+import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmFunctions;
+
+/**
+ * Annotation processor that creates the {@link EdmModelIndex model index} of a compilation unit. The index lists
+ * the types the metadata would otherwise have to find by scanning the class path:
+ * <ul>
+ * <li>Implementations of <code>ODataFunction</code> and <code>ODataAction</code></li>
+ * <li>Enumerations annotated with <code>@EdmEnumeration</code></li>
+ * <li>Entities annotated with <code>@EdmFunction</code> or <code>@EdmFunctions</code></li>
+ * </ul>
+ * The processor is registered as service. The compiler only calls it, if one of the types to be compiled uses
+ * <code>@EdmFunction</code>, <code>@EdmFunctions</code>, <code>@EdmAction</code> or <code>@EdmEnumeration</code>.
+ * Operations without such an annotation do not contribute to the metadata anyhow. No index is written if nothing was
+ * found, so a class path root without an index still gets scanned. In case only a part of the types gets compiled,
+ * the entries of the existing index are kept as long as their type still exists.
+ */
+public class EdmModelIndexProcessor extends AbstractProcessor {
+  static final String ODATA_FUNCTION = "com.sap.olingo.jpa.metadata.core.edm.mapper.extention.ODataFunction";
+  static final String ODATA_ACTION = "com.sap.olingo.jpa.metadata.core.edm.mapper.extention.ODataAction";
+
+  private final Set<String> entries = new TreeSet<>();
+  private final Set<String> processedTypes = new HashSet<>();
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return new HashSet<>(Arrays.asList(EdmFunction.class.getName(), EdmFunctions.class.getName(), EdmAction.class
+        .getName(), EdmEnumeration.class.getName()));
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+    if (roundEnv.processingOver()) {
+      if (!processedTypes.isEmpty())
+        writeIndex();
+    } else {
+      for (final Element element : roundEnv.getRootElements())
+        processElement(element);
+    }
+    // Annotations are not claimed, so other processors still get them
+    return false;
+  }
+
+  private void processElement(final Element element) {
+    if (element.getKind().isClass() || element.getKind().isInterface()) {
+      final TypeElement type = (TypeElement) element;
+      final String name = processingEnv.getElementUtils().getBinaryName(type).toString();
+      processedTypes.add(name);
+      if (type.getKind() == ElementKind.ENUM && type.getAnnotation(EdmEnumeration.class) != null)
+        addEntry(EdmModelIndex.ENUMERATION, name);
+      if (type.getKind() == ElementKind.CLASS) {
+        final Set<String> superTypes = new HashSet<>();
+        collectSuperTypes(type.asType(), superTypes);
+        if (superTypes.contains(ODATA_FUNCTION))
+          addEntry(EdmModelIndex.FUNCTION, name);
+        if (superTypes.contains(ODATA_ACTION))
+          addEntry(EdmModelIndex.ACTION, name);
+        if (type.getAnnotation(Entity.class) != null
+            && (type.getAnnotation(EdmFunction.class) != null || type.getAnnotation(EdmFunctions.class) != null))
+          addEntry(EdmModelIndex.ENTITY, name);
+      }
+      for (final Element enclosed : type.getEnclosedElements())
+        processElement(enclosed);
+    }
+  }
+
+  private void collectSuperTypes(final TypeMirror type, final Set<String> superTypes) {
+    for (final TypeMirror superType : processingEnv.getTypeUtils().directSupertypes(type)) {
+      if (superType.getKind() == TypeKind.DECLARED) {
+        final String name = ((TypeElement) ((DeclaredType) superType).asElement()).getQualifiedName().toString();
+        if (superTypes.add(name))
+          collectSuperTypes(superType, superTypes);
+      }
+    }
+  }
+
+  private void addEntry(final String kind, final String name) {
+    entries.add(kind + EdmModelIndex.SEPARATOR + name);
+  }
+
+  private void writeIndex() {
+    try {
+      // An existing index is overwritten even if it gets empty, as it would contain outdated entries otherwise
+      if (!readExistingIndex() && entries.isEmpty())
+        return;
+      final FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+          EdmModelIndex.RESOURCE_NAME);
+      try (Writer writer = new OutputStreamWriter(index.openOutputStream(), StandardCharsets.UTF_8)) {
+        for (final String entry : entries) {
+          writer.write(entry);
+          writer.write('\n');
+        }
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Kind.ERROR, "Unable to write " + EdmModelIndex.RESOURCE_NAME + ": "
+          + e.getMessage());
+    }
+  }
+
+  /**
+   * Keeps the entries of types that have not been compiled this time, but still exist
+   * @return true if an index has been created before
+   */
+  private boolean readExistingIndex() {
+    try {
+      final FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "",
+          EdmModelIndex.RESOURCE_NAME);
+      try (BufferedReader reader = new BufferedReader(new InputStreamReader(existing.openInputStream(),
+          StandardCharsets.UTF_8))) {
+        String entry;
+        while ((entry = reader.readLine()) != null) {
+          final String[] parts = entry.split(EdmModelIndex.SEPARATOR, 2);
+          if (parts.length == 2 && !processedTypes.contains(parts[1])
+              && processingEnv.getElementUtils().getTypeElement(parts[1].replace('$', '.')) != null)
+            entries.add(entry);
+        }
+      }
+      return true;
+    } catch (IOException | IllegalArgumentException e) {
+      // No index created so far
+      return false;
+    }
+  }
+}
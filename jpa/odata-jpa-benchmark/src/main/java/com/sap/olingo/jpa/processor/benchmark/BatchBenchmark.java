@@ -0,0 +1,46 @@
+package com.sap.olingo.jpa.processor.benchmark;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.sap.olingo.jpa.processor.benchmark.BenchmarkRequest.BenchmarkResult;
+
+/**
+ * $batch requests containing a number of read requests on single organizations.
+ */
+public class BatchBenchmark {
+  private static final String BOUNDARY = "batch_benchmark";
+
+  @State(Scope.Benchmark)
+  public static class BatchState {
+    @Param({ "1", "10", "50" })
+    public int parts;
+
+    BenchmarkRequest request;
+
+    @Setup(Level.Trial)
+    public void setup(final BenchmarkState state) {
+      final StringBuilder body = new StringBuilder();
+      for (int i = 1; i <= parts; i++) {
+        body.append("--").append(BOUNDARY).append("\r\n");
+        body.append("Content-Type: application/http\r\n");
+        body.append("Content-Transfer-Encoding: binary\r\n\r\n");
+        body.append("GET Organizations('").append(BenchmarkDataGenerator.ID_PREFIX)
+            .append(1 + (i - 1) % state.scale).append("')?$expand=Roles HTTP/1.1\r\n");
+        body.append("Accept: application/json\r\n\r\n\r\n");
+      }
+      body.append("--").append(BOUNDARY).append("--");
+      request = new BenchmarkRequest("POST", "$batch", "multipart/mixed;boundary=" + BOUNDARY, body.toString());
+    }
+  }
+
+  @Benchmark
+  public BenchmarkResult batch(final BenchmarkState state, final BatchState batch) throws ODataException {
+    return state.process(batch.request);
+  }
+}
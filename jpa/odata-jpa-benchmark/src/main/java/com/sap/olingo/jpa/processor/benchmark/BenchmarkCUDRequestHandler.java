@@ -0,0 +1,33 @@
+package com.sap.olingo.jpa.processor.benchmark;
+
+import javax.persistence.EntityManager;
+
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import com.sap.olingo.jpa.processor.core.api.JPAAbstractCUDRequestHandler;
+import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessException;
+import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
+import com.sap.olingo.jpa.processor.core.processor.JPARequestEntity;
+
+/**
+ * Creates entities of types with simple or id class keys by filling a new instance with the attributes of the request
+ * and persisting it.
+ */
+public class BenchmarkCUDRequestHandler extends JPAAbstractCUDRequestHandler {
+
+  @Override
+  public Object createEntity(final JPARequestEntity requestEntity, final EntityManager em)
+      throws ODataJPAProcessException {
+
+    final JPAEntityType et = requestEntity.getEntityType();
+    try {
+      final Object instance = et.getTypeClass().getConstructor().newInstance();
+      requestEntity.getModifyUtil().setAttributesDeep(requestEntity.getData(), instance, et);
+      em.persist(instance);
+      return instance;
+    } catch (ReflectiveOperationException e) {
+      throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    }
+  }
+}
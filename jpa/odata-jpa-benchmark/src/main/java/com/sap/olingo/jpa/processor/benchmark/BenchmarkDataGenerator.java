@@ -0,0 +1,135 @@
+package com.sap.olingo.jpa.processor.benchmark;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Random;
+
+import javax.sql.DataSource;
+
+/**
+ * Generates additional rows for the test model, so that the benchmarks can run on a given data volume. All generated
+ * rows are derived from the scale and a fixed seed, so two runs with the same scale work on the same data and their
+ * results are comparable.
+ * <p>
+ * Generated are:
+ * <ul>
+ * <li> <code>scale</code> organizations with the ids <code>B1</code> ... <code>B&lt;scale&gt;</code>, each having
+ * up to three roles
+ * <li> <code>scale</code> administrative divisions of publisher <i>Bench</i> on level <i>L1</i>, each having
+ * {@link #CHILDREN_PER_DIVISION} children on level <i>L2</i>, which have the same number of children on level
+ * <i>L3</i>
+ * </ul>
+ * The rows are inserted next to the rows of the test model, which stay untouched.
+ */
+public final class BenchmarkDataGenerator {
+  public static final String ID_PREFIX = "B";
+  public static final String CODE_PUBLISHER = "Bench";
+  public static final int CHILDREN_PER_DIVISION = 3;
+  private static final long SEED = 4711L;
+  private static final String[] ROLES = { "A", "B", "C" };
+  private static final String[] REGIONS = { "US-CA", "US-TX", "US-UT", "US-MT", "US-SC", "US-MN", "US-ME" };
+
+  private final DataSource ds;
+
+  public BenchmarkDataGenerator(final DataSource ds) {
+    super();
+    this.ds = ds;
+  }
+
+  /**
+   * Creates the rows for the given scale. Rows created before with a different scale are removed first.
+   * @param scale Number of organizations and of top level administrative divisions
+   * @throws SQLException
+   */
+  public void generate(final int scale) throws SQLException {
+    try (Connection connection = ds.getConnection()) {
+      connection.setAutoCommit(false);
+      clear(connection);
+      final Random random = new Random(SEED);
+      generateBusinessPartner(connection, scale, random);
+      generateAdministrativeDivision(connection, scale);
+      connection.commit();
+    }
+  }
+
+  private void clear(final Connection connection) throws SQLException {
+    try (Statement stmt = connection.createStatement()) {
+      stmt.executeUpdate("DELETE FROM \"OLINGO\".\"BusinessPartnerRole\" WHERE \"BusinessPartnerID\" LIKE '"
+          + ID_PREFIX + "%'");
+      stmt.executeUpdate("DELETE FROM \"OLINGO\".\"BusinessPartner\" WHERE \"ID\" LIKE '" + ID_PREFIX + "%'");
+      stmt.executeUpdate("DELETE FROM \"OLINGO\".\"AdministrativeDivision\" WHERE \"CodePublisher\" = '"
+          + CODE_PUBLISHER + "'");
+    }
+  }
+
+  private void generateBusinessPartner(final Connection connection, final int scale, final Random random)
+      throws SQLException {
+
+    try (PreparedStatement partner = connection.prepareStatement("INSERT INTO \"OLINGO\".\"BusinessPartner\" "
+        + "(\"ID\", \"ETag\", \"Type\", \"CustomString1\", \"CustomNum1\", \"NameLine1\", \"NameLine2\", "
+        + "\"Address.StreetName\", \"Address.StreetNumber\", \"Address.City\", \"Address.PostalCode\", "
+        + "\"Address.RegionCodePublisher\", \"Address.RegionCodeID\", \"Address.Region\", \"Address.Country\", "
+        + "\"CreatedBy\", \"CreatedAt\", \"UpdatedBy\", \"Country\", \"ABCClass\") "
+        + "VALUES (?, 0, '2', ?, ?, ?, '', 'Benchmark Road', ?, 'Bench City', ?, 'ISO', '3166-2', ?, 'USA', "
+        + "'99', ?, '', 'USA', ?)");
+        PreparedStatement role = connection.prepareStatement("INSERT INTO \"OLINGO\".\"BusinessPartnerRole\" "
+            + "VALUES (?, ?)")) {
+
+      final Timestamp createdAt = Timestamp.valueOf("2016-01-20 09:21:23");
+      for (int i = 1; i <= scale; i++) {
+        final String id = ID_PREFIX + i;
+        partner.setString(1, id);
+        partner.setString(2, "Custom " + random.nextInt(1000));
+        partner.setBigDecimal(3, BigDecimal.valueOf(random.nextInt(100000), 2));
+        partner.setString(4, "Organization " + i);
+        partner.setString(5, Integer.toString(random.nextInt(500)));
+        partner.setString(6, String.format("%05d", random.nextInt(100000)));
+        partner.setString(7, REGIONS[random.nextInt(REGIONS.length)]);
+        partner.setTimestamp(8, createdAt);
+        partner.setInt(9, random.nextInt(3));
+        partner.addBatch();
+        final int noRoles = 1 + random.nextInt(ROLES.length);
+        for (int r = 0; r < noRoles; r++) {
+          role.setString(1, id);
+          role.setString(2, ROLES[r]);
+          role.addBatch();
+        }
+      }
+      partner.executeBatch();
+      role.executeBatch();
+    }
+  }
+
+  private void generateAdministrativeDivision(final Connection connection, final int scale) throws SQLException {
+    try (PreparedStatement division = connection.prepareStatement("INSERT INTO \"OLINGO\".\"AdministrativeDivision\" "
+        + "VALUES ('" + CODE_PUBLISHER + "', ?, ?, 'USA', ?, ?, null, ?, ?)")) {
+
+      for (int i = 1; i <= scale; i++) {
+        final String level1 = "D" + i;
+        addDivision(division, "L1", level1, null, null, i);
+        for (int j = 1; j <= CHILDREN_PER_DIVISION; j++) {
+          final String level2 = level1 + "-" + j;
+          addDivision(division, "L2", level2, "L1", level1, j);
+          for (int k = 1; k <= CHILDREN_PER_DIVISION; k++)
+            addDivision(division, "L3", level2 + "-" + k, "L2", level2, k);
+        }
+      }
+      division.executeBatch();
+    }
+  }
+
+  private void addDivision(final PreparedStatement division, final String codeID, final String divisionCode,
+      final String parentCodeID, final String parentDivisionCode, final int number) throws SQLException {
+    division.setString(1, codeID);
+    division.setString(2, divisionCode);
+    division.setString(3, parentCodeID);
+    division.setString(4, parentDivisionCode);
+    division.setInt(5, number * 100);
+    division.setLong(6, number * 1000L);
+    division.addBatch();
+  }
+}
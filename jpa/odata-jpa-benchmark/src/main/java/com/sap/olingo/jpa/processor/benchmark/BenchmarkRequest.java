@@ -0,0 +1,179 @@
+package com.sap.olingo.jpa.processor.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Minimal servlet request and response, so that the benchmarks can pass a request through
+ * {@link com.sap.olingo.jpa.processor.core.api.JPAODataGetHandler JPAODataGetHandler} without a servlet container.
+ * Only the methods used by Olingo are answered, the response body is consumed and only its length is kept.
+ */
+public final class BenchmarkRequest {
+  private static final String CONTEXT_PATH = "/Test";
+  private static final String SERVLET_PATH = "/Olingo.svc";
+
+  private final String method;
+  private final String path;
+  private final String query;
+  private final Map<String, String> headers;
+  private final byte[] body;
+
+  public BenchmarkRequest(final String uri) {
+    this("GET", uri, null, null);
+  }
+
+  /**
+   * @param method HTTP method
+   * @param uri Resource path and query relative to the service root e.g. Organizations?$top=10
+   * @param contentType Content type of the body, may be null
+   * @param body Request body, may be null
+   */
+  public BenchmarkRequest(final String method, final String uri, final String contentType, final String body) {
+    super();
+    final String[] uriParts = uri.split("\\?", 2);
+    this.method = method;
+    this.path = "/" + uriParts[0];
+    this.query = uriParts.length == 2 ? uriParts[1] : null;
+    this.headers = new HashMap<>();
+    if (contentType != null)
+      headers.put("Content-Type", contentType);
+    this.body = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+  }
+
+  public HttpServletRequest createRequest() {
+    return (HttpServletRequest) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] { HttpServletRequest.class }, new RequestHandler());
+  }
+
+  /**
+   * Creates a new response
+   * @param result Receives status and body length of the response
+   * @return
+   */
+  public static HttpServletResponse createResponse(final BenchmarkResult result) {
+    return (HttpServletResponse) Proxy.newProxyInstance(BenchmarkRequest.class.getClassLoader(),
+        new Class<?>[] { HttpServletResponse.class }, new ResponseHandler(result));
+  }
+
+  /**
+   * Status and body length of a response
+   */
+  public static final class BenchmarkResult {
+    private int status;
+    private long length;
+
+    public int getStatus() {
+      return status;
+    }
+
+    public long getLength() {
+      return length;
+    }
+  }
+
+  private class RequestHandler implements InvocationHandler {
+    private final ByteArrayInputStream input = new ByteArrayInputStream(body);
+
+    @Override
+    public Object invoke(final Object proxy, final Method meth, final Object[] args) throws Throwable {
+      switch (meth.getName()) {
+      case "getMethod":
+        return method;
+      case "getProtocol":
+        return "HTTP/1.1";
+      case "getScheme":
+        return "http";
+      case "getContextPath":
+        return CONTEXT_PATH;
+      case "getServletPath":
+        return SERVLET_PATH;
+      case "getRequestURI":
+        return CONTEXT_PATH + SERVLET_PATH + path;
+      case "getRequestURL":
+        return new StringBuffer(BenchmarkState.SERVICE_ROOT.substring(0, BenchmarkState.SERVICE_ROOT.length() - 1)
+            + path);
+      case "getQueryString":
+        return query;
+      case "getHeaderNames":
+        return Collections.enumeration(headers.keySet());
+      case "getHeader":
+        return headers.get(args[0]);
+      case "getHeaders":
+        return headers.containsKey(args[0]) ? Collections.enumeration(Collections.singletonList(headers.get(args[0])))
+            : Collections.emptyEnumeration();
+      case "getLocales":
+        return Collections.enumeration(Collections.singletonList(Locale.ENGLISH));
+      case "getInputStream":
+        return new ServletInputStream() {
+          @Override
+          public int read() throws IOException {
+            return input.read();
+          }
+
+          @Override
+          public int read(final byte[] b, final int off, final int len) throws IOException {
+            return input.read(b, off, len);
+          }
+        };
+      default:
+        return defaultValue(meth);
+      }
+    }
+  }
+
+  private static class ResponseHandler implements InvocationHandler {
+    private final BenchmarkResult result;
+
+    ResponseHandler(final BenchmarkResult result) {
+      super();
+      this.result = result;
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method meth, final Object[] args) throws Throwable {
+      switch (meth.getName()) {
+      case "setStatus":
+        result.status = (Integer) args[0];
+        return null;
+      case "getOutputStream":
+        return new ServletOutputStream() {
+          @Override
+          public void write(final int b) throws IOException {
+            result.length++;
+          }
+
+          @Override
+          public void write(final byte[] b, final int off, final int len) throws IOException {
+            result.length += len;
+          }
+        };
+      default:
+        return defaultValue(meth);
+      }
+    }
+  }
+
+  private static Object defaultValue(final Method meth) {
+    final Class<?> type = meth.getReturnType();
+    if (type == boolean.class)
+      return Boolean.FALSE;
+    if (type == int.class)
+      return 0;
+    if (type == long.class)
+      return 0L;
+    return null;
+  }
+}
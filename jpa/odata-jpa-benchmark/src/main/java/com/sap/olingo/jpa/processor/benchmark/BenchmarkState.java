@@ -0,0 +1,117 @@
+package com.sap.olingo.jpa.processor.benchmark;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.eclipse.persistence.jpa.JpaHelper;
+import org.eclipse.persistence.logging.SessionLog;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.sap.olingo.jpa.metadata.api.JPAEdmProvider;
+import com.sap.olingo.jpa.processor.benchmark.BenchmarkRequest.BenchmarkResult;
+import com.sap.olingo.jpa.processor.core.api.JPAODataGetHandler;
+import com.sap.olingo.jpa.processor.core.api.JPAODataSessionContextAccess;
+import com.sap.olingo.jpa.processor.core.query.Util;
+import com.sap.olingo.jpa.processor.core.testmodel.DataSourceHelper;
+
+/**
+ * Service shared by the invocations of a benchmark. It uses the test model on an in-memory HSQLDB, which is filled by
+ * the {@link BenchmarkDataGenerator} according to parameter <code>scale</code>.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkState {
+  public static final String PUNIT_NAME = "com.sap.olingo.jpa";
+  public static final String[] TYPE_PACKAGES = { "com.sap.olingo.jpa.processor.core.testmodel" };
+  public static final String SERVICE_ROOT = "http://localhost:8080/Test/Olingo.svc/";
+
+  @Param({ "100", "1000" })
+  public int scale;
+
+  public DataSource ds;
+  public JPAODataGetHandler handler;
+  public EntityManagerFactory emf;
+  public JPAODataSessionContextAccess context;
+  public OData odata;
+  public ServiceMetadata serviceMetadata;
+
+  @Setup(Level.Trial)
+  public void setup() throws ODataException, SQLException {
+    ds = DataSourceHelper.createDataSource(DataSourceHelper.DB_HSQLDB);
+    new BenchmarkDataGenerator(ds).generate(scale);
+    handler = new JPAODataGetHandler(PUNIT_NAME, ds);
+    handler.getJPAODataContext().setTypePackage(TYPE_PACKAGES);
+    emf = handler.emf;
+    // The test model logs all SQL statements, which would dominate the measurement
+    JpaHelper.getServerSession(emf).getSessionLog().setLevel(SessionLog.WARNING, SessionLog.SQL);
+    context = (JPAODataSessionContextAccess) handler.getJPAODataContext();
+    odata = OData.newInstance();
+    serviceMetadata = odata.createServiceMetadata(context.getEdmProvider(), Collections.<EdmxReference> emptyList());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    emf.close();
+  }
+
+  public JPAEdmProvider createEdmProvider() throws ODataException {
+    return new JPAEdmProvider(PUNIT_NAME, emf, null, TYPE_PACKAGES);
+  }
+
+  /**
+   * Parses a resource path relative to the service root
+   * @param path e.g. Organizations
+   * @param query e.g. $filter=ID eq '3', may be null
+   * @return
+   * @throws ODataException
+   */
+  public UriInfo parseUri(final String path, final String query) throws ODataException {
+    return new Parser(serviceMetadata.getEdm(), odata).parseUri(path, query, null, SERVICE_ROOT);
+  }
+
+  public EdmEntitySet getEntitySet(final UriInfo uriInfo) {
+    return Util.determineTargetEntitySet(uriInfo.getUriResourceParts());
+  }
+
+  public EntityManager createEntityManager() {
+    return emf.createEntityManager();
+  }
+
+  /**
+   * Passes a request through the handler, using a new entity manager
+   * @param request
+   * @return
+   * @throws ODataException
+   */
+  public BenchmarkResult process(final BenchmarkRequest request) throws ODataException {
+    final BenchmarkResult result = new BenchmarkResult();
+    final EntityManager em = createEntityManager();
+    try {
+      handler.process(request.createRequest(), BenchmarkRequest.createResponse(result), em);
+    } finally {
+      em.close();
+    }
+    return result;
+  }
+
+  public Map<String, List<String>> createHeaders() {
+    return Collections.<String, List<String>> emptyMap();
+  }
+}
@@ -0,0 +1,117 @@
+package com.sap.olingo.jpa.processor.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.eclipse.persistence.config.PersistenceUnitProperties;
+import org.eclipse.persistence.jpa.JpaHelper;
+import org.eclipse.persistence.logging.SessionLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.sap.olingo.jpa.processor.benchmark.BenchmarkRequest.BenchmarkResult;
+import com.sap.olingo.jpa.processor.core.api.JPAODataBatchProcessor;
+import com.sap.olingo.jpa.processor.core.api.JPAODataCRUDContext;
+
+/**
+ * $batch requests containing one change set, which creates a number of administrative divisions and business
+ * partner roles. The change sets are written by an entity manager factory with JDBC batch writing switched on, see
+ * {@link JPAODataBatchProcessor#createBatchWritingProperties(int)}. Parameter <code>flushInterval</code> compares
+ * flushing at commit with flushing in chunks, see {@link JPAODataCRUDContext#setChangeSetFlushInterval(int)}. The
+ * memory needed per change set can be measured by running the benchmark with the GC profiler, <code>-prof gc</code>.
+ */
+public class ChangeSetBenchmark {
+  private static final String BOUNDARY = "batch_benchmark";
+  private static final String CHANGE_SET = "changeset_benchmark";
+  private static final String DATA_SOURCE = "javax.persistence.nonJtaDataSource";
+  private static final int BATCH_SIZE = 100;
+
+  @State(Scope.Benchmark)
+  public static class ChangeSetState {
+    private static final AtomicInteger changeSetCount = new AtomicInteger();
+
+    @Param({ "10", "100", "1000" })
+    public int parts;
+
+    @Param({ "0", "100" })
+    public int flushInterval;
+
+    BenchmarkRequest request;
+    EntityManagerFactory emf;
+
+    @Setup(Level.Trial)
+    public void setup(final BenchmarkState state) {
+      final JPAODataCRUDContext context = (JPAODataCRUDContext) state.handler.getJPAODataContext();
+      context.setCUDRequestHandler(new BenchmarkCUDRequestHandler());
+      context.setChangeSetFlushInterval(flushInterval);
+
+      final Map<String, Object> properties = JPAODataBatchProcessor.createBatchWritingProperties(BATCH_SIZE);
+      properties.put(DATA_SOURCE, state.ds);
+      // Otherwise EclipseLink re-uses the session of the service, which does not write batches
+      properties.put(PersistenceUnitProperties.SESSION_NAME, "benchmark-batch-writing");
+      emf = Persistence.createEntityManagerFactory(BenchmarkState.PUNIT_NAME, properties);
+      JpaHelper.getServerSession(emf).getSessionLog().setLevel(SessionLog.WARNING, SessionLog.SQL);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      emf.close();
+    }
+
+    /**
+     * Each change set creates new divisions and roles, so their keys are made unique per invocation. Divisions and
+     * roles are requested alternately.
+     */
+    @Setup(Level.Invocation)
+    public void createRequest() {
+      final String codeID = "B" + changeSetCount.incrementAndGet();
+      final StringBuilder body = new StringBuilder();
+      body.append("--").append(BOUNDARY).append("\r\n");
+      body.append("Content-Type: multipart/mixed;boundary=").append(CHANGE_SET).append("\r\n\r\n");
+      for (int i = 1; i <= parts; i++) {
+        if (i % 2 == 1)
+          appendPost(body, i, "AdministrativeDivisions", "{\"CodePublisher\":\"Benchmark\",\"CodeID\":\"" + codeID
+              + "\",\"DivisionCode\":\"" + i + "\",\"CountryCode\":\"BEL\"}");
+        else
+          appendPost(body, i, "BusinessPartnerRoles", "{\"BusinessPartnerID\":\"" + codeID
+              + "\",\"RoleCategory\":\"" + i + "\"}");
+      }
+      body.append("--").append(CHANGE_SET).append("--\r\n");
+      body.append("--").append(BOUNDARY).append("--");
+      request = new BenchmarkRequest("POST", "$batch", "multipart/mixed;boundary=" + BOUNDARY, body.toString());
+    }
+
+    private void appendPost(final StringBuilder body, final int contentID, final String entitySet,
+        final String content) {
+      body.append("--").append(CHANGE_SET).append("\r\n");
+      body.append("Content-Type: application/http\r\n");
+      body.append("Content-Transfer-Encoding: binary\r\n");
+      body.append("Content-ID: ").append(contentID).append("\r\n\r\n");
+      body.append("POST ").append(entitySet).append(" HTTP/1.1\r\n");
+      body.append("Content-Type: application/json\r\n\r\n");
+      body.append(content).append("\r\n");
+    }
+  }
+
+  @Benchmark
+  public BenchmarkResult changeSet(final BenchmarkState state, final ChangeSetState changeSet) throws ODataException {
+    final BenchmarkResult result = new BenchmarkResult();
+    final EntityManager em = changeSet.emf.createEntityManager();
+    try {
+      state.handler.process(changeSet.request.createRequest(), BenchmarkRequest.createResponse(result), em);
+    } finally {
+      em.close();
+    }
+    return result;
+  }
+}
@@ -0,0 +1,81 @@
+package com.sap.olingo.jpa.processor.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.sap.olingo.jpa.metadata.api.JPAEdmProvider;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAServiceDocument;
+
+/**
+ * Creation of the intermediate model and of the Olingo EDM from the JPA metamodel. The cold start builds the CSDL
+ * schemas, the warm start reads them from a snapshot written during the setup.
+ */
+public class EdmProviderBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class SnapshotState {
+    Path snapshot;
+
+    @Setup(Level.Trial)
+    public void setup(final BenchmarkState state) throws ODataException, IOException {
+      snapshot = Files.createTempFile("edm", ".snapshot");
+      Files.delete(snapshot);
+      createEdmProvider(state);
+      if (!Files.isRegularFile(snapshot))
+        throw new IllegalStateException("No snapshot written to " + snapshot);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+      Files.deleteIfExists(snapshot);
+    }
+
+    JPAEdmProvider createEdmProvider(final BenchmarkState state) throws ODataException {
+      return new JPAEdmProvider(BenchmarkState.PUNIT_NAME, state.emf.getMetamodel(), null,
+          BenchmarkState.TYPE_PACKAGES, snapshot);
+    }
+  }
+
+  @Benchmark
+  public JPAServiceDocument createEdmProvider(final BenchmarkState state) throws ODataException {
+    final JPAEdmProvider provider = state.createEdmProvider();
+    provider.getEntityContainer();
+    return provider.getServiceDocument();
+  }
+
+  @Benchmark
+  public JPAServiceDocument createEdmProviderFromSnapshot(final BenchmarkState state, final SnapshotState snapshot)
+      throws ODataException {
+    final JPAEdmProvider provider = snapshot.createEdmProvider(state);
+    provider.getEntityContainer();
+    return provider.getServiceDocument();
+  }
+
+  @Benchmark
+  public Edm createEdm(final BenchmarkState state) throws ODataException {
+    return createEdm(state, state.createEdmProvider());
+  }
+
+  @Benchmark
+  public Edm createEdmFromSnapshot(final BenchmarkState state, final SnapshotState snapshot) throws ODataException {
+    return createEdm(state, snapshot.createEdmProvider(state));
+  }
+
+  private Edm createEdm(final BenchmarkState state, final JPAEdmProvider provider) {
+    final Edm edm = state.odata.createServiceMetadata(provider, Collections.<EdmxReference> emptyList()).getEdm();
+    edm.getEntityContainer().getEntitySets();
+    return edm;
+  }
+}
@@ -0,0 +1,41 @@
+package com.sap.olingo.jpa.processor.benchmark;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import com.sap.olingo.jpa.processor.benchmark.BenchmarkRequest.BenchmarkResult;
+
+/**
+ * Requests with $expand, from one level up to two nested levels on the generated administrative divisions.
+ */
+public class ExpandBenchmark {
+  private static final String TOP_LEVEL = "$filter=CodePublisher eq '" + BenchmarkDataGenerator.CODE_PUBLISHER
+      + "' and CodeID eq 'L1'";
+  private static final BenchmarkRequest ROLES = new BenchmarkRequest("Organizations?$expand=Roles");
+  private static final BenchmarkRequest ONE_LEVEL = new BenchmarkRequest("AdministrativeDivisions?"
+      + TOP_LEVEL + "&$expand=Children");
+  private static final BenchmarkRequest TWO_LEVELS = new BenchmarkRequest("AdministrativeDivisions?"
+      + TOP_LEVEL + "&$expand=Children($expand=Children)");
+  private static final BenchmarkRequest TWO_LEVELS_TOP = new BenchmarkRequest("AdministrativeDivisions?"
+      + TOP_LEVEL + "&$expand=Children($top=2;$expand=Children($top=1))");
+
+  @Benchmark
+  public BenchmarkResult expandRoles(final BenchmarkState state) throws ODataException {
+    return state.process(ROLES);
+  }
+
+  @Benchmark
+  public BenchmarkResult expandOneLevel(final BenchmarkState state) throws ODataException {
+    return state.process(ONE_LEVEL);
+  }
+
+  @Benchmark
+  public BenchmarkResult expandTwoLevels(final BenchmarkState state) throws ODataException {
+    return state.process(TWO_LEVELS);
+  }
+
+  @Benchmark
+  public BenchmarkResult expandTwoLevelsWithTop(final BenchmarkState state) throws ODataException {
+    return state.process(TWO_LEVELS_TOP);
+  }
+}
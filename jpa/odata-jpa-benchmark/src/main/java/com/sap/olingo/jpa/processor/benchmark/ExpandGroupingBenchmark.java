@@ -0,0 +1,101 @@
+package com.sap.olingo.jpa.processor.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAssociationPath;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAOnConditionItem;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
+import com.sap.olingo.jpa.processor.core.converter.JPAJoinKey;
+import com.sap.olingo.jpa.processor.core.query.JPAQuery;
+
+/**
+ * Grouping of the rows of an expanded entity set by the join columns of the parent. <code>Roles</code> is joined by one
+ * column, <code>Children</code> by three. The rows are grouped by {@link JPAJoinKey#fromRow(Tuple, String[])}, as done
+ * by the expand query. The grouping by concatenated strings, which was used before the introduction of
+ * {@link JPAJoinKey}, is kept as a reference.
+ */
+public class ExpandGroupingBenchmark {
+
+  @State(Scope.Thread)
+  public static class GroupingState {
+    @Param({ "Roles", "Children" })
+    public String association;
+
+    JPAAssociationPath assoziation;
+    String[] joinAliases;
+    List<Tuple> rows;
+
+    @Setup(Level.Trial)
+    public void setup(final BenchmarkState state) throws ODataException {
+      final String source = "Roles".equals(association) ? "Organizations" : "AdministrativeDivisions";
+      final String target = "Roles".equals(association) ? "BusinessPartnerRoles" : "AdministrativeDivisions";
+      assoziation = state.context.getEdmProvider().getServiceDocument().getEntity(source).getAssociationPath(
+          association);
+      joinAliases = JPAJoinKey.getAliases(assoziation.getJoinColumnsList(), false);
+      final EntityManager em = state.createEntityManager();
+      try {
+        final UriInfo uriInfo = state.parseUri(target, null);
+        rows = new JPAQuery(state.odata, state.getEntitySet(uriInfo), state.context, uriInfo, em, state
+            .createHeaders()).execute().getResult(JPAJoinKey.ROOT);
+      } finally {
+        em.close();
+      }
+    }
+  }
+
+  @Benchmark
+  public Map<JPAJoinKey, List<Tuple>> groupByJoinKey(final GroupingState state) {
+    final Map<JPAJoinKey, List<Tuple>> result = new HashMap<>();
+    JPAJoinKey joinKey = null;
+    List<Tuple> subResult = null;
+    for (final Tuple row : state.rows) {
+      final JPAJoinKey actuallKey = JPAJoinKey.fromRow(row, state.joinAliases);
+      if (!actuallKey.equals(joinKey)) {
+        subResult = new ArrayList<>();
+        result.put(actuallKey, subResult);
+        joinKey = actuallKey;
+      }
+      subResult.add(row);
+    }
+    return result;
+  }
+
+  @Benchmark
+  public Map<String, List<Tuple>> groupByConcatenatedKey(final GroupingState state) throws ODataException {
+    final List<JPAOnConditionItem> joinColumns = state.assoziation.getJoinColumnsList();
+    final Map<String, List<Tuple>> result = new HashMap<>();
+    String joinKey = "";
+    List<Tuple> subResult = null;
+    for (final Tuple row : state.rows) {
+      final StringBuilder buffer = new StringBuilder();
+      for (final JPAOnConditionItem item : joinColumns) {
+        buffer.append(JPAPath.PATH_SEPERATOR);
+        buffer.append(row.get(item.getRightPath().getAlias()));
+      }
+      buffer.deleteCharAt(0);
+      final String actuallKey = buffer.toString();
+      if (!actuallKey.equals(joinKey)) {
+        subResult = new ArrayList<>();
+        result.put(actuallKey, subResult);
+        joinKey = actuallKey;
+      }
+      subResult.add(row);
+    }
+    return result;
+  }
+}
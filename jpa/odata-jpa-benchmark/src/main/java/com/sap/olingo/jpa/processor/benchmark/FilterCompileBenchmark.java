@@ -0,0 +1,65 @@
+package com.sap.olingo.jpa.processor.benchmark;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.Expression;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.sap.olingo.jpa.processor.core.filter.JPAFilterCrossComplier;
+import com.sap.olingo.jpa.processor.core.filter.JPAOperationConverter;
+import com.sap.olingo.jpa.processor.core.query.JPAQuery;
+import com.sap.olingo.jpa.processor.core.query.JPAQueryParameters;
+
+/**
+ * Compilation of $filter into a criteria builder expression. The filter is compiled against the root of a
+ * {@link JPAQuery} the same way the query creates its where clause, the values are bound as parameters.
+ */
+public class FilterCompileBenchmark {
+
+  @State(Scope.Thread)
+  public static class FilterState {
+    @Param({ "ID eq 'B1'",
+        "Address/Region eq 'US-CA' and Address/PostalCode gt '5' or contains(Name1,'Org')",
+        "Roles/any(d:d/RoleCategory eq 'A')",
+        "AdministrativeInformation/Created/At lt now() and tolower(Name1) eq 'organization 1'" })
+    public String filter;
+
+    JPAFilterCrossComplier complier;
+    JPAQueryParameters parameters;
+    EntityManager em;
+
+    @Setup(Level.Trial)
+    public void setup(final BenchmarkState state) throws ODataException {
+      final UriInfo uriInfo = state.parseUri("Organizations", "$filter=" + filter);
+      em = state.createEntityManager();
+      final JPAQuery query = new JPAQuery(state.odata, state.getEntitySet(uriInfo), state.context, uriInfo, em, state
+          .createHeaders());
+      parameters = new JPAQueryParameters(em.getCriteriaBuilder());
+      complier = new JPAFilterCrossComplier(state.odata, state.context.getEdmProvider().getServiceDocument(), em,
+          state.context.getEdmProvider().getServiceDocument().getEntity("Organizations"), new JPAOperationConverter(em
+              .getCriteriaBuilder(), state.context.getOperationConverter(), parameters), uriInfo, query);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      em.close();
+    }
+  }
+
+  @Benchmark
+  public Expression<Boolean> compile(final FilterState state) throws ExpressionVisitException,
+      ODataApplicationException {
+    state.parameters.clear();
+    return state.complier.compile();
+  }
+}
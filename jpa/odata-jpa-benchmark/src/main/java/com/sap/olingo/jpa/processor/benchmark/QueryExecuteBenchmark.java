@@ -0,0 +1,53 @@
+package com.sap.olingo.jpa.processor.benchmark;
+
+import javax.persistence.EntityManager;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.sap.olingo.jpa.processor.core.query.JPAExpandQueryResult;
+import com.sap.olingo.jpa.processor.core.query.JPAQuery;
+
+/**
+ * Execution of the root query, that is building the criteria query, running it on the database and collecting the
+ * tuples. The uri is parsed once per trial.
+ */
+public class QueryExecuteBenchmark {
+
+  @State(Scope.Thread)
+  public static class QueryState {
+    @Param({ "Organizations",
+        "Organizations?$select=ID,Name1,Address",
+        "Organizations?$filter=Address/Region eq 'US-CA' and Address/PostalCode gt '5'&$orderby=Name1 desc&$top=50",
+        "Organizations('B1')/Roles" })
+    public String uri;
+
+    UriInfo uriInfo;
+    EntityManager em;
+
+    @Setup(Level.Trial)
+    public void setup(final BenchmarkState state) throws ODataException {
+      final String[] uriParts = uri.split("\\?", 2);
+      uriInfo = state.parseUri(uriParts[0], uriParts.length == 2 ? uriParts[1] : null);
+      em = state.createEntityManager();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      em.close();
+    }
+  }
+
+  @Benchmark
+  public JPAExpandQueryResult execute(final BenchmarkState state, final QueryState query) throws ODataException {
+    return new JPAQuery(state.odata, state.getEntitySet(query.uriInfo), state.context, query.uriInfo, query.em,
+        state.createHeaders()).execute();
+  }
+}
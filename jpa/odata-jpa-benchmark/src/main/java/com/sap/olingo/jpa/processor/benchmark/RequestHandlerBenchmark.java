@@ -0,0 +1,45 @@
+package com.sap.olingo.jpa.processor.benchmark;
+
+import javax.persistence.EntityManager;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.server.api.ODataHttpHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import com.sap.olingo.jpa.processor.benchmark.BenchmarkRequest.BenchmarkResult;
+import com.sap.olingo.jpa.processor.core.api.JPAODataBatchProcessor;
+import com.sap.olingo.jpa.processor.core.api.JPAODataRequestProcessor;
+
+/**
+ * Cost of a single request passing the complete pipeline of {@link com.sap.olingo.jpa.processor.core.api.
+ * JPAODataGetHandler JPAODataGetHandler}. <code>metadataPerRequest</code> creates the service metadata for each
+ * request, as the handler did before it shared the metadata between the requests. Run with <code>-prof gc</code> to
+ * compare the allocation per request.
+ */
+public class RequestHandlerBenchmark {
+  private static final BenchmarkRequest REQUEST = new BenchmarkRequest("Organizations('3')");
+
+  @Benchmark
+  public BenchmarkResult sharedMetadata(final BenchmarkState state) throws ODataException {
+    return state.process(REQUEST);
+  }
+
+  @Benchmark
+  public BenchmarkResult metadataPerRequest(final BenchmarkState state) throws ODataException {
+    final BenchmarkResult result = new BenchmarkResult();
+    final EntityManager em = state.createEntityManager();
+    try {
+      final ODataHttpHandler handler = state.odata.createHandler(state.odata.createServiceMetadata(state.context
+          .getEdmProvider(), state.context.getEdmProvider().getReferences()));
+      state.handler.getJPAODataContext().initDebugger(null);
+      handler.register(state.context.getDebugSupport());
+      handler.register(new JPAODataRequestProcessor(state.context, em));
+      handler.register(new JPAODataBatchProcessor(state.context, em));
+      handler.register(state.context.getEdmProvider().getServiceDocument());
+      handler.process(REQUEST.createRequest(), BenchmarkRequest.createResponse(result));
+    } finally {
+      em.close();
+    }
+    return result;
+  }
+}
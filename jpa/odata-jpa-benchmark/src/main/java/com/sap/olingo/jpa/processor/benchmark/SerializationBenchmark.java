@@ -0,0 +1,69 @@
+package com.sap.olingo.jpa.processor.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.persistence.EntityManager;
+
+import org.apache.olingo.commons.api.data.ContextURL;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.server.api.serializer.EntityCollectionSerializerOptions;
+import org.apache.olingo.server.api.serializer.ODataSerializer;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.sap.olingo.jpa.processor.core.converter.JPATupleResultConverter;
+import com.sap.olingo.jpa.processor.core.query.JPAQuery;
+
+/**
+ * Serialization of an entity collection into JSON. Query and conversion are done once per trial.
+ */
+public class SerializationBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class SerializationState {
+    EntityCollection entities;
+    EdmEntitySet entitySet;
+    ODataSerializer serializer;
+    EntityCollectionSerializerOptions options;
+    final byte[] buffer = new byte[8192];
+
+    @Setup(Level.Trial)
+    public void setup(final BenchmarkState state) throws ODataException {
+      final UriInfo uriInfo = state.parseUri("Organizations", null);
+      entitySet = state.getEntitySet(uriInfo);
+      final EntityManager em = state.createEntityManager();
+      try {
+        entities = new JPATupleResultConverter(state.context.getEdmProvider().getServiceDocument(), new JPAQuery(
+            state.odata, entitySet, state.context, uriInfo, em, state.createHeaders()).execute(), state.odata
+                .createUriHelper(), state.serviceMetadata).getResult();
+      } finally {
+        em.close();
+      }
+      serializer = state.odata.createSerializer(ContentType.JSON);
+      options = EntityCollectionSerializerOptions.with()
+          .contextURL(ContextURL.with().entitySet(entitySet).build())
+          .build();
+    }
+  }
+
+  @Benchmark
+  public long serialize(final BenchmarkState state, final SerializationState serialization) throws ODataException,
+      IOException {
+    long length = 0;
+    try (InputStream content = serialization.serializer.entityCollection(state.serviceMetadata, serialization.entitySet
+        .getEntityType(), serialization.entities, serialization.options).getContent()) {
+      int read;
+      while ((read = content.read(serialization.buffer)) != -1)
+        length += read;
+    }
+    return length;
+  }
+}
@@ -0,0 +1,54 @@
+package com.sap.olingo.jpa.processor.benchmark;
+
+import javax.persistence.EntityManager;
+
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.server.api.uri.UriHelper;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.sap.olingo.jpa.processor.core.converter.JPATupleResultConverter;
+import com.sap.olingo.jpa.processor.core.query.JPAExpandQueryResult;
+import com.sap.olingo.jpa.processor.core.query.JPAQuery;
+
+/**
+ * Conversion of query results into Olingo entities. The query is executed once per trial.
+ */
+public class TupleConversionBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class ConversionState {
+    @Param({ "Organizations", "Organizations?$select=ID,Name1" })
+    public String uri;
+
+    JPAExpandQueryResult result;
+    UriHelper uriHelper;
+
+    @Setup(Level.Trial)
+    public void setup(final BenchmarkState state) throws ODataException {
+      final String[] uriParts = uri.split("\\?", 2);
+      final UriInfo uriInfo = state.parseUri(uriParts[0], uriParts.length == 2 ? uriParts[1] : null);
+      final EntityManager em = state.createEntityManager();
+      try {
+        result = new JPAQuery(state.odata, state.getEntitySet(uriInfo), state.context, uriInfo, em, state
+            .createHeaders()).execute();
+      } finally {
+        em.close();
+      }
+      uriHelper = state.odata.createUriHelper();
+    }
+  }
+
+  @Benchmark
+  public EntityCollection convert(final BenchmarkState state, final ConversionState conversion)
+      throws ODataException {
+    return new JPATupleResultConverter(state.context.getEdmProvider().getServiceDocument(), conversion.result,
+        conversion.uriHelper, state.serviceMetadata).getResult();
+  }
+}
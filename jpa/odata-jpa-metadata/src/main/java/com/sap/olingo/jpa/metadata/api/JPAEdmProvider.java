@@ -1,5 +1,6 @@
 package com.sap.olingo.jpa.metadata.api;
 
+import java.nio.file.Path;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Locale;
@@ -47,9 +48,27 @@ public class JPAEdmProvider extends CsdlAbstractEdmProvider {
 
   public JPAEdmProvider(final String namespace, final Metamodel jpaMetamodel,
       final JPAEdmMetadataPostProcessor postProcessor, final String[] packageName) throws ODataException {
+    this(namespace, jpaMetamodel, postProcessor, packageName, null);
+  }
+
+  /**
+   * Creates a provider that takes the CSDL schemas from a snapshot. The snapshot is only used as long as neither the
+   * JPA managed types, nor the Java functions, actions or enumerations, nor the post processor have changed. Otherwise
+   * the schemas are built from the metamodel and the snapshot gets replaced. The post processor has to provide the
+   * same result for the same model, e.g. it may not depend on the time of the start.
+   * @param namespace
+   * @param jpaMetamodel
+   * @param postProcessor
+   * @param packageName
+   * @param snapshot File the snapshot is read from and written to. If null, no snapshot is used.
+   * @throws ODataException
+   */
+  public JPAEdmProvider(final String namespace, final Metamodel jpaMetamodel,
+      final JPAEdmMetadataPostProcessor postProcessor, final String[] packageName, final Path snapshot)
+      throws ODataException {
     super();
     this.nameBuilder = new JPAEdmNameBuilder(namespace);
-    serviceDocument = new JPAServiceDocumentFactory(namespace, jpaMetamodel, postProcessor, packageName)
+    serviceDocument = new JPAServiceDocumentFactory(namespace, jpaMetamodel, postProcessor, packageName, snapshot)
         .getServiceDocument();
   }
 
@@ -185,6 +204,11 @@ public class JPAEdmProvider extends CsdlAbstractEdmProvider {
     return serviceDocument;
   }
 
+  /**
+   * Sets the locales of the message texts for the request processed by the current thread. The provider is shared by
+   * concurrent requests, so the locales are not kept at the provider.
+   * @param locales Locales of the request or null to remove them after the request
+   */
   public void setRequestLocales(final Enumeration<Locale> locales) {
     ODataJPAException.setLocales(locales);
   }
@@ -50,6 +50,15 @@ public interface JPAEntityType extends JPAStructuredType {
    */
   public String getTableName();
 
+  /**
+   * 
+   * @return Name of the database table as given at @Table. In case a schema is given, the name is prefixed by the
+   * schema. Null in case no table is given at the entity, so the name chosen by the JPA provider is not known.
+   */
+  public default String getQualifiedTableName() {
+    return null;
+  }
+
   public boolean hasEtag() throws ODataJPAModelException;
 
   public boolean hasStream() throws ODataJPAModelException;
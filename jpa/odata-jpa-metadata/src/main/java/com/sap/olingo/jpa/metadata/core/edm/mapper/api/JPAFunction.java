@@ -1,5 +1,6 @@
 package com.sap.olingo.jpa.metadata.core.edm.mapper.api;
 
+import java.util.Collections;
 import java.util.List;
 
 import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmFunctionType;
@@ -29,4 +30,20 @@ public interface JPAFunction extends JPAOperation {
   public EdmFunctionType getFunctionType();
 
   public boolean isBound() throws ODataJPAModelException;
+
+  /**
+   * 
+   * @return Time in milliseconds a result of the function may be cached. 0 if results shall not be cached
+   */
+  public default long getCacheTimeToLive() {
+    return 0;
+  }
+
+  /**
+   * 
+   * @return Types of the entities a cached result depends on, including the return type of the function
+   */
+  public default List<Class<?>> getCacheDependencies() {
+    return Collections.emptyList();
+  }
 }
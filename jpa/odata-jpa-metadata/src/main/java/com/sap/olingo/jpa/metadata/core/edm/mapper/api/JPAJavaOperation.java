@@ -14,4 +14,13 @@ public interface JPAJavaOperation {
    * @return The constructor to be used to create a new instance
    */
   public Constructor<?> getConstructor();
+
+  /**
+   * The invoker creates its method handles once, so an implementation should return the same invoker with each call.
+   * @return The invoker to be used to call the method or null if the caller shall create one from the method and the
+   * constructor
+   */
+  public default JPAJavaOperationInvoker getInvoker() {
+    return null;
+  }
 }
@@ -0,0 +1,40 @@
+package com.sap.olingo.jpa.metadata.core.edm.mapper.api;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+
+/**
+ * Calls the Java method implementing a function or an action. The method and the constructor are called via method
+ * handles, which are created once per operation, instead of reflection.
+ */
+public interface JPAJavaOperationInvoker {
+  /**
+   * Provides the instance the method is called at. A new instance is created for each call, unless the class is
+   * annotated with {@link com.sap.olingo.jpa.metadata.core.edm.annotation.EdmStateless EdmStateless}.
+   * @param em Entity manager handed over to the constructor, in case the constructor requires one
+   * @return
+   * @throws IllegalAccessException
+   * @throws InvocationTargetException Wraps the exception thrown by the constructor
+   */
+  public Object getInstance(EntityManager em) throws IllegalAccessException, InvocationTargetException;
+
+  /**
+   * @param instance Instance provided by {@link #getInstance(EntityManager)}
+   * @param parameter Values in the sequence of the parameter of the method
+   * @return Result of the method or null if the method does not return a value
+   * @throws IllegalAccessException
+   * @throws InvocationTargetException Wraps the exception thrown by the method
+   */
+  public Object invoke(Object instance, Object[] parameter) throws IllegalAccessException,
+      InvocationTargetException;
+
+  /**
+   * Provides the position of each parameter within the parameter array of {@link #invoke(Object, Object[])} by the
+   * external name of the parameter, as given at
+   * {@link com.sap.olingo.jpa.metadata.core.edm.annotation.EdmParameter EdmParameter}.
+   * @return
+   */
+  public Map<String, Integer> getParameterPositions();
+}
@@ -1,6 +1,8 @@
 package com.sap.olingo.jpa.metadata.core.edm.mapper.exception;
 
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.List;
 import java.util.Locale;
 
 import org.apache.olingo.commons.api.ex.ODataException;
@@ -9,14 +11,23 @@ public abstract class ODataJPAException extends ODataException {
 
   private static final long serialVersionUID = 1148357369597923853L;
   private static final String UNKNOWN_MESSAGE = "No message text found";
-  private static Enumeration<Locale> locales;
+  // The locales belong to the request processed by the current thread
+  private static final ThreadLocal<List<Locale>> locales = new ThreadLocal<>();
 
   public static Enumeration<Locale> getLocales() {
-    return locales;
+    final List<Locale> requestLocales = locales.get();
+    return requestLocales == null ? null : Collections.enumeration(requestLocales);
   }
 
+  /**
+   * Sets the locales of the request processed by the current thread
+   * @param locales Locales of the request or null to remove them
+   */
   public static void setLocales(final Enumeration<Locale> locales) {
-    ODataJPAException.locales = locales;
+    if (locales == null)
+      ODataJPAException.locales.remove();
+    else
+      ODataJPAException.locales.set(Collections.list(locales));
   }
 
   protected final String id;
@@ -26,28 +37,28 @@ public abstract class ODataJPAException extends ODataException {
   public ODataJPAException(final String id) {
     super("");
     this.id = id;
-    this.messageBuffer = new ODataJPAMessageTextBuffer(getBundleName(), locales);
+    this.messageBuffer = new ODataJPAMessageTextBuffer(getBundleName(), getLocales());
     this.parameter = null;
   }
 
   public ODataJPAException(final String id, final String... params) {
     super("");
     this.id = id;
-    this.messageBuffer = new ODataJPAMessageTextBuffer(getBundleName(), locales);
+    this.messageBuffer = new ODataJPAMessageTextBuffer(getBundleName(), getLocales());
     this.parameter = params;
   }
 
   public ODataJPAException(final String id, final Throwable cause, final String... params) {
     super("", cause);
     this.id = id;
-    this.messageBuffer = new ODataJPAMessageTextBuffer(getBundleName(), locales);
+    this.messageBuffer = new ODataJPAMessageTextBuffer(getBundleName(), getLocales());
     this.parameter = params;
   }
 
   public ODataJPAException(final String id, final Throwable cause) {
     super("", cause);
     this.id = id;
-    this.messageBuffer = new ODataJPAMessageTextBuffer(getBundleName(), locales);
+    this.messageBuffer = new ODataJPAMessageTextBuffer(getBundleName(), getLocales());
     this.parameter = null;
   }
 
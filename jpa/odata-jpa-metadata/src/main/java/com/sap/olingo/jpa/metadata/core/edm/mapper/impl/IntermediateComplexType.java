@@ -41,8 +41,7 @@ final class IntermediateComplexType extends IntermediateStructuredType {
   @Override
   protected void lazyBuildEdmItem() throws ODataJPAModelException {
     if (edmComplexType == null) {
-      buildPropertyList();
-      buildNaviPropertyList();
+      lazyBuildIntermediateModel();
       edmComplexType = new CsdlComplexType();
 
       edmComplexType.setName(this.getExternalName());
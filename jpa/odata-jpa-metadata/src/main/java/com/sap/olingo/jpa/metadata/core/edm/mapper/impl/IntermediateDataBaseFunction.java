@@ -79,7 +79,7 @@ class IntermediateDataBaseFunction extends IntermediateFunction implements JPADa
       final CsdlParameter edmInputParameter = new CsdlParameter();
       final IntermediateStructuredType et = schema.getEntityType(jpaDefiningPOJO);
       edmInputParameter.setName("Key");
-      edmInputParameter.setType(nameBuilder.buildFQN(et.getEdmItem().getName()));
+      edmInputParameter.setType(determineTypeFQN(et));
       edmInputParameter.setNullable(false);
       edmInputParameterList.add(edmInputParameter);
     }
@@ -145,17 +145,23 @@ class IntermediateDataBaseFunction extends IntermediateFunction implements JPADa
     }
   }
 
+  private FullQualifiedName determineTypeFQN(final IntermediateStructuredType st) throws ODataJPAModelException {
+    // The post processor may change the name of the type, but the CSDL type is not needed
+    st.lazyBuildIntermediateModel();
+    return st.getExternalFQN();
+  }
+
   private FullQualifiedName determineReturnType(final ReturnType returnType) throws ODataJPAModelException {
 
     if (returnType.type() == Object.class) {
       final IntermediateStructuredType et = schema.getEntityType(jpaDefiningPOJO);
       this.setIgnore(et.ignore()); // If the result type shall be ignored, ignore also a function that returns it
-      return nameBuilder.buildFQN(et.getEdmItem().getName());
+      return determineTypeFQN(et);
     } else {
       final IntermediateStructuredType st = schema.getStructuredType(returnType.type());
       if (st != null) {
         this.setIgnore(st.ignore()); // If the result type shall be ignored, ignore also a function that returns it
-        return nameBuilder.buildFQN(st.getEdmItem().getName());
+        return determineTypeFQN(st);
       } else {
         final IntermediateEnumerationType enumType = schema.getEnumerationType(returnType.type());
         if (enumType != null) {
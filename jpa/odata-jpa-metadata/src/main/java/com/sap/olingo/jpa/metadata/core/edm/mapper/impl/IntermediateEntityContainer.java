@@ -1,11 +1,13 @@
 package com.sap.olingo.jpa.metadata.core.edm.mapper.impl;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
 import org.apache.olingo.commons.api.edm.provider.CsdlAction;
 import org.apache.olingo.commons.api.edm.provider.CsdlActionImport;
 import org.apache.olingo.commons.api.edm.provider.CsdlAnnotation;
@@ -31,15 +33,17 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.extention.IntermediateEntityC
 //TODO How to handle multiple schemas
 final class IntermediateEntityContainer extends IntermediateModelElement implements IntermediateEntityContainerAccess {
   private final Map<String, IntermediateSchema> schemaList;
-  private final Map<String, IntermediateEntitySet> entitySetListInternalKey;
+  private volatile Map<String, IntermediateEntitySet> entitySetListInternalKey;
+  // Reverse indexes, build together with the entity sets. The index by entity type is published last.
+  private volatile Map<String, IntermediateEntitySet> entitySetListExternalName;
+  private volatile Map<FullQualifiedName, IntermediateEntitySet> entitySetListEntityType;
 
-  private CsdlEntityContainer edmContainer;
+  private volatile CsdlEntityContainer edmContainer;
 
   IntermediateEntityContainer(final JPAEdmNameBuilder nameBuilder, final Map<String, IntermediateSchema> schemaList) {
     super(nameBuilder, nameBuilder.buildContainerName());
     this.schemaList = schemaList;
     this.setExternalName(nameBuilder.buildContainerName());
-    this.entitySetListInternalKey = new HashMap<>();
   }
 
   @Override
@@ -47,17 +51,20 @@ final class IntermediateEntityContainer extends IntermediateModelElement impleme
     this.edmAnnotations.addAll(annotations);
   }
 
+  @SuppressWarnings("unchecked")
   @Override
   protected void lazyBuildEdmItem() throws ODataJPAModelException {
     if (edmContainer == null) {
+      lazyBuildEntitySets();
       postProcessor.processEntityContainer(this);
-      edmContainer = new CsdlEntityContainer();
-      edmContainer.setName(getExternalName());
-      edmContainer.setEntitySets(buildEntitySets());
-      edmContainer.setFunctionImports(buildFunctionImports());
-      edmContainer.setActionImports(buildActionImports());
-      edmContainer.setAnnotations(edmAnnotations);
+      final CsdlEntityContainer container = new CsdlEntityContainer();
+      container.setName(getExternalName());
+      container.setEntitySets((List<CsdlEntitySet>) extractEdmModelElements(entitySetListInternalKey));
+      container.setFunctionImports(buildFunctionImports());
+      container.setActionImports(buildActionImports());
+      container.setAnnotations(edmAnnotations);
       // TODO Singleton
+      edmContainer = container;
     }
   }
 
@@ -68,9 +75,8 @@ final class IntermediateEntityContainer extends IntermediateModelElement impleme
   }
 
   IntermediateEntitySet getEntitySet(final String edmEntitySetName) throws ODataJPAModelException {
-    lazyBuildEdmItem();
-    return (IntermediateEntitySet) findModelElementByEdmItem(edmEntitySetName,
-        entitySetListInternalKey);
+    lazyBuildEntitySets();
+    return entitySetListExternalName.get(edmEntitySetName);
   }
 
   /**
@@ -80,36 +86,45 @@ final class IntermediateEntityContainer extends IntermediateModelElement impleme
    * @throws ODataJPAModelException
    */
   JPAEntitySet getEntitySet(final JPAEntityType entityType) throws ODataJPAModelException {
-    lazyBuildEdmItem();
-    for (final String internalName : entitySetListInternalKey.keySet()) {
-      final IntermediateEntitySet modelElement = entitySetListInternalKey.get(internalName);
-      if (modelElement.getEntityType().getExternalFQN().equals(entityType.getExternalFQN())) {
-        return modelElement;
-      }
-    }
-    return null;
+    lazyBuildEntitySets();
+    return entitySetListEntityType.get(entityType.getExternalFQN());
   }
 
   /**
+   * Builds the entity sets and their indexes. In contrast to {@link #getEdmItem()} no CSDL is created, which is not
+   * needed to find the entity set of a request.<p>
    * Entity Sets are described in <a href=
    * "https://docs.oasis-open.org/odata/odata/v4.0/errata02/os/complete/part3-csdl/odata-v4.0-errata02-os-part3-csdl-complete.html#_Toc406398024"
    * >OData Version 4.0 Part 3 - 13.2 Element edm:EntitySet</a>
-   * @param Entity Type
-   * @return Entity Set
+   * @throws ODataJPAModelException
    */
-  @SuppressWarnings("unchecked")
-  private List<CsdlEntitySet> buildEntitySets() throws ODataJPAModelException {
+  void lazyBuildEntitySets() throws ODataJPAModelException {
+    if (entitySetListEntityType != null)
+      return;
+    final Map<String, IntermediateEntitySet> entitySets = new HashMap<>();
     for (final String namespace : schemaList.keySet()) {
       // Build Entity Sets
       final IntermediateSchema schema = schemaList.get(namespace);
       for (final IntermediateEntityType et : schema.getEntityTypes()) {
         if (!et.ignore() || et.asEntitySet()) {
           final IntermediateEntitySet es = new IntermediateEntitySet(nameBuilder, et);
-          entitySetListInternalKey.put(es.internalName, es);
+          entitySets.put(es.internalName, es);
         }
       }
     }
-    return (List<CsdlEntitySet>) extractEdmModelElements(entitySetListInternalKey);
+    // External names are known not before the post processor has been called
+    final Map<String, IntermediateEntitySet> byExternalName = new HashMap<>();
+    final Map<FullQualifiedName, IntermediateEntitySet> byEntityType = new HashMap<>();
+    for (final IntermediateEntitySet es : entitySets.values()) {
+      es.lazyBuildIntermediateModel();
+      if (!byExternalName.containsKey(es.getExternalName()))
+        byExternalName.put(es.getExternalName(), es);
+      if (!byEntityType.containsKey(es.getEntityType().getExternalFQN()))
+        byEntityType.put(es.getEntityType().getExternalFQN(), es);
+    }
+    entitySetListInternalKey = Collections.unmodifiableMap(entitySets);
+    entitySetListExternalName = Collections.unmodifiableMap(byExternalName);
+    entitySetListEntityType = Collections.unmodifiableMap(byEntityType);
   }
 
   /**
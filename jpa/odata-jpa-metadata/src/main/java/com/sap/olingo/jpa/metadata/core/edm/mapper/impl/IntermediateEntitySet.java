@@ -24,12 +24,15 @@ final class IntermediateEntitySet extends IntermediateModelElement implements In
     JPAEntitySet {
   private final IntermediateEntityType entityType;
   private CsdlEntitySet edmEntitySet;
+  private boolean postProcessed;
 
   IntermediateEntitySet(final JPAEdmNameBuilder nameBuilder, final IntermediateEntityType et)
       throws ODataJPAModelException {
     super(nameBuilder, IntNameBuilder.buildEntitySetName(nameBuilder, et));
     entityType = et;
-    setExternalName(nameBuilder.buildEntitySetName(et.getEdmItem()));
+    // The post processor may change the name of the entity type
+    et.lazyBuildIntermediateModel();
+    setExternalName(nameBuilder.buildEntitySetName(et.getExternalName()));
   }
 
   /**
@@ -64,7 +67,7 @@ final class IntermediateEntitySet extends IntermediateModelElement implements In
   @Override
   protected void lazyBuildEdmItem() throws ODataJPAModelException {
     if (edmEntitySet == null) {
-      postProcessor.processEntitySet(this);
+      lazyBuildIntermediateModel();
       edmEntitySet = new CsdlEntitySet();
 
       final CsdlEntityType edmEt = ((IntermediateEntityType) getODataEntityType()).getEdmItem();
@@ -80,6 +83,17 @@ final class IntermediateEntitySet extends IntermediateModelElement implements In
     }
   }
 
+  /**
+   * Lets the post processor adopt the entity set, e.g. its external name. In contrast to {@link #getEdmItem()} no CSDL
+   * is created.
+   */
+  void lazyBuildIntermediateModel() throws ODataJPAModelException {
+    if (!postProcessed) {
+      postProcessor.processEntitySet(this);
+      postProcessed = true;
+    }
+  }
+
   private List<CsdlNavigationPropertyBinding> determinePropertyBinding() throws ODataJPAModelException {
     final List<CsdlNavigationPropertyBinding> navPropBindingList = new ArrayList<CsdlNavigationPropertyBinding>();
     final List<JPAAssociationPath> naviPropertyList = entityType.getAssociationPathList();
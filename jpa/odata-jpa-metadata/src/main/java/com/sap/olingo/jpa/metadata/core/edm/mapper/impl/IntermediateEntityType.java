@@ -4,6 +4,7 @@ import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -37,7 +38,7 @@ final class IntermediateEntityType extends IntermediateStructuredType implements
     IntermediateEntityTypeAccess {
   private CsdlEntityType edmEntityType;
   private boolean hasEtag;
-  private List<JPAAttribute> key;
+  private volatile List<JPAAttribute> key;
   private final boolean asEntitySet;
 
   IntermediateEntityType(final JPAEdmNameBuilder nameBuilder, final EntityType<?> et, final IntermediateSchema schema) {
@@ -70,38 +71,39 @@ final class IntermediateEntityType extends IntermediateStructuredType implements
 
   @Override
   public List<JPAAttribute> getKey() throws ODataJPAModelException {
-    lazyBuildEdmItem();
+    lazyBuildIntermediateModel();
 
     if (key == null) {
-      key = new ArrayList<>();
+      final List<JPAAttribute> keyAttributes = new ArrayList<>();
       for (final String internalName : this.declaredPropertiesList.keySet()) {
         final JPAAttribute attribute = this.declaredPropertiesList.get(internalName);
         if (attribute.isKey()) {
           if (attribute.isComplex()) {
-            key.addAll(((IntermediateEmbeddedIdProperty) attribute).getStructuredType().getAttributes());
+            keyAttributes.addAll(((IntermediateEmbeddedIdProperty) attribute).getStructuredType().getAttributes());
           } else
-            key.add(attribute);
+            keyAttributes.add(attribute);
         }
       }
       final IntermediateStructuredType baseType = getBaseType();
       if (baseType != null) {
-        key.addAll(((IntermediateEntityType) baseType).getKey());
+        keyAttributes.addAll(((IntermediateEntityType) baseType).getKey());
       }
+      key = Collections.unmodifiableList(keyAttributes);
     }
     return key;
   }
 
   @Override
   public List<JPAPath> getKeyPath() throws ODataJPAModelException {
-    lazyBuildEdmItem();
+    lazyBuildIntermediateModel();
 
     final List<JPAPath> result = new ArrayList<>();
     for (final String internalName : this.declaredPropertiesList.keySet()) {
       final JPAAttribute attribute = this.declaredPropertiesList.get(internalName);
       if (attribute instanceof IntermediateEmbeddedIdProperty) {
-        result.add(intermediatePathMap.get(attribute.getExternalName()));
+        result.add(getIntermediatePathMap().get(attribute.getExternalName()));
       } else if (attribute.isKey())
-        result.add(resolvedPathMap.get(attribute.getExternalName()));
+        result.add(getResolvedPathMap().get(attribute.getExternalName()));
     }
     final IntermediateStructuredType baseType = getBaseType();
     if (baseType != null) {
@@ -146,15 +148,28 @@ final class IntermediateEntityType extends IntermediateStructuredType implements
         : t.name();
   }
 
+  @Override
+  public String getQualifiedTableName() {
+    final AnnotatedElement a = jpaManagedType.getJavaType();
+    Table t = null;
+
+    if (a != null)
+      t = a.getAnnotation(Table.class);
+
+    if (t == null || t.name().isEmpty())
+      return null;
+    return t.schema().isEmpty() ? t.name() : t.schema() + "." + t.name();
+  }
+
   @Override
   public boolean hasEtag() throws ODataJPAModelException {
-    lazyBuildEdmItem();
+    lazyBuildIntermediateModel();
     return hasEtag;
   }
 
   @Override
   public boolean hasStream() throws ODataJPAModelException {
-    lazyBuildEdmItem();
+    lazyBuildIntermediateModel();
     return this.determineHasStream();
   };
 
@@ -171,8 +186,11 @@ final class IntermediateEntityType extends IntermediateStructuredType implements
   @Override
   public List<JPAPath> searchChildPath(final JPAPath selectItemPath) {
     final List<JPAPath> result = new ArrayList<>();
-    for (final String pathName : this.resolvedPathMap.keySet()) {
-      final JPAPath p = resolvedPathMap.get(pathName);
+    final Map<String, JPAPathImpl> paths = this.resolvedPathMap;
+    if (paths == null)
+      return result;
+    for (final String pathName : paths.keySet()) {
+      final JPAPath p = paths.get(pathName);
       if (!p.ignore() && p.getAlias().startsWith(selectItemPath.getAlias()))
         result.add(p);
     }
@@ -205,9 +223,7 @@ final class IntermediateEntityType extends IntermediateStructuredType implements
   @Override
   protected void lazyBuildEdmItem() throws ODataJPAModelException {
     if (edmEntityType == null) {
-      buildPropertyList();
-      buildNaviPropertyList();
-      postProcessor.processEntityType(this);
+      lazyBuildIntermediateModel();
 
       edmEntityType = new CsdlEntityType();
       edmEntityType.setName(getExternalName());
@@ -219,11 +235,23 @@ final class IntermediateEntityType extends IntermediateStructuredType implements
       edmEntityType.setBaseType(determineBaseType());
       edmEntityType.setHasStream(determineHasStream());
       edmEntityType.setAnnotations(determineAnnotations());
-      determineHasEtag();
       // TODO determine OpenType
     }
   }
 
+  @Override
+  protected void buildIntermediateModel() throws ODataJPAModelException {
+    super.buildIntermediateModel();
+    postProcessor.processEntityType(this);
+    determineHasEtag();
+  }
+
+  @Override
+  void freeze() throws ODataJPAModelException {
+    super.freeze();
+    getKey();
+  }
+
   boolean asEntitySet() {
     return asEntitySet;
   }
@@ -1,5 +1,7 @@
 package com.sap.olingo.jpa.metadata.core.edm.mapper.impl;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.olingo.commons.api.edm.FullQualifiedName;
@@ -76,6 +78,21 @@ abstract class IntermediateFunction extends IntermediateOperation implements JPA
     return getEdmItem().isBound();
   }
 
+  @Override
+  public long getCacheTimeToLive() {
+    return jpaFunction.cacheTimeToLive();
+  }
+
+  @Override
+  public List<Class<?>> getCacheDependencies() {
+    final List<Class<?>> dependencies = new ArrayList<>(Arrays.asList(jpaFunction.cacheDependencies()));
+    final Class<?> returnType = jpaFunction.returnType().type() == Object.class ? getResultParameter().getType()
+        : jpaFunction.returnType().type();
+    if (!dependencies.contains(returnType))
+      dependencies.add(returnType);
+    return dependencies;
+  }
+
   protected abstract List<CsdlParameter> determineEdmInputParameter() throws ODataJPAModelException;
 
   protected abstract CsdlReturnType determineEdmResultType(final ReturnType returnType) throws ODataJPAModelException;
@@ -4,6 +4,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
@@ -17,6 +18,7 @@ import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmAction;
 import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmFunction.ReturnType;
 import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmParameter;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAction;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAJavaOperationInvoker;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAOperationResultParameter;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAParameter;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
@@ -29,7 +31,8 @@ class IntermediateJavaAction extends IntermediateOperation implements JPAAction
   private final IntermediateSchema schema;
   private final Method javaAction;
   private final Constructor<?> javaConstructor;
-  private List<JPAParameter> parameterList;
+  private final JPAJavaOperationInvoker invoker;
+  private volatile List<JPAParameter> parameterList;
 
   IntermediateJavaAction(JPAEdmNameBuilder nameBuilder, EdmAction jpaAction, Method javaAction,
       IntermediateSchema schema) throws ODataJPAModelException {
@@ -42,6 +45,7 @@ class IntermediateJavaAction extends IntermediateOperation implements JPAAction
     this.setExternalName(nameBuilder.buildOperationName(internalName));
     this.javaAction = javaAction;
     this.javaConstructor = IntermediateOperationHelper.determineConstructor(javaAction);
+    this.invoker = new JPAJavaOperationInvokerImpl(javaAction, javaConstructor);
   }
 
   @Override
@@ -49,6 +53,11 @@ class IntermediateJavaAction extends IntermediateOperation implements JPAAction
     return javaConstructor;
   }
 
+  @Override
+  public JPAJavaOperationInvoker getInvoker() {
+    return invoker;
+  }
+
   @Override
   public Method getMethod() {
     return javaAction;
@@ -56,7 +65,7 @@ class IntermediateJavaAction extends IntermediateOperation implements JPAAction
 
   public List<JPAParameter> getParameter() throws ODataJPAModelException {
     if (parameterList == null) {
-      parameterList = new ArrayList<>();
+      final List<JPAParameter> parameters = new ArrayList<>();
       Class<?>[] types = javaAction.getParameterTypes();
       Parameter[] declairedParameters = javaAction.getParameters();
       for (int i = 0; i < declairedParameters.length; i++) {
@@ -73,8 +82,9 @@ class IntermediateJavaAction extends IntermediateOperation implements JPAAction
             nameBuilder.buildPropertyName(definedParameter.name()),
             declairedParameter.getName(),
             types[i]);
-        parameterList.add(parameter);
+        parameters.add(parameter);
       }
+      parameterList = Collections.unmodifiableList(parameters);
 
     }
     return parameterList;
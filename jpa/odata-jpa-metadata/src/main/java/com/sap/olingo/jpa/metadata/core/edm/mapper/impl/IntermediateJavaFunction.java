@@ -4,6 +4,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Arrays;
 import java.util.List;
 
@@ -18,6 +19,7 @@ import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmFunction.ReturnType;
 import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmFunctionType;
 import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmParameter;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAJavaFunction;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAJavaOperationInvoker;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAOperationResultParameter;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAParameter;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
@@ -26,7 +28,8 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelExcept
 class IntermediateJavaFunction extends IntermediateFunction implements JPAJavaFunction {
   private final Method javaFunction;
   private final Constructor<?> javaConstructor;
-  private List<JPAParameter> parameterList;
+  private final JPAJavaOperationInvoker invoker;
+  private volatile List<JPAParameter> parameterList;
 
   IntermediateJavaFunction(JPAEdmNameBuilder nameBuilder, EdmFunction jpaFunction, Method javaFunction,
       IntermediateSchema schema) throws ODataJPAModelException {
@@ -36,6 +39,7 @@ class IntermediateJavaFunction extends IntermediateFunction implements JPAJavaFu
     this.setExternalName(nameBuilder.buildOperationName(internalName));
     this.javaFunction = javaFunction;
     this.javaConstructor = IntermediateOperationHelper.determineConstructor(javaFunction);
+    this.invoker = new JPAJavaOperationInvokerImpl(javaFunction, javaConstructor);
   }
 
   @Override
@@ -43,6 +47,11 @@ class IntermediateJavaFunction extends IntermediateFunction implements JPAJavaFu
     return javaConstructor;
   }
 
+  @Override
+  public JPAJavaOperationInvoker getInvoker() {
+    return invoker;
+  }
+
   @Override
   public EdmFunctionType getFunctionType() {
     return EdmFunctionType.JavaClass;
@@ -56,7 +65,7 @@ class IntermediateJavaFunction extends IntermediateFunction implements JPAJavaFu
   @Override
   public List<JPAParameter> getParameter() throws ODataJPAModelException {
     if (parameterList == null) {
-      parameterList = new ArrayList<>();
+      final List<JPAParameter> parameters = new ArrayList<>();
       Class<?>[] types = javaFunction.getParameterTypes();
       Parameter[] declairedParameters = javaFunction.getParameters();
       for (int i = 0; i < declairedParameters.length; i++) {
@@ -69,8 +78,9 @@ class IntermediateJavaFunction extends IntermediateFunction implements JPAJavaFu
                   .getDeclaringClass().getName());
         JPAParameter parameter = new IntermediatFunctionParameter(definedParameter, nameBuilder
             .buildPropertyName(definedParameter.name()), declairedParameter.getName(), types[i]);
-        parameterList.add(parameter);
+        parameters.add(parameter);
       }
+      parameterList = Collections.unmodifiableList(parameters);
 
     }
     return parameterList;
@@ -0,0 +1,126 @@
+package com.sap.olingo.jpa.metadata.core.edm.mapper.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.reflections.Reflections;
+import org.reflections.scanners.SubTypesScanner;
+import org.reflections.scanners.TypeAnnotationsScanner;
+import org.reflections.util.ClasspathHelper;
+import org.reflections.util.ConfigurationBuilder;
+
+import com.google.common.collect.Multimap;
+import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmEnumeration;
+import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmFunction;
+import com.sap.olingo.jpa.metadata.core.edm.annotation.processor.EdmModelIndex;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.extention.ODataAction;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.extention.ODataFunction;
+
+/**
+ * Provides the functions, actions and enumerations of the given packages. For each class path root containing one of
+ * the packages the {@link EdmModelIndex model index} created at compile time is used. Only roots without such an
+ * index, e.g. because the model was compiled without the index processor, get scanned.
+ * <p>
+ * The index fills the store the same way a scan with {@link SubTypesScanner} and {@link TypeAnnotationsScanner} would
+ * do, so it can be used instead of a scanning {@link Reflections} instance.
+ */
+final class IntermediateModelIndex extends Reflections {
+  private static final String SUB_TYPES = SubTypesScanner.class.getSimpleName();
+  private static final String TYPE_ANNOTATIONS = TypeAnnotationsScanner.class.getSimpleName();
+
+  /**
+   * @param packageName
+   * @return The index of the packages or null if no package is given
+   */
+  static Reflections create(final String... packageName) {
+    if (packageName != null && packageName.length > 0)
+      return new IntermediateModelIndex(packageName);
+    else
+      return null;
+  }
+
+  private IntermediateModelIndex(final String... packageName) {
+    super();
+    final Map<String, URL> indexes = findIndexes();
+    final Set<String> processedRoots = new HashSet<>();
+    final Set<URL> scanRoots = new LinkedHashSet<>();
+    for (final String name : packageName) {
+      for (final URL root : ClasspathHelper.forPackage(name)) {
+        final String rootName = root.toExternalForm();
+        if (processedRoots.add(rootName) && !(indexes.containsKey(rootName) && readIndex(indexes.get(rootName))))
+          scanRoots.add(root);
+      }
+    }
+    if (!scanRoots.isEmpty())
+      merge(scan(scanRoots));
+  }
+
+  private Map<String, URL> findIndexes() {
+    final Map<String, URL> indexes = new HashMap<>();
+    for (final ClassLoader loader : ClasspathHelper.classLoaders()) {
+      try {
+        final Enumeration<URL> resources = loader.getResources(EdmModelIndex.RESOURCE_NAME);
+        while (resources.hasMoreElements()) {
+          final URL index = resources.nextElement();
+          final String indexName = index.toExternalForm();
+          indexes.put(indexName.substring(0, indexName.length() - EdmModelIndex.RESOURCE_NAME.length()), index);
+        }
+      } catch (IOException e) {
+        // Roots of this class loader get scanned
+      }
+    }
+    return indexes;
+  }
+
+  /**
+   * @return false if the index could not be read, so the root has to be scanned
+   */
+  private boolean readIndex(final URL index) {
+    final Multimap<String, String> subTypes = getStore().getOrCreate(SUB_TYPES);
+    final Multimap<String, String> typeAnnotations = getStore().getOrCreate(TYPE_ANNOTATIONS);
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(index.openStream(),
+        StandardCharsets.UTF_8))) {
+      String entry;
+      while ((entry = reader.readLine()) != null) {
+        final String[] parts = entry.split(EdmModelIndex.SEPARATOR, 2);
+        if (parts.length != 2)
+          continue;
+        switch (parts[0]) {
+        case EdmModelIndex.FUNCTION:
+          subTypes.put(ODataFunction.class.getName(), parts[1]);
+          break;
+        case EdmModelIndex.ACTION:
+          subTypes.put(ODataAction.class.getName(), parts[1]);
+          break;
+        case EdmModelIndex.ENUMERATION:
+          typeAnnotations.put(EdmEnumeration.class.getName(), parts[1]);
+          break;
+        case EdmModelIndex.ENTITY:
+          typeAnnotations.put(EdmFunction.class.getName(), parts[1]);
+          break;
+        default:
+          // Kind of a newer version of the index
+        }
+      }
+      return true;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  private Reflections scan(final Set<URL> roots) {
+    final ConfigurationBuilder configBuilder = new ConfigurationBuilder();
+    configBuilder.setUrls(roots);
+    configBuilder.setScanners(new SubTypesScanner(false), new TypeAnnotationsScanner());
+    return new Reflections(configBuilder);
+  }
+}
@@ -1,6 +1,7 @@
 package com.sap.olingo.jpa.metadata.core.edm.mapper.impl;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -43,9 +44,14 @@ final class IntermediateSchema extends IntermediateModelElement {
   private final Map<String, IntermediateFunction> functionListInternalKey;
   private final Map<String, IntermediateJavaAction> actionListInternalKey;
   private final Map<String, IntermediateEnumerationType> enumTypeListInternalKey;
+  private final Map<Class<?>, IntermediateComplexType> complexTypeListJavaClass;
+  private final Map<Class<?>, IntermediateEntityType> entityTypeListJavaClass;
+  // Build when the schema gets frozen, as the post processor may change the external names
+  private volatile Map<String, IntermediateComplexType> complexTypeListExternalName;
+  private volatile Map<String, IntermediateEntityType> entityTypeListExternalName;
   private IntermediateEntityContainer container;
   private final Reflections reflections;
-  private CsdlSchema edmSchema;
+  private volatile CsdlSchema edmSchema;
 
   IntermediateSchema(final JPAEdmNameBuilder nameBuilder, final Metamodel jpaMetamodel, final Reflections reflections)
       throws ODataJPAModelException {
@@ -56,6 +62,8 @@ final class IntermediateSchema extends IntermediateModelElement {
     this.enumTypeListInternalKey = buildEnumerationTypeList();
     this.complexTypeListInternalKey = buildComplexTypeList();
     this.entityTypeListInternalKey = buildEntityTypeList();
+    this.complexTypeListJavaClass = buildJavaClassIndex(complexTypeListInternalKey);
+    this.entityTypeListJavaClass = buildJavaClassIndex(entityTypeListInternalKey);
     this.functionListInternalKey = buildFunctionList();
     this.actionListInternalKey = buildActionList();
   }
@@ -81,20 +89,21 @@ final class IntermediateSchema extends IntermediateModelElement {
   @SuppressWarnings("unchecked")
   @Override
   protected void lazyBuildEdmItem() throws ODataJPAModelException {
-    edmSchema = new CsdlSchema();
-    edmSchema.setNamespace(nameBuilder.buildNamespace());
-    edmSchema.setEnumTypes((List<CsdlEnumType>) extractEdmModelElements(enumTypeListInternalKey));
-    edmSchema.setComplexTypes((List<CsdlComplexType>) extractEdmModelElements(complexTypeListInternalKey));
-    edmSchema.setEntityTypes((List<CsdlEntityType>) extractEdmModelElements(entityTypeListInternalKey));
-    edmSchema.setFunctions((List<CsdlFunction>) extractEdmModelElements(functionListInternalKey));
-    edmSchema.setActions((List<CsdlAction>) extractEdmModelElements(actionListInternalKey));
+    final CsdlSchema schema = new CsdlSchema();
+    schema.setNamespace(nameBuilder.buildNamespace());
+    schema.setEnumTypes((List<CsdlEnumType>) extractEdmModelElements(enumTypeListInternalKey));
+    schema.setComplexTypes((List<CsdlComplexType>) extractEdmModelElements(complexTypeListInternalKey));
+    schema.setEntityTypes((List<CsdlEntityType>) extractEdmModelElements(entityTypeListInternalKey));
+    schema.setFunctions((List<CsdlFunction>) extractEdmModelElements(functionListInternalKey));
+    schema.setActions((List<CsdlAction>) extractEdmModelElements(actionListInternalKey));
 //  edm:Annotations
 //  edm:Annotation
 //  edm:Term
 //  edm:TypeDefinition
     // MUST be the last thing that is done !!!!
     if (container != null)
-      edmSchema.setEntityContainer(container.getEdmItem());
+      schema.setEntityContainer(container.getEdmItem());
+    edmSchema = schema;
 
   }
 
@@ -115,10 +124,13 @@ final class IntermediateSchema extends IntermediateModelElement {
   }
 
   IntermediateStructuredType getComplexType(final Class<?> targetClass) {
-    return complexTypeListInternalKey.get(IntNameBuilder.buildStructuredTypeName(targetClass));
+    return complexTypeListJavaClass.get(targetClass);
   }
 
   JPAStructuredType getComplexType(final String externalName) {
+    final Map<String, IntermediateComplexType> index = complexTypeListExternalName;
+    if (index != null)
+      return index.get(externalName);
     for (final Map.Entry<String, IntermediateComplexType> complexType : complexTypeListInternalKey.entrySet()) {
       if (complexType.getValue().getExternalName().equals(externalName))
         return complexType.getValue();
@@ -133,11 +145,40 @@ final class IntermediateSchema extends IntermediateModelElement {
     return edmSchema;
   }
 
+  /**
+   * Resolves all lazily build parts of the types and operations of the schema. Afterwards the schema is only read, so
+   * it can be shared between threads. The CSDL types and the CSDL schema itself are not build, as they are not needed
+   * in case they have been taken from a snapshot. Enumerations and operations are the exception, as their CSDL items
+   * are read at runtime, e.g. to find out if a function is bound.
+   * @throws ODataJPAModelException
+   */
+  void freeze() throws ODataJPAModelException {
+    for (final Entry<String, IntermediateEnumerationType> enumType : enumTypeListInternalKey.entrySet())
+      enumType.getValue().getEdmItem();
+    for (final Entry<String, IntermediateComplexType> ct : complexTypeListInternalKey.entrySet())
+      ct.getValue().freeze();
+    for (final Entry<String, IntermediateEntityType> et : entityTypeListInternalKey.entrySet())
+      et.getValue().freeze();
+    for (final Entry<String, IntermediateFunction> func : functionListInternalKey.entrySet()) {
+      func.getValue().getEdmItem();
+      func.getValue().getParameter();
+    }
+    for (final Entry<String, IntermediateJavaAction> action : actionListInternalKey.entrySet()) {
+      action.getValue().getEdmItem();
+      action.getValue().getParameter();
+    }
+    complexTypeListExternalName = buildExternalNameIndex(complexTypeListInternalKey);
+    entityTypeListExternalName = buildExternalNameIndex(entityTypeListInternalKey);
+  }
+
   IntermediateStructuredType getEntityType(final Class<?> targetClass) {
-    return entityTypeListInternalKey.get(IntNameBuilder.buildStructuredTypeName(targetClass));
+    return entityTypeListJavaClass.get(targetClass);
   }
 
   JPAEntityType getEntityType(final String externalName) {
+    final Map<String, IntermediateEntityType> index = entityTypeListExternalName;
+    if (index != null)
+      return index.get(externalName);
 
     for (final Entry<String, IntermediateEntityType> et : entityTypeListInternalKey.entrySet()) {
       if (et.getValue().getExternalName().equals(externalName))
@@ -173,18 +214,16 @@ final class IntermediateSchema extends IntermediateModelElement {
   }
 
   IntermediateStructuredType getStructuredType(final Attribute<?, ?> jpaAttribute) {
-    IntermediateStructuredType type = complexTypeListInternalKey.get(IntNameBuilder.buildStructuredTypeName(jpaAttribute
-        .getJavaType()));
+    IntermediateStructuredType type = complexTypeListJavaClass.get(jpaAttribute.getJavaType());
     if (type == null)
-      type = entityTypeListInternalKey.get(IntNameBuilder.buildStructuredTypeName(jpaAttribute.getJavaType()));
+      type = entityTypeListJavaClass.get(jpaAttribute.getJavaType());
     return type;
   }
 
   IntermediateStructuredType getStructuredType(final Class<?> targetClass) {
-    IntermediateStructuredType type = entityTypeListInternalKey
-        .get(IntNameBuilder.buildStructuredTypeName(targetClass));
+    IntermediateStructuredType type = entityTypeListJavaClass.get(targetClass);
     if (type == null)
-      type = complexTypeListInternalKey.get(IntNameBuilder.buildStructuredTypeName(targetClass));
+      type = complexTypeListJavaClass.get(targetClass);
     return type;
   }
 
@@ -192,6 +231,24 @@ final class IntermediateSchema extends IntermediateModelElement {
     this.container = container;
   }
 
+  private <T extends IntermediateModelElement> Map<String, T> buildExternalNameIndex(
+      final Map<String, T> internalKeyList) {
+    final Map<String, T> index = new HashMap<>();
+    for (final Entry<String, T> element : internalKeyList.entrySet()) {
+      if (!index.containsKey(element.getValue().getExternalName()))
+        index.put(element.getValue().getExternalName(), element.getValue());
+    }
+    return Collections.unmodifiableMap(index);
+  }
+
+  private <T extends IntermediateStructuredType> Map<Class<?>, T> buildJavaClassIndex(
+      final Map<String, T> internalKeyList) {
+    final Map<Class<?>, T> index = new HashMap<>();
+    for (final Entry<String, T> type : internalKeyList.entrySet())
+      index.put(type.getValue().getTypeClass(), type.getValue());
+    return Collections.unmodifiableMap(index);
+  }
+
   private Map<String, IntermediateJavaAction> buildActionList() throws ODataJPAModelException {
     final HashMap<String, IntermediateJavaAction> actionList = new HashMap<>();
     final IntermediateActionFactory factory = new IntermediateActionFactory();
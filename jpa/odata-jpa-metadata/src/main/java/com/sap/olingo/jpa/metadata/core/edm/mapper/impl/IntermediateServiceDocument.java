@@ -1,12 +1,16 @@
 package com.sap.olingo.jpa.metadata.core.edm.mapper.impl;
 
-import java.net.URL;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
+import javax.persistence.metamodel.ManagedType;
 import javax.persistence.metamodel.Metamodel;
 
 import org.apache.olingo.commons.api.edm.EdmAction;
@@ -21,12 +25,9 @@ import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
 import org.apache.olingo.commons.api.edm.provider.CsdlTerm;
 import org.apache.olingo.commons.api.edmx.EdmxReference;
 import org.reflections.Reflections;
-import org.reflections.scanners.SubTypesScanner;
-import org.reflections.scanners.TypeAnnotationsScanner;
-import org.reflections.util.ClasspathHelper;
-import org.reflections.util.ConfigurationBuilder;
 
 import com.sap.olingo.jpa.metadata.api.JPAEdmMetadataPostProcessor;
+import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmEnumeration;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAction;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntitySet;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
@@ -35,6 +36,8 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAFunction;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAServiceDocument;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAStructuredType;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.extention.ODataAction;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.extention.ODataFunction;
 
 /**
  * http://docs.oasis-open.org/odata/odata/v4.0/errata02/os/complete/schemas/edmx.xsd
@@ -51,6 +54,9 @@ class IntermediateServiceDocument implements JPAServiceDocument {
   private final IntermediateReferences references;
   private final JPAEdmMetadataPostProcessor pP;
   private final Reflections reflections;
+  private List<CsdlSchema> snapshotSchemas;
+  private String snapshotKey;
+  private boolean frozen;
 
   IntermediateServiceDocument(final String namespace, final Metamodel jpaMetamodel,
       final JPAEdmMetadataPostProcessor postProcessor, final String[] packageName) throws ODataJPAModelException {
@@ -58,7 +64,7 @@ class IntermediateServiceDocument implements JPAServiceDocument {
     this.pP = postProcessor != null ? postProcessor : new DefaultEdmPostProcessor();
     IntermediateModelElement.setPostProcessor(pP);
 
-    this.reflections = createReflections(packageName);
+    this.reflections = IntermediateModelIndex.create(packageName);
     this.references = new IntermediateReferences();
     pP.provideReferences(this.references);
     this.nameBuilder = new JPAEdmNameBuilder(namespace);
@@ -88,6 +94,12 @@ class IntermediateServiceDocument implements JPAServiceDocument {
    */
   @Override
   public CsdlEntityContainer getEdmEntityContainer() throws ODataJPAModelException {
+    if (snapshotSchemas != null) {
+      for (final CsdlSchema schema : snapshotSchemas) {
+        if (schema.getEntityContainer() != null)
+          return schema.getEntityContainer();
+      }
+    }
     return container.getEdmItem();
   }
 
@@ -98,6 +110,8 @@ class IntermediateServiceDocument implements JPAServiceDocument {
    */
   @Override
   public List<CsdlSchema> getEdmSchemas() throws ODataJPAModelException {
+    if (snapshotSchemas != null)
+      return new ArrayList<>(snapshotSchemas);
     return extractEdmSchemas();
   }
 
@@ -245,26 +259,74 @@ class IntermediateServiceDocument implements JPAServiceDocument {
     return false;
   }
 
+  /**
+   * Takes the CSDL schemas from the given snapshot, provided it was created for the same model. In this case the
+   * intermediate model, which is bound to the JPA metamodel, still needs to be resolved, see {@link #freeze()}.
+   * @param snapshot
+   * @return true if the CSDL schemas have been taken from the snapshot
+   */
+  boolean readSnapshot(final Path snapshot) {
+    snapshotKey = IntermediateSnapshot.createKey(nameBuilder.buildNamespace(), getModelClasses());
+    if (snapshotKey != null)
+      snapshotSchemas = IntermediateSnapshot.read(snapshot, snapshotKey);
+    return snapshotSchemas != null;
+  }
+
+  /**
+   * Replaces the snapshot by the CSDL schemas of the frozen model, so it is not build a second time. Nothing is done if
+   * the CSDL schemas have been taken from the snapshot.
+   * @param snapshot
+   * @throws ODataJPAModelException
+   */
+  void writeSnapshot(final Path snapshot) throws ODataJPAModelException {
+    if (snapshotKey == null || snapshotSchemas != null)
+      return;
+    try {
+      IntermediateSnapshot.write(snapshot, snapshotKey, extractEdmSchemas());
+    } catch (IOException e) {
+      // The service works without snapshot, the next start tries again
+    }
+  }
+
+  /**
+   * Resolves all lazily build parts of the intermediate model up front. Afterwards the service document is only read,
+   * so one instance can serve any number of request threads without locking. The CSDL schemas, including the entity
+   * container, are only build if they have not been taken from a snapshot.
+   * @throws ODataJPAModelException
+   */
+  synchronized void freeze() throws ODataJPAModelException {
+    if (frozen)
+      return;
+    for (final Entry<String, IntermediateSchema> schema : schemaListInternalKey.entrySet())
+      schema.getValue().freeze();
+    container.lazyBuildEntitySets();
+    if (snapshotSchemas == null) {
+      for (final Entry<String, IntermediateSchema> schema : schemaListInternalKey.entrySet())
+        schema.getValue().getEdmItem();
+      container.getEdmItem();
+    }
+    frozen = true;
+  }
+
+  private Set<Class<?>> getModelClasses() {
+    final Set<Class<?>> modelClasses = new HashSet<>();
+    for (final ManagedType<?> managedType : jpaMetamodel.getManagedTypes())
+      modelClasses.add(managedType.getJavaType());
+    if (reflections != null) {
+      modelClasses.addAll(reflections.getSubTypesOf(ODataFunction.class));
+      modelClasses.addAll(reflections.getSubTypesOf(ODataAction.class));
+      modelClasses.addAll(reflections.getTypesAnnotatedWith(EdmEnumeration.class));
+    }
+    modelClasses.add(pP.getClass());
+    return modelClasses;
+  }
+
   private void buildIntermediateSchemas()
       throws ODataJPAModelException {
     final IntermediateSchema schema = new IntermediateSchema(nameBuilder, jpaMetamodel, reflections);
     schemaListInternalKey.put(schema.internalName, schema);
   }
 
-  private Reflections createReflections(String... packageName) {
-    if (packageName != null && packageName.length > 0) {
-      ConfigurationBuilder configBuilder = new ConfigurationBuilder();
-      List<URL> urls = new ArrayList<>();
-      for (int i = 0; i < packageName.length; i++) {
-        urls.addAll(ClasspathHelper.forPackage(packageName[i]));
-      }
-      configBuilder.setUrls(urls);
-      configBuilder.setScanners(new SubTypesScanner(false), new TypeAnnotationsScanner());
-      return new Reflections(configBuilder);
-    } else
-      return null;
-  }
-
   private List<CsdlSchema> extractEdmSchemas() throws ODataJPAModelException {
     final List<CsdlSchema> schemas = new ArrayList<>();
     try {
@@ -0,0 +1,281 @@
+package com.sap.olingo.jpa.metadata.core.edm.mapper.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
+
+/**
+ * Binary snapshot of the CSDL schemas of a service document. The snapshot is keyed by a hash over the byte code of all
+ * classes the schemas are derived from: the JPA managed types, the Java functions, actions and enumerations as well as
+ * the metadata post processor. The classes of the mapper, taken from its jar or class directory, are part of the hash as
+ * well.
+ * As long as none of them has changed, the schemas can be read from the snapshot instead of being built from the JPA
+ * metamodel.
+ * <p>
+ * Layout of a snapshot file:
+ * <ul>
+ * <li> Magic number and format version
+ * <li> Key
+ * <li> Schemas, see {@link IntermediateSnapshotWriter}
+ * </ul>
+ */
+final class IntermediateSnapshot {
+  static final int MAGIC = 0x4F4A4544;
+  static final int FORMAT_VERSION = 1;
+  static final int MAX_LIST_SIZE = 1 << 20;
+  // Kinds of annotation expressions
+  static final byte NO_EXPRESSION = 0;
+  static final byte CONSTANT = 1;
+  static final byte COLLECTION = 2;
+  static final byte RECORD = 3;
+  static final byte NULL = 4;
+  static final byte PATH = 5;
+  static final byte PROPERTY_PATH = 6;
+  static final byte NAVIGATION_PROPERTY_PATH = 7;
+  static final byte ANNOTATION_PATH = 8;
+  static final byte LABELED_ELEMENT_REFERENCE = 9;
+
+  private static final String HASH_ALGORITHM = "SHA-256";
+  // Only the classes of the mapper are taken, the jar may also contain the classes of the service
+  private static final String MAPPER_PACKAGE = "com/sap/olingo/jpa/metadata/";
+  // The byte code of a loaded class does not change, so it is hashed only once
+  private static final ClassValue<String> CLASS_HASH = new ClassValue<String>() {
+    @Override
+    protected String computeValue(final Class<?> modelClass) {
+      return hash(modelClass);
+    }
+  };
+
+  private IntermediateSnapshot() {
+    super();
+  }
+
+  private static final class MapperHash {
+    // The loaded mapper classes do not change, so its jar or class directory is hashed only once
+    private static final String VALUE = hash(determineMapperSource());
+
+    private MapperHash() {
+      super();
+    }
+  }
+
+  /**
+   * Creates the key of a snapshot.
+   * @param namespace Namespace of the service
+   * @param modelClasses Classes the schemas are derived from
+   * @return The key or null if the byte code of one of the classes is not available, so no snapshot can be used
+   */
+  static String createKey(final String namespace, final Collection<Class<?>> modelClasses) {
+    return createKeyWithMapperHash(namespace, modelClasses, MapperHash.VALUE);
+  }
+
+  /**
+   * Creates the key of a snapshot.
+   * @param namespace Namespace of the service
+   * @param modelClasses Classes the schemas are derived from
+   * @param mapperSource Jar or class directory of the mapper
+   * @return The key or null if the mapper source or the byte code of one of the classes is not available, so no
+   * snapshot can be used
+   */
+  static String createKey(final String namespace, final Collection<Class<?>> modelClasses, final Path mapperSource) {
+    return createKeyWithMapperHash(namespace, modelClasses, hash(mapperSource));
+  }
+
+  private static String createKeyWithMapperHash(final String namespace, final Collection<Class<?>> modelClasses,
+      final String mapperHash) {
+    // The mapper itself decides how the schemas look like. A mapper that has been rebuild at the same location must
+    // not use the snapshot of the old one, so its content is taken.
+    if (mapperHash == null)
+      return null;
+    try {
+      final MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+      updateDigest(digest, Integer.toString(FORMAT_VERSION));
+      updateDigest(digest, namespace);
+      updateDigest(digest, mapperHash);
+      final Map<String, Class<?>> sortedClasses = new TreeMap<>();
+      for (final Class<?> modelClass : modelClasses)
+        sortedClasses.put(modelClass.getName(), modelClass);
+      for (final Class<?> modelClass : sortedClasses.values()) {
+        final String classHash = CLASS_HASH.get(modelClass);
+        if (classHash == null)
+          return null;
+        updateDigest(digest, modelClass.getName());
+        updateDigest(digest, classHash);
+      }
+      return toHex(digest.digest());
+    } catch (NoSuchAlgorithmException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Reads the schemas from a snapshot.
+   * @return The schemas or null if the snapshot does not exist, has a different key or can not be read
+   */
+  static List<CsdlSchema> read(final Path snapshot, final String key) {
+    if (!Files.isRegularFile(snapshot))
+      return null;
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+      if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !key.equals(in.readUTF()))
+        return null;
+      return new IntermediateSnapshotReader(in).readSchemas();
+    } catch (IOException | IllegalArgumentException e) {
+      // A snapshot that can't be read gets replaced
+      return null;
+    }
+  }
+
+  /**
+   * Writes the schemas into a snapshot. The snapshot is written into a temporary file first, so a concurrent reader
+   * sees either the old or the new snapshot.
+   * @throws IOException
+   */
+  static void write(final Path snapshot, final String key, final List<CsdlSchema> schemas) throws IOException {
+    final Path directory = snapshot.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    final Path temp = Files.createTempFile(directory, snapshot.getFileName().toString(), ".tmp");
+    try {
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeUTF(key);
+        new IntermediateSnapshotWriter(out).writeSchemas(schemas);
+      }
+      Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * @return The jar or class directory the mapper is loaded from or null if it is not located in the file system, e.g.
+   * because the jar is nested into another archive
+   */
+  static Path determineMapperSource() {
+    final CodeSource source = IntermediateSnapshot.class.getProtectionDomain().getCodeSource();
+    if (source == null || source.getLocation() == null)
+      return null;
+    try {
+      return Paths.get(source.getLocation().toURI());
+    } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+      return null;
+    }
+  }
+
+  /**
+   * @return Hash over the mapper classes contained in a jar or a class directory or null if the source is neither a
+   * file nor a directory
+   */
+  static String hash(final Path source) {
+    if (source == null)
+      return null;
+    try {
+      final MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+      return updateDigest(digest, source) ? toHex(digest.digest()) : null;
+    } catch (NoSuchAlgorithmException | IOException e) {
+      return null;
+    }
+  }
+
+  private static void updateDigest(final MessageDigest digest, final String value) {
+    digest.update(value.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+  }
+
+  /**
+   * @return Hash over the byte code of a class or null if the byte code is not available
+   */
+  private static String hash(final Class<?> modelClass) {
+    final String resourceName = "/" + modelClass.getName().replace('.', '/') + ".class";
+    try (InputStream byteCode = modelClass.getResourceAsStream(resourceName)) {
+      if (byteCode == null)
+        return null;
+      final MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+      updateDigest(digest, byteCode);
+      return toHex(digest.digest());
+    } catch (NoSuchAlgorithmException | IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Adds the mapper classes of a jar or a class directory, in the order of their names. The entries of a jar are taken
+   * by their checksum, which is part of the directory of the jar, so they need not to be decompressed.
+   * @return false if the source is neither a file nor a directory
+   */
+  private static boolean updateDigest(final MessageDigest digest, final Path source) throws IOException {
+    if (Files.isRegularFile(source)) {
+      updateDigestByJar(digest, source);
+      return true;
+    }
+    if (!Files.isDirectory(source))
+      return false;
+    final Path mapperDirectory = source.resolve(MAPPER_PACKAGE);
+    if (!Files.isDirectory(mapperDirectory))
+      return true;
+    final List<Path> files = new ArrayList<>();
+    try (Stream<Path> content = Files.walk(mapperDirectory)) {
+      content.filter(Files::isRegularFile).forEach(files::add);
+    }
+    Collections.sort(files);
+    for (final Path file : files) {
+      updateDigest(digest, source.relativize(file).toString());
+      try (InputStream content = Files.newInputStream(file)) {
+        updateDigest(digest, content);
+      }
+    }
+    return true;
+  }
+
+  private static void updateDigestByJar(final MessageDigest digest, final Path source) throws IOException {
+    final Map<String, JarEntry> sortedEntries = new TreeMap<>();
+    try (JarFile jar = new JarFile(source.toFile())) {
+      for (final JarEntry entry : Collections.list(jar.entries()))
+        if (!entry.isDirectory() && entry.getName().startsWith(MAPPER_PACKAGE))
+          sortedEntries.put(entry.getName(), entry);
+    }
+    for (final JarEntry entry : sortedEntries.values()) {
+      updateDigest(digest, entry.getName());
+      updateDigest(digest, Long.toString(entry.getCrc()));
+      updateDigest(digest, Long.toString(entry.getSize()));
+    }
+  }
+
+  private static void updateDigest(final MessageDigest digest, final InputStream content) throws IOException {
+    final byte[] buffer = new byte[8192];
+    int length;
+    while ((length = content.read(buffer)) != -1)
+      digest.update(buffer, 0, length);
+  }
+
+  private static String toHex(final byte[] hash) {
+    final StringBuilder hex = new StringBuilder(hash.length * 2);
+    for (final byte b : hash)
+      hex.append(String.format("%02x", b));
+    return hex.toString();
+  }
+}
@@ -0,0 +1,463 @@
+package com.sap.olingo.jpa.metadata.core.edm.mapper.impl;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.olingo.commons.api.edm.geo.SRID;
+import org.apache.olingo.commons.api.edm.provider.CsdlAction;
+import org.apache.olingo.commons.api.edm.provider.CsdlActionImport;
+import org.apache.olingo.commons.api.edm.provider.CsdlAnnotation;
+import org.apache.olingo.commons.api.edm.provider.CsdlBindingTarget;
+import org.apache.olingo.commons.api.edm.provider.CsdlComplexType;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainer;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntitySet;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityType;
+import org.apache.olingo.commons.api.edm.provider.CsdlEnumMember;
+import org.apache.olingo.commons.api.edm.provider.CsdlEnumType;
+import org.apache.olingo.commons.api.edm.provider.CsdlFunction;
+import org.apache.olingo.commons.api.edm.provider.CsdlFunctionImport;
+import org.apache.olingo.commons.api.edm.provider.CsdlMapping;
+import org.apache.olingo.commons.api.edm.provider.CsdlNavigationProperty;
+import org.apache.olingo.commons.api.edm.provider.CsdlNavigationPropertyBinding;
+import org.apache.olingo.commons.api.edm.provider.CsdlOnDelete;
+import org.apache.olingo.commons.api.edm.provider.CsdlOnDeleteAction;
+import org.apache.olingo.commons.api.edm.provider.CsdlOperation;
+import org.apache.olingo.commons.api.edm.provider.CsdlParameter;
+import org.apache.olingo.commons.api.edm.provider.CsdlProperty;
+import org.apache.olingo.commons.api.edm.provider.CsdlPropertyRef;
+import org.apache.olingo.commons.api.edm.provider.CsdlReferentialConstraint;
+import org.apache.olingo.commons.api.edm.provider.CsdlReturnType;
+import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
+import org.apache.olingo.commons.api.edm.provider.CsdlSingleton;
+import org.apache.olingo.commons.api.edm.provider.CsdlStructuralType;
+import org.apache.olingo.commons.api.edm.provider.CsdlTerm;
+import org.apache.olingo.commons.api.edm.provider.CsdlTypeDefinition;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlAnnotationPath;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlCollection;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlConstantExpression;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlConstantExpression.ConstantExpressionType;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlExpression;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlLabeledElementReference;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlNavigationPropertyPath;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlNull;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlPath;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlPropertyPath;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlPropertyValue;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlRecord;
+
+/**
+ * Reads CSDL schemas written by {@link IntermediateSnapshotWriter}. The sequence of read operations has to be the same
+ * as the sequence of the write operations.
+ */
+final class IntermediateSnapshotReader {
+  private static final Class<?>[] PRIMITIVES = { boolean.class, byte.class, char.class, short.class, int.class,
+      long.class, float.class, double.class };
+  private final DataInputStream in;
+
+  IntermediateSnapshotReader(final DataInputStream in) {
+    super();
+    this.in = in;
+  }
+
+  List<CsdlSchema> readSchemas() throws IOException {
+    final List<CsdlSchema> schemas = createList(in.readInt());
+    for (int i = 0; schemas != null && i < schemas.size(); i++)
+      schemas.set(i, readSchema());
+    return schemas;
+  }
+
+  private CsdlSchema readSchema() throws IOException {
+    final CsdlSchema schema = new CsdlSchema();
+    schema.setNamespace(readString());
+    schema.setAlias(readString());
+    final List<CsdlEnumType> enumTypes = createList(in.readInt());
+    for (int i = 0; enumTypes != null && i < enumTypes.size(); i++)
+      enumTypes.set(i, readEnumType());
+    schema.setEnumTypes(enumTypes);
+    final List<CsdlTypeDefinition> typeDefinitions = createList(in.readInt());
+    for (int i = 0; typeDefinitions != null && i < typeDefinitions.size(); i++)
+      typeDefinitions.set(i, readTypeDefinition());
+    schema.setTypeDefinitions(typeDefinitions);
+    final List<CsdlComplexType> complexTypes = createList(in.readInt());
+    for (int i = 0; complexTypes != null && i < complexTypes.size(); i++)
+      complexTypes.set(i, readStructuralType(new CsdlComplexType()));
+    schema.setComplexTypes(complexTypes);
+    final List<CsdlEntityType> entityTypes = createList(in.readInt());
+    for (int i = 0; entityTypes != null && i < entityTypes.size(); i++)
+      entityTypes.set(i, readEntityType());
+    schema.setEntityTypes(entityTypes);
+    final List<CsdlFunction> functions = createList(in.readInt());
+    for (int i = 0; functions != null && i < functions.size(); i++) {
+      final CsdlFunction function = readOperation(new CsdlFunction());
+      function.setComposable(in.readBoolean());
+      functions.set(i, function);
+    }
+    schema.setFunctions(functions);
+    final List<CsdlAction> actions = createList(in.readInt());
+    for (int i = 0; actions != null && i < actions.size(); i++)
+      actions.set(i, readOperation(new CsdlAction()));
+    schema.setActions(actions);
+    final List<CsdlTerm> terms = createList(in.readInt());
+    for (int i = 0; terms != null && i < terms.size(); i++)
+      terms.set(i, readTerm());
+    schema.setTerms(terms);
+    schema.setAnnotations(readAnnotations());
+    if (in.readBoolean())
+      schema.setEntityContainer(readEntityContainer());
+    return schema;
+  }
+
+  private CsdlEnumType readEnumType() throws IOException {
+    final CsdlEnumType enumType = new CsdlEnumType();
+    enumType.setName(readString());
+    final String underlyingType = readString();
+    if (underlyingType != null)
+      enumType.setUnderlyingType(underlyingType);
+    enumType.setFlags(in.readBoolean());
+    final List<CsdlEnumMember> members = createList(in.readInt());
+    for (int i = 0; members != null && i < members.size(); i++) {
+      final CsdlEnumMember member = new CsdlEnumMember();
+      member.setName(readString());
+      member.setValue(readString());
+      member.setAnnotations(readAnnotations());
+      members.set(i, member);
+    }
+    enumType.setMembers(members);
+    enumType.setAnnotations(readAnnotations());
+    return enumType;
+  }
+
+  private CsdlTypeDefinition readTypeDefinition() throws IOException {
+    final CsdlTypeDefinition typeDefinition = new CsdlTypeDefinition();
+    typeDefinition.setName(readString());
+    final String underlyingType = readString();
+    if (underlyingType != null)
+      typeDefinition.setUnderlyingType(underlyingType);
+    typeDefinition.setMaxLength(readInteger());
+    typeDefinition.setPrecision(readInteger());
+    typeDefinition.setScale(readInteger());
+    typeDefinition.setUnicode(in.readBoolean());
+    typeDefinition.setSrid(readSrid());
+    typeDefinition.setAnnotations(readAnnotations());
+    return typeDefinition;
+  }
+
+  private CsdlEntityType readEntityType() throws IOException {
+    final CsdlEntityType entityType = readStructuralType(new CsdlEntityType());
+    entityType.setHasStream(in.readBoolean());
+    final List<CsdlPropertyRef> key = createList(in.readInt());
+    for (int i = 0; key != null && i < key.size(); i++) {
+      final CsdlPropertyRef propertyRef = new CsdlPropertyRef();
+      propertyRef.setName(readString());
+      propertyRef.setAlias(readString());
+      key.set(i, propertyRef);
+    }
+    entityType.setKey(key);
+    return entityType;
+  }
+
+  private <T extends CsdlStructuralType> T readStructuralType(final T type) throws IOException {
+    type.setName(readString());
+    final String baseType = readString();
+    if (baseType != null)
+      type.setBaseType(baseType);
+    type.setAbstract(in.readBoolean());
+    type.setOpenType(in.readBoolean());
+    final List<CsdlProperty> properties = createList(in.readInt());
+    for (int i = 0; properties != null && i < properties.size(); i++)
+      properties.set(i, readProperty());
+    type.setProperties(properties);
+    final List<CsdlNavigationProperty> navigationProperties = createList(in.readInt());
+    for (int i = 0; navigationProperties != null && i < navigationProperties.size(); i++)
+      navigationProperties.set(i, readNavigationProperty());
+    type.setNavigationProperties(navigationProperties);
+    type.setAnnotations(readAnnotations());
+    return type;
+  }
+
+  private CsdlProperty readProperty() throws IOException {
+    final CsdlProperty property = new CsdlProperty();
+    property.setName(readString());
+    final String type = readString();
+    if (type != null)
+      property.setType(type);
+    property.setCollection(in.readBoolean());
+    property.setMimeType(readString());
+    property.setDefaultValue(readString());
+    property.setNullable(in.readBoolean());
+    property.setMaxLength(readInteger());
+    property.setPrecision(readInteger());
+    property.setScale(readInteger());
+    property.setUnicode(in.readBoolean());
+    property.setSrid(readSrid());
+    property.setMapping(readMapping());
+    property.setAnnotations(readAnnotations());
+    return property;
+  }
+
+  private CsdlMapping readMapping() throws IOException {
+    if (!in.readBoolean())
+      return null;
+    final CsdlMapping mapping = new CsdlMapping();
+    mapping.setInternalName(readString());
+    final String mappedJavaClass = readString();
+    if (mappedJavaClass != null)
+      mapping.setMappedJavaClass(readClass(mappedJavaClass));
+    return mapping;
+  }
+
+  private Class<?> readClass(final String className) throws IOException {
+    for (final Class<?> primitive : PRIMITIVES)
+      if (primitive.getName().equals(className))
+        return primitive;
+    try {
+      return Class.forName(className, false, Thread.currentThread().getContextClassLoader());
+    } catch (ClassNotFoundException e) {
+      throw new IOException(e);
+    }
+  }
+
+  private CsdlNavigationProperty readNavigationProperty() throws IOException {
+    final CsdlNavigationProperty navigationProperty = new CsdlNavigationProperty();
+    navigationProperty.setName(readString());
+    final String type = readString();
+    if (type != null)
+      navigationProperty.setType(type);
+    navigationProperty.setCollection(in.readBoolean());
+    navigationProperty.setPartner(readString());
+    navigationProperty.setContainsTarget(in.readBoolean());
+    if (in.readBoolean())
+      navigationProperty.setNullable(in.readBoolean());
+    final List<CsdlReferentialConstraint> constraints = createList(in.readInt());
+    for (int i = 0; constraints != null && i < constraints.size(); i++) {
+      final CsdlReferentialConstraint constraint = new CsdlReferentialConstraint();
+      constraint.setProperty(readString());
+      constraint.setReferencedProperty(readString());
+      constraint.setAnnotations(readAnnotations());
+      constraints.set(i, constraint);
+    }
+    navigationProperty.setReferentialConstraints(constraints);
+    if (in.readBoolean()) {
+      final CsdlOnDelete onDelete = new CsdlOnDelete();
+      final String action = readString();
+      if (action != null)
+        onDelete.setAction(CsdlOnDeleteAction.valueOf(action));
+      onDelete.setAnnotations(readAnnotations());
+      navigationProperty.setOnDelete(onDelete);
+    }
+    navigationProperty.setAnnotations(readAnnotations());
+    return navigationProperty;
+  }
+
+  private <T extends CsdlOperation> T readOperation(final T operation) throws IOException {
+    operation.setName(readString());
+    operation.setBound(in.readBoolean());
+    operation.setEntitySetPath(readString());
+    final List<CsdlParameter> parameters = createList(in.readInt());
+    for (int i = 0; parameters != null && i < parameters.size(); i++)
+      parameters.set(i, readParameter());
+    operation.setParameters(parameters);
+    if (in.readBoolean()) {
+      final CsdlReturnType returnType = new CsdlReturnType();
+      final String type = readString();
+      if (type != null)
+        returnType.setType(type);
+      returnType.setCollection(in.readBoolean());
+      returnType.setNullable(in.readBoolean());
+      returnType.setMaxLength(readInteger());
+      returnType.setPrecision(readInteger());
+      returnType.setScale(readInteger());
+      returnType.setSrid(readSrid());
+      returnType.setAnnotations(readAnnotations());
+      operation.setReturnType(returnType);
+    }
+    operation.setAnnotations(readAnnotations());
+    return operation;
+  }
+
+  private CsdlParameter readParameter() throws IOException {
+    final CsdlParameter parameter = new CsdlParameter();
+    parameter.setName(readString());
+    final String type = readString();
+    if (type != null)
+      parameter.setType(type);
+    parameter.setCollection(in.readBoolean());
+    parameter.setNullable(in.readBoolean());
+    parameter.setMaxLength(readInteger());
+    parameter.setPrecision(readInteger());
+    parameter.setScale(readInteger());
+    parameter.setSrid(readSrid());
+    parameter.setAnnotations(readAnnotations());
+    return parameter;
+  }
+
+  private CsdlTerm readTerm() throws IOException {
+    final CsdlTerm term = new CsdlTerm();
+    term.setName(readString());
+    term.setType(readString());
+    term.setBaseTerm(readString());
+    final List<String> appliesTo = createList(in.readInt());
+    for (int i = 0; appliesTo != null && i < appliesTo.size(); i++)
+      appliesTo.set(i, readString());
+    term.setAppliesTo(appliesTo);
+    term.setDefaultValue(readString());
+    term.setNullable(in.readBoolean());
+    term.setMaxLength(readInteger());
+    term.setPrecision(readInteger());
+    term.setScale(readInteger());
+    term.setSrid(readSrid());
+    term.setAnnotations(readAnnotations());
+    return term;
+  }
+
+  private CsdlEntityContainer readEntityContainer() throws IOException {
+    final CsdlEntityContainer container = new CsdlEntityContainer();
+    container.setName(readString());
+    final String extendsContainer = readString();
+    if (extendsContainer != null)
+      container.setExtendsContainer(extendsContainer);
+    final List<CsdlEntitySet> entitySets = createList(in.readInt());
+    for (int i = 0; entitySets != null && i < entitySets.size(); i++) {
+      final CsdlEntitySet entitySet = readBindingTarget(new CsdlEntitySet());
+      entitySet.setIncludeInServiceDocument(in.readBoolean());
+      entitySets.set(i, entitySet);
+    }
+    container.setEntitySets(entitySets);
+    final List<CsdlSingleton> singletons = createList(in.readInt());
+    for (int i = 0; singletons != null && i < singletons.size(); i++)
+      singletons.set(i, readBindingTarget(new CsdlSingleton()));
+    container.setSingletons(singletons);
+    final List<CsdlFunctionImport> functionImports = createList(in.readInt());
+    for (int i = 0; functionImports != null && i < functionImports.size(); i++) {
+      final CsdlFunctionImport functionImport = new CsdlFunctionImport();
+      functionImport.setName(readString());
+      final String function = readString();
+      if (function != null)
+        functionImport.setFunction(function);
+      functionImport.setEntitySet(readString());
+      functionImport.setIncludeInServiceDocument(in.readBoolean());
+      functionImport.setTitle(readString());
+      functionImport.setAnnotations(readAnnotations());
+      functionImports.set(i, functionImport);
+    }
+    container.setFunctionImports(functionImports);
+    final List<CsdlActionImport> actionImports = createList(in.readInt());
+    for (int i = 0; actionImports != null && i < actionImports.size(); i++) {
+      final CsdlActionImport actionImport = new CsdlActionImport();
+      actionImport.setName(readString());
+      final String action = readString();
+      if (action != null)
+        actionImport.setAction(action);
+      actionImport.setEntitySet(readString());
+      actionImport.setAnnotations(readAnnotations());
+      actionImports.set(i, actionImport);
+    }
+    container.setActionImports(actionImports);
+    container.setAnnotations(readAnnotations());
+    return container;
+  }
+
+  private <T extends CsdlBindingTarget> T readBindingTarget(final T target) throws IOException {
+    target.setName(readString());
+    final String type = readString();
+    if (type != null)
+      target.setType(type);
+    target.setTitle(readString());
+    final List<CsdlNavigationPropertyBinding> bindings = createList(in.readInt());
+    for (int i = 0; bindings != null && i < bindings.size(); i++) {
+      final CsdlNavigationPropertyBinding binding = new CsdlNavigationPropertyBinding();
+      binding.setPath(readString());
+      binding.setTarget(readString());
+      bindings.set(i, binding);
+    }
+    target.setNavigationPropertyBindings(bindings);
+    target.setAnnotations(readAnnotations());
+    return target;
+  }
+
+  private List<CsdlAnnotation> readAnnotations() throws IOException {
+    final List<CsdlAnnotation> annotations = createList(in.readInt());
+    for (int i = 0; annotations != null && i < annotations.size(); i++) {
+      final CsdlAnnotation annotation = new CsdlAnnotation();
+      annotation.setTerm(readString());
+      annotation.setQualifier(readString());
+      annotation.setExpression(readExpression());
+      annotation.setAnnotations(readAnnotations());
+      annotations.set(i, annotation);
+    }
+    return annotations;
+  }
+
+  private CsdlExpression readExpression() throws IOException {
+    final byte kind = in.readByte();
+    switch (kind) {
+    case IntermediateSnapshot.NO_EXPRESSION:
+      return null;
+    case IntermediateSnapshot.CONSTANT:
+      final String type = readString();
+      return new CsdlConstantExpression(ConstantExpressionType.valueOf(type), readString());
+    case IntermediateSnapshot.COLLECTION:
+      final List<CsdlExpression> items = createList(in.readInt());
+      for (int i = 0; items != null && i < items.size(); i++)
+        items.set(i, readExpression());
+      return new CsdlCollection().setItems(items);
+    case IntermediateSnapshot.RECORD:
+      final CsdlRecord record = new CsdlRecord();
+      record.setType(readString());
+      final List<CsdlPropertyValue> values = createList(in.readInt());
+      for (int i = 0; values != null && i < values.size(); i++) {
+        final CsdlPropertyValue value = new CsdlPropertyValue();
+        value.setProperty(readString());
+        value.setValue(readExpression());
+        value.setAnnotations(readAnnotations());
+        values.set(i, value);
+      }
+      record.setPropertyValues(values);
+      return record.setAnnotations(readAnnotations());
+    case IntermediateSnapshot.NULL:
+      return new CsdlNull().setAnnotations(readAnnotations());
+    case IntermediateSnapshot.PATH:
+      return new CsdlPath().setValue(readString());
+    case IntermediateSnapshot.PROPERTY_PATH:
+      return new CsdlPropertyPath().setValue(readString());
+    case IntermediateSnapshot.NAVIGATION_PROPERTY_PATH:
+      return new CsdlNavigationPropertyPath().setValue(readString());
+    case IntermediateSnapshot.ANNOTATION_PATH:
+      return new CsdlAnnotationPath().setValue(readString());
+    case IntermediateSnapshot.LABELED_ELEMENT_REFERENCE:
+      return new CsdlLabeledElementReference().setValue(readString());
+    default:
+      throw new IOException("Unknown expression kind " + kind);
+    }
+  }
+
+  /**
+   * Creates a list with the given number of empty entries
+   * @param size Number of entries or -1 if the list was not set
+   */
+  private <T> List<T> createList(final int size) throws IOException {
+    if (size < 0)
+      return null;
+    if (size > IntermediateSnapshot.MAX_LIST_SIZE)
+      throw new IOException("List size " + size + " exceeds limit");
+    final List<T> list = new ArrayList<>(size);
+    for (int i = 0; i < size; i++)
+      list.add(null);
+    return list;
+  }
+
+  private String readString() throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  private Integer readInteger() throws IOException {
+    return in.readBoolean() ? Integer.valueOf(in.readInt()) : null;
+  }
+
+  private SRID readSrid() throws IOException {
+    final String srid = readString();
+    return srid == null ? null : SRID.valueOf(srid);
+  }
+}
@@ -0,0 +1,374 @@
+package com.sap.olingo.jpa.metadata.core.edm.mapper.impl;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.olingo.commons.api.edm.geo.SRID;
+import org.apache.olingo.commons.api.edm.provider.CsdlAction;
+import org.apache.olingo.commons.api.edm.provider.CsdlActionImport;
+import org.apache.olingo.commons.api.edm.provider.CsdlAnnotation;
+import org.apache.olingo.commons.api.edm.provider.CsdlBindingTarget;
+import org.apache.olingo.commons.api.edm.provider.CsdlComplexType;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainer;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntitySet;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityType;
+import org.apache.olingo.commons.api.edm.provider.CsdlEnumMember;
+import org.apache.olingo.commons.api.edm.provider.CsdlEnumType;
+import org.apache.olingo.commons.api.edm.provider.CsdlFunction;
+import org.apache.olingo.commons.api.edm.provider.CsdlFunctionImport;
+import org.apache.olingo.commons.api.edm.provider.CsdlMapping;
+import org.apache.olingo.commons.api.edm.provider.CsdlNavigationProperty;
+import org.apache.olingo.commons.api.edm.provider.CsdlNavigationPropertyBinding;
+import org.apache.olingo.commons.api.edm.provider.CsdlOperation;
+import org.apache.olingo.commons.api.edm.provider.CsdlParameter;
+import org.apache.olingo.commons.api.edm.provider.CsdlProperty;
+import org.apache.olingo.commons.api.edm.provider.CsdlPropertyRef;
+import org.apache.olingo.commons.api.edm.provider.CsdlReferentialConstraint;
+import org.apache.olingo.commons.api.edm.provider.CsdlReturnType;
+import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
+import org.apache.olingo.commons.api.edm.provider.CsdlSingleton;
+import org.apache.olingo.commons.api.edm.provider.CsdlStructuralType;
+import org.apache.olingo.commons.api.edm.provider.CsdlTerm;
+import org.apache.olingo.commons.api.edm.provider.CsdlTypeDefinition;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlAnnotationPath;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlCollection;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlConstantExpression;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlExpression;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlLabeledElementReference;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlNavigationPropertyPath;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlNull;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlPath;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlPropertyPath;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlPropertyValue;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlRecord;
+
+/**
+ * Writes CSDL schemas in the binary format read by {@link IntermediateSnapshotReader}. Optional values are preceded by
+ * a presence flag, lists by their size, where -1 stands for a list that is not set.
+ * <p>
+ * Only the CSDL elements the mapper creates or a post processor can add are supported. In case an element is
+ * found that can't be written, e.g. a mapping or an unsupported annotation expression, an IOException is thrown and no
+ * snapshot shall be created.
+ */
+final class IntermediateSnapshotWriter {
+  private final DataOutputStream out;
+
+  IntermediateSnapshotWriter(final DataOutputStream out) {
+    super();
+    this.out = out;
+  }
+
+  void writeSchemas(final List<CsdlSchema> schemas) throws IOException {
+    out.writeInt(schemas.size());
+    for (final CsdlSchema schema : schemas)
+      writeSchema(schema);
+  }
+
+  private void writeSchema(final CsdlSchema schema) throws IOException {
+    writeString(schema.getNamespace());
+    writeString(schema.getAlias());
+    if (writeSize(schema.getEnumTypes()))
+      for (final CsdlEnumType enumType : schema.getEnumTypes())
+        writeEnumType(enumType);
+    if (writeSize(schema.getTypeDefinitions()))
+      for (final CsdlTypeDefinition typeDefinition : schema.getTypeDefinitions())
+        writeTypeDefinition(typeDefinition);
+    if (writeSize(schema.getComplexTypes()))
+      for (final CsdlComplexType complexType : schema.getComplexTypes())
+        writeStructuralType(complexType);
+    if (writeSize(schema.getEntityTypes()))
+      for (final CsdlEntityType entityType : schema.getEntityTypes())
+        writeEntityType(entityType);
+    if (writeSize(schema.getFunctions()))
+      for (final CsdlFunction function : schema.getFunctions()) {
+        writeOperation(function);
+        out.writeBoolean(function.isComposable());
+      }
+    if (writeSize(schema.getActions()))
+      for (final CsdlAction action : schema.getActions())
+        writeOperation(action);
+    if (writeSize(schema.getTerms()))
+      for (final CsdlTerm term : schema.getTerms())
+        writeTerm(term);
+    if (schema.getAnnotationGroups() != null && !schema.getAnnotationGroups().isEmpty())
+      throw new IOException("Annotation groups are not supported");
+    writeAnnotations(schema.getAnnotations());
+    out.writeBoolean(schema.getEntityContainer() != null);
+    if (schema.getEntityContainer() != null)
+      writeEntityContainer(schema.getEntityContainer());
+  }
+
+  private void writeEnumType(final CsdlEnumType enumType) throws IOException {
+    writeString(enumType.getName());
+    writeString(enumType.getUnderlyingType());
+    out.writeBoolean(enumType.isFlags());
+    if (writeSize(enumType.getMembers()))
+      for (final CsdlEnumMember member : enumType.getMembers()) {
+        writeString(member.getName());
+        writeString(member.getValue());
+        writeAnnotations(member.getAnnotations());
+      }
+    writeAnnotations(enumType.getAnnotations());
+  }
+
+  private void writeTypeDefinition(final CsdlTypeDefinition typeDefinition) throws IOException {
+    writeString(typeDefinition.getName());
+    writeString(typeDefinition.getUnderlyingType());
+    writeInteger(typeDefinition.getMaxLength());
+    writeInteger(typeDefinition.getPrecision());
+    writeInteger(typeDefinition.getScale());
+    out.writeBoolean(typeDefinition.isUnicode());
+    writeSrid(typeDefinition.getSrid());
+    writeAnnotations(typeDefinition.getAnnotations());
+  }
+
+  private void writeEntityType(final CsdlEntityType entityType) throws IOException {
+    writeStructuralType(entityType);
+    out.writeBoolean(entityType.hasStream());
+    if (writeSize(entityType.getKey()))
+      for (final CsdlPropertyRef propertyRef : entityType.getKey()) {
+        writeString(propertyRef.getName());
+        writeString(propertyRef.getAlias());
+      }
+  }
+
+  private void writeStructuralType(final CsdlStructuralType type) throws IOException {
+    writeString(type.getName());
+    writeString(type.getBaseType());
+    out.writeBoolean(type.isAbstract());
+    out.writeBoolean(type.isOpenType());
+    if (writeSize(type.getProperties()))
+      for (final CsdlProperty property : type.getProperties())
+        writeProperty(property);
+    if (writeSize(type.getNavigationProperties()))
+      for (final CsdlNavigationProperty navigationProperty : type.getNavigationProperties())
+        writeNavigationProperty(navigationProperty);
+    writeAnnotations(type.getAnnotations());
+  }
+
+  private void writeProperty(final CsdlProperty property) throws IOException {
+    writeString(property.getName());
+    writeString(property.getType());
+    out.writeBoolean(property.isCollection());
+    writeString(property.getMimeType());
+    writeString(property.getDefaultValue());
+    out.writeBoolean(property.isNullable());
+    writeInteger(property.getMaxLength());
+    writeInteger(property.getPrecision());
+    writeInteger(property.getScale());
+    out.writeBoolean(property.isUnicode());
+    writeSrid(property.getSrid());
+    writeMapping(property.getMapping());
+    writeAnnotations(property.getAnnotations());
+  }
+
+  private void writeMapping(final CsdlMapping mapping) throws IOException {
+    out.writeBoolean(mapping != null);
+    if (mapping != null) {
+      writeString(mapping.getInternalName());
+      writeString(mapping.getMappedJavaClass() == null ? null : mapping.getMappedJavaClass().getName());
+    }
+  }
+
+  private void writeNavigationProperty(final CsdlNavigationProperty navigationProperty) throws IOException {
+    writeString(navigationProperty.getName());
+    writeString(navigationProperty.getType());
+    out.writeBoolean(navigationProperty.isCollection());
+    writeString(navigationProperty.getPartner());
+    out.writeBoolean(navigationProperty.isContainsTarget());
+    out.writeBoolean(navigationProperty.isNullable() != null);
+    if (navigationProperty.isNullable() != null)
+      out.writeBoolean(navigationProperty.isNullable());
+    if (writeSize(navigationProperty.getReferentialConstraints()))
+      for (final CsdlReferentialConstraint constraint : navigationProperty.getReferentialConstraints()) {
+        writeString(constraint.getProperty());
+        writeString(constraint.getReferencedProperty());
+        writeAnnotations(constraint.getAnnotations());
+      }
+    out.writeBoolean(navigationProperty.getOnDelete() != null);
+    if (navigationProperty.getOnDelete() != null) {
+      writeString(navigationProperty.getOnDelete().getAction() == null ? null : navigationProperty.getOnDelete()
+          .getAction().name());
+      writeAnnotations(navigationProperty.getOnDelete().getAnnotations());
+    }
+    writeAnnotations(navigationProperty.getAnnotations());
+  }
+
+  private void writeOperation(final CsdlOperation operation) throws IOException {
+    writeString(operation.getName());
+    out.writeBoolean(operation.isBound());
+    writeString(operation.getEntitySetPath());
+    if (writeSize(operation.getParameters()))
+      for (final CsdlParameter parameter : operation.getParameters())
+        writeParameter(parameter);
+    final CsdlReturnType returnType = operation.getReturnType();
+    out.writeBoolean(returnType != null);
+    if (returnType != null) {
+      writeString(returnType.getType());
+      out.writeBoolean(returnType.isCollection());
+      out.writeBoolean(returnType.isNullable());
+      writeInteger(returnType.getMaxLength());
+      writeInteger(returnType.getPrecision());
+      writeInteger(returnType.getScale());
+      writeSrid(returnType.getSrid());
+      writeAnnotations(returnType.getAnnotations());
+    }
+    writeAnnotations(operation.getAnnotations());
+  }
+
+  private void writeParameter(final CsdlParameter parameter) throws IOException {
+    if (parameter.getMapping() != null)
+      throw new IOException("Mapping of parameter " + parameter.getName() + " is not supported");
+    writeString(parameter.getName());
+    writeString(parameter.getType());
+    out.writeBoolean(parameter.isCollection());
+    out.writeBoolean(parameter.isNullable());
+    writeInteger(parameter.getMaxLength());
+    writeInteger(parameter.getPrecision());
+    writeInteger(parameter.getScale());
+    writeSrid(parameter.getSrid());
+    writeAnnotations(parameter.getAnnotations());
+  }
+
+  private void writeTerm(final CsdlTerm term) throws IOException {
+    writeString(term.getName());
+    writeString(term.getType());
+    writeString(term.getBaseTerm());
+    if (writeSize(term.getAppliesTo()))
+      for (final String appliesTo : term.getAppliesTo())
+        writeString(appliesTo);
+    writeString(term.getDefaultValue());
+    out.writeBoolean(term.isNullable());
+    writeInteger(term.getMaxLength());
+    writeInteger(term.getPrecision());
+    writeInteger(term.getScale());
+    writeSrid(term.getSrid());
+    writeAnnotations(term.getAnnotations());
+  }
+
+  private void writeEntityContainer(final CsdlEntityContainer container) throws IOException {
+    writeString(container.getName());
+    writeString(container.getExtendsContainer());
+    if (writeSize(container.getEntitySets()))
+      for (final CsdlEntitySet entitySet : container.getEntitySets()) {
+        writeBindingTarget(entitySet);
+        out.writeBoolean(entitySet.isIncludeInServiceDocument());
+      }
+    if (writeSize(container.getSingletons()))
+      for (final CsdlSingleton singleton : container.getSingletons())
+        writeBindingTarget(singleton);
+    if (writeSize(container.getFunctionImports()))
+      for (final CsdlFunctionImport functionImport : container.getFunctionImports()) {
+        writeString(functionImport.getName());
+        writeString(functionImport.getFunction());
+        writeString(functionImport.getEntitySet());
+        out.writeBoolean(functionImport.isIncludeInServiceDocument());
+        writeString(functionImport.getTitle());
+        writeAnnotations(functionImport.getAnnotations());
+      }
+    if (writeSize(container.getActionImports()))
+      for (final CsdlActionImport actionImport : container.getActionImports()) {
+        writeString(actionImport.getName());
+        writeString(actionImport.getAction());
+        writeString(actionImport.getEntitySet());
+        writeAnnotations(actionImport.getAnnotations());
+      }
+    writeAnnotations(container.getAnnotations());
+  }
+
+  private void writeBindingTarget(final CsdlBindingTarget target) throws IOException {
+    if (target.getMapping() != null)
+      throw new IOException("Mapping of " + target.getName() + " is not supported");
+    writeString(target.getName());
+    writeString(target.getType());
+    writeString(target.getTitle());
+    if (writeSize(target.getNavigationPropertyBindings()))
+      for (final CsdlNavigationPropertyBinding binding : target.getNavigationPropertyBindings()) {
+        writeString(binding.getPath());
+        writeString(binding.getTarget());
+      }
+    writeAnnotations(target.getAnnotations());
+  }
+
+  private void writeAnnotations(final List<CsdlAnnotation> annotations) throws IOException {
+    if (writeSize(annotations))
+      for (final CsdlAnnotation annotation : annotations) {
+        writeString(annotation.getTerm());
+        writeString(annotation.getQualifier());
+        writeExpression(annotation.getExpression());
+        writeAnnotations(annotation.getAnnotations());
+      }
+  }
+
+  private void writeExpression(final CsdlExpression expression) throws IOException {
+    if (expression == null) {
+      out.writeByte(IntermediateSnapshot.NO_EXPRESSION);
+    } else if (expression instanceof CsdlConstantExpression) {
+      out.writeByte(IntermediateSnapshot.CONSTANT);
+      writeString(((CsdlConstantExpression) expression).getType().name());
+      writeString(((CsdlConstantExpression) expression).getValue());
+    } else if (expression instanceof CsdlCollection) {
+      out.writeByte(IntermediateSnapshot.COLLECTION);
+      final List<CsdlExpression> items = ((CsdlCollection) expression).getItems();
+      if (writeSize(items))
+        for (final CsdlExpression item : items)
+          writeExpression(item);
+    } else if (expression instanceof CsdlRecord) {
+      out.writeByte(IntermediateSnapshot.RECORD);
+      writeString(((CsdlRecord) expression).getType());
+      final List<CsdlPropertyValue> values = ((CsdlRecord) expression).getPropertyValues();
+      if (writeSize(values))
+        for (final CsdlPropertyValue value : values) {
+          writeString(value.getProperty());
+          writeExpression(value.getValue());
+          writeAnnotations(value.getAnnotations());
+        }
+      writeAnnotations(((CsdlRecord) expression).getAnnotations());
+    } else if (expression instanceof CsdlNull) {
+      out.writeByte(IntermediateSnapshot.NULL);
+      writeAnnotations(((CsdlNull) expression).getAnnotations());
+    } else if (expression instanceof CsdlPath) {
+      out.writeByte(IntermediateSnapshot.PATH);
+      writeString(((CsdlPath) expression).getValue());
+    } else if (expression instanceof CsdlPropertyPath) {
+      out.writeByte(IntermediateSnapshot.PROPERTY_PATH);
+      writeString(((CsdlPropertyPath) expression).getValue());
+    } else if (expression instanceof CsdlNavigationPropertyPath) {
+      out.writeByte(IntermediateSnapshot.NAVIGATION_PROPERTY_PATH);
+      writeString(((CsdlNavigationPropertyPath) expression).getValue());
+    } else if (expression instanceof CsdlAnnotationPath) {
+      out.writeByte(IntermediateSnapshot.ANNOTATION_PATH);
+      writeString(((CsdlAnnotationPath) expression).getValue());
+    } else if (expression instanceof CsdlLabeledElementReference) {
+      out.writeByte(IntermediateSnapshot.LABELED_ELEMENT_REFERENCE);
+      writeString(((CsdlLabeledElementReference) expression).getValue());
+    } else {
+      throw new IOException("Expression " + expression.getClass().getSimpleName() + " is not supported");
+    }
+  }
+
+  /**
+   * @return true if the list has entries that have to be written
+   */
+  private boolean writeSize(final List<?> list) throws IOException {
+    out.writeInt(list == null ? -1 : list.size());
+    return list != null && !list.isEmpty();
+  }
+
+  private void writeString(final String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null)
+      out.writeUTF(value);
+  }
+
+  private void writeInteger(final Integer value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null)
+      out.writeInt(value);
+  }
+
+  private void writeSrid(final SRID srid) throws IOException {
+    writeString(srid == null ? null : srid.toString());
+  }
+}
@@ -2,6 +2,7 @@ package com.sap.olingo.jpa.metadata.core.edm.mapper.impl;
 
 import java.lang.reflect.AnnotatedElement;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -37,21 +38,20 @@ abstract class IntermediateStructuredType extends IntermediateModelElement imple
 // 
   protected final Map<String, IntermediateProperty> declaredPropertiesList;
   protected final Map<String, IntermediateNavigationProperty> declaredNaviPropertiesList;
-  protected final Map<String, JPAPathImpl> resolvedPathMap;
-  protected final Map<String, JPAPathImpl> intermediatePathMap;
-  protected final Map<String, JPAAssociationPathImpl> resolvedAssociationPathMap;
+  // Path maps are build once and published as immutable maps, so they can be read without locking
+  protected volatile Map<String, JPAPathImpl> resolvedPathMap;
+  protected volatile Map<String, JPAPathImpl> intermediatePathMap;
+  protected volatile Map<String, JPAAssociationPathImpl> resolvedAssociationPathMap;
   protected final ManagedType<?> jpaManagedType;
   protected final IntermediateSchema schema;
+  private volatile boolean intermediateModelBuild;
 
   IntermediateStructuredType(final JPAEdmNameBuilder nameBuilder, final ManagedType<?> jpaManagedType,
       final IntermediateSchema schema) {
 
     super(nameBuilder, IntNameBuilder.buildStructuredTypeName(jpaManagedType.getJavaType()));
     this.declaredPropertiesList = new HashMap<>();
-    this.resolvedPathMap = new HashMap<>();
-    this.intermediatePathMap = new HashMap<>();
     this.declaredNaviPropertiesList = new HashMap<>();
-    this.resolvedAssociationPathMap = new HashMap<>();
     this.jpaManagedType = jpaManagedType;
     this.schema = schema;
     determineIgnore();
@@ -86,7 +86,7 @@ abstract class IntermediateStructuredType extends IntermediateModelElement imple
 
   @Override
   public JPAAttribute getAttribute(final String internalName) throws ODataJPAModelException {
-    lazyBuildEdmItem();
+    lazyBuildIntermediateModel();
     JPAAttribute result = declaredPropertiesList.get(internalName);
     if (result == null && getBaseType() != null)
       result = getBaseType().getAttribute(internalName);
@@ -97,7 +97,7 @@ abstract class IntermediateStructuredType extends IntermediateModelElement imple
 
   @Override
   public List<JPAAttribute> getAttributes() throws ODataJPAModelException {
-    lazyBuildEdmItem();
+    lazyBuildIntermediateModel();
     final List<JPAAttribute> result = new ArrayList<>();
     for (final Entry<String, IntermediateProperty> property : declaredPropertiesList.entrySet()) {
       final IntermediateProperty attribute = property.getValue();
@@ -288,7 +288,7 @@ abstract class IntermediateStructuredType extends IntermediateModelElement imple
   }
 
   List<JPAAttribute> getAssociations() throws ODataJPAModelException {
-    lazyBuildEdmItem();
+    lazyBuildIntermediateModel();
     final List<JPAAttribute> jpaAttributes = new ArrayList<>();
     for (final Entry<String, IntermediateNavigationProperty> naviProperty : declaredNaviPropertiesList.entrySet()) {
       final IntermediateNavigationProperty property = naviProperty.getValue();
@@ -311,6 +311,33 @@ abstract class IntermediateStructuredType extends IntermediateModelElement imple
   @Override
   abstract CsdlStructuralType getEdmItem() throws ODataJPAModelException;
 
+  /**
+   * Resolves all lazily build structures of the type that are needed to access the JPA model, so that afterwards the
+   * type is only read. The CSDL type is not build, see {@link #getEdmItem()}.
+   * @throws ODataJPAModelException
+   */
+  void freeze() throws ODataJPAModelException {
+    lazyBuildIntermediateModel();
+    lazyBuildCompleteAssociationPathMap();
+  }
+
+  /**
+   * Builds the properties and navigation properties of the type. In contrast to {@link #getEdmItem()} no CSDL is
+   * created, which is not needed to access the JPA model, e.g. to create a query.
+   * @throws ODataJPAModelException
+   */
+  void lazyBuildIntermediateModel() throws ODataJPAModelException {
+    if (!intermediateModelBuild) {
+      buildIntermediateModel();
+      intermediateModelBuild = true;
+    }
+  }
+
+  protected void buildIntermediateModel() throws ODataJPAModelException {
+    buildPropertyList();
+    buildNaviPropertyList();
+  }
+
   Map<String, JPAPathImpl> getIntermediatePathMap() throws ODataJPAModelException {
     lazyBuildCompletePathMap();
     return intermediatePathMap;
@@ -362,7 +389,7 @@ abstract class IntermediateStructuredType extends IntermediateModelElement imple
    * @throws ODataJPAModelException
    */
   IntermediateProperty getProperty(final String internalName) throws ODataJPAModelException {
-    lazyBuildEdmItem();
+    lazyBuildIntermediateModel();
     IntermediateProperty result = declaredPropertiesList.get(internalName);
     if (result == null && getBaseType() != null)
       result = getBaseType().getProperty(internalName);
@@ -377,7 +404,7 @@ abstract class IntermediateStructuredType extends IntermediateModelElement imple
    * @throws ODataJPAModelException
    */
   IntermediateModelElement getPropertyByDBField(final String dbFieldName) throws ODataJPAModelException {
-    buildPropertyList();
+    lazyBuildIntermediateModel();
     for (final Entry<String, IntermediateProperty> declaredProperty : declaredPropertiesList.entrySet()) {
       final IntermediateProperty property = declaredProperty.getValue();
       if (property.isComplex()) {
@@ -479,10 +506,11 @@ abstract class IntermediateStructuredType extends IntermediateModelElement imple
     JPAAssociationPathImpl associationPath;
     lazyBuildCompletePathMap();
     // TODO check if ignore has to be handled
-    if (resolvedAssociationPathMap.size() == 0) {
+    if (resolvedAssociationPathMap == null) {
+      final Map<String, JPAAssociationPathImpl> associationPathMap = new HashMap<>();
       for (final JPAAttribute association : getAssociations()) {
         associationPath = new JPAAssociationPathImpl((IntermediateNavigationProperty) association, this);
-        resolvedAssociationPathMap.put(associationPath.getAlias(), associationPath);
+        associationPathMap.put(associationPath.getAlias(), associationPath);
       }
 
       for (final String key : this.intermediatePathMap.keySet()) {
@@ -495,29 +523,32 @@ abstract class IntermediateStructuredType extends IntermediateModelElement imple
           for (final JPAAssociationPath association : is.getAssociationPathList()) {
             associationPath = new JPAAssociationPathImpl(nameBuilder, association,
                 this, determineJoinColumns(property, association), property);
-            resolvedAssociationPathMap.put(associationPath.getAlias(), associationPath);
+            associationPathMap.put(associationPath.getAlias(), associationPath);
           }
         }
       }
+      resolvedAssociationPathMap = Collections.unmodifiableMap(associationPathMap);
     }
   }
 
   private void lazyBuildCompletePathMap() throws ODataJPAModelException {
     ArrayList<JPAElement> pathList;
 
-    lazyBuildEdmItem();
-    if (resolvedPathMap.size() == 0) {
+    lazyBuildIntermediateModel();
+    if (resolvedPathMap == null) {
+      final Map<String, JPAPathImpl> resolvedPaths = new HashMap<>();
+      final Map<String, JPAPathImpl> intermediatePaths = new HashMap<>();
       for (final Entry<String, IntermediateProperty> propertyEntity : declaredPropertiesList.entrySet()) {
         final IntermediateProperty property = propertyEntity.getValue();
         if (property.isComplex()) {
-          intermediatePathMap.put(property.getExternalName(),
+          intermediatePaths.put(property.getExternalName(),
               new JPAPathImpl(property.getExternalName(), null, property));
           final Map<String, JPAPathImpl> intermediatePath = ((IntermediateStructuredType) property
               .getStructuredType()).getIntermediatePathMap();
           for (final Entry<String, JPAPathImpl> path : intermediatePath.entrySet()) {
             pathList = new ArrayList<>(path.getValue().getPath());
             pathList.add(0, property);
-            intermediatePathMap.put(nameBuilder.buildPath(property.getExternalName(), path.getKey()),
+            intermediatePaths.put(nameBuilder.buildPath(property.getExternalName(), path.getKey()),
                 new JPAPathImpl(nameBuilder.buildPath(property.getExternalName(),
                     path.getKey()), null, pathList));
           }
@@ -536,19 +567,22 @@ abstract class IntermediateStructuredType extends IntermediateModelElement imple
               newPath = new JPAPathImpl(nameBuilder.buildPath(property.getExternalName(), path.getKey()),
                   determineDBFieldName(property, path.getValue()), pathList);
             }
-            resolvedPathMap.put(newPath.getAlias(), newPath);
+            resolvedPaths.put(newPath.getAlias(), newPath);
 
           }
         } else {
-          resolvedPathMap.put(property.getExternalName(), new JPAPathImpl(property.getExternalName(), property
+          resolvedPaths.put(property.getExternalName(), new JPAPathImpl(property.getExternalName(), property
               .getDBFieldName(), property));
         }
       }
       final IntermediateStructuredType baseType = getBaseType();
       if (baseType != null) {
-        resolvedPathMap.putAll(baseType.getResolvedPathMap());
-        intermediatePathMap.putAll(baseType.getIntermediatePathMap());
+        resolvedPaths.putAll(baseType.getResolvedPathMap());
+        intermediatePaths.putAll(baseType.getIntermediatePathMap());
       }
+      // The resolved paths are published last, as they indicate that the maps are build
+      intermediatePathMap = Collections.unmodifiableMap(intermediatePaths);
+      resolvedPathMap = Collections.unmodifiableMap(resolvedPaths);
     }
   }
 }
\ No newline at end of file
@@ -0,0 +1,124 @@
+package com.sap.olingo.jpa.metadata.core.edm.mapper.impl;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+
+import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmParameter;
+import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmStateless;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAJavaOperationInvoker;
+
+/**
+ * The method handles are created with the first call, so an operation that can not be accessed fails at the call, as
+ * it did with reflection, and not when the metadata are build. The handles are adapted to a generic type, which allows
+ * calling them exactly without boxing the parameter array again.
+ */
+public final class JPAJavaOperationInvokerImpl implements JPAJavaOperationInvoker {
+  private static final MethodType METHOD_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+  private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+  private static final MethodType EM_CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, EntityManager.class);
+
+  private final Method method;
+  private final Constructor<?> constructor;
+  private final boolean withEntityManager;
+  private final boolean stateless;
+  private final Map<String, Integer> parameterPositions;
+  private volatile MethodHandle methodHandle;
+  private volatile MethodHandle constructorHandle;
+  private volatile Object sharedInstance;
+
+  public JPAJavaOperationInvokerImpl(final Method method, final Constructor<?> constructor) {
+    super();
+    this.method = method;
+    this.constructor = constructor;
+    this.withEntityManager = constructor.getParameterCount() == 1;
+    this.stateless = !withEntityManager && method.getDeclaringClass().isAnnotationPresent(EdmStateless.class);
+    this.parameterPositions = determineParameterPositions(method);
+  }
+
+  @Override
+  public Object getInstance(final EntityManager em) throws IllegalAccessException, InvocationTargetException {
+    if (!stateless)
+      return createInstance(em);
+    Object instance = sharedInstance;
+    if (instance == null) {
+      synchronized (this) {
+        instance = sharedInstance;
+        if (instance == null) {
+          instance = createInstance(em);
+          sharedInstance = instance;
+        }
+      }
+    }
+    return instance;
+  }
+
+  @Override
+  public Object invoke(final Object instance, final Object[] parameter) throws IllegalAccessException,
+      InvocationTargetException {
+    final MethodHandle handle = getMethodHandle();
+    try {
+      return (Object) handle.invokeExact(instance, parameter);
+    } catch (Throwable e) {
+      throw new InvocationTargetException(e);
+    }
+  }
+
+  @Override
+  public Map<String, Integer> getParameterPositions() {
+    return parameterPositions;
+  }
+
+  private static Map<String, Integer> determineParameterPositions(final Method method) {
+    final Parameter[] parameters = method.getParameters();
+    final Map<String, Integer> positions = new HashMap<>(parameters.length * 2);
+    for (int i = 0; i < parameters.length; i++) {
+      final EdmParameter definedParameter = parameters[i].getAnnotation(EdmParameter.class);
+      if (definedParameter != null)
+        positions.put(definedParameter.name(), Integer.valueOf(i));
+    }
+    return Collections.unmodifiableMap(positions);
+  }
+
+  private Object createInstance(final EntityManager em) throws IllegalAccessException, InvocationTargetException {
+    final MethodHandle handle = getConstructorHandle();
+    try {
+      if (withEntityManager)
+        return (Object) handle.invokeExact(em);
+      return (Object) handle.invokeExact();
+    } catch (Throwable e) {
+      throw new InvocationTargetException(e);
+    }
+  }
+
+  private MethodHandle getConstructorHandle() throws IllegalAccessException {
+    MethodHandle handle = constructorHandle;
+    if (handle == null) {
+      handle = MethodHandles.publicLookup().unreflectConstructor(constructor)
+          .asType(withEntityManager ? EM_CONSTRUCTOR_TYPE : CONSTRUCTOR_TYPE);
+      constructorHandle = handle;
+    }
+    return handle;
+  }
+
+  private MethodHandle getMethodHandle() throws IllegalAccessException {
+    MethodHandle handle = methodHandle;
+    if (handle == null) {
+      // The parameter are taken from an array, primitive parameter get unboxed and a primitive result boxed
+      handle = MethodHandles.publicLookup().unreflect(method)
+          .asSpreader(Object[].class, method.getParameterCount())
+          .asType(METHOD_TYPE);
+      methodHandle = handle;
+    }
+    return handle;
+  }
+}
@@ -1,5 +1,7 @@
 package com.sap.olingo.jpa.metadata.core.edm.mapper.impl;
 
+import java.nio.file.Path;
+
 import javax.persistence.metamodel.Metamodel;
 
 import com.sap.olingo.jpa.metadata.api.JPAEdmMetadataPostProcessor;
@@ -12,17 +14,45 @@ public final class JPAServiceDocumentFactory {
   private final Metamodel jpaMetamodel;
   private final JPAEdmMetadataPostProcessor postProcessor;
   private final String[] packageName;
+  private final Path snapshot;
 
   public JPAServiceDocumentFactory(final String namespace, final Metamodel jpaMetamodel,
       final JPAEdmMetadataPostProcessor postProcessor, final String[] packageName) {
+    this(namespace, jpaMetamodel, postProcessor, packageName, null);
+  }
+
+  /**
+   * @param namespace
+   * @param jpaMetamodel
+   * @param postProcessor
+   * @param packageName
+   * @param snapshot File the CSDL schemas are read from, provided the model has not changed since it was written. If
+   * the model has changed or the file does not exist, it is (re-)created. May be null.
+   */
+  public JPAServiceDocumentFactory(final String namespace, final Metamodel jpaMetamodel,
+      final JPAEdmMetadataPostProcessor postProcessor, final String[] packageName, final Path snapshot) {
     super();
     this.namespace = namespace;
     this.jpaMetamodel = jpaMetamodel;
     this.postProcessor = postProcessor;
     this.packageName = packageName;
+    this.snapshot = snapshot;
   }
 
+  /**
+   * Creates a service document. All parts of the intermediate model are resolved before it is returned, so it can be
+   * shared by concurrent request threads. If the CSDL schemas are taken from a snapshot, they are not build again.
+   * @return
+   * @throws ODataJPAModelException In case a part of the model can not be resolved
+   */
   public JPAServiceDocument getServiceDocument() throws ODataJPAModelException {
-    return new IntermediateServiceDocument(namespace, jpaMetamodel, postProcessor, packageName);
+    final IntermediateServiceDocument serviceDocument = new IntermediateServiceDocument(namespace, jpaMetamodel,
+        postProcessor, packageName);
+    if (snapshot != null)
+      serviceDocument.readSnapshot(snapshot);
+    serviceDocument.freeze();
+    if (snapshot != null)
+      serviceDocument.writeSnapshot(snapshot);
+    return serviceDocument;
   }
 }
@@ -7,6 +7,7 @@ import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.Locale;
 
+import org.junit.After;
 import org.junit.Test;
 
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAException;
@@ -15,6 +16,12 @@ import com.sap.olingo.jpa.processor.core.testmodel.LocaleEnumeration;
 public class TestODataJPAModelException {
   private static String BUNDLE_NAME = "test-i18n";
 
+  @After
+  public void teardown() {
+    // The locales are kept for the current thread
+    ODataJPAException.setLocales(null);
+  }
+
   @Test
   public void checkTextInDefaultLocale() {
     try {
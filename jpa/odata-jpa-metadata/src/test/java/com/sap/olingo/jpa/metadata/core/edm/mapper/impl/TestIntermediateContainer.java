@@ -2,6 +2,7 @@ package com.sap.olingo.jpa.metadata.core.edm.mapper.impl;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
@@ -297,6 +298,19 @@ public class TestIntermediateContainer extends TestMappingRoot {
     }
   }
 
+  @Test
+  public void checkGetEntitySetByExternalName() throws ODataJPAModelException {
+    IntermediateEntityContainer container = new IntermediateEntityContainer(new JPAEdmNameBuilder(PUNIT_NAME), schemas);
+    assertEquals("Person", container.getEntitySet("Persons").getEntityType().getExternalName());
+    assertNull(container.getEntitySet("Unknown"));
+  }
+
+  @Test
+  public void checkGetEntitySetByEntityType() throws ODataJPAModelException {
+    IntermediateEntityContainer container = new IntermediateEntityContainer(new JPAEdmNameBuilder(PUNIT_NAME), schemas);
+    assertEquals("Persons", container.getEntitySet(schema.getEntityType("Person")).getExternalName());
+  }
+
   private EntityType<?> getEntityType(String typeName) {
     for (EntityType<?> entityType : etList) {
       if (entityType.getJavaType().getSimpleName().equals(typeName)) {
@@ -376,6 +376,20 @@ public class TestIntermediateEntityType extends TestMappingRoot {
     assertEquals("CodeID", et.getPropertyByDBField("\"CodeID\"").getExternalName());
   }
 
+  @Test
+  public void checkGetTableNameWithoutSchema() throws ODataJPAModelException {
+    IntermediateEntityType et = new IntermediateEntityType(new JPAEdmNameBuilder(PUNIT_NAME), getEntityType(
+        "AdministrativeDivision"), schema);
+    assertEquals("\"AdministrativeDivision\"", et.getTableName());
+  }
+
+  @Test
+  public void checkGetQualifiedTableNameWithSchema() throws ODataJPAModelException {
+    IntermediateEntityType et = new IntermediateEntityType(new JPAEdmNameBuilder(PUNIT_NAME), getEntityType(
+        "AdministrativeDivision"), schema);
+    assertEquals("\"OLINGO\".\"AdministrativeDivision\"", et.getQualifiedTableName());
+  }
+
   @Ignore
   @Test
   public void checkGetPropertyWithEnumerationType() {
@@ -19,7 +19,9 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.testobjects.ExampleJavaEmCons
 import com.sap.olingo.jpa.metadata.core.edm.mapper.testobjects.ExampleJavaFunctions;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.testobjects.ExampleJavaOneFunction;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.testobjects.ExampleJavaPrivateConstructor;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.testobjects.ExampleJavaStatelessFunction;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.testobjects.ExampleJavaTwoParameterConstructor;
+import com.sap.olingo.jpa.processor.core.testmodel.AdministrativeDivision;
 
 public class TestIntermediateJavaFunction extends TestMappingRoot {
   private TestHelper helper;
@@ -231,6 +233,26 @@ public class TestIntermediateJavaFunction extends TestMappingRoot {
     act.getEdmItem();
   }
 
+  @Test
+  public void checkCacheNotRequestedByDefault() throws ODataJPAModelException {
+    IntermediateJavaFunction act = createFunction(ExampleJavaFunctions.class, "sum");
+    assertEquals(0, act.getCacheTimeToLive());
+  }
+
+  @Test
+  public void checkProvidesCacheTimeToLive() throws ODataJPAModelException {
+    IntermediateJavaFunction act = createFunction(ExampleJavaStatelessFunction.class, "divide");
+    assertEquals(1000, act.getCacheTimeToLive());
+  }
+
+  @Test
+  public void checkCacheDependenciesContainReturnType() throws ODataJPAModelException {
+    IntermediateJavaFunction act = createFunction(ExampleJavaStatelessFunction.class, "divide");
+    assertEquals(2, act.getCacheDependencies().size());
+    assertTrue(act.getCacheDependencies().contains(AdministrativeDivision.class));
+    assertTrue(act.getCacheDependencies().contains(Integer.class));
+  }
+
   private IntermediateJavaFunction createFunction(Class<? extends ODataFunction> clazz, String method)
       throws ODataJPAModelException {
     for (Method m : Arrays.asList(clazz.getMethods())) {
@@ -0,0 +1,94 @@
+package com.sap.olingo.jpa.metadata.core.edm.mapper.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.reflections.Reflections;
+
+import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmEnumeration;
+import com.sap.olingo.jpa.metadata.core.edm.annotation.processor.EdmModelIndex;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.extention.ODataAction;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.extention.ODataFunction;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.testobjects.DayOfWeek;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.testobjects.ExampleJavaOneAction;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.testobjects.ExampleJavaOneFunction;
+
+public class TestIntermediateModelIndex {
+  private static final String INDEX_PACKAGE = "com.sap.olingo.jpa.metadata.indextest";
+
+  @Rule
+  public TemporaryFolder root = new TemporaryFolder();
+  private ClassLoader contextClassLoader;
+
+  @Before
+  public void setup() {
+    contextClassLoader = Thread.currentThread().getContextClassLoader();
+  }
+
+  @After
+  public void teardown() {
+    Thread.currentThread().setContextClassLoader(contextClassLoader);
+  }
+
+  @Test
+  public void checkReturnsNullWithoutPackage() {
+    assertNull(IntermediateModelIndex.create());
+    assertNull(IntermediateModelIndex.create((String[]) null));
+  }
+
+  @Test
+  public void checkIndexCreatedAtCompileTimeProvidesOperations() {
+    final Reflections cut = IntermediateModelIndex.create("com.sap.olingo.jpa.metadata.core.edm.mapper.testobjects");
+
+    assertTrue(cut.getSubTypesOf(ODataAction.class).contains(ExampleJavaOneAction.class));
+    assertTrue(cut.getSubTypesOf(ODataFunction.class).contains(ExampleJavaOneFunction.class));
+    assertTrue(cut.getTypesAnnotatedWith(EdmEnumeration.class).contains(DayOfWeek.class));
+  }
+
+  @Test
+  public void checkIndexUsedInsteadOfScan() throws IOException {
+    createRoot("function " + ExampleJavaOneFunction.class.getName(),
+        "enumeration " + DayOfWeek.class.getName());
+
+    final Reflections cut = IntermediateModelIndex.create(INDEX_PACKAGE);
+
+    assertEquals(1, cut.getSubTypesOf(ODataFunction.class).size());
+    assertTrue(cut.getSubTypesOf(ODataFunction.class).contains(ExampleJavaOneFunction.class));
+    assertEquals(1, cut.getTypesAnnotatedWith(EdmEnumeration.class).size());
+    assertTrue(cut.getSubTypesOf(ODataAction.class).isEmpty());
+  }
+
+  @Test
+  public void checkUnknownKindIgnored() throws IOException {
+    createRoot("unknown " + ExampleJavaOneFunction.class.getName(), "", "action");
+
+    final Reflections cut = IntermediateModelIndex.create(INDEX_PACKAGE);
+
+    assertTrue(cut.getSubTypesOf(ODataFunction.class).isEmpty());
+    assertTrue(cut.getSubTypesOf(ODataAction.class).isEmpty());
+  }
+
+  private void createRoot(final String... entries) throws IOException {
+    final File packageFolder = new File(root.getRoot(), INDEX_PACKAGE.replace('.', '/'));
+    final File index = new File(root.getRoot(), EdmModelIndex.RESOURCE_NAME);
+    assertTrue(packageFolder.mkdirs());
+    assertTrue(index.getParentFile().mkdirs());
+    Files.write(index.toPath(), Arrays.asList(entries), StandardCharsets.UTF_8);
+    Thread.currentThread().setContextClassLoader(new URLClassLoader(new URL[] { root.getRoot().toURI().toURL() },
+        contextClassLoader));
+  }
+}
@@ -2,6 +2,8 @@ package com.sap.olingo.jpa.metadata.core.edm.mapper.impl;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -13,9 +15,14 @@ import org.junit.Test;
 import org.reflections.Reflections;
 
 import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmEnumeration;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAStructuredType;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import com.sap.olingo.jpa.processor.core.testmodel.ABCClassifiaction;
 import com.sap.olingo.jpa.processor.core.testmodel.AccessRights;
+import com.sap.olingo.jpa.processor.core.testmodel.BusinessPartner;
+import com.sap.olingo.jpa.processor.core.testmodel.Person;
+import com.sap.olingo.jpa.processor.core.testmodel.PostalAddressData;
 import com.sap.olingo.jpa.processor.core.testmodel.TestDataConstants;
 
 public class TestIntermediateSchema extends TestMappingRoot {
@@ -77,4 +84,29 @@ public class TestIntermediateSchema extends TestMappingRoot {
     IntermediateSchema schema = new IntermediateSchema(new JPAEdmNameBuilder(PUNIT_NAME), emf.getMetamodel(), r);
     assertEquals("Wrong number of entities", 9, schema.getEdmItem().getFunctions().size());
   }
+
+  @Test
+  public void checkSchemaGetEntityTypeByJavaClass() throws ODataJPAModelException {
+    IntermediateSchema schema = new IntermediateSchema(new JPAEdmNameBuilder(PUNIT_NAME), emf.getMetamodel(), r);
+    assertEquals("BusinessPartner", schema.getEntityType(BusinessPartner.class).getExternalName());
+    assertNull(schema.getEntityType(PostalAddressData.class));
+  }
+
+  @Test
+  public void checkSchemaGetStructuredTypeByJavaClass() throws ODataJPAModelException {
+    IntermediateSchema schema = new IntermediateSchema(new JPAEdmNameBuilder(PUNIT_NAME), emf.getMetamodel(), r);
+    assertEquals("PostalAddressData", schema.getStructuredType(PostalAddressData.class).getExternalName());
+    assertEquals("Person", schema.getStructuredType(Person.class).getExternalName());
+  }
+
+  @Test
+  public void checkFrozenSchemaFindsTypesByExternalName() throws ODataJPAModelException {
+    IntermediateSchema schema = new IntermediateSchema(new JPAEdmNameBuilder(PUNIT_NAME), emf.getMetamodel(), r);
+    final JPAEntityType expEntityType = schema.getEntityType("BusinessPartner");
+    final JPAStructuredType expComplexType = schema.getComplexType("CommunicationData");
+    schema.freeze();
+    assertSame(expEntityType, schema.getEntityType("BusinessPartner"));
+    assertSame(expComplexType, schema.getComplexType("CommunicationData"));
+    assertNull(schema.getEntityType("Unknown"));
+  }
 }
@@ -3,11 +3,17 @@ package com.sap.olingo.jpa.metadata.core.edm.mapper.impl;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.olingo.commons.api.edm.EdmBindingTarget;
 import org.apache.olingo.commons.api.edm.EdmEntityType;
@@ -16,6 +22,8 @@ import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainer;
 import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
 import org.junit.Test;
 
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAServiceDocument;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 
@@ -80,4 +88,66 @@ public class TestIntermediateServiceDocument extends TestMappingRoot {
     JPAServiceDocument svc = new IntermediateServiceDocument(PUNIT_NAME, emf.getMetamodel(), null, null);
     assertFalse(svc.hasETag(target));
   }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void checkFrozenPathMapIsImmutable() throws ODataJPAModelException {
+    final IntermediateServiceDocument svc = createFrozenServiceDocument();
+    final IntermediateStructuredType et = (IntermediateStructuredType) svc.getEntity(new FullQualifiedName(
+        PUNIT_NAME, "BusinessPartner"));
+
+    et.getResolvedPathMap().clear();
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void checkFrozenKeyIsImmutable() throws ODataJPAModelException {
+    final IntermediateServiceDocument svc = createFrozenServiceDocument();
+    final JPAEntityType et = svc.getEntity(new FullQualifiedName(PUNIT_NAME, "AdministrativeDivision"));
+
+    et.getKey().clear();
+  }
+
+  @Test
+  public void checkFrozenContainerProvidesEntitySet() throws ODataJPAModelException {
+    final IntermediateServiceDocument svc = createFrozenServiceDocument();
+    final JPAEntityType et = svc.getEntity(new FullQualifiedName(PUNIT_NAME, "BusinessPartner"));
+
+    assertNotNull(svc.getEntitySet(et));
+  }
+
+  @Test
+  public void checkFrozenServiceDocumentReturnsSamePathsForAllThreads() throws Exception {
+    final IntermediateServiceDocument svc = createFrozenServiceDocument();
+    final JPAEntityType et = svc.getEntity(new FullQualifiedName(PUNIT_NAME, "Person"));
+    final JPAPath expPath = et.getPath("Address/Region");
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      final List<Future<JPAPath>> results = new ArrayList<>();
+      for (int i = 0; i < 64; i++) {
+        results.add(executor.submit(new Callable<JPAPath>() {
+          @Override
+          public JPAPath call() throws Exception {
+            et.getAssociationPath("Roles");
+            return et.getPath("Address/Region");
+          }
+        }));
+      }
+      for (final Future<JPAPath> result : results)
+        assertSame(expPath, result.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test(expected = ODataJPAModelException.class)
+  public void checkFactoryRaisesErrorOfModel() throws ODataJPAModelException {
+    // Without the package the enumerations of the test model are unknown
+    new JPAServiceDocumentFactory(PUNIT_NAME, emf.getMetamodel(), null, null).getServiceDocument();
+  }
+
+  private IntermediateServiceDocument createFrozenServiceDocument() throws ODataJPAModelException {
+    final IntermediateServiceDocument svc = new IntermediateServiceDocument(PUNIT_NAME, emf.getMetamodel(), null,
+        new String[] { "com.sap.olingo.jpa.processor.core.testmodel" });
+    svc.freeze();
+    return svc;
+  }
 }
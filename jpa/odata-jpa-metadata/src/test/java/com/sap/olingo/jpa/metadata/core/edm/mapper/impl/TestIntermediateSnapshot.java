@@ -0,0 +1,293 @@
+package com.sap.olingo.jpa.metadata.core.edm.mapper.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.apache.olingo.commons.api.edm.provider.CsdlAnnotation;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityType;
+import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlApply;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlCollection;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlConstantExpression;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlConstantExpression.ConstantExpressionType;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlExpression;
+import org.apache.olingo.commons.api.edm.provider.annotation.CsdlPropertyPath;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sap.olingo.jpa.metadata.api.JPAEdmMetadataPostProcessor;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.extention.IntermediateEntityContainerAccess;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAServiceDocument;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException.MessageKeys;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.extention.IntermediateEntityTypeAccess;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.extention.IntermediateNavigationPropertyAccess;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.extention.IntermediatePropertyAccess;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.extention.IntermediateReferenceList;
+
+public class TestIntermediateSnapshot extends TestMappingRoot {
+  private static final String[] PACKAGES = { "com.sap.olingo.jpa.processor.core.testmodel" };
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+  private Path snapshot;
+
+  @Before
+  public void setup() {
+    snapshot = folder.getRoot().toPath().resolve("edm.snapshot");
+  }
+
+  @Test
+  public void checkSnapshotCreatedIfNotExists() throws ODataJPAModelException {
+    createServiceDocument();
+    assertTrue(Files.isRegularFile(snapshot));
+  }
+
+  @Test
+  public void checkSchemasReadFromSnapshotEqualBuildSchemas() throws ODataJPAModelException, IOException {
+    final List<CsdlSchema> built = createServiceDocument().getEdmSchemas();
+    final List<CsdlSchema> read = createServiceDocument().getEdmSchemas();
+
+    assertArrayEquals(toBytes(built), toBytes(read));
+    assertNotNull(read.get(0).getEntityContainer());
+  }
+
+  @Test
+  public void checkSchemasTakenFromSnapshotIfKeyMatches() throws ODataJPAModelException, IOException {
+    final List<CsdlSchema> schemas = createServiceDocument().getEdmSchemas();
+    final CsdlEntityType et = schemas.get(0).getEntityTypes().get(0);
+    et.setName("Changed" + et.getName());
+    IntermediateSnapshot.write(snapshot, readKey(), schemas);
+
+    final JPAServiceDocument cut = createServiceDocument();
+
+    assertEquals(et.getName(), cut.getEdmSchemas().get(0).getEntityTypes().get(0).getName());
+    assertNotNull(cut.getEdmEntityContainer());
+  }
+
+  @Test
+  public void checkSnapshotReplacedIfKeyDiffers() throws ODataJPAModelException, IOException {
+    IntermediateSnapshot.write(snapshot, "Outdated", new ArrayList<CsdlSchema>());
+
+    final JPAServiceDocument cut = createServiceDocument();
+
+    assertEquals(1, cut.getEdmSchemas().size());
+    assertTrue(!"Outdated".equals(readKey()));
+  }
+
+  @Test
+  public void checkSnapshotReplacedIfCorrupted() throws ODataJPAModelException, IOException {
+    createServiceDocument();
+    final byte[] content = Files.readAllBytes(snapshot);
+    Files.write(snapshot, Arrays.copyOf(content, content.length / 2));
+
+    assertEquals(1, createServiceDocument().getEdmSchemas().size());
+    assertEquals(content.length, Files.size(snapshot));
+  }
+
+  @Test
+  public void checkReadReturnsNullIfFileMissing() {
+    assertNull(IntermediateSnapshot.read(snapshot, "Test"));
+  }
+
+  @Test
+  public void checkAnnotationExpressionsWritten() throws IOException {
+    final CsdlSchema schema = new CsdlSchema();
+    schema.setNamespace("Test");
+    final List<CsdlExpression> items = new ArrayList<>();
+    items.add(new CsdlConstantExpression(ConstantExpressionType.String, "Hello"));
+    items.add(new CsdlPropertyPath().setValue("Name"));
+    schema.setAnnotations(Arrays.asList(new CsdlAnnotation().setTerm("Core.Description").setExpression(
+        new CsdlCollection().setItems(items))));
+    IntermediateSnapshot.write(snapshot, "Test", Arrays.asList(schema));
+
+    final List<CsdlSchema> act = IntermediateSnapshot.read(snapshot, "Test");
+
+    final CsdlCollection collection = (CsdlCollection) act.get(0).getAnnotations().get(0).getExpression();
+    assertEquals("Hello", ((CsdlConstantExpression) collection.getItems().get(0)).getValue());
+    assertEquals("Name", ((CsdlPropertyPath) collection.getItems().get(1)).getValue());
+  }
+
+  @Test
+  public void checkIntermediateModelResolvedIfSnapshotValid() throws ODataJPAModelException {
+    final CountingPostProcessor postProcessor = new CountingPostProcessor();
+    createServiceDocument(postProcessor);
+    assertTrue(postProcessor.entityTypes > 0);
+
+    postProcessor.entityTypes = 0;
+    final JPAServiceDocument act = createServiceDocument(postProcessor);
+    assertNotNull(act.getEdmEntityContainer());
+    assertNotNull(act.getEntity("BusinessPartners"));
+    assertTrue(postProcessor.entityTypes > 0);
+  }
+
+  @Test
+  public void checkCsdlItemsNotBuiltIfSnapshotValid() throws ODataJPAModelException {
+    final CountingPostProcessor postProcessor = new CountingPostProcessor();
+    createServiceDocument(postProcessor);
+    assertEquals(1, postProcessor.containers);
+
+    postProcessor.containers = 0;
+    final JPAServiceDocument act = createServiceDocument(postProcessor);
+    assertNotNull(act.getEntity("Organizations").getPath("Address/Region"));
+    assertEquals(0, postProcessor.containers);
+  }
+
+  @Test
+  public void checkKeyChangesWithMapperJarContent() throws IOException {
+    final Path mapper = folder.getRoot().toPath().resolve("mapper.jar");
+    writeJar(mapper, "com/sap/olingo/jpa/metadata/Mapper.class", new byte[] { 1, 2, 3 });
+    final String first = createKey(mapper);
+    assertNotNull(first);
+    assertEquals(first, createKey(mapper));
+
+    writeJar(mapper, "com/sap/olingo/jpa/metadata/Mapper.class", new byte[] { 1, 2, 4 });
+    assertFalse(first.equals(createKey(mapper)));
+  }
+
+  @Test
+  public void checkKeyIgnoresOtherClassesOfMapperJar() throws IOException {
+    final Path mapper = folder.getRoot().toPath().resolve("mapper.jar");
+    writeJar(mapper, "com/sap/olingo/jpa/metadata/Mapper.class", new byte[] { 1, 2, 3 }, "Service.class");
+    final String first = createKey(mapper);
+
+    writeJar(mapper, "com/sap/olingo/jpa/metadata/Mapper.class", new byte[] { 1, 2, 3 }, "OtherService.class");
+    assertEquals(first, createKey(mapper));
+  }
+
+  @Test
+  public void checkKeyChangesWithMapperClassDirectoryContent() throws IOException {
+    final Path mapper = folder.newFolder("classes").toPath();
+    final Path mapperClass = mapper.resolve("com/sap/olingo/jpa/metadata/Mapper.class");
+    Files.createDirectories(mapperClass.getParent());
+    Files.write(mapperClass, new byte[] { 1, 2, 3 });
+    final String first = createKey(mapper);
+    assertNotNull(first);
+
+    Files.write(mapperClass, new byte[] { 1, 2, 4 });
+    assertFalse(first.equals(createKey(mapper)));
+  }
+
+  @Test
+  public void checkNoKeyIfMapperSourceUnknown() {
+    assertNull(IntermediateSnapshot.createKey("Test", Collections.<Class<?>> emptyList(), null));
+    assertNull(IntermediateSnapshot.createKey("Test", Collections.<Class<?>> emptyList(), snapshot));
+  }
+
+  @Test
+  public void checkModelErrorRaisedIfSnapshotValid() throws ODataJPAModelException {
+    final CountingPostProcessor postProcessor = new CountingPostProcessor();
+    createServiceDocument(postProcessor);
+
+    postProcessor.referencesFaulty = true;
+    try {
+      createServiceDocument(postProcessor);
+      fail();
+    } catch (ODataJPAModelException e) {
+      assertEquals(MessageKeys.ANNOTATION_PARSE_ERROR.getKey(), e.getId());
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void checkUnsupportedExpressionRejected() throws IOException {
+    final CsdlSchema schema = new CsdlSchema();
+    schema.setNamespace("Test");
+    schema.setAnnotations(Arrays.asList(new CsdlAnnotation().setTerm("Core.Description").setExpression(
+        new CsdlApply())));
+    new IntermediateSnapshotWriter(new DataOutputStream(new ByteArrayOutputStream())).writeSchemas(Arrays.asList(
+        schema));
+  }
+
+  private JPAServiceDocument createServiceDocument() throws ODataJPAModelException {
+    return createServiceDocument(null);
+  }
+
+  private JPAServiceDocument createServiceDocument(final JPAEdmMetadataPostProcessor postProcessor)
+      throws ODataJPAModelException {
+    return new JPAServiceDocumentFactory(PUNIT_NAME, emf.getMetamodel(), postProcessor, PACKAGES, snapshot)
+        .getServiceDocument();
+  }
+
+  private String createKey(final Path mapper) {
+    return IntermediateSnapshot.createKey("Test", Collections.<Class<?>> emptyList(), mapper);
+  }
+
+  private void writeJar(final Path jar, final String mapperClass, final byte[] content, final String... otherClasses)
+      throws IOException {
+    try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+      out.putNextEntry(new JarEntry(mapperClass));
+      out.write(content);
+      for (final String otherClass : otherClasses) {
+        out.putNextEntry(new JarEntry(otherClass));
+        out.write(content);
+      }
+    }
+  }
+
+  private String readKey() throws IOException {
+    try (DataInputStream in = new DataInputStream(Files.newInputStream(snapshot))) {
+      in.readInt();
+      in.readInt();
+      return in.readUTF();
+    }
+  }
+
+  private byte[] toBytes(final List<CsdlSchema> schemas) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    new IntermediateSnapshotWriter(new DataOutputStream(bytes)).writeSchemas(schemas);
+    return bytes.toByteArray();
+  }
+
+  private static class CountingPostProcessor extends JPAEdmMetadataPostProcessor {
+    private int entityTypes;
+    private int containers;
+    private boolean referencesFaulty;
+
+    @Override
+    public void processEntityContainer(final IntermediateEntityContainerAccess container) {
+      containers++;
+    }
+
+    @Override
+    public void processEntityType(final IntermediateEntityTypeAccess entityType) {
+      entityTypes++;
+    }
+
+    @Override
+    public void processNavigationProperty(final IntermediateNavigationPropertyAccess property,
+        final String jpaManagedTypeClassName) {
+      // Not needed
+    }
+
+    @Override
+    public void processProperty(final IntermediatePropertyAccess property, final String jpaManagedTypeClassName) {
+      // Not needed
+    }
+
+    @Override
+    public void provideReferences(final IntermediateReferenceList references) throws ODataJPAModelException {
+      if (referencesFaulty)
+        throw new ODataJPAModelException(MessageKeys.ANNOTATION_PARSE_ERROR);
+    }
+  }
+}
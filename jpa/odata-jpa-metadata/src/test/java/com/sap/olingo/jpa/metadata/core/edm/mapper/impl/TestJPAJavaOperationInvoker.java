@@ -0,0 +1,124 @@
+package com.sap.olingo.jpa.metadata.core.edm.mapper.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmAction;
+import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmFunction;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAJavaOperationInvoker;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.extention.ODataFunction;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.testobjects.ExampleJavaEmConstructor;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.testobjects.ExampleJavaOneFunction;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.testobjects.ExampleJavaStatelessFunction;
+
+public class TestJPAJavaOperationInvoker extends TestMappingRoot {
+  private TestHelper helper;
+  private EntityManager em;
+
+  @Before
+  public void setup() throws ODataJPAModelException {
+    helper = new TestHelper(emf.getMetamodel(), PUNIT_NAME);
+    em = mock(EntityManager.class);
+  }
+
+  @Test
+  public void checkInvokeWithPrimitiveParameter() throws ODataJPAModelException, IllegalAccessException,
+      InvocationTargetException {
+    final JPAJavaOperationInvoker cut = createFunction(ExampleJavaOneFunction.class, "sum").getInvoker();
+
+    final Object act = cut.invoke(cut.getInstance(em), new Object[] { Short.valueOf((short) 5), Integer.valueOf(7) });
+    assertEquals(Integer.valueOf(12), act);
+  }
+
+  @Test
+  public void checkNewInstancePerCall() throws ODataJPAModelException, IllegalAccessException,
+      InvocationTargetException {
+    final JPAJavaOperationInvoker cut = createFunction(ExampleJavaOneFunction.class, "sum").getInvoker();
+
+    assertNotSame(cut.getInstance(em), cut.getInstance(em));
+  }
+
+  @Test
+  public void checkSharedInstanceIfStateless() throws ODataJPAModelException, IllegalAccessException,
+      InvocationTargetException {
+    final JPAJavaOperationInvoker cut = createFunction(ExampleJavaStatelessFunction.class, "sum").getInvoker();
+
+    final Object instance = cut.getInstance(em);
+    assertTrue(instance instanceof ExampleJavaStatelessFunction);
+    assertSame(instance, cut.getInstance(em));
+  }
+
+  @Test
+  public void checkInstanceCreatedWithEntityManager() throws ODataJPAModelException, IllegalAccessException,
+      InvocationTargetException {
+    final JPAJavaOperationInvoker cut = createFunction(ExampleJavaEmConstructor.class, "sum").getInvoker();
+
+    assertTrue(cut.getInstance(em) instanceof ExampleJavaEmConstructor);
+  }
+
+  @Test
+  public void checkInvokeVoidActionReturnsNull() throws ODataJPAModelException, IllegalAccessException,
+      InvocationTargetException, NoSuchMethodException {
+    final IntermediateJavaAction action = new IntermediateJavaAction(new JPAEdmNameBuilder(PUNIT_NAME),
+        ExampleJavaEmConstructor.class.getMethod("mul", short.class, int.class).getAnnotation(EdmAction.class),
+        ExampleJavaEmConstructor.class.getMethod("mul", short.class, int.class), helper.schema);
+    final JPAJavaOperationInvoker cut = action.getInvoker();
+
+    assertNotNull(cut);
+    assertNull(cut.invoke(cut.getInstance(em), new Object[] { Short.valueOf((short) 5), Integer.valueOf(7) }));
+  }
+
+  @Test
+  public void checkParameterPositionsByName() throws ODataJPAModelException {
+    final IntermediateJavaFunction function = createFunction(ExampleJavaOneFunction.class, "sum");
+    final JPAJavaOperationInvoker cut = function.getInvoker();
+
+    final Map<String, Integer> act = cut.getParameterPositions();
+    assertEquals(2, act.size());
+    assertEquals(Integer.valueOf(0), act.get("A"));
+    assertEquals(Integer.valueOf(1), act.get("B"));
+    assertSame(act, cut.getParameterPositions());
+  }
+
+  @Test
+  public void checkExceptionOfMethodWrapped() throws ODataJPAModelException, IllegalAccessException,
+      InvocationTargetException {
+    final JPAJavaOperationInvoker cut = createFunction(ExampleJavaStatelessFunction.class, "divide").getInvoker();
+
+    try {
+      cut.invoke(cut.getInstance(em), new Object[] { Integer.valueOf(5), Integer.valueOf(0) });
+    } catch (InvocationTargetException e) {
+      assertTrue(e.getCause() instanceof IllegalArgumentException);
+      return;
+    }
+    fail();
+  }
+
+  private IntermediateJavaFunction createFunction(final Class<? extends ODataFunction> clazz, final String method)
+      throws ODataJPAModelException {
+    for (final Method m : Arrays.asList(clazz.getMethods())) {
+      final EdmFunction functionDescribtion = m.getAnnotation(EdmFunction.class);
+      if (functionDescribtion != null && method.equals(m.getName())) {
+        return new IntermediateJavaFunction(new JPAEdmNameBuilder(PUNIT_NAME), functionDescribtion, m, helper.schema);
+      }
+    }
+    return null;
+  }
+}
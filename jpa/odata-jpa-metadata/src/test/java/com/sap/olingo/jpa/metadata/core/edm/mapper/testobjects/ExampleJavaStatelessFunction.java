@@ -0,0 +1,31 @@
+package com.sap.olingo.jpa.metadata.core.edm.mapper.testobjects;
+
+import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmFunction;
+import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmFunction.ReturnType;
+import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmParameter;
+import com.sap.olingo.jpa.metadata.core.edm.annotation.EdmStateless;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.extention.ODataFunction;
+import com.sap.olingo.jpa.processor.core.testmodel.AdministrativeDivision;
+
+@EdmStateless
+public class ExampleJavaStatelessFunction implements ODataFunction {
+
+  public ExampleJavaStatelessFunction() {
+    super();
+  }
+
+  @EdmFunction(name = "", returnType = @ReturnType)
+  public Integer sum(
+      @EdmParameter(name = "A") short a, @EdmParameter(name = "B") int b) {
+    return a + b;
+  }
+
+  @EdmFunction(name = "", returnType = @ReturnType, cacheTimeToLive = 1000,
+      cacheDependencies = AdministrativeDivision.class)
+  public Integer divide(
+      @EdmParameter(name = "A") int a, @EdmParameter(name = "B") int b) {
+    if (b == 0)
+      throw new IllegalArgumentException("Division by zero");
+    return a / b;
+  }
+}
@@ -1,55 +1,154 @@
 package com.sap.olingo.jpa.processor.core.api;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityTransaction;
 import javax.persistence.OptimisticLockException;
+import javax.persistence.PersistenceException;
 import javax.persistence.RollbackException;
 
 import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataHandler;
 import org.apache.olingo.server.api.ODataLibraryException;
 import org.apache.olingo.server.api.ODataRequest;
 import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ODataServerError;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.batch.BatchFacade;
 import org.apache.olingo.server.api.deserializer.batch.BatchOptions;
 import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
 import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
 import org.apache.olingo.server.api.processor.BatchProcessor;
+import org.apache.olingo.server.api.processor.ErrorProcessor;
 
+import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAException;
+import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessException;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
+import com.sap.olingo.jpa.processor.core.modify.JPACacheUpdates;
 
 /**
  * 
  * <a href=
  * "https://docs.oasis-open.org/odata/odata/v4.0/os/part1-protocol/odata-v4.0-os-part1-protocol.html#_Toc372793748">
- * 11.7 Batch Requests </a>
+ * 11.7 Batch Requests </a><p>
+ * In case a batch executor is provided, see {@link JPAODataGetContext#setBatchExecutor(ExecutorService)}, consecutive
+ * GET requests outside of a change set are executed at the same time. Each of them gets its own entity manager. Other
+ * requests and change sets are executed one after the other, so they see the changes of the requests before and the
+ * requests behind them see their changes. The responses are returned in the order of the requests. A read that fails
+ * results in an error response for its part only. In case the batch gets aborted, reads that are still running are
+ * cancelled.<p>
+ * The changes of a change set are written at commit, after they have been validated by the
+ * {@link JPACUDRequestHandler}. In case a flush interval is set, see
+ * {@link JPAODataCRUDContext#setChangeSetFlushInterval(int)}, the changes are validated, flushed and cleared from the
+ * persistence context in chunks. The requests keep their order, so a chunk is flushed only after the requests it
+ * depends on. Whether the statements of a flush are sent as JDBC batches depends on the configuration of the persistence
+ * provider, see e.g. {@link #createBatchWritingProperties(int)}. The search index is updated after the change set has
+ * been committed, see {@link JPACacheUpdates}.
  * 
  * @author Oliver Grande
  *
  */
 public final class JPAODataBatchProcessor implements BatchProcessor {
+  static final String ECLIPSELINK_BATCH_WRITING = "eclipselink.jdbc.batch-writing";
+  static final String ECLIPSELINK_BATCH_WRITING_SIZE = "eclipselink.jdbc.batch-writing.size";
+  static final String HIBERNATE_BATCH_SIZE = "hibernate.jdbc.batch_size";
+  static final String HIBERNATE_ORDER_INSERTS = "hibernate.order_inserts";
+  static final String HIBERNATE_ORDER_UPDATES = "hibernate.order_updates";
 
   private final EntityManager em;
   private OData odata;
+  private ServiceMetadata serviceMetadata;
   private final JPAODataSessionContextAccess context;
+  private final JPACacheUpdates cacheUpdates;
 
   public JPAODataBatchProcessor(final JPAODataSessionContextAccess context, final EntityManager em) {
+    this(context, em, new JPACacheUpdates(context));
+  }
+
+  /**
+   * @param context
+   * @param em
+   * @param cacheUpdates Updates of the caches, shared with the {@link JPAODataRequestProcessor} of the same entity
+   * manager
+   */
+  public JPAODataBatchProcessor(final JPAODataSessionContextAccess context, final EntityManager em,
+      final JPACacheUpdates cacheUpdates) {
     this.em = em;
     this.context = context;
+    this.cacheUpdates = cacheUpdates;
   }
 
   @Override
   public void init(final OData odata, final ServiceMetadata serviceMetadata) {
     this.odata = odata;
+    this.serviceMetadata = serviceMetadata;
+  }
+
+  /**
+   * Creates an executor for the read requests of a $batch. On a Java runtime that provides virtual threads, each
+   * request is executed by a virtual thread of its own, otherwise a pool with a fixed number of daemon threads is used.
+   * In both cases at most <code>poolSize</code> requests are executed at the same time, so the number of entity
+   * managers and connections used by the reads is restricted.
+   * @param poolSize Maximum number of requests executed at the same time
+   * @return
+   */
+  public static ExecutorService createBatchExecutor(final int poolSize) {
+    try {
+      return limitConcurrency((ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(
+          null), poolSize);
+    } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+      return Executors.newFixedThreadPool(poolSize, new BatchThreadFactory());
+    }
+  }
+
+  /**
+   * Creates the provider specific properties that switch on JDBC batch writing for EclipseLink and Hibernate. JPA does
+   * not define such a property, so other persistence providers need their own configuration. The providers take these
+   * properties only into account when the entity manager factory is created, so they have to be given to
+   * {@link javax.persistence.Persistence#createEntityManagerFactory(String, Map)} together with the other properties
+   * of the persistence unit.
+   * @param batchSize Maximum number of statements sent to the database at once
+   * @return
+   */
+  public static Map<String, Object> createBatchWritingProperties(final int batchSize) {
+    final Map<String, Object> properties = new HashMap<>();
+    properties.put(ECLIPSELINK_BATCH_WRITING, "JDBC");
+    properties.put(ECLIPSELINK_BATCH_WRITING_SIZE, String.valueOf(batchSize));
+    properties.put(HIBERNATE_BATCH_SIZE, String.valueOf(batchSize));
+    properties.put(HIBERNATE_ORDER_INSERTS, "true");
+    properties.put(HIBERNATE_ORDER_UPDATES, "true");
+    return properties;
+  }
+
+  static ExecutorService limitConcurrency(final ExecutorService executor, final int maxConcurrent) {
+    return new BoundedExecutor(executor, maxConcurrent);
   }
 
   @Override
@@ -65,9 +164,26 @@ public final class JPAODataBatchProcessor implements BatchProcessor {
     final List<BatchRequestPart> requestParts = odata.createFixedFormatDeserializer()
         .parseBatchRequest(request.getBody(), boundary, options);
 
-    final List<ODataResponsePart> responseParts = new ArrayList<>();
-    for (final BatchRequestPart part : requestParts) {
-      responseParts.add(facade.handleBatchRequest(part));
+    final List<ODataResponsePart> responseParts = new ArrayList<>(requestParts.size());
+    final List<Future<ODataResponsePart>> reads = new ArrayList<>();
+    final ExecutorService executor = getBatchExecutor();
+    try {
+      for (final BatchRequestPart part : requestParts) {
+        if (executor != null && isRead(part)) {
+          reads.add(executor.submit(new ReadRequest(part.getRequests().get(0))));
+          continue;
+        }
+        // Requests that may change data wait for the reads before them
+        collectReads(reads, responseParts);
+        final ODataResponsePart responsePart = facade.handleBatchRequest(part);
+        for (final ODataResponse partResponse : responsePart.getResponses())
+          bufferStreamedContent(partResponse);
+        responseParts.add(responsePart);
+      }
+      collectReads(reads, responseParts);
+    } finally {
+      // In case the batch got aborted
+      cancelReads(reads);
     }
     final String responseBoundary = "batch_" + UUID.randomUUID().toString();
     final InputStream responseContent = odata.createFixedFormatSerializer().batchResponse(responseParts,
@@ -79,6 +195,65 @@ public final class JPAODataBatchProcessor implements BatchProcessor {
     context.getDebugger().stopRuntimeMeasurement(handle);
   }
 
+  /**
+   * Debug information are collected per request and the debugger is not able to handle measurements from different
+   * threads, so requests with debug output are executed sequentially.
+   */
+  private ExecutorService getBatchExecutor() {
+    if (context.getDebugger() instanceof JPAEmptyDebugger)
+      return context.getBatchExecutor();
+    return null;
+  }
+
+  private boolean isRead(final BatchRequestPart part) {
+    return !part.isChangeSet() && part.getRequests().size() == 1
+        && part.getRequests().get(0).getMethod() == HttpMethod.GET;
+  }
+
+  private void collectReads(final List<Future<ODataResponsePart>> reads, final List<ODataResponsePart> responseParts)
+      throws ODataApplicationException {
+    try {
+      for (final Future<ODataResponsePart> read : reads)
+        responseParts.add(read.get());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    } catch (ExecutionException e) {
+      throw new ODataJPAProcessorException(e.getCause(), HttpStatusCode.INTERNAL_SERVER_ERROR);
+    } finally {
+      cancelReads(reads);
+    }
+  }
+
+  /**
+   * Cancels the reads that are not done yet, e.g. because collecting a read before them failed.
+   */
+  private void cancelReads(final List<Future<ODataResponsePart>> reads) {
+    for (final Future<ODataResponsePart> read : reads)
+      read.cancel(true);
+    reads.clear();
+  }
+
+  private static void copyContentId(final ODataRequest request, final ODataResponse response) {
+    // Same as done by the batch facade
+    final String contentId = request.getHeader(HttpHeader.CONTENT_ID);
+    if (contentId != null)
+      response.setHeader(HttpHeader.CONTENT_ID, contentId);
+  }
+
+  /**
+   * The batch response serializer only takes the content of a response into account. A streamed response, see
+   * {@link JPAODataGetContext#setStreamingEnabled(boolean)}, has to be written into the content therefore.
+   * @param partResponse
+   */
+  private void bufferStreamedContent(final ODataResponse partResponse) {
+    if (partResponse.getODataContent() != null) {
+      final ByteArrayOutputStream content = new ByteArrayOutputStream();
+      partResponse.getODataContent().write(content);
+      partResponse.setContent(new ByteArrayInputStream(content.toByteArray()));
+    }
+  }
+
   @Override
   public ODataResponsePart processChangeSet(final BatchFacade facade, final List<ODataRequest> requests)
       throws ODataApplicationException, ODataLibraryException {
@@ -103,10 +278,13 @@ public final class JPAODataBatchProcessor implements BatchProcessor {
      * to the other processor interfaces.
      */
     final int handle = context.getDebugger().startRuntimeMeasurement(this, "processChangeSet");
-    final List<ODataResponse> responses = new ArrayList<>();
+    final int flushInterval = context.getChangeSetFlushInterval();
+    final List<ODataResponse> responses = new ArrayList<>(requests.size());
     final EntityTransaction t = em.getTransaction();
+    cacheUpdates.collect();
     try {
       t.begin();
+      int count = 0;
       for (final ODataRequest request : requests) {
         // Actual request dispatching to the other processor interfaces.
         final ODataResponse response = facade.handleODataRequest(request);
@@ -119,6 +297,9 @@ public final class JPAODataBatchProcessor implements BatchProcessor {
           // The request has been executed successfully. Return the
           // response as a part of the change set
           responses.add(response);
+          count += 1;
+          if (flushInterval > 0 && count % flushInterval == 0)
+            flushChunk();
         } else {
           t.rollback();
           /*
@@ -148,6 +329,7 @@ public final class JPAODataBatchProcessor implements BatchProcessor {
       }
       context.getCUDRequestHandler().validateChanges(em);
       t.commit();
+      cacheUpdates.apply();
       context.getDebugger().stopRuntimeMeasurement(handle);
       return new ODataResponsePart(responses, true);
     } catch (ODataApplicationException e) {
@@ -169,6 +351,146 @@ public final class JPAODataBatchProcessor implements BatchProcessor {
       }
       context.getDebugger().stopRuntimeMeasurement(handle);
       throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    } finally {
+      // Nothing left after a commit, otherwise the change set has been rolled back
+      cacheUpdates.discard();
+    }
+  }
+
+  /**
+   * Writes the changes of the requests processed so far and gives the entities free. As they are not managed
+   * afterwards, the changes are validated before.
+   */
+  private void flushChunk() throws ODataJPAProcessException {
+    context.getCUDRequestHandler().validateChanges(em);
+    try {
+      em.flush();
+    } catch (OptimisticLockException e) {
+      throw new ODataJPAProcessorException(e, HttpStatusCode.PRECONDITION_FAILED);
+    } catch (PersistenceException e) {
+      throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    }
+    em.clear();
+  }
+
+  /**
+   * Executes a GET request of a $batch with an entity manager of its own. The entity manager is closed after the
+   * response has been written, as a streamed response may still need it. Errors that are not handled by the OData
+   * handler, e.g. while writing a streamed response, are converted into an error response of the request.
+   */
+  private class ReadRequest implements Callable<ODataResponsePart> {
+    private final ODataRequest request;
+    // The locales are kept per thread, so they are handed over from the thread of the $batch request
+    private final Enumeration<Locale> locales;
+
+    private ReadRequest(final ODataRequest request) {
+      super();
+      this.request = request;
+      this.locales = ODataJPAException.getLocales();
+    }
+
+    @Override
+    public ODataResponsePart call() {
+      ODataJPAException.setLocales(locales);
+      try {
+        final EntityManager readEm = em.getEntityManagerFactory().createEntityManager();
+        try {
+          final ODataHandler handler = odata.createRawHandler(serviceMetadata);
+          handler.register(new JPAODataRequestProcessor(context, readEm));
+          handler.register(context.getEdmProvider().getServiceDocument());
+          handler.register(context.getErrorProcessor());
+          final ODataResponse response = handler.process(request);
+          copyContentId(request, response);
+          bufferStreamedContent(response);
+          return new ODataResponsePart(response, false);
+        } finally {
+          readEm.close();
+        }
+      } catch (ODataException | RuntimeException e) {
+        return createErrorResponse(e);
+      } finally {
+        ODataJPAException.setLocales(null);
+      }
+    }
+
+    private ODataResponsePart createErrorResponse(final Exception e) {
+      final ODataServerError serverError = new ODataServerError()
+          .setException(e)
+          .setMessage(e.getMessage())
+          .setStatusCode(e instanceof ODataApplicationException ? ((ODataApplicationException) e).getStatusCode()
+              : HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode());
+      final ODataResponse response = new ODataResponse();
+      final ErrorProcessor errorProcessor = context.getErrorProcessor();
+      errorProcessor.init(odata, serviceMetadata);
+      errorProcessor.processError(request, response, serverError, ContentType.APPLICATION_JSON);
+      copyContentId(request, response);
+      return new ODataResponsePart(response, false);
+    }
+  }
+
+  /**
+   * Executes the tasks by the given executor, but lets at most a given number of them run at the same time. Tasks
+   * waiting for a permit block their thread, which is cheap for virtual threads.
+   */
+  private static class BoundedExecutor extends AbstractExecutorService {
+    private final ExecutorService executor;
+    private final Semaphore permits;
+
+    private BoundedExecutor(final ExecutorService executor, final int maxConcurrent) {
+      super();
+      this.executor = executor;
+      this.permits = new Semaphore(maxConcurrent);
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          permits.acquireUninterruptibly();
+          try {
+            command.run();
+          } finally {
+            permits.release();
+          }
+        }
+      });
+    }
+
+    @Override
+    public void shutdown() {
+      executor.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+      return executor.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+      return executor.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+      return executor.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+      return executor.awaitTermination(timeout, unit);
+    }
+  }
+
+  private static class BatchThreadFactory implements ThreadFactory {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(final Runnable runnable) {
+      final Thread thread = new Thread(runnable, "odata-batch-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
     }
   }
 }
@@ -1,5 +1,19 @@
 package com.sap.olingo.jpa.processor.core.api;
 
 public interface JPAODataCRUDContext extends JPAODataGetContext {
+  /**
+   * Switches on, that the changes of a change set are written in chunks. After <code>flushInterval</code> requests the
+   * changes are validated by the {@link JPACUDRequestHandler}, flushed and the persistence context is cleared, so the
+   * memory needed does not grow with the size of the change set. The requests are processed in the given order, so
+   * the changes a request depends on are flushed before or together with it. By default a change set is flushed at
+   * commit only.<p>
+   * The statements of a chunk are only sent as JDBC batch, if batch writing is switched on for the persistence
+   * provider, see e.g. {@link JPAODataBatchProcessor#createBatchWritingProperties(int)}.
+   * @param flushInterval Number of requests after which the changes are flushed; 0 switches the chunks off
+   */
+  public default void setChangeSetFlushInterval(final int flushInterval) {
+    // Not supported
+  }
+
   public void setCUDRequestHandler(final JPACUDRequestHandler jpaCUDRequestHandler);
 }
@@ -1,12 +1,19 @@
 package com.sap.olingo.jpa.processor.core.api;
 
+import java.nio.file.Path;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.olingo.commons.api.edmx.EdmxReference;
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.debug.DebugSupport;
 import org.apache.olingo.server.api.debug.DefaultDebugSupport;
 import org.apache.olingo.server.api.processor.ErrorProcessor;
@@ -17,7 +24,13 @@ import com.sap.olingo.jpa.processor.core.api.JPAODataGetHandler.JPADebugSupportW
 import com.sap.olingo.jpa.processor.core.database.JPADefaultDatabaseProcessor;
 import com.sap.olingo.jpa.processor.core.database.JPAODataDatabaseOperations;
 import com.sap.olingo.jpa.processor.core.database.JPAODataDatabaseProcessorFactory;
+import com.sap.olingo.jpa.processor.core.database.JPASearchIndex;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAFilterException;
+import com.sap.olingo.jpa.processor.core.query.JPAExpandStrategy;
+import com.sap.olingo.jpa.processor.core.query.JPAExpandSubQueryStrategy;
+import com.sap.olingo.jpa.processor.core.query.JPACountCache;
+import com.sap.olingo.jpa.processor.core.query.JPAFunctionResultCache;
+import com.sap.olingo.jpa.processor.core.query.JPAQueryPlanCache;
 
 final class JPAODataContextImpl implements JPAODataCRUDContext, JPAODataSessionContextAccess {
   /**
@@ -27,19 +40,34 @@ final class JPAODataContextImpl implements JPAODataCRUDContext, JPAODataSessionC
   private List<EdmxReference> references = new ArrayList<>();
   private JPADebugSupportWrapper debugSupport;
   private JPAODataDatabaseOperations operationConverter;
-  private JPAEdmProvider jpaEdm;
+  private volatile JPAEdmProvider jpaEdm;
+  private volatile ServiceMetadata serviceMetadata;
   private JPAODataDatabaseProcessor databaseProcessor;
   private JPAServiceDebugger debugger;
   private JPAEdmMetadataPostProcessor postProcessor;
   private JPACUDRequestHandler jpaCUDRequestHandler;
   private String[] packageName;
+  private Path edmSnapshot;
   private ErrorProcessor errorProcessor;
+  private JPAExpandStrategy expandStrategy;
+  private boolean streamingEnabled;
+  private final Map<String, Integer> maxPageSizes = new HashMap<>();
+  private JPAQueryPlanCache queryPlanCache;
+  private JPACountCache countCache;
+  private JPAFunctionResultCache functionResultCache;
+  private ExecutorService batchExecutor;
+  private int changeSetFlushInterval;
+  private JPASearchIndex searchIndex;
+  private final Set<String> approximateCounts = new HashSet<>();
 
   public JPAODataContextImpl(JPAODataGetHandler jpaoDataGetHandler) throws ODataException {
     super();
     this.jpaoDataGetHandler = jpaoDataGetHandler;
     this.debugSupport = this.jpaoDataGetHandler.new JPADebugSupportWrapper(new DefaultDebugSupport());
+    // Requests get their own debugger, but queries may also be created with the session context of the service
+    this.debugger = new JPAEmptyDebugger();
     operationConverter = new JPADefaultDatabaseProcessor();
+    expandStrategy = new JPAExpandSubQueryStrategy();
     try {
       databaseProcessor = new JPAODataDatabaseProcessorFactory().create(this.jpaoDataGetHandler.ds);
     } catch (SQLException e) {
@@ -48,6 +76,26 @@ final class JPAODataContextImpl implements JPAODataCRUDContext, JPAODataSessionC
 
   }
 
+  @Override
+  public ExecutorService getBatchExecutor() {
+    return batchExecutor;
+  }
+
+  @Override
+  public int getChangeSetFlushInterval() {
+    return changeSetFlushInterval;
+  }
+
+  @Override
+  public JPACountCache getCountCache() {
+    return countCache;
+  }
+
+  @Override
+  public JPAFunctionResultCache getFunctionResultCache() {
+    return functionResultCache;
+  }
+
   @Override
   public JPACUDRequestHandler getCUDRequestHandler() {
     return jpaCUDRequestHandler;
@@ -70,16 +118,67 @@ final class JPAODataContextImpl implements JPAODataCRUDContext, JPAODataSessionC
 
   @Override
   public JPAEdmProvider getEdmProvider() throws ODataException {
-    if (jpaEdm == null)
-      jpaEdm = new JPAEdmProvider(this.jpaoDataGetHandler.namespace, this.jpaoDataGetHandler.jpaMetamodel,
-          postProcessor, packageName);
-    return jpaEdm;
+    JPAEdmProvider edmProvider = jpaEdm;
+    if (edmProvider == null) {
+      synchronized (this) {
+        edmProvider = jpaEdm;
+        if (edmProvider == null) {
+          edmProvider = new JPAEdmProvider(this.jpaoDataGetHandler.namespace, this.jpaoDataGetHandler.jpaMetamodel,
+              postProcessor, packageName, edmSnapshot);
+          jpaEdm = edmProvider;
+        }
+      }
+    }
+    return edmProvider;
+  }
+
+  @Override
+  public JPAExpandStrategy getExpandStrategy() {
+    return expandStrategy;
+  }
+
+  @Override
+  public Integer getMaxPageSize(final String entitySetName) {
+    return maxPageSizes.get(entitySetName);
   }
 
+  @Override
   public ErrorProcessor getErrorProcessor() {
     return this.errorProcessor == null ? new JPADefaultErrorProcessor() : this.errorProcessor;
   }
 
+  /**
+   * Creates the session context of a request, which keeps the debugger of the request. The debugger of this context,
+   * see {@link #initDebugger(String)}, is not used by the request.
+   * @param debugFormat Requested debug format or null
+   * @return Session context of the request
+   */
+  JPAODataSessionContextAccess createRequestContext(final String debugFormat) {
+    return new JPAODataRequestSessionContext(this, debugSupport == null ? null : debugSupport.copy(),
+        jpaoDataGetHandler.odata, debugFormat);
+  }
+
+  /**
+   * Provides the Olingo service metadata of the service. The metadata is created once per edm provider and shared by
+   * all requests, as creating it per request would also re-create all the EDM wrapper of Olingo.
+   * @return Service metadata created from the edm provider of the service
+   * @throws ODataException In case the edm provider or the service document can not be created
+   */
+  ServiceMetadata getServiceMetadata() throws ODataException {
+    ServiceMetadata metadata = serviceMetadata;
+    if (metadata == null) {
+      synchronized (this) {
+        metadata = serviceMetadata;
+        if (metadata == null) {
+          final JPAEdmProvider edmProvider = getEdmProvider();
+          metadata = this.jpaoDataGetHandler.odata.createServiceMetadata(edmProvider, edmProvider.getReferences());
+          serviceMetadata = metadata;
+        }
+      }
+    }
+    return metadata;
+  }
+
   @Override
   public JPAODataDatabaseOperations getOperationConverter() {
     return operationConverter;
@@ -90,11 +189,31 @@ final class JPAODataContextImpl implements JPAODataCRUDContext, JPAODataSessionC
     return packageName;
   }
 
+  @Override
+  public JPAQueryPlanCache getQueryPlanCache() {
+    return queryPlanCache;
+  }
+
+  @Override
+  public JPASearchIndex getSearchIndex() {
+    return searchIndex;
+  }
+
   @Override
   public List<EdmxReference> getReferences() {
     return references;
   }
 
+  @Override
+  public boolean isApproximateCount(final String entitySetName) {
+    return approximateCounts.contains(entitySetName);
+  }
+
+  @Override
+  public boolean isStreamingEnabled() {
+    return streamingEnabled;
+  }
+
   @Override
   public void initDebugger(final String debugFormat) {
     // see org.apache.olingo.server.core.debug.ServerCoreDebugger
@@ -114,6 +233,34 @@ final class JPAODataContextImpl implements JPAODataCRUDContext, JPAODataSessionC
     }
   }
 
+  @Override
+  public void setApproximateCount(final String entitySetName, final boolean approximateCount) {
+    if (approximateCount)
+      approximateCounts.add(entitySetName);
+    else
+      approximateCounts.remove(entitySetName);
+  }
+
+  @Override
+  public void setBatchExecutor(final ExecutorService batchExecutor) {
+    this.batchExecutor = batchExecutor;
+  }
+
+  @Override
+  public void setChangeSetFlushInterval(final int flushInterval) {
+    this.changeSetFlushInterval = flushInterval;
+  }
+
+  @Override
+  public void setCountCache(final JPACountCache countCache) {
+    this.countCache = countCache;
+  }
+
+  @Override
+  public void setFunctionResultCache(final JPAFunctionResultCache functionResultCache) {
+    this.functionResultCache = functionResultCache;
+  }
+
   @Override
   public void setCUDRequestHandler(JPACUDRequestHandler jpaCUDRequestHandler) {
     this.jpaCUDRequestHandler = jpaCUDRequestHandler;
@@ -129,18 +276,38 @@ final class JPAODataContextImpl implements JPAODataCRUDContext, JPAODataSessionC
     this.debugSupport = this.jpaoDataGetHandler.new JPADebugSupportWrapper(jpaDebugSupport);
   }
 
+  @Override
+  public synchronized void setEdmSnapshot(final Path snapshot) {
+    this.edmSnapshot = snapshot;
+    // A provider created by the metadata post processor shall be recreated using the snapshot
+    jpaEdm = null;
+    serviceMetadata = null;
+  }
+
   @Override
   public void setErrorProcessor(ErrorProcessor errorProcessor) {
     this.errorProcessor = errorProcessor;
   }
 
   @Override
-  public void setMetadataPostProcessor(final JPAEdmMetadataPostProcessor postProcessor) throws ODataException {
-    if (this.jpaoDataGetHandler.jpaMetamodel != null)
+  public void setExpandStrategy(final JPAExpandStrategy expandStrategy) {
+    this.expandStrategy = expandStrategy;
+  }
+
+  @Override
+  public void setMaxPageSize(final String entitySetName, final int maxPageSize) {
+    maxPageSizes.put(entitySetName, Integer.valueOf(maxPageSize));
+  }
+
+  @Override
+  public synchronized void setMetadataPostProcessor(final JPAEdmMetadataPostProcessor postProcessor)
+      throws ODataException {
+    this.postProcessor = postProcessor;
+    if (this.jpaoDataGetHandler.jpaMetamodel != null) {
       jpaEdm = new JPAEdmProvider(this.jpaoDataGetHandler.namespace, this.jpaoDataGetHandler.jpaMetamodel,
-          postProcessor, packageName);
-    else
-      this.postProcessor = postProcessor;
+          postProcessor, packageName, edmSnapshot);
+      serviceMetadata = null;
+    }
   }
 
   @Override
@@ -148,11 +315,26 @@ final class JPAODataContextImpl implements JPAODataCRUDContext, JPAODataSessionC
     operationConverter = jpaOperationConverter;
   }
 
+  @Override
+  public void setQueryPlanCache(final JPAQueryPlanCache queryPlanCache) {
+    this.queryPlanCache = queryPlanCache;
+  }
+
   @Override
   public void setReferences(final List<EdmxReference> references) {
     this.references = references;
   }
 
+  @Override
+  public void setSearchIndex(final JPASearchIndex searchIndex) {
+    this.searchIndex = searchIndex;
+  }
+
+  @Override
+  public void setStreamingEnabled(final boolean streamingEnabled) {
+    this.streamingEnabled = streamingEnabled;
+  }
+
   @Override
   public void setTypePackage(final String... packageName) {
     this.packageName = packageName;
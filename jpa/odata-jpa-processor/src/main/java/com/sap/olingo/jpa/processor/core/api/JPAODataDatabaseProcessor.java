@@ -1,8 +1,11 @@
 package com.sap.olingo.jpa.processor.core.api;
 
+import com.sap.olingo.jpa.processor.core.database.JPAODataDatabaseCount;
+import com.sap.olingo.jpa.processor.core.database.JPAODataDatabaseExpand;
 import com.sap.olingo.jpa.processor.core.database.JPAODataDatabaseSearch;
 import com.sap.olingo.jpa.processor.core.database.JPAODataDatabaseTableFunction;
 
-public interface JPAODataDatabaseProcessor extends JPAODataDatabaseSearch, JPAODataDatabaseTableFunction {
+public interface JPAODataDatabaseProcessor extends JPAODataDatabaseSearch, JPAODataDatabaseTableFunction,
+    JPAODataDatabaseExpand, JPAODataDatabaseCount {
 
 }
@@ -1,6 +1,8 @@
 package com.sap.olingo.jpa.processor.core.api;
 
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.olingo.commons.api.edmx.EdmxReference;
 import org.apache.olingo.commons.api.ex.ODataException;
@@ -9,10 +11,62 @@ import org.apache.olingo.server.api.processor.ErrorProcessor;
 
 import com.sap.olingo.jpa.metadata.api.JPAEdmMetadataPostProcessor;
 import com.sap.olingo.jpa.processor.core.database.JPAODataDatabaseOperations;
+import com.sap.olingo.jpa.processor.core.database.JPASearchIndex;
+import com.sap.olingo.jpa.processor.core.query.JPACountCache;
+import com.sap.olingo.jpa.processor.core.query.JPAFunctionResultCache;
+import com.sap.olingo.jpa.processor.core.query.JPAExpandStrategy;
+import com.sap.olingo.jpa.processor.core.query.JPAQueryPlanCache;
 
 public interface JPAODataGetContext {
   public void initDebugger(final String debugFormat);
 
+  /**
+   * Switches on, that an unrestricted $count of the given entity set is answered by an estimate taken from the
+   * statistics of the database, see
+   * {@link com.sap.olingo.jpa.processor.core.database.JPAODataDatabaseCount#estimateCount JPAODataDatabaseCount}. This
+   * is intended for very large entity sets, where counting all rows is too expensive. A response that contains an
+   * estimate has the header <code>X-Approximate-Count: true</code>. If the database processor can not provide an
+   * estimate the entities get counted. By default counts are exact.
+   * @param entitySetName Name of the entity set
+   * @param approximateCount
+   */
+  public default void setApproximateCount(final String entitySetName, final boolean approximateCount) {
+    // Not supported
+  }
+
+  /**
+   * Sets the executor used to process the GET requests of a $batch, which are not part of a change set, at the same
+   * time. Each of these requests gets an entity manager of its own from the factory of the entity manager the $batch
+   * is processed with. The executor is shared by all requests of a service and is not shut down by the service. By
+   * default the requests of a $batch are processed one after the other.<p>
+   * {@link JPAODataBatchProcessor#createBatchExecutor(int)} provides an executor that uses virtual threads if
+   * available and limits the number of requests executed at the same time.
+   * @param batchExecutor
+   */
+  public default void setBatchExecutor(final ExecutorService batchExecutor) {
+    // Not supported
+  }
+
+  /**
+   * Registers a cache for the results of $count. Counts are only cached for entity sets a time to live has been set
+   * for at the cache, see {@link JPACountCache#setTimeToLive(String, long)}. The cache is shared by all requests of a
+   * service. By default no cache is used.
+   * @param countCache
+   */
+  public default void setCountCache(final JPACountCache countCache) {
+    // Not supported
+  }
+
+  /**
+   * Registers a cache for the results of functions. Results are only cached for functions a time to live is given for,
+   * see {@link com.sap.olingo.jpa.metadata.core.edm.annotation.EdmFunction#cacheTimeToLive() EdmFunction}. The cache
+   * is shared by all requests of a service. By default no cache is used.
+   * @param functionResultCache
+   */
+  public default void setFunctionResultCache(final JPAFunctionResultCache functionResultCache) {
+    // Not supported
+  }
+
   /**
    * 
    * @param postProcessor
@@ -22,6 +76,16 @@ public interface JPAODataGetContext {
 
   public void setDebugSupport(final DebugSupport jpaDebugSupport);
 
+  /**
+   * Sets the file that keeps a snapshot of the CSDL schemas of the service. In case the model has not changed since
+   * the snapshot was written, the metadata are taken from the snapshot instead of being built from the JPA metamodel.
+   * Otherwise the snapshot gets replaced. By default no snapshot is used.
+   * @param snapshot
+   */
+  public default void setEdmSnapshot(final Path snapshot) {
+    // Not supported
+  }
+
   /**
    * Allows to provide an Olingo error processor. The error processor allows to enrich an error response. See
    * <a
@@ -34,6 +98,33 @@ public interface JPAODataGetContext {
    */
   public void setErrorProcessor(final ErrorProcessor errorProcessor);
 
+  /**
+   * Sets the strategy used to read the entities requested by $expand. By default the restrictions of the super-ordinate
+   * query are repeated as sub-queries, see {@link com.sap.olingo.jpa.processor.core.query.JPAExpandSubQueryStrategy
+   * JPAExpandSubQueryStrategy}. {@link com.sap.olingo.jpa.processor.core.query.JPAExpandKeyListStrategy
+   * JPAExpandKeyListStrategy} selects the expanded entities via the join column values of the super-ordinate result.
+   * @param expandStrategy
+   */
+  public default void setExpandStrategy(final JPAExpandStrategy expandStrategy) {
+    // Not supported
+  }
+
+  /**
+   * Restricts the number of entities returned for a request of the given entity set. In case the collection contains
+   * more entities, the response contains a next link. The next link contains a $skiptoken, which holds the values of
+   * the ordering properties and the key of the last entity returned. The next page is selected by a comparison with
+   * these values, so reading a page does not depend on the number of pages read before.<p>
+   * For details see:
+   * <a href=
+   * "http://docs.oasis-open.org/odata/odata/v4.0/errata02/os/complete/part1-protocol/odata-v4.0-errata02-os-part1-protocol-complete.html#_Toc406398310"
+   * >OData Version 4.0 Part 1 - 11.2.5.7 Server-Driven Paging</a>
+   * @param entitySetName Name of the entity set
+   * @param maxPageSize Maximum number of entities per page
+   */
+  public default void setMaxPageSize(final String entitySetName, final int maxPageSize) {
+    // Not supported
+  }
+
   /**
    * 
    * @param postProcessor
@@ -48,12 +139,46 @@ public interface JPAODataGetContext {
    */
   public void setOperationConverter(final JPAODataDatabaseOperations jpaOperationConverter);
 
+  /**
+   * Registers a cache for query plans. Requests that have the same shape, so they differ only in the values used e.g.
+   * within $filter, share the resolved attributes and the parameterized query, which is registered as named query at
+   * the entity manager factory. The cache is shared by all requests of a service. By default no cache is used.
+   * @param queryPlanCache
+   */
+  public default void setQueryPlanCache(final JPAQueryPlanCache queryPlanCache) {
+    // Not supported
+  }
+
   /**
    * Registers the debug support handler.
    * @param debugSupport
    */
   public void setReferences(final List<EdmxReference> references);
 
+  /**
+   * Registers an index that answers $search instead of the database processor. The index is kept in memory and is
+   * shared by all requests of a service. It is kept current by the create, update and delete requests of the service.
+   * By default $search is executed by the database.
+   * @param searchIndex
+   */
+  public default void setSearchIndex(final JPASearchIndex searchIndex) {
+    // Not supported
+  }
+
+  /**
+   * Switches on, that entity collections are serialized as a stream. The entities are read from the database in chunks
+   * and are converted and written one after the other, instead of creating the complete response in memory before it
+   * is handed over. Expanded entities are read per chunk via the keys of the chunk. The entity manager has to stay open
+   * until the response has been written.<p>
+   * Errors that occur within the first chunk lead to an error response. Errors that occur later, after the status code
+   * has been sent, abort the serialization with an ODataRuntimeException, so the response body is incomplete. By
+   * default streaming is switched off.
+   * @param streamingEnabled
+   */
+  public default void setStreamingEnabled(final boolean streamingEnabled) {
+    // Not supported
+  }
+
   /**
    * Name of the top level package to look for
    * <ul>
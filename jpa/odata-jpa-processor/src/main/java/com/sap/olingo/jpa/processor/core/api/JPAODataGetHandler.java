@@ -18,6 +18,7 @@ import org.apache.olingo.server.api.debug.DebugSupport;
 import org.apache.olingo.server.api.debug.RuntimeMeasurement;
 
 import com.sap.olingo.jpa.metadata.api.JPAEntityManagerFactory;
+import com.sap.olingo.jpa.processor.core.modify.JPACacheUpdates;
 
 public class JPAODataGetHandler {
   final String namespace;
@@ -50,25 +51,74 @@ public class JPAODataGetHandler {
     return context;
   }
 
+  /**
+   * @return Updates of the caches of the service, which are applied by the caller, see
+   * {@link #process(HttpServletRequest, HttpServletResponse, EntityManager, JPACacheUpdates)}
+   */
+  public JPACacheUpdates createCacheUpdates() {
+    return new JPACacheUpdates(context);
+  }
+
   public void process(final HttpServletRequest request, final HttpServletResponse response) throws ODataException {
     process(request, response, emf.createEntityManager());
   }
 
-  @SuppressWarnings("unchecked")
+  /**
+   * Processes a request with an entity manager, which may have an active transaction begun by the caller. As it is
+   * not known when the changes of such a request become visible, the search index and the cached function results of
+   * the changed entity types are invalidated when the request returns, see
+   * {@link JPACacheUpdates#applyAsInvalidations()}. To update them after the commit instead, use
+   * {@link #process(HttpServletRequest, HttpServletResponse, EntityManager, JPACacheUpdates)}.
+   * @param request
+   * @param response
+   * @param em
+   * @throws ODataException
+   */
   public void process(final HttpServletRequest request, final HttpServletResponse response, final EntityManager em)
       throws ODataException {
+    final JPACacheUpdates cacheUpdates = createCacheUpdates();
+    try {
+      process(request, response, em, cacheUpdates);
+    } finally {
+      if (cacheUpdates.isCollecting())
+        cacheUpdates.applyAsInvalidations();
+    }
+  }
+
+  /**
+   * Processes a request with an entity manager, which may have an active transaction begun by the caller. The changes
+   * of such a request become visible not before the caller commits, so the search index and the cached function
+   * results are not updated by the request. Instead the updates are collected at <code>cacheUpdates</code>. The caller
+   * has to apply them after the commit, see {@link JPACacheUpdates#apply()}, or to discard them in case of a rollback.
+   * @param request
+   * @param response
+   * @param em
+   * @param cacheUpdates Updates of the caches, see {@link #createCacheUpdates()}
+   * @throws ODataException
+   */
+  @SuppressWarnings("unchecked")
+  public void process(final HttpServletRequest request, final HttpServletResponse response, final EntityManager em,
+      final JPACacheUpdates cacheUpdates) throws ODataException {
 
     this.jpaMetamodel = em.getMetamodel();
-    final ODataHttpHandler handler = odata.createHandler(odata.createServiceMetadata(context.getEdmProvider(), context
-        .getEdmProvider().getReferences()));
+    // The service metadata is shared between the requests, only the handler and the processors, which are bound to
+    // the entity manager of the request, get created per request. The same is true for the debugger.
+    final ODataHttpHandler handler = odata.createHandler(context.getServiceMetadata());
+    final JPAODataSessionContextAccess requestContext = context.createRequestContext(request.getParameter(
+        DebugSupport.ODATA_DEBUG_QUERY_PARAMETER));
     context.getEdmProvider().setRequestLocales(request.getLocales());
-    context.initDebugger(request.getParameter(DebugSupport.ODATA_DEBUG_QUERY_PARAMETER));
-    handler.register(context.getDebugSupport());
-    handler.register(new JPAODataRequestProcessor(context, em));
-    handler.register(new JPAODataBatchProcessor(context, em));
+    handler.register(requestContext.getDebugSupport());
+    final JPAODataRequestProcessor requestProcessor = new JPAODataRequestProcessor(requestContext, em, cacheUpdates);
+    handler.register(requestProcessor);
+    handler.register(new JPAODataBatchProcessor(requestContext, em, cacheUpdates));
     handler.register(context.getEdmProvider().getServiceDocument());
     handler.register(context.getErrorProcessor());
-    handler.process(request, response);
+    try {
+      handler.process(request, response);
+    } finally {
+      requestProcessor.releaseResources();
+      context.getEdmProvider().setRequestLocales(null);
+    }
   }
 
   class JPADebugSupportWrapper implements DebugSupport {
@@ -113,6 +163,13 @@ public class JPAODataGetHandler {
       return debugSupport.isUserAuthorized();
     }
 
+    /**
+     * @return A wrapper of the same debug support, which keeps the debugger of another request
+     */
+    JPADebugSupportWrapper copy() {
+      return new JPADebugSupportWrapper(debugSupport);
+    }
+
     void setDebugger(final JPAServiceDebugger debugger) {
       this.debugger = debugger;
     }
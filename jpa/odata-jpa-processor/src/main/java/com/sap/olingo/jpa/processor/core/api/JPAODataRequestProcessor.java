@@ -1,5 +1,11 @@
 package com.sap.olingo.jpa.processor.core.api;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import javax.persistence.EntityManager;
 import javax.persistence.OptimisticLockException;
 import javax.persistence.RollbackException;
@@ -25,6 +31,7 @@ import org.apache.olingo.server.api.processor.PrimitiveValueProcessor;
 import org.apache.olingo.server.api.uri.UriInfo;
 
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
+import com.sap.olingo.jpa.processor.core.modify.JPACacheUpdates;
 import com.sap.olingo.jpa.processor.core.processor.JPAActionRequestProcessor;
 import com.sap.olingo.jpa.processor.core.processor.JPACUDRequestProcessor;
 import com.sap.olingo.jpa.processor.core.processor.JPAProcessorFactory;
@@ -36,17 +43,32 @@ public final class JPAODataRequestProcessor
     ActionVoidProcessor {
   private final EntityManager em;
   private final JPAODataSessionContextAccess context;
+  private final List<Closeable> openContents;
+  private final JPACacheUpdates cacheUpdates;
   private JPAProcessorFactory factory;
 
   public JPAODataRequestProcessor(final JPAODataSessionContextAccess context, final EntityManager em) {
+    this(context, em, new JPACacheUpdates(context));
+  }
+
+  /**
+   * @param context
+   * @param em
+   * @param cacheUpdates Updates of the caches, shared with the {@link JPAODataBatchProcessor} of the same entity
+   * manager, so they can be applied after a change set has been committed
+   */
+  public JPAODataRequestProcessor(final JPAODataSessionContextAccess context, final EntityManager em,
+      final JPACacheUpdates cacheUpdates) {
     super();
     this.em = em;
     this.context = context;
+    this.cacheUpdates = cacheUpdates;
+    this.openContents = Collections.synchronizedList(new ArrayList<Closeable>());
   }
 
   @Override
   public void init(final OData odata, final ServiceMetadata serviceMetadata) {
-    this.factory = new JPAProcessorFactory(odata, serviceMetadata, context);
+    this.factory = new JPAProcessorFactory(odata, serviceMetadata, context, cacheUpdates);
   }
 
   @Override
@@ -296,6 +318,8 @@ public final class JPAODataRequestProcessor
     try {
       final JPARequestProcessor p = factory.createProcessor(em, uriInfo, responseFormat);
       p.retrieveData(request, response, responseFormat);
+      if (response.getODataContent() instanceof Closeable)
+        openContents.add((Closeable) response.getODataContent());
     } catch (ODataApplicationException | ODataLibraryException e) {
       throw e;
     } catch (ODataException e) {
@@ -304,6 +328,24 @@ public final class JPAODataRequestProcessor
     }
   }
 
+  /**
+   * Media resources are streamed from the database, which keeps a statement and possibly a transaction open until the
+   * content has been written. The content is not written in case e.g. a debug response has been requested, so it has
+   * to be released after the response was processed.
+   */
+  void releaseResources() {
+    synchronized (openContents) {
+      for (final Closeable content : openContents) {
+        try {
+          content.close();
+        } catch (IOException e) {
+          // Releasing is done on a best effort basis
+        }
+      }
+      openContents.clear();
+    }
+  }
+
   @Override
   public void updateComplex(final ODataRequest request, final ODataResponse response, final UriInfo uriInfo,
       final ContentType requestFormat, final ContentType responseFormat)
@@ -0,0 +1,147 @@
+package com.sap.olingo.jpa.processor.core.api;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.debug.DebugSupport;
+import org.apache.olingo.server.api.processor.ErrorProcessor;
+
+import com.sap.olingo.jpa.metadata.api.JPAEdmProvider;
+import com.sap.olingo.jpa.processor.core.api.JPAODataGetHandler.JPADebugSupportWrapper;
+import com.sap.olingo.jpa.processor.core.database.JPAODataDatabaseOperations;
+import com.sap.olingo.jpa.processor.core.database.JPASearchIndex;
+import com.sap.olingo.jpa.processor.core.query.JPACountCache;
+import com.sap.olingo.jpa.processor.core.query.JPAExpandStrategy;
+import com.sap.olingo.jpa.processor.core.query.JPAFunctionResultCache;
+import com.sap.olingo.jpa.processor.core.query.JPAQueryPlanCache;
+
+/**
+ * Session context of a single request. The service metadata and the session context of the service are shared by
+ * concurrent requests, so the debugger and the debug support, which collect the runtime information of a request, are
+ * created per request. All other settings are taken from the session context of the service.
+ */
+final class JPAODataRequestSessionContext implements JPAODataSessionContextAccess {
+  private final JPAODataSessionContextAccess context;
+  private final JPADebugSupportWrapper debugSupport;
+  private final JPAServiceDebugger debugger;
+
+  /**
+   * @param context Session context of the service
+   * @param debugSupport Debug support of the request or null
+   * @param odata
+   * @param debugFormat Requested debug format, see {@link DebugSupport#ODATA_DEBUG_QUERY_PARAMETER}, or null
+   */
+  JPAODataRequestSessionContext(final JPAODataSessionContextAccess context, final JPADebugSupportWrapper debugSupport,
+      final OData odata, final String debugFormat) {
+    super();
+    this.context = context;
+    this.debugSupport = debugSupport;
+    // see org.apache.olingo.server.core.debug.ServerCoreDebugger
+    boolean isDebugMode = false;
+    if (debugSupport != null && debugFormat != null) {
+      debugSupport.init(odata);
+      isDebugMode = debugSupport.isUserAuthorized();
+    }
+    this.debugger = isDebugMode ? new JPACoreDeugger() : new JPAEmptyDebugger();
+    if (debugSupport != null)
+      debugSupport.setDebugger(debugger);
+  }
+
+  @Override
+  public JPAODataDatabaseProcessor getDatabaseProcessor() {
+    return context.getDatabaseProcessor();
+  }
+
+  @Override
+  public JPAServiceDebugger getDebugger() {
+    return debugger;
+  }
+
+  @Override
+  public DebugSupport getDebugSupport() {
+    return debugSupport;
+  }
+
+  @Override
+  public JPAEdmProvider getEdmProvider() throws ODataException {
+    return context.getEdmProvider();
+  }
+
+  @Override
+  public JPAODataDatabaseOperations getOperationConverter() {
+    return context.getOperationConverter();
+  }
+
+  @Override
+  public List<EdmxReference> getReferences() {
+    return context.getReferences();
+  }
+
+  @Override
+  public JPACUDRequestHandler getCUDRequestHandler() {
+    return context.getCUDRequestHandler();
+  }
+
+  @Override
+  public String[] getPackageName() {
+    return context.getPackageName();
+  }
+
+  @Override
+  public JPAExpandStrategy getExpandStrategy() {
+    return context.getExpandStrategy();
+  }
+
+  @Override
+  public Integer getMaxPageSize(final String entitySetName) {
+    return context.getMaxPageSize(entitySetName);
+  }
+
+  @Override
+  public JPAQueryPlanCache getQueryPlanCache() {
+    return context.getQueryPlanCache();
+  }
+
+  @Override
+  public JPASearchIndex getSearchIndex() {
+    return context.getSearchIndex();
+  }
+
+  @Override
+  public JPACountCache getCountCache() {
+    return context.getCountCache();
+  }
+
+  @Override
+  public JPAFunctionResultCache getFunctionResultCache() {
+    return context.getFunctionResultCache();
+  }
+
+  @Override
+  public boolean isApproximateCount(final String entitySetName) {
+    return context.isApproximateCount(entitySetName);
+  }
+
+  @Override
+  public boolean isStreamingEnabled() {
+    return context.isStreamingEnabled();
+  }
+
+  @Override
+  public ExecutorService getBatchExecutor() {
+    return context.getBatchExecutor();
+  }
+
+  @Override
+  public int getChangeSetFlushInterval() {
+    return context.getChangeSetFlushInterval();
+  }
+
+  @Override
+  public ErrorProcessor getErrorProcessor() {
+    return context.getErrorProcessor();
+  }
+}
@@ -1,13 +1,21 @@
 package com.sap.olingo.jpa.processor.core.api;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.olingo.commons.api.edmx.EdmxReference;
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.server.api.debug.DebugSupport;
+import org.apache.olingo.server.api.processor.ErrorProcessor;
 
 import com.sap.olingo.jpa.metadata.api.JPAEdmProvider;
 import com.sap.olingo.jpa.processor.core.database.JPAODataDatabaseOperations;
+import com.sap.olingo.jpa.processor.core.database.JPASearchIndex;
+import com.sap.olingo.jpa.processor.core.query.JPACountCache;
+import com.sap.olingo.jpa.processor.core.query.JPAFunctionResultCache;
+import com.sap.olingo.jpa.processor.core.query.JPAExpandStrategy;
+import com.sap.olingo.jpa.processor.core.query.JPAExpandSubQueryStrategy;
+import com.sap.olingo.jpa.processor.core.query.JPAQueryPlanCache;
 
 public interface JPAODataSessionContextAccess {
   public JPAODataDatabaseProcessor getDatabaseProcessor();
@@ -25,4 +33,76 @@ public interface JPAODataSessionContextAccess {
   public JPACUDRequestHandler getCUDRequestHandler();
 
   public String[] getPackageName();
+
+  public default JPAExpandStrategy getExpandStrategy() {
+    return new JPAExpandSubQueryStrategy();
+  }
+
+  /**
+   * @param entitySetName
+   * @return Maximum number of entities returned per page for the given entity set or null if the entity set shall not
+   * be read page by page
+   */
+  public default Integer getMaxPageSize(final String entitySetName) {
+    return null;
+  }
+
+  /**
+   * @return Cache of query plans or null if queries shall be created from scratch for each request
+   */
+  public default JPAQueryPlanCache getQueryPlanCache() {
+    return null;
+  }
+
+  /**
+   * @return Index used for $search or null if $search shall be executed by the database processor
+   */
+  public default JPASearchIndex getSearchIndex() {
+    return null;
+  }
+
+  /**
+   * @return Cache of counts or null if counts shall always be read from the database
+   */
+  public default JPACountCache getCountCache() {
+    return null;
+  }
+
+  /**
+   * @return Cache of function results or null if functions shall always be executed
+   */
+  public default JPAFunctionResultCache getFunctionResultCache() {
+    return null;
+  }
+
+  /**
+   * @param entitySetName
+   * @return true if an unrestricted $count of the entity set may be answered by an estimate of the database
+   */
+  public default boolean isApproximateCount(final String entitySetName) {
+    return false;
+  }
+
+  public default boolean isStreamingEnabled() {
+    return false;
+  }
+
+  /**
+   * @return Executor for the GET requests of a $batch or null if they shall be processed one after the other
+   */
+  public default ExecutorService getBatchExecutor() {
+    return null;
+  }
+
+  /**
+   * @return Number of requests of a change set after which the changes are flushed or 0 if a change set shall be
+   * flushed at commit only
+   */
+  public default int getChangeSetFlushInterval() {
+    return 0;
+  }
+
+  public default ErrorProcessor getErrorProcessor() {
+    return new JPADefaultErrorProcessor();
+  }
 }
@@ -10,13 +10,13 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
 
 public interface JPAExpandResult {
 
-  List<Tuple> getResult(final String key);
+  List<Tuple> getResult(final JPAJoinKey key);
 
   Map<JPAAssociationPath, JPAExpandResult> getChildren();
 
   boolean hasCount();
 
-  Long getCount(final String string);
+  Long getCount(final JPAJoinKey key);
 
   JPAEntityType getEntityType();
 
@@ -0,0 +1,221 @@
+package com.sap.olingo.jpa.processor.core.converter;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.persistence.Tuple;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAOnConditionItem;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
+
+/**
+ * Key of the rows of an expand result, which is build from the values of the join columns. The rows of a parent and the
+ * rows of an expanded entity are matched by their keys, so the key of a parent row has to be equal to the key of the
+ * child rows, independent of the type the database driver returned the values with. Integral numbers are therefore
+ * compared by their long value. The hash code is calculated once. Keys made of one <code>Long</code>,
+ * <code>Integer</code> or <code>String</code> value do not create a value array.<p>
+ * The string representation of a key concatenates the values separated by {@link JPAPath#PATH_SEPERATOR}.
+ */
+public abstract class JPAJoinKey {
+  /**
+   * Key of the result of the root query, which is not grouped by any join column. It is only equal to itself, so it
+   * can not be mixed up with the key of a row.
+   */
+  public static final JPAJoinKey ROOT = new RootKey();
+
+  /**
+   * @return A key containing one value
+   */
+  public static JPAJoinKey of(final Object value) {
+    if (isIntegral(value))
+      return new LongKey(((Number) value).longValue());
+    if (value instanceof String)
+      return new StringKey((String) value);
+    return new ObjectKey(value);
+  }
+
+  /**
+   * @return A key containing the values in the given order
+   */
+  public static JPAJoinKey of(final Object... values) {
+    if (values.length == 1)
+      return of(values[0]);
+    final Object[] keyValues = new Object[values.length];
+    for (int i = 0; i < values.length; i++)
+      keyValues[i] = normalize(values[i]);
+    return new CompositeKey(keyValues);
+  }
+
+  /**
+   * Creates the key of a row
+   * @param row
+   * @param aliases Aliases of the join columns, see {@link #getAliases(List, boolean)}
+   * @return
+   */
+  public static JPAJoinKey fromRow(final Tuple row, final String[] aliases) {
+    // TODO Tuple returns the converted value in case a @Convert(converter = annotation is given
+    if (aliases.length == 1)
+      return of(row.get(aliases[0]));
+    final Object[] keyValues = new Object[aliases.length];
+    for (int i = 0; i < aliases.length; i++)
+      keyValues[i] = normalize(row.get(aliases[i]));
+    return new CompositeKey(keyValues);
+  }
+
+  /**
+   * Determines the aliases of the join columns of an association once, so they do not need to be determined per row.
+   * @param joinColumns
+   * @param left True for the columns of the source of the association, false for the columns of the target
+   * @return
+   */
+  public static String[] getAliases(final List<JPAOnConditionItem> joinColumns, final boolean left) {
+    final String[] aliases = new String[joinColumns.size()];
+    for (int i = 0; i < aliases.length; i++) {
+      final JPAOnConditionItem item = joinColumns.get(i);
+      aliases[i] = left ? item.getLeftPath().getAlias() : item.getRightPath().getAlias();
+    }
+    return aliases;
+  }
+
+  private static boolean isIntegral(final Object value) {
+    return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+  }
+
+  private static Object normalize(final Object value) {
+    return isIntegral(value) && !(value instanceof Long) ? Long.valueOf(((Number) value).longValue()) : value;
+  }
+
+  private JPAJoinKey() {
+    super();
+  }
+
+  private static final class RootKey extends JPAJoinKey {
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(this);
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+      return this == object;
+    }
+
+    @Override
+    public String toString() {
+      return "root";
+    }
+  }
+
+  private static final class LongKey extends JPAJoinKey {
+    private final long value;
+
+    private LongKey(final long value) {
+      super();
+      this.value = value;
+    }
+
+    @Override
+    public int hashCode() {
+      return (int) (value ^ (value >>> 32));
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+      return object instanceof LongKey && ((LongKey) object).value == value;
+    }
+
+    @Override
+    public String toString() {
+      return Long.toString(value);
+    }
+  }
+
+  private static final class StringKey extends JPAJoinKey {
+    private final String value;
+
+    private StringKey(final String value) {
+      super();
+      this.value = value;
+    }
+
+    @Override
+    public int hashCode() {
+      return value.hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+      return object instanceof StringKey && ((StringKey) object).value.equals(value);
+    }
+
+    @Override
+    public String toString() {
+      return value;
+    }
+  }
+
+  private static final class ObjectKey extends JPAJoinKey {
+    private final Object value;
+
+    private ObjectKey(final Object value) {
+      super();
+      this.value = value;
+    }
+
+    @Override
+    public int hashCode() {
+      return value == null ? 0 : value.hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+      if (!(object instanceof ObjectKey))
+        return false;
+      final Object other = ((ObjectKey) object).value;
+      return value == null ? other == null : value.equals(other);
+    }
+
+    @Override
+    public String toString() {
+      return String.valueOf(value);
+    }
+  }
+
+  private static final class CompositeKey extends JPAJoinKey {
+    private final Object[] values;
+    private final int hash;
+
+    private CompositeKey(final Object[] values) {
+      super();
+      this.values = values;
+      this.hash = Arrays.hashCode(values);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+      if (this == object)
+        return true;
+      if (!(object instanceof CompositeKey))
+        return false;
+      final CompositeKey other = (CompositeKey) object;
+      return other.hash == hash && Arrays.equals(other.values, values);
+    }
+
+    @Override
+    public String toString() {
+      final StringBuilder buffer = new StringBuilder();
+      for (final Object value : values) {
+        buffer.append(JPAPath.PATH_SEPERATOR);
+        buffer.append(value);
+      }
+      buffer.deleteCharAt(0);
+      return buffer.toString();
+    }
+  }
+}
@@ -8,15 +8,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import javax.persistence.AttributeConverter;
 import javax.persistence.Tuple;
-import javax.persistence.TupleElement;
 
 import org.apache.olingo.commons.api.data.ComplexValue;
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.Link;
 import org.apache.olingo.commons.api.data.Property;
-import org.apache.olingo.commons.api.data.ValueType;
 import org.apache.olingo.commons.api.edm.EdmEntityType;
 import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
@@ -26,13 +23,9 @@ import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.api.uri.UriHelper;
 
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAssociationPath;
-import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAttribute;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntitySet;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
-import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAOnConditionItem;
-import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAServiceDocument;
-import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAStructuredType;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAQueryException;
 
@@ -48,6 +41,8 @@ public abstract class JPATupleAbstractConverter {
   protected final JPAServiceDocument sd;
   protected final ServiceMetadata serviceMetadata;
   protected final EdmEntityType edmType;
+  private JPATupleConversionPlan conversionPlan;
+  private final Map<JPAAssociationPath, JPATupleExpandResultConverter> expandConverters = new HashMap<>();
 
   public JPATupleAbstractConverter(final JPAExpandResult jpaQueryResult,
       final UriHelper uriHelper, final JPAServiceDocument sd, final ServiceMetadata serviceMetadata)
@@ -63,39 +58,20 @@ public abstract class JPATupleAbstractConverter {
     this.edmType = determineEdmType();
   }
 
-  protected String buildConcatenatedKey(final Tuple row, final List<JPAOnConditionItem> joinColumns) {
-    final StringBuilder buffer = new StringBuilder();
-    for (final JPAOnConditionItem item : joinColumns) {
-      buffer.append(JPAPath.PATH_SEPERATOR);
-      // TODO Tuple returns the converted value in case a @Convert(converter = annotation is given
-      buffer.append(row.get(item.getLeftPath().getAlias()));
-    }
-    buffer.deleteCharAt(0);
-    return buffer.toString();
-  }
-
   protected Entity convertRow(final JPAEntityType rowEntity, final Tuple row) throws ODataApplicationException {
-    final Map<String, ComplexValue> complexValueBuffer = new HashMap<>();
     final Entity odataEntity = new Entity();
 
     odataEntity.setType(edmType.getFullQualifiedName().getFullQualifiedNameAsString());
     final List<Property> properties = odataEntity.getProperties();
     // TODO store @Version to fill ETag Header
-    for (final TupleElement<?> element : row.getElements()) {
-      try {
-        convertAttribute(row.get(element.getAlias()), element.getAlias(), "", rowEntity, complexValueBuffer,
-            properties);
-      } catch (ODataJPAModelException e) {
-        throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_RESULT_CONV_ERROR,
-            HttpStatusCode.INTERNAL_SERVER_ERROR, e);
-      }
-    }
+    final List<ComplexValue> complexValues = getConversionPlan(rowEntity, row).convert(row, properties);
     odataEntity.setId(createId(odataEntity));
-    for (final String attribute : complexValueBuffer.keySet()) {
-      final ComplexValue complexValue = complexValueBuffer.get(attribute);
-      complexValue.getNavigationLinks().addAll(createExpand(row, odataEntity.getId()));
+    // The expanded entities are converted once per row and shared by the entity and its complex values
+    final Collection<Link> expandLinks = createExpand(row, odataEntity.getId());
+    for (final ComplexValue complexValue : complexValues) {
+      complexValue.getNavigationLinks().addAll(expandLinks);
     }
-    odataEntity.getNavigationLinks().addAll(createExpand(row, odataEntity.getId()));
+    odataEntity.getNavigationLinks().addAll(expandLinks);
     return odataEntity;
   }
 
@@ -108,8 +84,7 @@ public abstract class JPATupleAbstractConverter {
       for (final JPAAssociationPath associationPath : children.keySet()) {
         try {
           if (jpaConversionTargetEntity.getDeclaredAssociation(associationPath) != null) {
-            final Link expand = new JPATupleExpandResultConverter(children.get(associationPath), row,
-                associationPath, uriHelper, sd, serviceMetadata).getResult();
+            final Link expand = getExpandConverter(associationPath, children.get(associationPath)).getResult(row);
             // TODO Check how to convert Organizations('3')/AdministrativeInformation?$expand=Created/User
             entityExpandLinks.add(expand);
           }
@@ -142,62 +117,35 @@ public abstract class JPATupleAbstractConverter {
     }
   }
 
-  @SuppressWarnings("unchecked")
-  private <T extends Object, S extends Object> void convertAttribute(final Object value, final String externalName,
-      final String prefix, final JPAStructuredType jpaStructuredType,
-      final Map<String, ComplexValue> complexValueBuffer, final List<Property> properties)
-      throws ODataJPAModelException {
-
-    ComplexValue complexValue = null;
-    final JPAPath jpaPath = jpaStructuredType.getPath(externalName);
-    if (jpaPath != null) {
-      final JPAAttribute attribute = (JPAAttribute) jpaPath.getPath().get(0);
-      if (attribute != null && !attribute.isKey() && attribute.isComplex()) {
-        String bufferKey;
-        if (prefix.isEmpty())
-          bufferKey = attribute.getExternalName();
-        else
-          bufferKey = prefix + JPAPath.PATH_SEPERATOR + attribute.getExternalName();
-        complexValue = complexValueBuffer.get(bufferKey);
-        if (complexValue == null) {
-          complexValue = new ComplexValue();
-          complexValueBuffer.put(bufferKey, complexValue);
-          properties.add(new Property(
-              attribute.getStructuredType().getExternalFQN().getFullQualifiedNameAsString(),
-              attribute.getExternalName(),
-              ValueType.COMPLEX,
-              complexValue));
-        }
-        final List<Property> values = complexValue.getValue();
-        final int splitIndex = attribute.getExternalName().length() + JPAPath.PATH_SEPERATOR.length();
-        final String attributeName = externalName.substring(splitIndex);
-        convertAttribute(value, attributeName, bufferKey, attribute.getStructuredType(), complexValueBuffer, values);
-      } else {
-        Object odataValue;
-        if (attribute != null && attribute.getConverter() != null) {
-          AttributeConverter<T, S> converter = attribute.getConverter();
-          odataValue = converter.convertToDatabaseColumn((T) value);
-        } else if (attribute != null && value != null && attribute.isEnum())
-          odataValue = ((Enum<?>) value).ordinal();
-        else
-          odataValue = value;
-        if (attribute != null && attribute.isKey() && attribute.isComplex()) {
-
-          properties.add(new Property(
-              null,
-              jpaPath.getLeaf().getExternalName(),
-              attribute.isEnum() ? ValueType.ENUM : ValueType.PRIMITIVE,
-              odataValue));
-        } else {
-          // ...$select=Name1,Address/Region
-          properties.add(new Property(
-              null,
-              externalName,
-              attribute.isEnum() ? ValueType.ENUM : ValueType.PRIMITIVE,
-              odataValue));
-        }
+  /**
+   * All rows of a result share the converter of an expanded association, so its conversion plan is created only once.
+   */
+  private JPATupleExpandResultConverter getExpandConverter(final JPAAssociationPath associationPath,
+      final JPAExpandResult child) throws ODataApplicationException, ODataJPAModelException {
+
+    JPATupleExpandResultConverter converter = expandConverters.get(associationPath);
+    if (converter == null) {
+      converter = new JPATupleExpandResultConverter(child, associationPath, uriHelper, sd, serviceMetadata);
+      expandConverters.put(associationPath, converter);
+    }
+    return converter;
+  }
+
+  /**
+   * All rows of a result share the same selection, so the conversion plan is created only once.
+   */
+  private JPATupleConversionPlan getConversionPlan(final JPAEntityType rowEntity, final Tuple row)
+      throws ODataJPAQueryException {
+
+    if (conversionPlan == null || !conversionPlan.fits(rowEntity, row)) {
+      try {
+        conversionPlan = new JPATupleConversionPlan(rowEntity, row.getElements());
+      } catch (ODataJPAModelException e) {
+        throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_RESULT_CONV_ERROR,
+            HttpStatusCode.INTERNAL_SERVER_ERROR, e);
       }
     }
+    return conversionPlan;
   }
 
   private EdmEntityType determineEdmType() {
@@ -0,0 +1,180 @@
+package com.sap.olingo.jpa.processor.core.converter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
+
+import org.apache.olingo.commons.api.data.ComplexValue;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAttribute;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAStructuredType;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+
+/**
+ * Conversion plan of the rows of one query result. It is created once from the selection of the first row and maps
+ * each tuple index to the property that has to be created, so that converting a row only requires index access.
+ * <p>
+ * Complex properties are represented by slots. A slot knows its parent slot, so that the complex values of a row can
+ * be created on demand in the same order as they would be found in the selection.
+ */
+final class JPATupleConversionPlan {
+  private static final int NO_SLOT = -1;
+
+  private final JPAStructuredType rowType;
+  private final List<TupleElement<?>> elements;
+  private final List<Column> columns;
+  private final List<Slot> slots;
+
+  JPATupleConversionPlan(final JPAStructuredType rowType, final List<TupleElement<?>> elements)
+      throws ODataJPAModelException {
+
+    super();
+    this.rowType = rowType;
+    this.elements = elements;
+    this.columns = new ArrayList<>(elements.size());
+    this.slots = new ArrayList<>();
+    final Map<String, Integer> slotIndex = new HashMap<>();
+    for (int i = 0; i < elements.size(); i++)
+      planColumn(i, elements.get(i).getAlias(), slotIndex);
+  }
+
+  /**
+   * Checks if the plan was created for rows of the given type and selection. Tuples of a JPA query result share the
+   * list of elements, so in general only the aliases of tuples created otherwise need to be compared.
+   */
+  boolean fits(final JPAStructuredType type, final Tuple row) {
+    if (rowType != type)
+      return false;
+    final List<TupleElement<?>> rowElements = row.getElements();
+    if (rowElements == elements)
+      return true;
+    if (rowElements.size() != elements.size())
+      return false;
+    for (int i = 0; i < elements.size(); i++) {
+      if (!rowElements.get(i).getAlias().equals(elements.get(i).getAlias()))
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * Converts a row into properties.
+   * @param row
+   * @param properties Property list of the entity
+   * @return The complex values created for the row
+   */
+  List<ComplexValue> convert(final Tuple row, final List<Property> properties) {
+    final ComplexValue[] complexValues = new ComplexValue[slots.size()];
+    for (final Column column : columns) {
+      final List<Property> target = column.slot == NO_SLOT ? properties
+          : getComplexValue(column.slot, complexValues, properties).getValue();
+      target.add(new Property(null, column.name, column.valueType, column.convert(row.get(column.index))));
+    }
+    final List<ComplexValue> result = new ArrayList<>(complexValues.length);
+    for (final ComplexValue complexValue : complexValues) {
+      if (complexValue != null)
+        result.add(complexValue);
+    }
+    return result;
+  }
+
+  private ComplexValue getComplexValue(final int slotIndex, final ComplexValue[] complexValues,
+      final List<Property> properties) {
+
+    ComplexValue complexValue = complexValues[slotIndex];
+    if (complexValue == null) {
+      final Slot slot = slots.get(slotIndex);
+      final List<Property> parentProperties = slot.parent == NO_SLOT ? properties
+          : getComplexValue(slot.parent, complexValues, properties).getValue();
+      complexValue = new ComplexValue();
+      complexValues[slotIndex] = complexValue;
+      parentProperties.add(new Property(slot.typeName, slot.name, ValueType.COMPLEX, complexValue));
+    }
+    return complexValue;
+  }
+
+  private void planColumn(final int index, final String alias, final Map<String, Integer> slotIndex)
+      throws ODataJPAModelException {
+
+    JPAStructuredType type = rowType;
+    String externalName = alias;
+    String prefix = "";
+    int slot = NO_SLOT;
+    while (true) {
+      final JPAPath jpaPath = type.getPath(externalName);
+      if (jpaPath == null)
+        return;
+      final JPAAttribute attribute = (JPAAttribute) jpaPath.getPath().get(0);
+      if (attribute != null && !attribute.isKey() && attribute.isComplex()) {
+        final String bufferKey = prefix.isEmpty() ? attribute.getExternalName()
+            : prefix + JPAPath.PATH_SEPERATOR + attribute.getExternalName();
+        Integer complexSlot = slotIndex.get(bufferKey);
+        if (complexSlot == null) {
+          complexSlot = slots.size();
+          slots.add(new Slot(slot, attribute.getStructuredType().getExternalFQN().getFullQualifiedNameAsString(),
+              attribute.getExternalName()));
+          slotIndex.put(bufferKey, complexSlot);
+        }
+        slot = complexSlot;
+        prefix = bufferKey;
+        externalName = externalName.substring(attribute.getExternalName().length() + JPAPath.PATH_SEPERATOR
+            .length());
+        type = attribute.getStructuredType();
+      } else {
+        // In case of an embedded id the leaf is used, otherwise e.g. for ...$select=Name1,Address/Region the name
+        final String name = attribute != null && attribute.isKey() && attribute.isComplex()
+            ? jpaPath.getLeaf().getExternalName() : externalName;
+        columns.add(new Column(index, slot, name, attribute));
+        return;
+      }
+    }
+  }
+
+  private static final class Slot {
+    private final int parent;
+    private final String typeName;
+    private final String name;
+
+    Slot(final int parent, final String typeName, final String name) {
+      super();
+      this.parent = parent;
+      this.typeName = typeName;
+      this.name = name;
+    }
+  }
+
+  private static final class Column {
+    private final int index;
+    private final int slot;
+    private final String name;
+    private final ValueType valueType;
+    private final AttributeConverter<Object, Object> converter;
+    private final boolean isEnum;
+
+    Column(final int index, final int slot, final String name, final JPAAttribute attribute) {
+      super();
+      this.index = index;
+      this.slot = slot;
+      this.name = name;
+      this.isEnum = attribute.isEnum();
+      this.valueType = isEnum ? ValueType.ENUM : ValueType.PRIMITIVE;
+      this.converter = attribute.getConverter();
+    }
+
+    Object convert(final Object value) {
+      if (converter != null)
+        return converter.convertToDatabaseColumn(value);
+      else if (value != null && isEnum)
+        return ((Enum<?>) value).ordinal();
+      return value;
+    }
+  }
+}
@@ -8,7 +8,6 @@ import org.apache.olingo.commons.api.Constants;
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
 import org.apache.olingo.commons.api.data.Link;
-import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.uri.UriHelper;
@@ -16,28 +15,44 @@ import org.apache.olingo.server.api.uri.UriHelper;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAssociationPath;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAServiceDocument;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
-import com.sap.olingo.jpa.processor.core.exception.ODataJPAQueryException;
 
+/**
+ * Converts the entities of an expanded association. One converter is used for all rows of the parent result. The link
+ * created for the last parent key is kept, so the expanded entities are converted only once, even if the link is needed
+ * by several complex values of the parent or by consecutive parent rows with the same key. Only one link is kept, so
+ * a streamed response does not hold the whole expanded result.
+ */
 class JPATupleExpandResultConverter extends JPATupleAbstractConverter {
-  private final Tuple parentRow;
   private final JPAAssociationPath assoziation;
+  private final String[] joinAliases;
+  private JPAJoinKey lastParentKey;
+  private Link lastLink;
 
-  JPATupleExpandResultConverter(final JPAExpandResult jpaExpandResult, final Tuple parentRow,
-      final JPAAssociationPath assoziation, final UriHelper uriHelper, final JPAServiceDocument sd,
-      final ServiceMetadata serviceMetadata) throws ODataApplicationException {
+  JPATupleExpandResultConverter(final JPAExpandResult jpaExpandResult, final JPAAssociationPath assoziation,
+      final UriHelper uriHelper, final JPAServiceDocument sd, final ServiceMetadata serviceMetadata)
+      throws ODataApplicationException, ODataJPAModelException {
 
     super(jpaExpandResult, uriHelper, sd, serviceMetadata);
-    this.parentRow = parentRow;
     this.assoziation = assoziation;
+    this.joinAliases = JPAJoinKey.getAliases(assoziation.getJoinColumnsList(), true);
   }
 
-  public Link getResult() throws ODataApplicationException {
+  public Link getResult(final Tuple parentRow) throws ODataApplicationException {
+    final JPAJoinKey parentKey = JPAJoinKey.fromRow(parentRow, joinAliases);
+    if (lastLink == null || !parentKey.equals(lastParentKey)) {
+      lastLink = createLink(parentKey);
+      lastParentKey = parentKey;
+    }
+    return lastLink;
+  }
+
+  private Link createLink(final JPAJoinKey parentKey) throws ODataApplicationException {
     final Link link = new Link();
     link.setTitle(assoziation.getLeaf().getExternalName());
     link.setRel(Constants.NS_NAVIGATION_LINK_REL + link.getTitle());
     link.setType(Constants.ENTITY_NAVIGATION_LINK_TYPE);
-    final EntityCollection expandCollection = createEntityCollection();
-    expandCollection.setCount(determineCount(expandCollection));
+    final EntityCollection expandCollection = createEntityCollection(parentKey);
+    expandCollection.setCount(determineCount(parentKey));
     if (assoziation.getLeaf().isCollection()) {
       link.setInlineEntitySet(expandCollection);
       // TODO link.setHref(parentUri.toASCIIString());
@@ -51,25 +66,14 @@ class JPATupleExpandResultConverter extends JPATupleAbstractConverter {
     return link;
   }
 
-  private Integer determineCount(final EntityCollection expandCollection) throws ODataJPAQueryException {
-    try {
-      Long count = jpaQueryResult.getCount(buildConcatenatedKey(parentRow, assoziation.getJoinColumnsList()));
-      return count != null ? Integer.valueOf(count.intValue()) : null;
-    } catch (ODataJPAModelException e) {
-      throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_RESULT_CONV_ERROR,
-          HttpStatusCode.INTERNAL_SERVER_ERROR, e);
-    }
+  private Integer determineCount(final JPAJoinKey parentKey) {
+    final Long count = jpaQueryResult.getCount(parentKey);
+    return count != null ? Integer.valueOf(count.intValue()) : null;
   }
 
-  private EntityCollection createEntityCollection() throws ODataApplicationException {
+  private EntityCollection createEntityCollection(final JPAJoinKey parentKey) throws ODataApplicationException {
 
-    List<Tuple> subResult = null;
-    try {
-      subResult = jpaQueryResult.getResult(buildConcatenatedKey(parentRow, assoziation.getJoinColumnsList()));
-    } catch (ODataJPAModelException e) {
-      throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_RESULT_CONV_ERROR,
-          HttpStatusCode.INTERNAL_SERVER_ERROR, e);
-    }
+    final List<Tuple> subResult = jpaQueryResult.getResult(parentKey);
 
     final EntityCollection odataEntityCollection = new EntityCollection();
     if (subResult != null) {
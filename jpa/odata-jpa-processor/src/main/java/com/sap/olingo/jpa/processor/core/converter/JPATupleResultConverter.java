@@ -1,11 +1,14 @@
 package com.sap.olingo.jpa.processor.core.converter;
 
+import java.util.Iterator;
 import java.util.List;
 
 import javax.persistence.Tuple;
 
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.EntityIterator;
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.ServiceMetadata;
@@ -29,19 +32,58 @@ public class JPATupleResultConverter extends JPATupleAbstractConverter {
     final EntityCollection odataEntityCollection = new EntityCollection();
     final List<Entity> odataResults = odataEntityCollection.getEntities();
 
-    for (final Tuple row : jpaQueryResult.getResult("root")) {
-      final Entity odataEntity = convertRow(jpaConversionTargetEntity, row);
-      try {
-        if (jpaConversionTargetEntity.hasStream())
-          odataEntity.setMediaContentType(determineContentType(jpaConversionTargetEntity, row));
-      } catch (ODataJPAModelException e) {
-        throw new ODataJPAQueryException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
-      }
-      odataResults.add(odataEntity);
+    for (final Tuple row : jpaQueryResult.getResult(JPAJoinKey.ROOT)) {
+      odataResults.add(convertRootRow(row));
     }
     return odataEntityCollection;
   }
 
+  /**
+   * Provides the result as an iterator, which converts a row not before it is requested. This allows a serializer to
+   * write the entities one after the other, without the need to keep all of them in memory.
+   * @return
+   */
+  public EntityIterator getResultIterator() {
+    return getResultIterator(jpaQueryResult.getResult(JPAJoinKey.ROOT));
+  }
+
+  /**
+   * Provides further rows of the entity type of the query result as an iterator, see {@link #getResultIterator()}. The
+   * conversion is prepared only once for all rows. The rows must not have expanded entities.
+   * @param result
+   * @return
+   */
+  public EntityIterator getResultIterator(final List<Tuple> result) {
+    final Iterator<Tuple> rows = result.iterator();
+    return new EntityIterator() {
+
+      @Override
+      public boolean hasNext() {
+        return rows.hasNext();
+      }
+
+      @Override
+      public Entity next() {
+        try {
+          return convertRootRow(rows.next());
+        } catch (ODataApplicationException e) {
+          throw new ODataRuntimeException(e);
+        }
+      }
+    };
+  }
+
+  private Entity convertRootRow(final Tuple row) throws ODataApplicationException {
+    final Entity odataEntity = convertRow(jpaConversionTargetEntity, row);
+    try {
+      if (jpaConversionTargetEntity.hasStream())
+        odataEntity.setMediaContentType(determineContentType(jpaConversionTargetEntity, row));
+    } catch (ODataJPAModelException e) {
+      throw new ODataJPAQueryException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    }
+    return odataEntity;
+  }
+
   private String determineContentType(final JPAEntityType jpaEntity, final Tuple row) throws ODataJPAModelException {
     if (jpaEntity.getContentType() != null && !jpaEntity.getContentType().isEmpty())
       return jpaEntity.getContentType();
@@ -0,0 +1,141 @@
+package com.sap.olingo.jpa.processor.core.database;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
+import com.sap.olingo.jpa.processor.core.api.JPAODataDatabaseProcessor;
+
+/**
+ * Common part of the database processors that read the entities of an $expand via native queries. The queries address
+ * the table given at @Table, see {@link JPAEntityType#getQualifiedTableName()}.
+ */
+abstract class JPAAbstractDatabaseProcessor implements JPAODataDatabaseProcessor {
+
+  /**
+   * Executes a native query, which is restricted by the join values of the parents, see
+   * {@link #appendParentCondition}.
+   * @param em
+   * @param queryString
+   * @param joinValues Values of the join attributes; one entry per parent
+   * @param noColumns Number of columns returned by the query
+   * @return One entry per row
+   */
+  protected List<List<Object>> executeExpandQuery(final EntityManager em, final String queryString,
+      final List<List<Object>> joinValues, final int noColumns) {
+
+    final Query expandQuery = em.createNativeQuery(queryString);
+    int count = 1;
+    for (final List<Object> parentValues : joinValues) {
+      for (final Object value : parentValues) {
+        expandQuery.setParameter(count, value);
+        count += 1;
+      }
+    }
+    return convertExpandResult(expandQuery.getResultList(), noColumns);
+  }
+
+  /**
+   * @return Number of records of the table or null if it is not known, see {@link JPATableName#estimateCount}
+   */
+  protected Long estimateCount(final EntityManager em, final JPAEntityType entityType, final String pattern) {
+    final String tableName = entityType.getQualifiedTableName();
+    if (tableName == null)
+      return null;
+    return JPATableName.parse(tableName).estimateCount(em, pattern);
+  }
+
+  protected List<String> getColumnNames(final List<JPAPath> path) {
+    final List<String> columns = new ArrayList<>(path.size());
+    for (final JPAPath attribute : path)
+      columns.add(attribute.getDBFieldName());
+    return columns;
+  }
+
+  protected String generateColumnList(final List<JPAPath> path) {
+    final StringBuilder columns = new StringBuilder();
+    for (final JPAPath attribute : path) {
+      if (columns.length() > 0)
+        columns.append(',');
+      columns.append(attribute.getDBFieldName());
+    }
+    return columns.toString();
+  }
+
+  /**
+   * Creates the order by clause of the requested sequence. The key attributes that are not part of the requested
+   * sequence are added, so the sequence becomes unique and the same entities are returned for each call.
+   */
+  protected String generateOrderByClause(final Map<JPAPath, Boolean> orderBy, final List<JPAPath> keyPath) {
+    final StringBuilder orderByClause = new StringBuilder();
+    for (final Entry<JPAPath, Boolean> orderByItem : orderBy.entrySet()) {
+      if (orderByClause.length() > 0)
+        orderByClause.append(',');
+      orderByClause.append(orderByItem.getKey().getDBFieldName());
+      orderByClause.append(orderByItem.getValue() ? " DESC" : " ASC");
+    }
+    for (final JPAPath key : keyPath) {
+      if (!orderBy.containsKey(key)) {
+        if (orderByClause.length() > 0)
+          orderByClause.append(',');
+        orderByClause.append(key.getDBFieldName());
+      }
+    }
+    return orderByClause.toString();
+  }
+
+  /**
+   * Creates a condition, which selects the rows of all parents: (column1 = ?1 AND column2 = ?2) OR (column1 = ?3 AND
+   * ...
+   */
+  protected String generateParentsCondition(final List<String> columns, final int noParents) {
+    final StringBuilder condition = new StringBuilder();
+    int count = 1;
+    for (int i = 0; i < noParents; i++) {
+      if (condition.length() > 0)
+        condition.append(" OR ");
+      condition.append('(');
+      count = appendParentCondition(condition, columns, count);
+      condition.append(')');
+    }
+    return condition.toString();
+  }
+
+  /**
+   * Appends the condition that selects the rows of one parent: column1 = ?1 AND column2 = ?2
+   * @return Number of the next parameter
+   */
+  protected int appendParentCondition(final StringBuilder condition, final List<String> columns,
+      final int firstParameter) {
+    int count = firstParameter;
+    for (int j = 0; j < columns.size(); j++) {
+      if (j > 0)
+        condition.append(" AND ");
+      condition.append(columns.get(j));
+      condition.append(" = ?");
+      condition.append(count);
+      count += 1;
+    }
+    return count;
+  }
+
+  private List<List<Object>> convertExpandResult(final List<?> rows, final int noColumns) {
+    final List<List<Object>> result = new ArrayList<>(rows.size());
+    for (final Object row : rows) {
+      final List<Object> key = new ArrayList<>(noColumns);
+      if (row instanceof Object[]) {
+        for (final Object value : (Object[]) row)
+          key.add(value);
+      } else
+        key.add(row);
+      result.add(key);
+    }
+    return result;
+  }
+}
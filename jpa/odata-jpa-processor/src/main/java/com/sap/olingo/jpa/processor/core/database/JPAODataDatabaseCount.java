@@ -0,0 +1,27 @@
+package com.sap.olingo.jpa.processor.core.database;
+
+import javax.persistence.EntityManager;
+
+import org.apache.olingo.server.api.ODataApplicationException;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+
+public interface JPAODataDatabaseCount {
+  /**
+   * Counting all rows of a very large table can be expensive. Many databases keep statistics about their tables, which
+   * include an estimate of the number of rows, e.g. M_TABLES on SAP HANA. As the way to access them differs, a database
+   * specific implementation needs to be provided.<p>
+   * The estimate is only requested for an unrestricted $count of an entity set that has been switched to approximate
+   * counts, see {@link com.sap.olingo.jpa.processor.core.api.JPAODataGetContext#setApproximateCount}. Please note that
+   * the estimate is given per table, so it includes the rows of other entity types that share the table, e.g. in case
+   * of single table inheritance.
+   * @param em
+   * @param entityType
+   * @return Estimated number of rows of the table of the entity type or null in case no estimate is available. By
+   * default null, so the entities get counted
+   * @throws ODataApplicationException
+   */
+  default Long estimateCount(final EntityManager em, final JPAEntityType entityType) throws ODataApplicationException {
+    return null;
+  }
+}
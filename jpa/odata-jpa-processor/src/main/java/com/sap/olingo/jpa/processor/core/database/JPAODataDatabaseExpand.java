@@ -0,0 +1,97 @@
+package com.sap.olingo.jpa.processor.core.database;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
+import com.sap.olingo.jpa.processor.core.exception.ODataJPADBAdaptorException;
+
+public interface JPAODataDatabaseExpand {
+  /**
+   * @return true in case the database is able to restrict the entities of an $expand per parent, see
+   * {@link #executeExpandTopSkipQuery}. By default false, so $top and $skip get applied after all entities have been
+   * read
+   */
+  default boolean supportsExpandTopSkip() {
+    return false;
+  }
+
+  /**
+   * $top and $skip at an $expand have to be applied per parent entity. This can not be expressed with JPA, but most
+   * databases offer a way to do it, e.g. via window functions like ROW_NUMBER() OVER (PARTITION BY ...), LATERAL joins
+   * or an UNION ALL of one limited query per parent. As the syntax differs, a database specific implementation needs to
+   * be provided.<p>
+   * The method returns the keys of those entities that are within the requested window. It is only called if
+   * {@link #supportsExpandTopSkip()} returns true and the table of the entity type is known, see
+   * {@link JPAEntityType#getQualifiedTableName()}. Otherwise all entities get read and the not requested ones get thrown
+   * away.<p>
+   * For details see:
+   * <a href=
+   * "http://docs.oasis-open.org/odata/odata/v4.0/errata02/os/complete/part2-url-conventions/odata-v4.0-errata02-os-part2-url-conventions-complete.html#_Toc406398162"
+   * >OData Version 4.0 Part 2 - 5.1.2 System Query Option $expand</a>
+   * @param em
+   * @param entityType Expanded entity type
+   * @param keyPath Key attributes of the expanded entity type, which shall be returned
+   * @param joinPath Attributes of the expanded entity type, which are used to join it with the parent
+   * @param joinValues Values of the join attributes; one entry per parent in the order of <code>joinPath</code>
+   * @param orderBy Attributes to sort the entities of a parent by in the requested sequence. The value is
+   * <code>true</code> in case of a descending order.
+   * @param skip Number of entities to skip per parent
+   * @param top Maximum number of entities per parent; Long.MAX_VALUE if not restricted
+   * @return Key values of the selected entities in the order of <code>keyPath</code>
+   * @throws ODataApplicationException
+   */
+  default List<List<Object>> executeExpandTopSkipQuery(final EntityManager em, final JPAEntityType entityType,
+      final List<JPAPath> keyPath, final List<JPAPath> joinPath, final List<List<Object>> joinValues,
+      final Map<JPAPath, Boolean> orderBy, final long skip, final long top) throws ODataApplicationException {
+    throw new ODataJPADBAdaptorException(ODataJPADBAdaptorException.MessageKeys.NOT_SUPPORTED_EXPAND_TOP_SKIP,
+        HttpStatusCode.NOT_IMPLEMENTED);
+  }
+
+  /**
+   * @return true in case the database is able to read all levels of a self-referencing association at once, see
+   * {@link #executeRecursiveExpandQuery}. By default false, so one query per level is executed
+   */
+  default boolean supportsRecursiveExpand() {
+    return false;
+  }
+
+  /**
+   * An $expand with $levels on an association, which points to the same entity type, like Parent or Children, requires
+   * one query per level. Databases that support recursive queries, e.g. via WITH RECURSIVE or a hierarchy function,
+   * are able to find all entities of all levels with one statement. As the syntax differs, a database specific
+   * implementation needs to be provided.<p>
+   * The method returns the keys of the entities of all levels together with their level. It is only called if
+   * {@link #supportsRecursiveExpand()} returns true and the table of the entity type is known, see
+   * {@link JPAEntityType#getQualifiedTableName()}. Otherwise one query per level is executed. In case the hierarchy
+   * contains cycles, the implementation has to prevent an endless recursion, e.g. by restricting the number of levels.
+   * Such a restriction must not cut off a deeper hierarchy silently. Instead null has to be returned, so the levels get
+   * read one query per level. The join values of many parents are passed in chunks, so the method may be called more
+   * than once per $expand.
+   * @param em
+   * @param entityType Entity type of the hierarchy
+   * @param keyPath Key attributes of the entity type, which shall be returned
+   * @param sourcePath Attributes of an entity the entities of the next level point to
+   * @param joinPath Attributes of an entity that point to the entity of the level above. The same number of attributes
+   * in the same order as <code>sourcePath</code>
+   * @param joinValues Values of the join attributes of the first level; one entry per parent in the order of
+   * <code>joinPath</code>
+   * @param levels Maximum number of levels; Integer.MAX_VALUE in case of $levels=max
+   * @return Key values of the found entities in the order of <code>keyPath</code> followed by the level, starting with
+   * 1 for the entities of the first level. An entity may be returned for more than one level. Null in case not all
+   * levels could be read.
+   * @throws ODataApplicationException
+   */
+  default List<List<Object>> executeRecursiveExpandQuery(final EntityManager em, final JPAEntityType entityType,
+      final List<JPAPath> keyPath, final List<JPAPath> sourcePath, final List<JPAPath> joinPath,
+      final List<List<Object>> joinValues, final int levels) throws ODataApplicationException {
+    throw new ODataJPADBAdaptorException(ODataJPADBAdaptorException.MessageKeys.NOT_SUPPORTED_RECURSIVE_EXPAND,
+        HttpStatusCode.NOT_IMPLEMENTED);
+  }
+}
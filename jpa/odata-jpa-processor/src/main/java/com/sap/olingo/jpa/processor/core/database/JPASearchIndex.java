@@ -0,0 +1,533 @@
+package com.sap.olingo.jpa.processor.core.database;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.SearchOption;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchBinary;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchBinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchExpression;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAElement;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import com.sap.olingo.jpa.processor.core.exception.ODataJPADBAdaptorException;
+import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessException;
+import com.sap.olingo.jpa.processor.core.processor.JPAAttributeAccessors;
+
+/**
+ * Implementation of $search that does not depend on the full-text capabilities of the database. For each entity type
+ * an inverted index is kept in memory, which maps the words of the attributes annotated with
+ * {@link com.sap.olingo.jpa.metadata.core.edm.annotation.EdmSearchable EdmSearchable} to the keys of the entities
+ * containing them. The index of an entity type is build from the database the first time the type gets searched.
+ * The keys found are added to the query as IN predicates, each containing not more than the chunk size keys. A search
+ * that is negated, e.g. <code>NOT saxony</code>, results in a NOT IN predicate of the keys that match the term, so also
+ * entities that are not known by the index are found. In case the keys would need more than the maximum number of
+ * parameters, the search is handed over to the database search given as fallback, see
+ * {@link #createSearchWhereClause(CriteriaBuilder, CriteriaQuery, Root, JPAEntityType, SearchOption,
+ * JPAODataDatabaseSearch)}.<p>
+ * A search term matches an entity if one of the words of the searchable attributes starts with it, ignoring the
+ * case. A phrase matches if all its words match. Terms can be combined with AND, OR and NOT.<p>
+ * The index is kept current by the CUD request processor via {@link #put(JPAEntityType, Object)} and
+ * {@link #remove(JPAEntityType, Object)} after the changes have been committed. Changes reported while the index of an
+ * entity type is build are applied once it is complete. Other changes done outside of the service are only seen after
+ * {@link #invalidate(JPAEntityType)}.
+ */
+public final class JPASearchIndex implements JPAODataDatabaseSearch {
+  /**
+   * Some databases restrict the number of expressions of an IN list, e.g. Oracle to 1000
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 500;
+  /**
+   * Some databases restrict the number of parameters of a statement, e.g. SQL Server to 2100
+   */
+  public static final int DEFAULT_MAX_PARAMETERS = 2000;
+
+  private final EntityManagerFactory emf;
+  private final int chunkSize;
+  private final int maxParameters;
+  private final Map<String, TypeIndex> indexes = new ConcurrentHashMap<>();
+  private final Map<String, TypeIndex> loading = new ConcurrentHashMap<>();
+  private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+  public JPASearchIndex(final EntityManagerFactory emf) {
+    this(emf, DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * @param emf
+   * @param chunkSize Maximum number of keys per IN predicate
+   */
+  public JPASearchIndex(final EntityManagerFactory emf, final int chunkSize) {
+    this(emf, chunkSize, DEFAULT_MAX_PARAMETERS);
+  }
+
+  /**
+   * @param emf
+   * @param chunkSize Maximum number of keys per IN predicate
+   * @param maxParameters Maximum number of key values added to a query
+   */
+  public JPASearchIndex(final EntityManagerFactory emf, final int chunkSize, final int maxParameters) {
+    super();
+    if (chunkSize <= 0)
+      throw new IllegalArgumentException("Chunk size must be greater than 0");
+    if (maxParameters <= 0)
+      throw new IllegalArgumentException("Maximum number of parameters must be greater than 0");
+    this.emf = emf;
+    this.chunkSize = chunkSize;
+    this.maxParameters = maxParameters;
+  }
+
+  /**
+   * Searches without a fallback. A search, whose keys need more than the maximum number of parameters, is rejected.
+   */
+  @Override
+  public Expression<Boolean> createSearchWhereClause(final CriteriaBuilder cb, final CriteriaQuery<?> cq,
+      final Root<?> root, final JPAEntityType entityType, final SearchOption searchOption)
+      throws ODataApplicationException {
+    return createSearchWhereClause(cb, cq, root, entityType, searchOption, null);
+  }
+
+  /**
+   * @param fallback Search used in case the keys found need more than the maximum number of parameters, e.g. the
+   * database processor. In case no fallback is given, the search is rejected.
+   */
+  public Expression<Boolean> createSearchWhereClause(final CriteriaBuilder cb, final CriteriaQuery<?> cq,
+      final Root<?> root, final JPAEntityType entityType, final SearchOption searchOption,
+      final JPAODataDatabaseSearch fallback) throws ODataApplicationException {
+
+    final TypeIndex index = getIndex(entityType);
+    if (index.searchable.isEmpty())
+      return null;
+    final SearchResult result = index.search(searchOption.getSearchExpression());
+    if (result.keys.isEmpty())
+      return result.negated ? cb.conjunction() : cb.disjunction();
+    if ((long) result.keys.size() * index.keyPath.size() > maxParameters) {
+      if (fallback == null)
+        throw new ODataJPADBAdaptorException(ODataJPADBAdaptorException.MessageKeys.SEARCH_TOO_MANY_KEYS,
+            HttpStatusCode.BAD_REQUEST, Integer.toString(result.keys.size()));
+      return fallback.createSearchWhereClause(cb, cq, root, entityType, searchOption);
+    }
+
+    final List<Path<Object>> keyPaths = new ArrayList<>(index.keyPath.size());
+    for (final List<JPAElement> keyPath : index.keyPath)
+      keyPaths.add(getPath(root, keyPath));
+    final List<List<Object>> keys = new ArrayList<>(result.keys);
+    final List<Predicate> chunkPredicates = new ArrayList<>(keys.size() / chunkSize + 1);
+    for (int start = 0; start < keys.size(); start += chunkSize)
+      chunkPredicates.add(createKeyPredicate(cb, keyPaths, keys.subList(start, Math.min(start + chunkSize, keys
+          .size()))));
+    final Predicate keyPredicate = chunkPredicates.size() == 1 ? chunkPredicates.get(0)
+        : cb.or(chunkPredicates.toArray(new Predicate[chunkPredicates.size()]));
+    return result.negated ? cb.not(keyPredicate) : keyPredicate;
+  }
+
+  /**
+   * Replaces the words of the searchable attributes of an entity in the index. Nothing happens if the entity type has
+   * not been searched yet.
+   * @param entityType
+   * @param entity Either an instance of the entity type or a map of attribute names and values, as returned by
+   * {@link com.sap.olingo.jpa.processor.core.api.JPACUDRequestHandler#createEntity createEntity}. It has to contain
+   * all searchable attributes, so in case of an update the state after the update.
+   * @throws ODataJPAProcessException
+   */
+  public void put(final JPAEntityType entityType, final Object entity) throws ODataJPAProcessException {
+    final TypeIndex index = findIndex(entityType.getInternalName());
+    if (index != null && entity != null) {
+      final List<Object> key = index.getKey(entity);
+      if (key != null)
+        index.update(key, index.getWords(entity));
+    }
+  }
+
+  /**
+   * Removes an entity from the index
+   * @param entityType
+   * @param keys Either an instance of the entity type or a map of key attribute names and values
+   * @throws ODataJPAProcessException
+   */
+  public void remove(final JPAEntityType entityType, final Object keys) throws ODataJPAProcessException {
+    final TypeIndex index = findIndex(entityType.getInternalName());
+    if (index != null && keys != null) {
+      final List<Object> key = index.getKey(keys);
+      if (key != null)
+        index.update(key, null);
+    }
+  }
+
+  /**
+   * Drops the index of an entity type, so it is build again with the next search. An index that is build at the same
+   * time is used by the search it is build for only.
+   * @param entityType
+   */
+  public void invalidate(final JPAEntityType entityType) {
+    final TypeIndex index = loading.get(entityType.getInternalName());
+    if (index != null)
+      index.invalidate();
+    indexes.remove(entityType.getInternalName());
+  }
+
+  /**
+   * @return Number of entities indexed for the entity type, 0 if the type has not been searched yet
+   */
+  public int size(final JPAEntityType entityType) {
+    final TypeIndex index = indexes.get(entityType.getInternalName());
+    return index == null ? 0 : index.size();
+  }
+
+  /**
+   * The index of an entity type is build once. Searches of other entity types do not wait for it. While the index is
+   * build, it is registered as loading, so changes committed in the meantime are not lost.
+   */
+  private TypeIndex getIndex(final JPAEntityType entityType) throws ODataApplicationException {
+    final String name = entityType.getInternalName();
+    TypeIndex index = indexes.get(name);
+    if (index == null) {
+      synchronized (getLock(name)) {
+        index = indexes.get(name);
+        if (index == null) {
+          index = new TypeIndex(entityType);
+          loading.put(name, index);
+          try {
+            index.load(emf);
+            if (index.finishLoad())
+              indexes.put(name, index);
+          } finally {
+            loading.remove(name);
+          }
+        }
+      }
+    }
+    return index;
+  }
+
+  /**
+   * The loading index is looked up first. In case the load has not been started yet, it reads the committed change
+   * from the database. In case the load has been finished, the index has already been published.
+   */
+  private TypeIndex findIndex(final String name) {
+    final TypeIndex index = loading.get(name);
+    return index != null ? index : indexes.get(name);
+  }
+
+  private Object getLock(final String name) {
+    final Object lock = new Object();
+    final Object existingLock = locks.putIfAbsent(name, lock);
+    return existingLock == null ? lock : existingLock;
+  }
+
+  private static Predicate createKeyPredicate(final CriteriaBuilder cb, final List<Path<Object>> keyPaths,
+      final List<List<Object>> keys) {
+
+    if (keyPaths.size() == 1) {
+      final List<Object> values = new ArrayList<>(keys.size());
+      for (final List<Object> key : keys)
+        values.add(key.get(0));
+      return keyPaths.get(0).in(values);
+    }
+    final List<Predicate> keyPredicates = new ArrayList<>(keys.size());
+    for (final List<Object> key : keys) {
+      final Predicate[] equals = new Predicate[keyPaths.size()];
+      for (int i = 0; i < keyPaths.size(); i++)
+        equals[i] = cb.equal(keyPaths.get(i), key.get(i));
+      keyPredicates.add(cb.and(equals));
+    }
+    return cb.or(keyPredicates.toArray(new Predicate[keyPredicates.size()]));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Path<Object> getPath(final Root<?> root, final List<JPAElement> jpaPath) {
+    Path<?> path = root;
+    for (final JPAElement pathItem : jpaPath)
+      path = path.get(pathItem.getInternalName());
+    return (Path<Object>) path;
+  }
+
+  static List<String> tokenize(final String text) {
+    final List<String> words = new ArrayList<>();
+    final StringBuilder word = new StringBuilder();
+    for (int i = 0; i < text.length(); i++) {
+      final char c = text.charAt(i);
+      if (Character.isLetterOrDigit(c))
+        word.append(Character.toLowerCase(c));
+      else if (word.length() > 0) {
+        words.add(word.toString());
+        word.setLength(0);
+      }
+    }
+    if (word.length() > 0)
+      words.add(word.toString());
+    return words;
+  }
+
+  private static class TypeIndex {
+    private final Class<?> typeClass;
+    private final List<List<JPAElement>> keyPath = new ArrayList<>();
+    private final List<List<JPAElement>> searchable = new ArrayList<>();
+    private final NavigableMap<String, Set<List<Object>>> postings = new TreeMap<>();
+    private final Map<List<Object>, Set<String>> words = new HashMap<>();
+    /**
+     * Changes reported while the index is loaded, null once the load is finished. Words null mark a removal.
+     */
+    private Map<List<Object>, Set<String>> pending = new HashMap<>();
+    private boolean invalidated;
+
+    private TypeIndex(final JPAEntityType entityType) throws ODataApplicationException {
+      typeClass = entityType.getTypeClass();
+      try {
+        for (final JPAPath path : entityType.getKeyPath()) {
+          if (path.getLeaf().isComplex()) {
+            // EmbeddedId
+            for (final JPAPath idPath : path.getLeaf().getStructuredType().getPathList()) {
+              final List<JPAElement> elements = new ArrayList<>(path.getPath());
+              elements.addAll(idPath.getPath());
+              keyPath.add(elements);
+            }
+          } else
+            keyPath.add(path.getPath());
+        }
+        for (final JPAPath path : entityType.getSearchablePath())
+          searchable.add(path.getPath());
+      } catch (ODataJPAModelException e) {
+        throw new ODataJPADBAdaptorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+      }
+    }
+
+    private void load(final EntityManagerFactory emf) throws ODataApplicationException {
+      if (searchable.isEmpty())
+        return;
+      final EntityManager em = emf.createEntityManager();
+      try {
+        final CriteriaBuilder cb = em.getCriteriaBuilder();
+        final CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+        final Root<?> root = cq.from(typeClass);
+        final List<Selection<?>> selections = new ArrayList<>(keyPath.size() + searchable.size());
+        for (final List<JPAElement> path : keyPath)
+          selections.add(getPath(root, path));
+        for (final List<JPAElement> path : searchable)
+          selections.add(getPath(root, path));
+        cq.multiselect(selections);
+        for (final Tuple row : em.createQuery(cq).getResultList()) {
+          final List<Object> key = new ArrayList<>(keyPath.size());
+          for (int i = 0; i < keyPath.size(); i++)
+            key.add(row.get(i));
+          final Set<String> rowWords = new HashSet<>();
+          for (int i = keyPath.size(); i < selections.size(); i++)
+            addWords(rowWords, row.get(i));
+          put(key, rowWords);
+        }
+      } finally {
+        em.close();
+      }
+    }
+
+    private synchronized void update(final List<Object> key, final Set<String> newWords) {
+      if (pending != null)
+        pending.put(key, newWords);
+      else if (newWords != null)
+        put(key, newWords);
+      else
+        remove(key);
+    }
+
+    /**
+     * Applies the changes reported during the load
+     * @return False if the index got invalidated during the load and shall not be kept
+     */
+    private synchronized boolean finishLoad() {
+      for (final Map.Entry<List<Object>, Set<String>> change : pending.entrySet()) {
+        if (change.getValue() != null)
+          put(change.getKey(), change.getValue());
+        else
+          remove(change.getKey());
+      }
+      pending = null;
+      return !invalidated;
+    }
+
+    private synchronized void invalidate() {
+      invalidated = true;
+    }
+
+    private synchronized void put(final List<Object> key, final Set<String> newWords) {
+      remove(key);
+      words.put(key, newWords);
+      for (final String word : newWords) {
+        Set<List<Object>> keys = postings.get(word);
+        if (keys == null) {
+          keys = new HashSet<>();
+          postings.put(word, keys);
+        }
+        keys.add(key);
+      }
+    }
+
+    private synchronized void remove(final List<Object> key) {
+      final Set<String> keyWords = words.remove(key);
+      if (keyWords != null) {
+        for (final String word : keyWords) {
+          final Set<List<Object>> keys = postings.get(word);
+          keys.remove(key);
+          if (keys.isEmpty())
+            postings.remove(word);
+        }
+      }
+    }
+
+    private synchronized int size() {
+      return words.size();
+    }
+
+    private synchronized SearchResult search(final SearchExpression expression) {
+      if (expression.isSearchTerm())
+        return new SearchResult(match(expression.asSearchTerm().getSearchTerm()), false);
+      if (expression.isSearchUnary())
+        return new SearchResult(match(expression.asSearchUnary().getOperand().getSearchTerm()), true);
+      final SearchBinary binary = expression.asSearchBinary();
+      final SearchResult left = search(binary.getLeftOperand());
+      final SearchResult right = search(binary.getRightOperand());
+      if (binary.getOperator() == SearchBinaryOperatorKind.AND)
+        return left.and(right);
+      return left.or(right);
+    }
+
+    /**
+     * All words of a term need to be found, each as the beginning of a word of the entity
+     */
+    private Set<List<Object>> match(final String term) {
+      Set<List<Object>> result = null;
+      for (final String termWord : tokenize(term)) {
+        final Set<List<Object>> wordResult = new HashSet<>();
+        for (final Set<List<Object>> keys : postings.subMap(termWord, true, termWord + Character.MAX_VALUE, false)
+            .values())
+          wordResult.addAll(keys);
+        if (result == null)
+          result = wordResult;
+        else
+          result.retainAll(wordResult);
+      }
+      return result == null ? new HashSet<List<Object>>() : result;
+    }
+
+    private List<Object> getKey(final Object entity) throws ODataJPAProcessException {
+      final List<Object> key = new ArrayList<>(keyPath.size());
+      for (final List<JPAElement> path : keyPath) {
+        final Object value = getValue(entity, path);
+        if (value == null)
+          return null;
+        key.add(value);
+      }
+      return key;
+    }
+
+    private Set<String> getWords(final Object entity) throws ODataJPAProcessException {
+      final Set<String> entityWords = new HashSet<>();
+      for (final List<JPAElement> path : searchable)
+        addWords(entityWords, getValue(entity, path));
+      return entityWords;
+    }
+
+    private static void addWords(final Set<String> words, final Object value) {
+      if (value != null)
+        words.addAll(tokenize(value.toString()));
+    }
+
+    /**
+     * Reads the value of a path from an entity instance or a map of attributes. In case of a map the value may be given
+     * either structured or flat by the name of the leaf, as done for keys.
+     */
+    private static Object getValue(final Object entity, final List<JPAElement> path) throws ODataJPAProcessException {
+      final String leafName = path.get(path.size() - 1).getInternalName();
+      if (entity instanceof Map<?, ?> && ((Map<?, ?>) entity).containsKey(leafName))
+        return ((Map<?, ?>) entity).get(leafName);
+      Object value = entity;
+      for (final JPAElement pathItem : path) {
+        if (value == null)
+          return null;
+        if (value instanceof Map<?, ?>)
+          value = ((Map<?, ?>) value).get(pathItem.getInternalName());
+        else
+          try {
+            value = JPAAttributeAccessors.of(value.getClass()).get(value, pathItem.getInternalName());
+          } catch (ReflectiveOperationException e) {
+            throw new ODataJPADBAdaptorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+          }
+      }
+      return value;
+    }
+  }
+
+  /**
+   * Keys found by a search. In case the result is negated, the search matches all entities except the ones of the keys.
+   * This way the result of NOT does not depend on the entities known by the index.
+   */
+  private static class SearchResult {
+    private final Set<List<Object>> keys;
+    private final boolean negated;
+
+    private SearchResult(final Set<List<Object>> keys, final boolean negated) {
+      super();
+      this.keys = keys;
+      this.negated = negated;
+    }
+
+    private SearchResult and(final SearchResult other) {
+      if (negated && other.negated)
+        return new SearchResult(union(keys, other.keys), true);
+      if (negated)
+        return new SearchResult(difference(other.keys, keys), false);
+      if (other.negated)
+        return new SearchResult(difference(keys, other.keys), false);
+      return new SearchResult(intersection(keys, other.keys), false);
+    }
+
+    private SearchResult or(final SearchResult other) {
+      if (negated && other.negated)
+        return new SearchResult(intersection(keys, other.keys), true);
+      if (negated)
+        return new SearchResult(difference(keys, other.keys), true);
+      if (other.negated)
+        return new SearchResult(difference(other.keys, keys), true);
+      return new SearchResult(union(keys, other.keys), false);
+    }
+
+    private static Set<List<Object>> union(final Set<List<Object>> left, final Set<List<Object>> right) {
+      final Set<List<Object>> result = new HashSet<>(left);
+      result.addAll(right);
+      return result;
+    }
+
+    private static Set<List<Object>> intersection(final Set<List<Object>> left, final Set<List<Object>> right) {
+      final Set<List<Object>> result = new HashSet<>(left);
+      result.retainAll(right);
+      return result;
+    }
+
+    private static Set<List<Object>> difference(final Set<List<Object>> left, final Set<List<Object>> right) {
+      final Set<List<Object>> result = new HashSet<>(left);
+      result.removeAll(right);
+      return result;
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package com.sap.olingo.jpa.processor.core.database;
+
+import java.util.List;
+import java.util.Locale;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.persistence.Query;
+
+/**
+ * Splits the table name of an entity type, as given by the @Table annotation, into schema and table, so it can be used
+ * to look-up the statistics of the table in the catalog of the database. Quoted parts are taken as they are, unquoted
+ * ones are converted to upper case, as done by most databases.
+ */
+final class JPATableName {
+  static final String SCHEMA_PLACEHOLDER = "$SCHEMA$";
+
+  private final String schema;
+  private final String table;
+
+  private JPATableName(final String schema, final String table) {
+    super();
+    this.schema = schema;
+    this.table = table;
+  }
+
+  static JPATableName parse(final String tableName) {
+    final int separator = findSeparator(tableName);
+    if (separator < 0)
+      return new JPATableName(null, normalize(tableName));
+    return new JPATableName(normalize(tableName.substring(0, separator)), normalize(tableName.substring(separator
+        + 1)));
+  }
+
+  /**
+   * @return Name of the schema or null if the table name does not contain one
+   */
+  String getSchema() {
+    return schema;
+  }
+
+  String getTable() {
+    return table;
+  }
+
+  /**
+   * Reads the number of records of the table from the statistics of the database.
+   * @param em
+   * @param pattern Statement that returns the number of records. The table name is bound to parameter ?1, the schema
+   * is inserted for {@value #SCHEMA_PLACEHOLDER}. The current schema is taken if the table name does not contain one.
+   * @return The number of records or null if the statistics could not be read, so the entities have to be counted
+   */
+  Long estimateCount(final EntityManager em, final String pattern) {
+    final Query countQuery;
+    if (schema == null)
+      countQuery = em.createNativeQuery(pattern.replace(SCHEMA_PLACEHOLDER, "CURRENT_SCHEMA"))
+          .setParameter(1, table);
+    else
+      countQuery = em.createNativeQuery(pattern.replace(SCHEMA_PLACEHOLDER, "?2"))
+          .setParameter(1, table)
+          .setParameter(2, schema);
+    try {
+      final List<?> result = countQuery.getResultList();
+      if (result.isEmpty() || !(result.get(0) instanceof Number))
+        return null;
+      return Long.valueOf(((Number) result.get(0)).longValue());
+    } catch (PersistenceException e) {
+      // E.g. missing authorization for the statistics
+      return null;
+    }
+  }
+
+  private static int findSeparator(final String tableName) {
+    boolean quoted = false;
+    for (int i = 0; i < tableName.length(); i++) {
+      final char c = tableName.charAt(i);
+      if (c == '"')
+        quoted = !quoted;
+      else if (c == '.' && !quoted)
+        return i;
+    }
+    return -1;
+  }
+
+  private static String normalize(final String name) {
+    final String trimmed = name.trim();
+    if (trimmed.length() > 1 && trimmed.startsWith("\"") && trimmed.endsWith("\""))
+      return trimmed.substring(1, trimmed.length() - 1);
+    return trimmed.toUpperCase(Locale.ENGLISH);
+  }
+}
@@ -1,6 +1,8 @@
 package com.sap.olingo.jpa.processor.core.database;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import javax.persistence.EntityManager;
 import javax.persistence.Query;
@@ -29,14 +31,31 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAParameter;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
-import com.sap.olingo.jpa.processor.core.api.JPAODataDatabaseProcessor;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPADBAdaptorException;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
 
-final class JPA_HANA_DatabaseProcessor implements JPAODataDatabaseProcessor {
+final class JPA_HANA_DatabaseProcessor extends JPAAbstractDatabaseProcessor {
   private static final String SELECT_BASE_PATTERN = "SELECT * FROM $FUNCTIONNAME$($PARAMETER$)";
   private static final String FUNC_NAME_PLACEHOLDER = "$FUNCTIONNAME$";
   private static final String PARAMETER_PLACEHOLDER = "$PARAMETER$";
+  private static final String EXPAND_BASE_PATTERN =
+      "SELECT $COLUMNS$ FROM (SELECT $COLUMNS$, ROW_NUMBER() OVER (PARTITION BY $PARTITION$ ORDER BY $ORDERBY$) "
+          + "AS \"ROW_NO\" FROM $TABLE$ WHERE $CONDITION$) WHERE $WINDOW$";
+  private static final String COLUMNS_PLACEHOLDER = "$COLUMNS$";
+  private static final String PARTITION_PLACEHOLDER = "$PARTITION$";
+  private static final String TABLE_PLACEHOLDER = "$TABLE$";
+  private static final String CONDITION_PLACEHOLDER = "$CONDITION$";
+  private static final String ORDER_BY_PLACEHOLDER = "$ORDERBY$";
+  private static final String WINDOW_PLACEHOLDER = "$WINDOW$";
+  private static final String ESTIMATE_COUNT_PATTERN =
+      "SELECT RECORD_COUNT FROM M_TABLES WHERE TABLE_NAME = ?1 AND SCHEMA_NAME = $SCHEMA$";
+  private static final String RECURSIVE_EXPAND_PATTERN =
+      "SELECT DISTINCT $KEYCOLUMNS$, HIERARCHY_LEVEL FROM HIERARCHY (SOURCE (SELECT $COLUMNS$, $PARENTID$ AS PARENT_ID, "
+          + "$NODEID$ AS NODE_ID FROM $TABLE$) START WHERE $CONDITION$$DEPTH$ ORPHAN IGNORE CYCLE BREAKUP)";
+  private static final String KEY_COLUMNS_PLACEHOLDER = "$KEYCOLUMNS$";
+  private static final String PARENT_ID_PLACEHOLDER = "$PARENTID$";
+  private static final String NODE_ID_PLACEHOLDER = "$NODEID$";
+  private static final String DEPTH_PLACEHOLDER = "$DEPTH$";
 
   @SuppressWarnings("unchecked")
   @Override
@@ -105,6 +124,103 @@ final class JPA_HANA_DatabaseProcessor implements JPAODataDatabaseProcessor {
     return null;
   }
 
+  @Override
+  public boolean supportsExpandTopSkip() {
+    return true;
+  }
+
+  @Override
+  public List<List<Object>> executeExpandTopSkipQuery(final EntityManager em, final JPAEntityType entityType,
+      final List<JPAPath> keyPath, final List<JPAPath> joinPath, final List<List<Object>> joinValues,
+      final Map<JPAPath, Boolean> orderBy, final long skip, final long top) throws ODataApplicationException {
+
+    return executeExpandQuery(em, generateExpandQueryString(entityType, keyPath, joinPath, joinValues.size(), orderBy,
+        skip, top), joinValues, keyPath.size());
+  }
+
+  @Override
+  public boolean supportsRecursiveExpand() {
+    return true;
+  }
+
+  /**
+   * HANA does not support recursive common table expressions, but provides the hierarchy generator function
+   * HIERARCHY. It detects cycles itself (CYCLE BREAKUP), so in contrast to HSQLDB all levels can be read also in case
+   * of $levels=max.
+   */
+  @Override
+  public List<List<Object>> executeRecursiveExpandQuery(final EntityManager em, final JPAEntityType entityType,
+      final List<JPAPath> keyPath, final List<JPAPath> sourcePath, final List<JPAPath> joinPath,
+      final List<List<Object>> joinValues, final int levels) throws ODataApplicationException {
+    // The hierarchy generator function links an entity to the entities of the next level via the node id, which is
+    // build from the source attributes, and the parent id, which is build from the join attributes
+    return executeExpandQuery(em, generateRecursiveExpandQueryString(entityType, keyPath, sourcePath, joinPath,
+        joinValues.size(), levels), joinValues, keyPath.size() + 1);
+  }
+
+  @Override
+  public Long estimateCount(final EntityManager em, final JPAEntityType entityType) throws ODataApplicationException {
+    // M_TABLES provides the number of records of column and row tables without reading them
+    return estimateCount(em, entityType, ESTIMATE_COUNT_PATTERN);
+  }
+
+  String generateExpandQueryString(final JPAEntityType entityType, final List<JPAPath> keyPath,
+      final List<JPAPath> joinPath, final int noParents, final Map<JPAPath, Boolean> orderBy, final long skip,
+      final long top) {
+
+    final StringBuilder window = new StringBuilder();
+    window.append("\"ROW_NO\" > ").append(skip);
+    if (top < Long.MAX_VALUE - skip)
+      window.append(" AND \"ROW_NO\" <= ").append(skip + top);
+
+    return EXPAND_BASE_PATTERN
+        .replace(COLUMNS_PLACEHOLDER, generateColumnList(keyPath))
+        .replace(PARTITION_PLACEHOLDER, generateColumnList(joinPath))
+        .replace(ORDER_BY_PLACEHOLDER, generateOrderByClause(orderBy, keyPath))
+        .replace(TABLE_PLACEHOLDER, entityType.getQualifiedTableName())
+        .replace(CONDITION_PLACEHOLDER, generateParentsCondition(getColumnNames(joinPath), noParents))
+        .replace(WINDOW_PLACEHOLDER, window.toString());
+  }
+
+  String generateRecursiveExpandQueryString(final JPAEntityType entityType, final List<JPAPath> keyPath,
+      final List<JPAPath> sourcePath, final List<JPAPath> joinPath, final int noParents, final int levels) {
+
+    // Key and join attributes may overlap, so the columns of the source get generic names
+    final StringBuilder columns = new StringBuilder();
+    final StringBuilder keyColumns = new StringBuilder();
+    for (int i = 0; i < keyPath.size(); i++) {
+      columns.append(',').append(keyPath.get(i).getDBFieldName()).append(" AS K").append(i);
+      keyColumns.append(",K").append(i);
+    }
+    final List<String> joinColumns = new ArrayList<>(joinPath.size());
+    for (int i = 0; i < joinPath.size(); i++) {
+      columns.append(',').append(joinPath.get(i).getDBFieldName()).append(" AS J").append(i);
+      joinColumns.add("J" + i);
+    }
+
+    // The start entities have level 1, so the depth is the number of levels below them
+    return RECURSIVE_EXPAND_PATTERN
+        .replace(KEY_COLUMNS_PLACEHOLDER, keyColumns.substring(1))
+        .replace(COLUMNS_PLACEHOLDER, columns.substring(1))
+        .replace(PARENT_ID_PLACEHOLDER, generateNodeId(joinPath))
+        .replace(NODE_ID_PLACEHOLDER, generateNodeId(sourcePath))
+        .replace(TABLE_PLACEHOLDER, entityType.getQualifiedTableName())
+        .replace(CONDITION_PLACEHOLDER, generateParentsCondition(joinColumns, noParents))
+        .replace(DEPTH_PLACEHOLDER, levels < Integer.MAX_VALUE ? " DEPTH " + (levels - 1) : "");
+  }
+
+  private String generateNodeId(final List<JPAPath> path) {
+    if (path.size() == 1)
+      return path.get(0).getDBFieldName();
+    final StringBuilder nodeId = new StringBuilder();
+    for (final JPAPath attribute : path) {
+      if (nodeId.length() > 0)
+        nodeId.append(" || '/' || ");
+      nodeId.append("TO_NVARCHAR(").append(attribute.getDBFieldName()).append(')');
+    }
+    return nodeId.toString();
+  }
+
   private String generateQueryString(final JPADataBaseFunction jpaFunction) throws ODataJPAProcessorException {
     final StringBuffer parameterList = new StringBuffer();
     String queryString = SELECT_BASE_PATTERN;
@@ -1,6 +1,10 @@
 package com.sap.olingo.jpa.processor.core.database;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.persistence.EntityManager;
 import javax.persistence.Query;
@@ -23,15 +27,42 @@ import org.apache.olingo.server.api.uri.queryoption.SearchOption;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPADataBaseFunction;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAParameter;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
-import com.sap.olingo.jpa.processor.core.api.JPAODataDatabaseProcessor;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPADBAdaptorException;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
 
-class JPA_HSQLDB_DatabaseProcessor implements JPAODataDatabaseProcessor {
+class JPA_HSQLDB_DatabaseProcessor extends JPAAbstractDatabaseProcessor {
   private final static String SELECT_BASE_PATTERN = "SELECT * FROM TABLE ($FUNCTIONNAME$($PARAMETER$))";
   private final static String FUNC_NAME_PLACEHOLDER = "$FUNCTIONNAME$";
   private final static String PARAMETER_PLACEHOLDER = "$PARAMETER$";
+  private final static String EXPAND_BASE_PATTERN =
+      "(SELECT $COLUMNS$ FROM $TABLE$ WHERE $CONDITION$ ORDER BY $ORDERBY$$WINDOW$)";
+  private final static String COLUMNS_PLACEHOLDER = "$COLUMNS$";
+  private final static String TABLE_PLACEHOLDER = "$TABLE$";
+  private final static String CONDITION_PLACEHOLDER = "$CONDITION$";
+  private final static String ORDER_BY_PLACEHOLDER = "$ORDERBY$";
+  private final static String WINDOW_PLACEHOLDER = "$WINDOW$";
+  private final static String ESTIMATE_COUNT_PATTERN =
+      "SELECT CARDINALITY FROM INFORMATION_SCHEMA.SYSTEM_TABLESTATS WHERE TABLE_NAME = ?1 AND TABLE_SCHEMA = $SCHEMA$";
+  private final static String RECURSIVE_EXPAND_PATTERN =
+      "WITH RECURSIVE EXPAND_HIERARCHY ($CTECOLUMNS$, EXPAND_LEVEL) AS ("
+          + "SELECT $COLUMNS$, 1 FROM $TABLE$ WHERE $CONDITION$ "
+          + "UNION SELECT $CHILDCOLUMNS$, H.EXPAND_LEVEL + 1 FROM $TABLE$ C "
+          + "INNER JOIN EXPAND_HIERARCHY H ON $JOINCONDITION$$LEVELCONDITION$) "
+          + "SELECT DISTINCT $KEYCOLUMNS$, EXPAND_LEVEL FROM EXPAND_HIERARCHY";
+  private final static String CTE_COLUMNS_PLACEHOLDER = "$CTECOLUMNS$";
+  private final static String CHILD_COLUMNS_PLACEHOLDER = "$CHILDCOLUMNS$";
+  private final static String JOIN_CONDITION_PLACEHOLDER = "$JOINCONDITION$";
+  private final static String LEVEL_CONDITION_PLACEHOLDER = "$LEVELCONDITION$";
+  private final static String KEY_COLUMNS_PLACEHOLDER = "$KEYCOLUMNS$";
+  /**
+   * HSQLDB does not detect cycles within a recursive query, so also $levels=max gets restricted. Otherwise a cycle
+   * within the hierarchy would lead to an endless recursion. To find out if the restriction cuts off the result, one
+   * more level is read. Entities of this level that have been found before belong to a cycle, others to a deeper
+   * hierarchy, which is then read level by level.
+   */
+  static final int MAX_RECURSION_DEPTH = 100;
 
   @SuppressWarnings("unchecked")
   @Override
@@ -107,4 +138,134 @@ class JPA_HSQLDB_DatabaseProcessor implements JPAODataDatabaseProcessor {
     throw new ODataJPADBAdaptorException(ODataJPADBAdaptorException.MessageKeys.NOT_SUPPORTED_SEARCH,
         HttpStatusCode.NOT_IMPLEMENTED);
   }
+
+  @Override
+  public boolean supportsExpandTopSkip() {
+    return true;
+  }
+
+  @Override
+  public List<List<Object>> executeExpandTopSkipQuery(final EntityManager em, final JPAEntityType entityType,
+      final List<JPAPath> keyPath, final List<JPAPath> joinPath, final List<List<Object>> joinValues,
+      final Map<JPAPath, Boolean> orderBy, final long skip, final long top) throws ODataApplicationException {
+    // HSQLDB (2.3) as well as H2 do not support PARTITION BY, but both allow an ORDER BY together with OFFSET and FETCH
+    // within a sub-select, so one query per parent is created and combined via UNION ALL
+    return executeExpandQuery(em, generateExpandQueryString(entityType, keyPath, joinPath, joinValues.size(), orderBy,
+        skip, top), joinValues, keyPath.size());
+  }
+
+  @Override
+  public boolean supportsRecursiveExpand() {
+    return true;
+  }
+
+  @Override
+  public List<List<Object>> executeRecursiveExpandQuery(final EntityManager em, final JPAEntityType entityType,
+      final List<JPAPath> keyPath, final List<JPAPath> sourcePath, final List<JPAPath> joinPath,
+      final List<List<Object>> joinValues, final int levels) throws ODataApplicationException {
+    // HSQLDB supports recursive common table expressions. The first level is selected via the join values; each
+    // further level joins the entities pointing to an entity of the level before
+    final boolean restricted = levels > MAX_RECURSION_DEPTH;
+    final List<List<Object>> result = executeExpandQuery(em, generateRecursiveExpandQueryString(entityType, keyPath,
+        sourcePath, joinPath, joinValues.size(), restricted ? MAX_RECURSION_DEPTH + 1 : levels), joinValues, keyPath
+            .size() + 1);
+    return restricted ? removeLevelBehindMaxDepth(result, keyPath.size()) : result;
+  }
+
+  /**
+   * @return The rows up to the maximum depth or null if the hierarchy is deeper
+   */
+  private List<List<Object>> removeLevelBehindMaxDepth(final List<List<Object>> rows, final int noKeys) {
+
+    final Set<List<Object>> keys = new HashSet<>();
+    final List<List<Object>> behindMaxDepth = new ArrayList<>();
+    final List<List<Object>> result = new ArrayList<>(rows.size());
+    for (final List<Object> row : rows) {
+      if (((Number) row.get(noKeys)).intValue() > MAX_RECURSION_DEPTH)
+        behindMaxDepth.add(row.subList(0, noKeys));
+      else {
+        keys.add(row.subList(0, noKeys));
+        result.add(row);
+      }
+    }
+    for (final List<Object> key : behindMaxDepth) {
+      if (!keys.contains(key))
+        return null;
+    }
+    return result;
+  }
+
+  @Override
+  public Long estimateCount(final EntityManager em, final JPAEntityType entityType) throws ODataApplicationException {
+    // HSQLDB keeps the number of rows of each table in SYSTEM_TABLESTATS
+    return estimateCount(em, entityType, ESTIMATE_COUNT_PATTERN);
+  }
+
+  private String generateExpandQueryString(final JPAEntityType entityType, final List<JPAPath> keyPath,
+      final List<JPAPath> joinPath, final int noParents, final Map<JPAPath, Boolean> orderBy, final long skip,
+      final long top) {
+
+    final StringBuilder window = new StringBuilder();
+    if (skip > 0)
+      window.append(" OFFSET ").append(skip).append(" ROWS");
+    if (top < Long.MAX_VALUE)
+      window.append(" FETCH FIRST ").append(top).append(" ROWS ONLY");
+
+    final String branchPattern = EXPAND_BASE_PATTERN
+        .replace(COLUMNS_PLACEHOLDER, generateColumnList(keyPath))
+        .replace(TABLE_PLACEHOLDER, entityType.getQualifiedTableName())
+        .replace(ORDER_BY_PLACEHOLDER, generateOrderByClause(orderBy, keyPath))
+        .replace(WINDOW_PLACEHOLDER, window.toString());
+
+    final List<String> joinColumns = getColumnNames(joinPath);
+    final StringBuilder queryString = new StringBuilder();
+    int count = 1;
+    for (int i = 0; i < noParents; i++) {
+      final StringBuilder condition = new StringBuilder();
+      count = appendParentCondition(condition, joinColumns, count);
+      if (queryString.length() > 0)
+        queryString.append(" UNION ALL ");
+      queryString.append(branchPattern.replace(CONDITION_PLACEHOLDER, condition.toString()));
+    }
+    return queryString.toString();
+  }
+
+  private String generateRecursiveExpandQueryString(final JPAEntityType entityType, final List<JPAPath> keyPath,
+      final List<JPAPath> sourcePath, final List<JPAPath> joinPath, final int noParents, final int levels) {
+
+    // Key and source attributes may overlap, so the columns of the hierarchy get generic names. HSQLDB fails on
+    // recursive queries selecting a column twice without an alias
+    final StringBuilder cteColumns = new StringBuilder();
+    final StringBuilder columns = new StringBuilder();
+    final StringBuilder childColumns = new StringBuilder();
+    final StringBuilder keyColumns = new StringBuilder();
+    for (int i = 0; i < keyPath.size(); i++) {
+      cteColumns.append(",K").append(i);
+      columns.append(',').append(keyPath.get(i).getDBFieldName()).append(" AS K").append(i);
+      childColumns.append(",C.").append(keyPath.get(i).getDBFieldName()).append(" AS K").append(i);
+      keyColumns.append(",K").append(i);
+    }
+    for (int i = 0; i < sourcePath.size(); i++) {
+      cteColumns.append(",S").append(i);
+      columns.append(',').append(sourcePath.get(i).getDBFieldName()).append(" AS S").append(i);
+      childColumns.append(",C.").append(sourcePath.get(i).getDBFieldName()).append(" AS S").append(i);
+    }
+
+    final StringBuilder joinCondition = new StringBuilder();
+    for (int i = 0; i < joinPath.size(); i++) {
+      if (i > 0)
+        joinCondition.append(" AND ");
+      joinCondition.append("C.").append(joinPath.get(i).getDBFieldName()).append(" = H.S").append(i);
+    }
+
+    return RECURSIVE_EXPAND_PATTERN
+        .replace(CTE_COLUMNS_PLACEHOLDER, cteColumns.substring(1))
+        .replace(COLUMNS_PLACEHOLDER, columns.substring(1))
+        .replace(CHILD_COLUMNS_PLACEHOLDER, childColumns.substring(1))
+        .replace(KEY_COLUMNS_PLACEHOLDER, keyColumns.substring(1))
+        .replace(TABLE_PLACEHOLDER, entityType.getQualifiedTableName())
+        .replace(CONDITION_PLACEHOLDER, generateParentsCondition(getColumnNames(joinPath), noParents))
+        .replace(JOIN_CONDITION_PLACEHOLDER, joinCondition.toString())
+        .replace(LEVEL_CONDITION_PLACEHOLDER, " WHERE H.EXPAND_LEVEL < " + levels);
+  }
 }
@@ -17,6 +17,9 @@ public class ODataJPADBAdaptorException extends ODataJPAProcessException {
   public static enum MessageKeys implements ODataJPAMessageKey {
     PARAMETER_MISSING,
     NOT_SUPPORTED_SEARCH,
+    NOT_SUPPORTED_EXPAND_TOP_SKIP,
+    NOT_SUPPORTED_RECURSIVE_EXPAND,
+    SEARCH_TOO_MANY_KEYS,
     PARAMETER_CONVERSION_ERROR,
     WRONG_NO_KEY_PROP;
 
@@ -26,10 +26,12 @@ public class ODataJPAProcessorException extends ODataJPAProcessException {
     NOT_SUPPORTED_FUNC_WITH_NAVI,
     NOT_SUPPORTED_PROP_TYPE,
     PARAMETER_NULL,
+    PARAMETER_MISSING,
     WRONG_RETURN_TYPE,
     RETURN_NULL,
     RETURN_MISSING_ENTITY,
-    ATTRIBUTE_RETRIVAL_FAILED;
+    ATTRIBUTE_RETRIVAL_FAILED,
+    MEDIA_ENTITY_NOT_FOUND;
 
     @Override
     public String getKey() {
@@ -66,8 +66,11 @@ class JPAArithmeticOperatorImp implements JPAArithmeticOperator {
   @SuppressWarnings("unchecked")
   public Expression<Number> getLeft(final CriteriaBuilder cb) throws ODataApplicationException {
     if (left instanceof JPALiteralOperator) {
-      if (right instanceof JPALiteralOperator)
+      if (right instanceof JPALiteralOperator) {
+        // Databases do not accept an operation on two parameters
+        converter.valueInlined();
         return cb.literal((Number) left.get());
+      }
       else
         return (Expression<Number>) right.get();
     }
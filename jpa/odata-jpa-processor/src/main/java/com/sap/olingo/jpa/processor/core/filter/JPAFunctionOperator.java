@@ -71,7 +71,7 @@ final class JPAFunctionOperator implements JPAOperator {
       if (p != null && p.getText() != null) {
         final JPALiteralOperator operator = new JPALiteralOperator(visitor.getOdata(), new ParameterLiteral(p
             .getText()));
-        jpaParameter[i] = cb.literal(operator.get(parameters.get(i)));
+        jpaParameter[i] = visitor.getConverter().createValue(operator.get(parameters.get(i)));
       } else {
         try {
           jpaParameter[i] = (Expression<?>) p.getExpression().accept(visitor).get();
@@ -10,23 +10,37 @@ import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.uri.queryoption.expression.UnaryOperatorKind;
 
 import com.sap.olingo.jpa.processor.core.database.JPAODataDatabaseOperations;
+import com.sap.olingo.jpa.processor.core.query.JPAQueryParameters;
 
 public class JPAOperationConverter {
 
   protected final CriteriaBuilder cb;
   private final JPAODataDatabaseOperations dbConverter;
+  private final JPAQueryParameters parameters;
 
   public JPAOperationConverter(final CriteriaBuilder cb, final JPAODataDatabaseOperations converterExtension) {
+    this(cb, converterExtension, null);
+  }
+
+  /**
+   * @param cb
+   * @param converterExtension
+   * @param parameters Buffer for the values of literals. If null the values become part of the statement.
+   */
+  public JPAOperationConverter(final CriteriaBuilder cb, final JPAODataDatabaseOperations converterExtension,
+      final JPAQueryParameters parameters) {
     super();
     this.cb = cb;
     this.dbConverter = converterExtension;
     this.dbConverter.setCriterialBuilder(cb);
+    this.parameters = parameters;
   }
 
   public final Expression<Long> convert(final JPAAggregationOperationImp jpaOperator) throws ODataApplicationException {
 
     if (jpaOperator.getAggregation() == JPAFilterAggregationType.COUNT)
       return cb.count(jpaOperator.getPath());
+    valueInlined();
     return dbConverter.convert(jpaOperator);
 
   }
@@ -36,33 +50,37 @@ public class JPAOperationConverter {
       throws ODataApplicationException {
     switch (jpaOperator.getOperator()) {
     case ADD:
-      if (jpaOperator.getRight() instanceof JPALiteralOperator)
+      if (jpaOperator.getRight() instanceof JPALiteralOperator && parameters == null)
         return (Expression<T>) cb.sum(jpaOperator.getLeft(cb), jpaOperator.getRightAsNumber(cb));
       else
-        return (Expression<T>) cb.sum(jpaOperator.getLeft(cb), jpaOperator.getRightAsExpression());
+        return (Expression<T>) cb.sum(jpaOperator.getLeft(cb), getRightAsExpression(jpaOperator));
     case SUB:
-      if (jpaOperator.getRight() instanceof JPALiteralOperator)
+      if (jpaOperator.getRight() instanceof JPALiteralOperator && parameters == null)
         return (Expression<T>) cb.diff(jpaOperator.getLeft(cb), jpaOperator.getRightAsNumber(cb));
       else
-        return (Expression<T>) cb.diff(jpaOperator.getLeft(cb), jpaOperator.getRightAsExpression());
+        return (Expression<T>) cb.diff(jpaOperator.getLeft(cb), getRightAsExpression(jpaOperator));
     case DIV:
-      if (jpaOperator.getRight() instanceof JPALiteralOperator)
+      if (jpaOperator.getRight() instanceof JPALiteralOperator && parameters == null)
         return (Expression<T>) cb.quot(jpaOperator.getLeft(cb), jpaOperator.getRightAsNumber(cb));
       else
-        return (Expression<T>) cb.quot(jpaOperator.getLeft(cb), jpaOperator.getRightAsExpression());
+        return (Expression<T>) cb.quot(jpaOperator.getLeft(cb), getRightAsExpression(jpaOperator));
     case MUL:
-      if (jpaOperator.getRight() instanceof JPALiteralOperator)
+      if (jpaOperator.getRight() instanceof JPALiteralOperator && parameters == null)
         return (Expression<T>) cb.prod(jpaOperator.getLeft(cb), jpaOperator.getRightAsNumber(cb));
       else
-        return (Expression<T>) cb.prod(jpaOperator.getLeft(cb), jpaOperator.getRightAsExpression());
+        return (Expression<T>) cb.prod(jpaOperator.getLeft(cb), getRightAsExpression(jpaOperator));
     case MOD:
-      if (jpaOperator.getRight() instanceof JPALiteralOperator)
+      if (jpaOperator.getRight() instanceof JPALiteralOperator && parameters == null)
         return (Expression<T>) cb.mod(jpaOperator.getLeftAsIntExpression(), new Integer(jpaOperator.getRightAsNumber(cb)
             .toString()));
+      else if (jpaOperator.getRight() instanceof JPALiteralOperator)
+        return (Expression<T>) cb.mod(jpaOperator.getLeftAsIntExpression(), parameters.add(new Integer(jpaOperator
+            .getRightAsNumber(cb).toString())));
       else
         return (Expression<T>) cb.mod(jpaOperator.getLeftAsIntExpression(), jpaOperator.getRightAsIntExpression());
 
     default:
+      valueInlined();
       return dbConverter.convert(jpaOperator);
     }
   }
@@ -74,6 +92,7 @@ public class JPAOperationConverter {
     case OR:
       return cb.or(jpaOperator.getLeft(), jpaOperator.getRight());
     default:
+      valueInlined();
       return dbConverter.convert(jpaOperator);
     }
   }
@@ -100,6 +119,7 @@ public class JPAOperationConverter {
       return comparisonExpression((l, r) -> (cb.lessThanOrEqualTo(l, r)), (l, r) -> (cb.lessThanOrEqualTo(l, r)),
           jpaOperator);
     default:
+      valueInlined();
       return dbConverter.convert(jpaOperator);
     }
 
@@ -117,7 +137,7 @@ public class JPAOperationConverter {
         contains.append('%');
         contains.append((String) ((JPALiteralOperator) jpaFunction.getParameter(1)).get());
         contains.append('%');
-        return cb.like((Expression<String>) (jpaFunction.getParameter(0).get()), contains.toString());
+        return cb.like((Expression<String>) (jpaFunction.getParameter(0).get()), createValue(contains.toString()));
       } else {
         return cb.like((Expression<String>) (jpaFunction.getParameter(0).get()),
             (Expression<String>) ((JPAMethodCall) jpaFunction.getParameter(1)).get("%", "%"));
@@ -127,7 +147,7 @@ public class JPAOperationConverter {
         final StringBuilder ends = new StringBuilder();
         ends.append('%');
         ends.append((String) ((JPALiteralOperator) jpaFunction.getParameter(1)).get());
-        return cb.like((Expression<String>) (jpaFunction.getParameter(0).get()), ends.toString());
+        return cb.like((Expression<String>) (jpaFunction.getParameter(0).get()), createValue(ends.toString()));
       } else {
         return cb.like((Expression<String>) (jpaFunction.getParameter(0).get()),
             (Expression<String>) ((JPAMethodCall) jpaFunction.getParameter(1)).get("%", ""));
@@ -137,14 +157,14 @@ public class JPAOperationConverter {
         final StringBuilder starts = new StringBuilder();
         starts.append((String) ((JPALiteralOperator) jpaFunction.getParameter(1)).get());
         starts.append('%');
-        return cb.like((Expression<String>) (jpaFunction.getParameter(0).get()), starts.toString());
+        return cb.like((Expression<String>) (jpaFunction.getParameter(0).get()), createValue(starts.toString()));
       } else {
         return cb.like((Expression<String>) (jpaFunction.getParameter(0).get()),
             (Expression<String>) ((JPAMethodCall) jpaFunction.getParameter(1)).get("", "%"));
       }
     case INDEXOF:
       final String searchString = ((String) ((JPALiteralOperator) jpaFunction.getParameter(1)).get());
-      return cb.locate((Expression<String>) (jpaFunction.getParameter(0).get()), searchString);
+      return cb.locate((Expression<String>) (jpaFunction.getParameter(0).get()), createValue(searchString));
     case SUBSTRING:
       // OData defines start position in SUBSTRING as 0 (see
       // http://docs.oasis-open.org/odata/odata/v4.0/os/part2-url-conventions/odata-v4.0-os-part2-url-conventions.html#_Toc372793820)
@@ -160,21 +180,21 @@ public class JPAOperationConverter {
     case TOLOWER:
 //      // TODO Locale!! and inverted parameter sequence
       if (jpaFunction.getParameter(0).get() instanceof String)
-        return cb.literal(jpaFunction.getParameter(0).get().toString().toLowerCase());
+        return createValue(jpaFunction.getParameter(0).get().toString().toLowerCase());
       return cb.lower((Expression<String>) (jpaFunction.getParameter(0).get()));
     case TOUPPER:
       if (jpaFunction.getParameter(0).get() instanceof String)
-        return cb.literal(jpaFunction.getParameter(0).get().toString().toUpperCase());
+        return createValue(jpaFunction.getParameter(0).get().toString().toUpperCase());
       return cb.upper((Expression<String>) (jpaFunction.getParameter(0).get()));
     case TRIM:
       return cb.trim((Expression<String>) (jpaFunction.getParameter(0).get()));
     case CONCAT:
       if (jpaFunction.getParameter(0).get() instanceof String)
-        return cb.concat((String) jpaFunction.getParameter(0).get(), (Expression<String>) (jpaFunction.getParameter(1)
-            .get()));
+        return cb.concat(createValue((String) jpaFunction.getParameter(0).get()), (Expression<String>) (jpaFunction
+            .getParameter(1).get()));
       if (jpaFunction.getParameter(1).get() instanceof String)
-        return cb.concat((Expression<String>) (jpaFunction.getParameter(0).get()), (String) jpaFunction.getParameter(1)
-            .get());
+        return cb.concat((Expression<String>) (jpaFunction.getParameter(0).get()), createValue((String) jpaFunction
+            .getParameter(1).get()));
       else
         return cb.concat((Expression<String>) (jpaFunction.getParameter(0).get()),
             (Expression<String>) (jpaFunction.getParameter(1).get()));
@@ -182,6 +202,7 @@ public class JPAOperationConverter {
     case NOW:
       return cb.currentTimestamp();
     default:
+      valueInlined();
       return dbConverter.convert(jpaFunction);
     }
   }
@@ -191,17 +212,42 @@ public class JPAOperationConverter {
 
     if (jpaOperator.getOperator() == UnaryOperatorKind.NOT)
       return cb.not(jpaOperator.getLeft());
+    valueInlined();
     return dbConverter.convert(jpaOperator);
 
   }
 
+  /**
+   * Creates an expression for a value. The value is passed as query parameter, so queries that differ only in their
+   * values share one statement. Only in case no parameter buffer is given, the value becomes a literal.
+   * @param value
+   * @return
+   */
+  public <T> Expression<T> createValue(final T value) {
+    if (parameters != null)
+      return parameters.add(value);
+    return cb.literal(value);
+  }
+
+  /**
+   * Records that a value became part of the statement. Operations provided by a database specific extension may put
+   * values into the statement, so it can not be shared.
+   */
+  void valueInlined() {
+    if (parameters != null)
+      parameters.valueInlined();
+  }
+
   @SuppressWarnings({ "unchecked" })
   private <Y extends Comparable<? super Y>> Expression<Boolean> comparisonExpression(
       final BiFunction<Expression<? extends Y>, Expression<? extends Y>, Expression<Boolean>> allExpressionFunction,
       final BiFunction<Expression<? extends Y>, Y, Expression<Boolean>> expressionObjectFunction,
       final JPAComparisonOperator<? extends Y> jpaOperator) throws ODataApplicationException {
 
-    if (jpaOperator.getRight() instanceof JPAPrimitiveTypeOperator)
+    if (jpaOperator.getRight() instanceof JPAPrimitiveTypeOperator && parameters != null)
+      return allExpressionFunction.apply(jpaOperator.getLeft(), parameters.add((Y) jpaOperator
+          .getRightAsComparable()));
+    else if (jpaOperator.getRight() instanceof JPAPrimitiveTypeOperator)
       return expressionObjectFunction.apply(jpaOperator.getLeft(), (Y) jpaOperator.getRightAsComparable());
     else
       return allExpressionFunction.apply(jpaOperator.getLeft(), jpaOperator.getRightAsExpression());
@@ -217,7 +263,15 @@ public class JPAOperationConverter {
       else
         return (Expression<Integer>) jpaFunction.getParameter(parameterIndex).get();
     } else
-      return cb.literal(new Integer(parameter.get().toString()) + offset);
+      return createValue(new Integer(parameter.get().toString()) + offset);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T extends Number> Expression<T> getRightAsExpression(final JPAArithmeticOperator jpaOperator)
+      throws ODataApplicationException {
+    if (jpaOperator.getRight() instanceof JPALiteralOperator)
+      return (Expression<T>) parameters.add(jpaOperator.getRightAsNumber(cb));
+    return (Expression<T>) jpaOperator.getRightAsExpression();
   }
 
   private Expression<Boolean> equalExpression(
@@ -229,6 +283,9 @@ public class JPAOperationConverter {
     if (jpaOperator.getRight() instanceof JPAPrimitiveTypeOperator)
       if (((JPAPrimitiveTypeOperator) jpaOperator.getRight()).isNull())
         return nullFunction.apply(jpaOperator.getLeft());
+      else if (parameters != null)
+        return allExpressionFunction.apply(jpaOperator.getLeft(), parameters.add(((JPAOperator) jpaOperator
+            .getRight()).get()));
       else
         return expressionObjectFunction.apply(jpaOperator.getLeft(), ((JPAOperator) jpaOperator.getRight()).get());
     else
@@ -223,6 +223,10 @@ class JPAVisitor implements JPAExpressionVisitor {
     return jpaComplier.getConverter().cb;
   }
 
+  JPAOperationConverter getConverter() {
+    return jpaComplier.getConverter();
+  }
+
   JPAServiceDocument getSd() {
     return jpaComplier.getSd();
   }
@@ -0,0 +1,266 @@
+package com.sap.olingo.jpa.processor.core.modify;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.CascadeType;
+import javax.persistence.Embedded;
+import javax.persistence.EmbeddedId;
+import javax.persistence.ManyToMany;
+import javax.persistence.ManyToOne;
+import javax.persistence.OneToMany;
+import javax.persistence.OneToOne;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import com.sap.olingo.jpa.processor.core.api.JPAODataSessionContextAccess;
+import com.sap.olingo.jpa.processor.core.database.JPASearchIndex;
+import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessException;
+import com.sap.olingo.jpa.processor.core.query.JPAFunctionResultCache;
+
+/**
+ * Updates the search index, see {@link JPASearchIndex}, and removes the cached function results, see
+ * {@link JPAFunctionResultCache}, after entities have been changed via the service. The changes of a request are
+ * committed before the caches get updated. The changes of a change set only become visible with the commit of the
+ * change set, so the updates are collected, see {@link #collect()}, and either applied after the commit or discarded
+ * in case of a rollback. The same is true for a request processed within a transaction begun by the caller, see
+ * {@link com.sap.olingo.jpa.processor.core.api.JPAODataGetHandler#process(javax.servlet.http.HttpServletRequest,
+ * javax.servlet.http.HttpServletResponse, javax.persistence.EntityManager, JPACacheUpdates) JPAODataGetHandler}. Here
+ * the caller has to apply the updates after the commit. In case the caller does not get the updates, see
+ * {@link com.sap.olingo.jpa.processor.core.api.JPAODataGetHandler#process(javax.servlet.http.HttpServletRequest,
+ * javax.servlet.http.HttpServletResponse, javax.persistence.EntityManager) JPAODataGetHandler}, it is not known when
+ * the changes become visible. The collected updates are therefore applied as invalidations when the request returns,
+ * see {@link #applyAsInvalidations()}.<p>
+ * A change may be cascaded to related entities, see {@link CascadeType}. Therefore the cached function results are
+ * removed for the type of the changed entity and for all types a change of it is cascaded to.<p>
+ * An instance is bound to the entity manager of a request and is not thread safe.
+ */
+public final class JPACacheUpdates {
+  private final JPAODataSessionContextAccess context;
+  private final List<Update> updates = new ArrayList<>();
+  private boolean collecting;
+
+  public JPACacheUpdates(final JPAODataSessionContextAccess context) {
+    super();
+    this.context = context;
+  }
+
+  /**
+   * Starts collecting the updates, e.g. at the beginning of a change set
+   */
+  public void collect() {
+    updates.clear();
+    collecting = true;
+  }
+
+  /**
+   * Applies the collected updates and stops collecting
+   */
+  public void apply() {
+    collecting = false;
+    final Set<Class<?>> invalidated = new HashSet<>();
+    for (final Update update : updates)
+      update.apply(invalidated);
+    updates.clear();
+  }
+
+  /**
+   * Invalidates the search index and the cached function results of the types of the collected updates and stops
+   * collecting. The index of a type is build again with the next search.
+   */
+  public void applyAsInvalidations() {
+    collecting = false;
+    final Set<Class<?>> invalidated = new HashSet<>();
+    final Set<JPAEntityType> indexInvalidated = new HashSet<>();
+    for (final Update update : updates)
+      update.applyAsInvalidation(invalidated, indexInvalidated);
+    updates.clear();
+  }
+
+  /**
+   * Drops the collected updates and stops collecting
+   */
+  public void discard() {
+    collecting = false;
+    updates.clear();
+  }
+
+  /**
+   * @return True if the updates are collected and not applied immediately
+   */
+  public boolean isCollecting() {
+    return collecting;
+  }
+
+  /**
+   * An entity has been created or updated
+   * @param entityType
+   * @param entity State of the entity after the change, see {@link JPASearchIndex#put(JPAEntityType, Object)}
+   */
+  public void put(final JPAEntityType entityType, final Object entity) {
+    add(new Update(UpdateKind.PUT, entityType, entity));
+  }
+
+  /**
+   * An entity has been deleted
+   * @param entityType
+   * @param keys See {@link JPASearchIndex#remove(JPAEntityType, Object)}
+   */
+  public void remove(final JPAEntityType entityType, final Object keys) {
+    add(new Update(UpdateKind.REMOVE, entityType, keys));
+  }
+
+  /**
+   * Entities of a type have been changed, but their state is not known
+   * @param entityType
+   */
+  public void invalidate(final JPAEntityType entityType) {
+    add(new Update(UpdateKind.INVALIDATE, entityType, null));
+  }
+
+  private void add(final Update update) {
+    if (collecting)
+      updates.add(update);
+    else
+      update.apply(new HashSet<Class<?>>());
+  }
+
+  /**
+   * @return The given type and all types a change of an entity of the given type is cascaded to, directly or via other
+   * types
+   */
+  static Set<Class<?>> determineCascadedTypes(final Class<?> typeClass) {
+    final Set<Class<?>> types = new HashSet<>();
+    final Deque<Class<?>> open = new ArrayDeque<>();
+    types.add(typeClass);
+    open.add(typeClass);
+    while (!open.isEmpty()) {
+      for (final Class<?> target : determineCascadeTargets(open.poll())) {
+        if (types.add(target))
+          open.add(target);
+      }
+    }
+    return types;
+  }
+
+  private static List<Class<?>> determineCascadeTargets(final Class<?> typeClass) {
+    final List<Class<?>> targets = new ArrayList<>();
+    for (Class<?> clazz = typeClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+      for (final Field field : clazz.getDeclaredFields())
+        addCascadeTarget(targets, field, field.getType(), field.getGenericType());
+      for (final Method method : clazz.getDeclaredMethods())
+        addCascadeTarget(targets, method, method.getReturnType(), method.getGenericReturnType());
+    }
+    return targets;
+  }
+
+  private static void addCascadeTarget(final List<Class<?>> targets, final AccessibleObject member,
+      final Class<?> type, final Type genericType) {
+
+    if (member.isAnnotationPresent(Embedded.class) || member.isAnnotationPresent(EmbeddedId.class)) {
+      // Associations of an embedded type belong to the entity
+      targets.addAll(determineCascadeTargets(type));
+      return;
+    }
+    final CascadeType[] cascade;
+    final Class<?> targetEntity;
+    if (member.isAnnotationPresent(OneToMany.class)) {
+      cascade = member.getAnnotation(OneToMany.class).cascade();
+      targetEntity = member.getAnnotation(OneToMany.class).targetEntity();
+    } else if (member.isAnnotationPresent(ManyToMany.class)) {
+      cascade = member.getAnnotation(ManyToMany.class).cascade();
+      targetEntity = member.getAnnotation(ManyToMany.class).targetEntity();
+    } else if (member.isAnnotationPresent(OneToOne.class)) {
+      cascade = member.getAnnotation(OneToOne.class).cascade();
+      targetEntity = member.getAnnotation(OneToOne.class).targetEntity();
+    } else if (member.isAnnotationPresent(ManyToOne.class)) {
+      cascade = member.getAnnotation(ManyToOne.class).cascade();
+      targetEntity = member.getAnnotation(ManyToOne.class).targetEntity();
+    } else
+      return;
+    if (cascade.length == 0)
+      return;
+    if (targetEntity != void.class)
+      targets.add(targetEntity);
+    else if (genericType instanceof ParameterizedType) {
+      // Collection or Map; the entity is the last type argument
+      final Type[] arguments = ((ParameterizedType) genericType).getActualTypeArguments();
+      if (arguments[arguments.length - 1] instanceof Class)
+        targets.add((Class<?>) arguments[arguments.length - 1]);
+    } else
+      targets.add(type);
+  }
+
+  private static enum UpdateKind {
+    PUT, REMOVE, INVALIDATE;
+  }
+
+  private class Update {
+    private final UpdateKind kind;
+    private final JPAEntityType entityType;
+    private final Object entity;
+
+    private Update(final UpdateKind kind, final JPAEntityType entityType, final Object entity) {
+      super();
+      this.kind = kind;
+      this.entityType = entityType;
+      this.entity = entity;
+    }
+
+    /**
+     * @param invalidated Types the function results have already been removed for
+     */
+    private void apply(final Set<Class<?>> invalidated) {
+      invalidateFunctionResults(invalidated);
+      final JPASearchIndex index = context.getSearchIndex();
+      if (index != null)
+        updateIndex(index);
+    }
+
+    /**
+     * @param invalidated Types the function results have already been removed for
+     * @param indexInvalidated Types the index has already been invalidated for
+     */
+    private void applyAsInvalidation(final Set<Class<?>> invalidated, final Set<JPAEntityType> indexInvalidated) {
+      invalidateFunctionResults(invalidated);
+      final JPASearchIndex index = context.getSearchIndex();
+      if (index != null && indexInvalidated.add(entityType))
+        index.invalidate(entityType);
+    }
+
+    private void invalidateFunctionResults(final Set<Class<?>> invalidated) {
+      final JPAFunctionResultCache functionResults = context.getFunctionResultCache();
+      if (functionResults != null) {
+        for (final Class<?> type : determineCascadedTypes(entityType.getTypeClass())) {
+          if (invalidated.add(type))
+            functionResults.invalidate(type);
+        }
+      }
+    }
+
+    /**
+     * The changes are already committed, so in case the index can not be updated, the index of the entity type is
+     * build again with the next search
+     */
+    private void updateIndex(final JPASearchIndex index) {
+      try {
+        if (kind == UpdateKind.PUT)
+          index.put(entityType, entity);
+        else if (kind == UpdateKind.REMOVE)
+          index.remove(entityType, entity);
+        else
+          index.invalidate(entityType);
+      } catch (ODataJPAProcessException e) {
+        index.invalidate(entityType);
+      }
+    }
+  }
+}
@@ -2,7 +2,6 @@ package com.sap.olingo.jpa.processor.core.modify;
 
 import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -36,6 +35,7 @@ import com.sap.olingo.jpa.processor.core.exception.ODataJPAFilterException;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessException;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException.MessageKeys;
+import com.sap.olingo.jpa.processor.core.processor.JPAAttributeAccessors;
 import com.sap.olingo.jpa.processor.core.processor.deserializer.JsonDeserializer;
 import com.sap.olingo.jpa.processor.core.query.ExpressionUtil;
 
@@ -59,7 +59,7 @@ public class JPAConversionHelper {
    * Creates a map of attribute name and the return value of there getter method. <p>
    * It is assumed that the method name is composed from <i>get</> and the
    * name of the attribute and that the attribute name starts with a lower case
-   * letter.
+   * letter. The getters are resolved once per class by {@link JPAAttributeAccessors}.
    * @param instance
    * @return
    * @throws ODataJPAProcessorException
@@ -69,19 +69,14 @@ public class JPAConversionHelper {
     if (instance != null) {
       Map<String, Object> getterMap = getterBuffer.get(instance);
       if (getterMap == null) {
+        final JPAAttributeAccessors accessors = JPAAttributeAccessors.of(instance.getClass());
         getterMap = new HashMap<>();
-        Method[] methods = instance.getClass().getMethods();
-        for (Method meth : methods) {
-          String methodName = meth.getName();
-          if (methodName.substring(0, 3).equals("get") && methodName.length() > 3) {
-            String attributeName = methodName.substring(3, 4).toLowerCase() + methodName.substring(4);
-            try {
-              Object value = meth.invoke(instance);
-              getterMap.put(attributeName, value);
-            } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-              throw new ODataJPAProcessorException(MessageKeys.ATTRIBUTE_RETRIVAL_FAILED,
-                  HttpStatusCode.INTERNAL_SERVER_ERROR, e, attributeName);
-            }
+        for (String attributeName : accessors.getGetterNames()) {
+          try {
+            getterMap.put(attributeName, accessors.get(instance, attributeName));
+          } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+            throw new ODataJPAProcessorException(MessageKeys.ATTRIBUTE_RETRIVAL_FAILED,
+                HttpStatusCode.INTERNAL_SERVER_ERROR, e, attributeName);
           }
         }
         getterBuffer.put(instance, getterMap);
@@ -9,6 +9,7 @@ import javax.persistence.Tuple;
 
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import com.sap.olingo.jpa.processor.core.converter.JPAJoinKey;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
 
 final class JPAEntityNavigationLinkResult extends JPACreateResult {
@@ -20,12 +21,12 @@ final class JPAEntityNavigationLinkResult extends JPACreateResult {
 
     result = new ArrayList<Tuple>();
     for (Object v : value) {
-      result.add(new JPAEntityResult(et, v, requestHeaders).getResult("root").get(0));
+      result.add(new JPAEntityResult(et, v, requestHeaders).getResult(JPAJoinKey.ROOT).get(0));
     }
   }
 
   @Override
-  public List<Tuple> getResult(String key) {
+  public List<Tuple> getResult(JPAJoinKey key) {
     return result;
   }
 
@@ -8,6 +8,7 @@ import javax.persistence.Tuple;
 
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import com.sap.olingo.jpa.processor.core.converter.JPAJoinKey;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
 import com.sap.olingo.jpa.processor.core.processor.JPARequestEntity;
 
@@ -20,12 +21,13 @@ final class JPAMapNavigationLinkResult extends JPACreateResult {
     result = new ArrayList<Tuple>();
 
     for (JPARequestEntity entity : entities) {
-      result.add(new JPAMapResult(entity.getEntityType(), entity.getData(), requestHeaders).getResult("root").get(0));
+      result.add(new JPAMapResult(entity.getEntityType(), entity.getData(), requestHeaders).getResult(JPAJoinKey.ROOT)
+          .get(0));
     }
   }
 
   @Override
-  public List<Tuple> getResult(String key) {
+  public List<Tuple> getResult(JPAJoinKey key) {
     return result;
   }
 
@@ -20,9 +20,8 @@ final class JPATuple implements Tuple {
   }
 
   @Override
-  public Object get(int arg0) {
-    assert 1 == 2;
-    return null;
+  public Object get(int index) {
+    return values.get(elements.get(index).getAlias());
   }
 
   @Override
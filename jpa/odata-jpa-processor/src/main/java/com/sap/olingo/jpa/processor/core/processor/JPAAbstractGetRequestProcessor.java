@@ -2,14 +2,34 @@ package com.sap.olingo.jpa.processor.core.processor;
 
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataResponse;
 
 import com.sap.olingo.jpa.processor.core.api.JPAODataRequestContextAccess;
 import com.sap.olingo.jpa.processor.core.api.JPAODataSessionContextAccess;
+import com.sap.olingo.jpa.processor.core.query.JPAQuery;
 
 abstract class JPAAbstractGetRequestProcessor extends JPAAbstractRequestProcessor implements JPARequestProcessor {
+  static final String APPROXIMATE_COUNT = "X-Approximate-Count";
 
   JPAAbstractGetRequestProcessor(OData odata, JPAODataSessionContextAccess context,
       JPAODataRequestContextAccess requestContext) throws ODataException {
     super(odata, context, requestContext);
   }
+
+  /**
+   * Counts the results of a query. In case the database has only given an estimate, this is marked at the response.
+   * Olingo takes the count as Integer, so counts exceeding its range are given as {@link Integer#MAX_VALUE}.
+   * @param query
+   * @param response
+   * @return
+   * @throws ODataApplicationException
+   */
+  protected final Integer countResults(final JPAQuery query, final ODataResponse response)
+      throws ODataApplicationException {
+    final Integer count = Integer.valueOf((int) Math.min(query.countResults().longValue(), Integer.MAX_VALUE));
+    if (query.isCountApproximate())
+      response.setHeader(APPROXIMATE_COUNT, "true");
+    return count;
+  }
 }
@@ -22,6 +22,7 @@ import org.apache.olingo.server.api.uri.UriResourceAction;
 import org.apache.olingo.server.api.uri.UriResourceEntitySet;
 
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAction;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAJavaOperationInvoker;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAParameter;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import com.sap.olingo.jpa.processor.core.api.JPAODataRequestContextAccess;
@@ -44,7 +45,8 @@ public class JPAActionRequestProcessor extends JPAOperationRequestProcessor {
     try {
       final JPAAction jpaAction = sd.getAction(resource.getAction());
 
-      final Object instance = createInstanze(jpaAction.getConstructor());
+      final JPAJavaOperationInvoker invoker = getInvoker(jpaAction);
+      final Object instance = invoker.getInstance(em);
 
       final List<Object> parameter = new ArrayList<>();
       final Parameter[] methodParameter = jpaAction.getMethod().getParameters();
@@ -73,16 +75,16 @@ public class JPAActionRequestProcessor extends JPAOperationRequestProcessor {
       EdmType returnType = null;
       if (resource.getAction().getReturnType() != null) {
         returnType = resource.getAction().getReturnType().getType();
-        final Object result = jpaAction.getMethod().invoke(instance, parameter.toArray());
+        final Object result = invoker.invoke(instance, parameter.toArray());
         r = convertResult(result, returnType, jpaAction);
       } else
-        jpaAction.getMethod().invoke(instance, parameter.toArray());
+        invoker.invoke(instance, parameter.toArray());
       if (serializer != null)
         serializeResult(returnType, response, serializer.getContentType(), r);
       else
         response.setStatusCode(successStatusCode);
 
-    } catch (InstantiationException | IllegalAccessException | IllegalArgumentException e) {
+    } catch (IllegalAccessException e) {
       throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
     } catch (InvocationTargetException | ODataException e) {
       final Throwable cause = e.getCause();
@@ -122,14 +124,4 @@ public class JPAActionRequestProcessor extends JPAOperationRequestProcessor {
     return null;
   }
 
-  protected Object createInstanze(final Constructor<?> c) throws InstantiationException, IllegalAccessException,
-      InvocationTargetException {
-    Object instance;
-    if (c.getParameterCount() == 1)
-      instance = c.newInstance(em);
-    else
-      instance = c.newInstance();
-    return instance;
-  }
-
 }
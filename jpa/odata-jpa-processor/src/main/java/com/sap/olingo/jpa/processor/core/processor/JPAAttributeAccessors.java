@@ -0,0 +1,192 @@
+package com.sap.olingo.jpa.processor.core.processor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Getter and setter of a JAVA class resolved once and kept as {@link MethodHandle}s.
+ * <p>
+ * Modifying requests and the conversion of their results access the attributes of the JPA POJOs by name. Instead of
+ * scanning {@link Class#getMethods()} for every instance, the accessors of a class are resolved on first use and
+ * stored in a {@link ClassValue}, so they are shared by all requests and released together with the class.
+ * <p>
+ * As with the JAVA naming conventions the attribute name is derived from the method name: <i>get</i> or <i>set</i>
+ * is removed and the first remaining letter is converted to lower case.
+ */
+public final class JPAAttributeAccessors {
+
+  private static final ClassValue<JPAAttributeAccessors> REGISTRY = new ClassValue<JPAAttributeAccessors>() {
+    @Override
+    protected JPAAttributeAccessors computeValue(final Class<?> type) {
+      return new JPAAttributeAccessors(type);
+    }
+  };
+
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+  private final Map<String, Getter> getters;
+  private final Map<String, List<Setter>> setters;
+
+  private JPAAttributeAccessors(final Class<?> type) {
+    final Map<String, Getter> getterMap = new HashMap<>();
+    final Map<String, List<Setter>> setterMap = new HashMap<>();
+    for (final Method meth : type.getMethods()) {
+      final String methodName = meth.getName();
+      if (methodName.length() > 3 && !Modifier.isStatic(meth.getModifiers())) {
+        final String attributeName = methodName.substring(3, 4).toLowerCase() + methodName.substring(4);
+        if (methodName.startsWith("get") && meth.getParameterTypes().length == 0
+            && (!getterMap.containsKey(attributeName) || !meth.isBridge()))
+          getterMap.put(attributeName, new Getter(meth));
+        else if (methodName.startsWith("set") && meth.getParameterTypes().length == 1) {
+          List<Setter> overloads = setterMap.get(attributeName);
+          if (overloads == null) {
+            overloads = new ArrayList<>(1);
+            setterMap.put(attributeName, overloads);
+          }
+          overloads.add(new Setter(meth));
+        }
+      }
+    }
+    this.getters = Collections.unmodifiableMap(getterMap);
+    this.setters = Collections.unmodifiableMap(setterMap);
+  }
+
+  /**
+   * Returns the accessors of the given class. They are resolved on the first call for a class.
+   * @param type
+   * @return
+   */
+  public static JPAAttributeAccessors of(final Class<?> type) {
+    return REGISTRY.get(type);
+  }
+
+  /**
+   * Reads an attribute value
+   * @param instance
+   * @param attributeName Internal name of the attribute
+   * @return
+   * @throws IllegalArgumentException In case no getter exists for the attribute
+   * @throws IllegalAccessException In case the getter is not accessible
+   * @throws InvocationTargetException In case the getter throws an exception
+   */
+  public Object get(final Object instance, final String attributeName) throws IllegalAccessException,
+      InvocationTargetException {
+    final Getter getter = getters.get(attributeName);
+    if (getter == null)
+      throw new IllegalArgumentException("No getter for " + attributeName);
+    return getter.get(instance);
+  }
+
+  /**
+   * @return Internal names of all attributes having a getter
+   */
+  public Set<String> getGetterNames() {
+    return getters.keySet();
+  }
+
+  /**
+   * Returns the setter of an attribute that takes exactly the given type. In case the type is null, the first setter
+   * found for the attribute is returned.
+   * @param attributeName Internal name of the attribute
+   * @param type Type of the value to be set
+   * @return null if no matching setter exists
+   */
+  public Setter getSetter(final String attributeName, final Class<?> type) {
+    final List<Setter> overloads = setters.get(attributeName);
+    if (overloads != null) {
+      for (final Setter setter : overloads) {
+        if (type == null || setter.getType() == type)
+          return setter;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return Internal names of all attributes having a setter
+   */
+  public Set<String> getSetterNames() {
+    return setters.keySet();
+  }
+
+  public boolean hasGetter(final String attributeName) {
+    return getters.containsKey(attributeName);
+  }
+
+  private static MethodHandle unreflect(final Method method, final MethodType type) {
+    try {
+      return MethodHandles.publicLookup().unreflect(method).asType(type);
+    } catch (final IllegalAccessException e) {
+      // Not accessible e.g. as the declaring class is not public. Fall back to reflection, which reports the problem
+      return null;
+    }
+  }
+
+  private static final class Getter {
+    private final Method method;
+    private final MethodHandle handle;
+
+    Getter(final Method method) {
+      super();
+      this.method = method;
+      this.handle = unreflect(method, GETTER_TYPE);
+    }
+
+    Object get(final Object instance) throws IllegalAccessException, InvocationTargetException {
+      if (handle == null)
+        return method.invoke(instance);
+      try {
+        return (Object) handle.invokeExact(instance);
+      } catch (final Throwable e) { // NOSONAR
+        throw new InvocationTargetException(e);
+      }
+    }
+  }
+
+  /**
+   * Setter of one attribute
+   */
+  public static final class Setter {
+    private final Method method;
+    private final MethodHandle handle;
+    private final Class<?> type;
+
+    Setter(final Method method) {
+      super();
+      this.method = method;
+      this.handle = unreflect(method, SETTER_TYPE);
+      this.type = method.getParameterTypes()[0];
+    }
+
+    /**
+     * @return Parameter type of the setter
+     */
+    public Class<?> getType() {
+      return type;
+    }
+
+    public void set(final Object instance, final Object value) throws IllegalAccessException,
+        InvocationTargetException {
+      if (handle == null)
+        method.invoke(instance, value);
+      else {
+        try {
+          handle.invokeExact(instance, value);
+        } catch (final Throwable e) { // NOSONAR
+          throw new InvocationTargetException(e);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package com.sap.olingo.jpa.processor.core.processor;
+
+/**
+ * Single byte range requested via a Range header, see
+ * <a href="https://tools.ietf.org/html/rfc7233#section-2.1">RFC 7233 2.1 Byte Ranges</a>.<br>
+ * Only a single range is supported. Requests with multiple ranges or a syntactically invalid Range header get the
+ * complete content, which is allowed by RFC 7233.
+ */
+final class JPAByteRange {
+  static final String UNIT = "bytes";
+  private static final String PREFIX = UNIT + "=";
+
+  private final long first;
+  private final long last;
+  private final long length;
+
+  private JPAByteRange(final long first, final long last, final long length) {
+    super();
+    this.first = first;
+    this.last = last;
+    this.length = length;
+  }
+
+  /**
+   * @param header Value of the Range header, may be null
+   * @param length Length of the complete content
+   * @return The requested range or null if the complete content shall be returned
+   */
+  static JPAByteRange parse(final String header, final long length) {
+    if (header == null || !header.trim().startsWith(PREFIX))
+      return null;
+    final String spec = header.trim().substring(PREFIX.length()).trim();
+    final int dash = spec.indexOf('-');
+    if (dash < 0 || spec.indexOf(',') >= 0)
+      return null;
+    try {
+      final String firstPart = spec.substring(0, dash).trim();
+      final String lastPart = spec.substring(dash + 1).trim();
+      if (firstPart.isEmpty()) {
+        // Suffix range: last n bytes
+        if (lastPart.isEmpty())
+          return null;
+        final long suffix = Long.parseLong(lastPart);
+        if (suffix < 0)
+          return null;
+        return new JPAByteRange(Math.max(0, length - suffix), length - 1, length);
+      }
+      final long firstByte = Long.parseLong(firstPart);
+      final long lastByte = lastPart.isEmpty() ? Long.MAX_VALUE : Long.parseLong(lastPart);
+      if (firstByte < 0 || lastByte < firstByte)
+        return null;
+      return new JPAByteRange(firstByte, Math.min(lastByte, length - 1), length);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  /**
+   * A range is not satisfiable if it starts behind the end of the content or if it is a suffix range of length zero.
+   */
+  boolean isSatisfiable() {
+    return first < length && first <= last;
+  }
+
+  long getFirst() {
+    return first;
+  }
+
+  long getLast() {
+    return last;
+  }
+
+  long getSize() {
+    return last - first + 1;
+  }
+
+  /**
+   * @return The value of the Content-Range header
+   */
+  String toContentRange() {
+    if (isSatisfiable())
+      return UNIT + " " + first + "-" + last + "/" + length;
+    return UNIT + " */" + length;
+  }
+}
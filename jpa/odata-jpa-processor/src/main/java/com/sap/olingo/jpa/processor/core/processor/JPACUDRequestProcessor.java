@@ -43,6 +43,7 @@ import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessException;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException.MessageKeys;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPASerializerException;
+import com.sap.olingo.jpa.processor.core.modify.JPACacheUpdates;
 import com.sap.olingo.jpa.processor.core.modify.JPAConversionHelper;
 import com.sap.olingo.jpa.processor.core.modify.JPACreateResultFactory;
 import com.sap.olingo.jpa.processor.core.modify.JPAUpdateResult;
@@ -54,14 +55,27 @@ public final class JPACUDRequestProcessor extends JPAAbstractRequestProcessor {
 
   private final ServiceMetadata serviceMetadata;
   private final JPAConversionHelper helper;
+  private final JPACacheUpdates cacheUpdates;
 
   public JPACUDRequestProcessor(final OData odata, final ServiceMetadata serviceMetadata,
       final JPAODataSessionContextAccess sessionContext, final JPAODataRequestContextAccess requestContext,
       JPAConversionHelper cudHelper) throws ODataException {
 
+    this(odata, serviceMetadata, sessionContext, requestContext, cudHelper, new JPACacheUpdates(sessionContext));
+  }
+
+  /**
+   * @param cacheUpdates Collects the updates of the caches in case the request is part of a change set, see
+   * {@link JPACacheUpdates#collect()}
+   */
+  public JPACUDRequestProcessor(final OData odata, final ServiceMetadata serviceMetadata,
+      final JPAODataSessionContextAccess sessionContext, final JPAODataRequestContextAccess requestContext,
+      final JPAConversionHelper cudHelper, final JPACacheUpdates cacheUpdates) throws ODataException {
+
     super(odata, sessionContext, requestContext);
     this.serviceMetadata = serviceMetadata;
     this.helper = cudHelper;
+    this.cacheUpdates = cacheUpdates;
   }
 
   public void clearFields(final ODataRequest request, ODataResponse response) throws ODataJPAProcessException {
@@ -72,7 +86,7 @@ public final class JPACUDRequestProcessor extends JPAAbstractRequestProcessor {
 
     final JPARequestEntity requestEntity = createRequestEntity(edmEntitySetInfo, uriInfo.getUriResourceParts(), request
         .getAllHeaders());
-    final boolean foreignTransation = em.getTransaction().isActive();
+    final boolean foreignTransation = isForeignTransaction();
 
     if (!foreignTransation)
       em.getTransaction().begin();
@@ -95,6 +109,8 @@ public final class JPACUDRequestProcessor extends JPAAbstractRequestProcessor {
     }
     if (!foreignTransation)
       em.getTransaction().commit();
+    // Cleared attributes may have been searchable
+    cacheUpdates.invalidate(requestEntity.getEntityType());
     debugger.stopRuntimeMeasurement(handle);
     response.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
   }
@@ -112,7 +128,7 @@ public final class JPACUDRequestProcessor extends JPAAbstractRequestProcessor {
 
     // Create entity
     Object result = null;
-    final boolean foreignTransation = em.getTransaction().isActive();
+    final boolean foreignTransation = isForeignTransaction();
     if (!foreignTransation)
       em.getTransaction().begin();
     try {
@@ -144,6 +160,8 @@ public final class JPACUDRequestProcessor extends JPAAbstractRequestProcessor {
 
     if (!foreignTransation)
       em.getTransaction().commit();
+    cacheUpdates.put(requestEntity.getEntityType(), result);
+    invalidateRelatedEntities(requestEntity);
 
     createCreateResponse(request, response, responseFormat, requestEntity, edmEntitySet, result);
     debugger.stopRuntimeMeasurement(handle);
@@ -181,7 +199,7 @@ public final class JPACUDRequestProcessor extends JPAAbstractRequestProcessor {
     final JPARequestEntity requestEntity = createRequestEntity(et, jpaKeyPredicates, request.getAllHeaders());
 
     // 3. Perform Delete
-    final boolean foreignTransation = em.getTransaction().isActive();
+    final boolean foreignTransation = isForeignTransaction();
     if (!foreignTransation)
       em.getTransaction().begin();
     try {
@@ -203,6 +221,7 @@ public final class JPACUDRequestProcessor extends JPAAbstractRequestProcessor {
     }
     if (!foreignTransation)
       em.getTransaction().commit();
+    cacheUpdates.remove(et, jpaKeyPredicates);
 
     // 4. configure the response object
     response.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
@@ -229,7 +248,7 @@ public final class JPACUDRequestProcessor extends JPAAbstractRequestProcessor {
     // Update entity
     JPAUpdateResult updateResult = null;
 
-    final boolean foreignTransation = em.getTransaction().isActive();
+    final boolean foreignTransation = isForeignTransaction();
     if (!foreignTransation)
       em.getTransaction().begin();
     try {
@@ -278,6 +297,7 @@ public final class JPACUDRequestProcessor extends JPAAbstractRequestProcessor {
     }
     if (!foreignTransation)
       em.getTransaction().commit();
+    updateSearchIndex(requestEntity, updateResult);
 
     if (updateResult.wasCreate()) {
       createCreateResponse(request, response, responseFormat, requestEntity.getEntityType(), edmEntitySetInfo
@@ -290,6 +310,42 @@ public final class JPACUDRequestProcessor extends JPAAbstractRequestProcessor {
 
   }
 
+  /**
+   * A transaction that is already active has been begun by the caller, so the changes of the request become visible not
+   * before the caller commits. In that case the updates of the caches are collected and the owner of the transaction
+   * has to apply them after the commit, see {@link JPACacheUpdates#apply()}.
+   */
+  private boolean isForeignTransaction() {
+    final boolean foreignTransation = em.getTransaction().isActive();
+    if (foreignTransation && !cacheUpdates.isCollecting())
+      cacheUpdates.collect();
+    return foreignTransation;
+  }
+
+  /**
+   * The entities created by a deep insert are not returned by the request handler, so the index of their entity types
+   * gets rebuild.
+   */
+  private void invalidateRelatedEntities(final JPARequestEntity requestEntity) {
+    for (final List<JPARequestEntity> relatedEntities : requestEntity.getRelatedEntities().values()) {
+      for (final JPARequestEntity relatedEntity : relatedEntities) {
+        cacheUpdates.invalidate(relatedEntity.getEntityType());
+        invalidateRelatedEntities(relatedEntity);
+      }
+    }
+  }
+
+  /**
+   * The index needs the state of the entity after the update. In case the request handler did not return it, the
+   * changes of the request may not contain all searchable attributes, so the index of the entity type gets rebuild.
+   */
+  private void updateSearchIndex(final JPARequestEntity requestEntity, final JPAUpdateResult updateResult) {
+    if (updateResult.getModifyedEntity() != null)
+      cacheUpdates.put(requestEntity.getEntityType(), updateResult.getModifyedEntity());
+    else
+      cacheUpdates.invalidate(requestEntity.getEntityType());
+  }
+
   final JPARequestEntity createRequestEntity(EdmEntitySetInfo edmEntitySetInfo, Entity odataEntity,
       Map<String, List<String>> headers) throws ODataJPAProcessorException {
 
@@ -62,7 +62,7 @@ public final class JPACountRequestProcessor extends JPAAbstractGetRequestProcess
     }
 
     final EntityCollection entityCollection = new EntityCollection();
-    entityCollection.setCount(Integer.valueOf(query.countResults().intValue()));
+    entityCollection.setCount(countResults(query, response));
     return entityCollection;
   }
 }
@@ -1,11 +1,8 @@
 package com.sap.olingo.jpa.processor.core.processor;
 
-import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Parameter;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import javax.persistence.EntityManager;
 
@@ -32,6 +29,7 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPADataBaseFunction;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEnumerationAttribute;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAFunction;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAJavaFunction;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAJavaOperationInvoker;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAParameter;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import com.sap.olingo.jpa.processor.core.api.JPAODataDatabaseProcessor;
@@ -39,6 +37,7 @@ import com.sap.olingo.jpa.processor.core.api.JPAODataRequestContextAccess;
 import com.sap.olingo.jpa.processor.core.api.JPAODataSessionContextAccess;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPADBAdaptorException;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
+import com.sap.olingo.jpa.processor.core.query.JPAFunctionResultCache;
 
 /**
  * Functions as User Defined Functions, Native Query, as Criteria Builder does not provide the option to used UDFs in
@@ -64,20 +63,31 @@ public final class JPAFunctionRequestProcessor extends JPAOperationRequestProces
     final UriResourceFunction uriResourceFunction =
         (UriResourceFunction) uriInfo.getUriResourceParts().get(uriInfo.getUriResourceParts().size() - 1);
     final JPAFunction jpaFunction = sd.getFunction(uriResourceFunction.getFunction());
-    if (jpaFunction.getFunctionType() == EdmFunctionType.JavaClass) {
-      result = processJavaFunction(uriResourceFunction, (JPAJavaFunction) jpaFunction, em);
-
-    } else if (jpaFunction.getFunctionType() == EdmFunctionType.UserDefinedFunction)
-      result = processJavaUDF(uriInfo.getUriResourceParts(), (JPADataBaseFunction) jpaFunction);
-
     final EdmType returnType = uriResourceFunction.getFunction().getReturnType().getType();
-    final Annotatable annotatable = convertResult(result, returnType, jpaFunction);
+    final JPAFunctionResultCache cache = jpaFunction.getCacheTimeToLive() > 0 ? sessionContext
+        .getFunctionResultCache() : null;
+    final String cacheKey = cache != null ? JPAFunctionResultCache.createKey(uriInfo.getUriResourceParts()) : null;
+    // The converted result gets cached, as the entities returned by a function belong to the entity manager of the
+    // request
+    Annotatable annotatable = cacheKey != null ? (Annotatable) cache.get(cacheKey) : null;
+    if (annotatable == null) {
+      final long generation = cacheKey != null ? cache.getGeneration() : 0;
+      if (jpaFunction.getFunctionType() == EdmFunctionType.JavaClass) {
+        result = processJavaFunction(uriResourceFunction, (JPAJavaFunction) jpaFunction, em);
+
+      } else if (jpaFunction.getFunctionType() == EdmFunctionType.UserDefinedFunction)
+        result = processJavaUDF(uriInfo.getUriResourceParts(), (JPADataBaseFunction) jpaFunction);
+      annotatable = convertResult(result, returnType, jpaFunction);
+      if (cacheKey != null)
+        cache.put(cacheKey, annotatable, jpaFunction.getCacheTimeToLive(), jpaFunction.getCacheDependencies(),
+            generation);
+    }
     serializeResult(returnType, response, responseFormat, annotatable);
   }
 
   private Object getValue(final EdmFunction edmFunction, final JPAParameter parameter, final String uriValue)
       throws ODataApplicationException {
-    final String value = uriValue.replaceAll("'", "");
+    final String value = removeQuotes(uriValue);
     final EdmParameter edmParam = edmFunction.getParameter(parameter.getName());
     try {
       switch (edmParam.getType().getKind()) {
@@ -103,29 +113,31 @@ public final class JPAFunctionRequestProcessor extends JPAOperationRequestProces
   private Object processJavaFunction(final UriResourceFunction uriResourceFunction, final JPAJavaFunction jpaFunction,
       final EntityManager em) throws ODataApplicationException {
 
-    final Constructor<?> c = jpaFunction.getConstructor();
+    final JPAJavaOperationInvoker invoker = getInvoker(jpaFunction);
 
     try {
-      Object instance;
-      if (c.getParameterCount() == 1)
-        instance = c.newInstance(em);
-      else
-        instance = c.newInstance();
-      final List<Object> parameter = new ArrayList<>();
-      final Parameter[] methodParameter = jpaFunction.getMethod().getParameters();
-
-      for (Parameter declairedParameter : Arrays.asList(methodParameter)) {
-        for (UriParameter providedParameter : uriResourceFunction.getParameters()) {
-          JPAParameter jpaParameter = jpaFunction.getParameter(declairedParameter.getName());
-          if (jpaParameter.getName().equals(providedParameter.getName())) {
-            parameter.add(getValue(uriResourceFunction.getFunction(), jpaParameter, providedParameter.getText()));
-            break;
-          }
+      final Object instance = invoker.getInstance(em);
+      // The parameter of the function are provided in the sequence of the method parameter
+      final List<JPAParameter> declairedParameters = jpaFunction.getParameter();
+      final Map<String, Integer> positions = invoker.getParameterPositions();
+      final Object[] parameter = new Object[declairedParameters.size()];
+      final boolean[] provided = new boolean[declairedParameters.size()];
+      for (final UriParameter providedParameter : uriResourceFunction.getParameters()) {
+        final Integer position = positions.get(providedParameter.getName());
+        if (position != null) {
+          parameter[position] = getValue(uriResourceFunction.getFunction(), declairedParameters.get(position),
+              providedParameter.getText());
+          provided[position] = true;
         }
       }
+      for (int i = 0; i < provided.length; i++) {
+        if (!provided[i])
+          throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.PARAMETER_MISSING,
+              HttpStatusCode.INTERNAL_SERVER_ERROR, declairedParameters.get(i).getName());
+      }
 
-      return jpaFunction.getMethod().invoke(instance, parameter.toArray());
-    } catch (InstantiationException | IllegalAccessException | IllegalArgumentException | ODataJPAModelException e) {
+      return invoker.invoke(instance, parameter);
+    } catch (IllegalAccessException | ODataJPAModelException e) {
       throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
     } catch (InvocationTargetException e) {
       Throwable cause = e.getCause();
@@ -137,6 +149,18 @@ public final class JPAFunctionRequestProcessor extends JPAOperationRequestProces
     }
   }
 
+  private String removeQuotes(final String uriValue) {
+    if (uriValue.indexOf('\'') < 0)
+      return uriValue;
+    final StringBuilder value = new StringBuilder(uriValue.length());
+    for (int i = 0; i < uriValue.length(); i++) {
+      final char c = uriValue.charAt(i);
+      if (c != '\'')
+        value.append(c);
+    }
+    return value.toString();
+  }
+
   private Object processJavaUDF(final List<UriResource> uriResourceParts, final JPADataBaseFunction jpaFunction)
       throws ODataApplicationException {
 
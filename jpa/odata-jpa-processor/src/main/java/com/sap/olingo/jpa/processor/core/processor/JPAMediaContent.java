@@ -0,0 +1,103 @@
+package com.sap.olingo.jpa.processor.core.processor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.sql.Blob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.persistence.EntityTransaction;
+
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
+import org.apache.olingo.server.api.ODataContent;
+
+/**
+ * Content of a media entity that is copied from a BLOB into the response using a fixed-size buffer, so the media
+ * resource is never kept in memory completely. The content can be written only once. Afterwards the result set, the
+ * statement and, if it was started by the processor, the transaction the BLOB was read in are closed. In case the
+ * content is not written, it has to be closed explicitly.
+ */
+final class JPAMediaContent implements ODataContent, Closeable {
+  static final int BUFFER_SIZE = 8192;
+
+  private final Blob blob;
+  private final long first;
+  private final long size;
+  private final ResultSet resultSet;
+  private final Statement statement;
+  private final EntityTransaction transaction;
+
+  /**
+   * @param blob
+   * @param first Index of the first byte to be written; the first byte of the BLOB has index 0
+   * @param size Number of bytes to be written
+   * @param resultSet
+   * @param statement
+   * @param transaction Transaction to be rolled back after the content was written. Null if the transaction was not
+   * started by the processor.
+   */
+  JPAMediaContent(final Blob blob, final long first, final long size, final ResultSet resultSet,
+      final Statement statement, final EntityTransaction transaction) {
+    super();
+    this.blob = blob;
+    this.first = first;
+    this.size = size;
+    this.resultSet = resultSet;
+    this.statement = statement;
+    this.transaction = transaction;
+  }
+
+  @Override
+  public void write(final WritableByteChannel channel) {
+    write(Channels.newOutputStream(channel));
+  }
+
+  @Override
+  public void write(final OutputStream stream) {
+    try (InputStream content = size == 0 ? null : blob.getBinaryStream(first + 1, size)) {
+      if (content != null) {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = content.read(buffer)) != -1)
+          stream.write(buffer, 0, read);
+      }
+      stream.flush();
+    } catch (IOException | SQLException e) {
+      throw new ODataRuntimeException(e);
+    } finally {
+      close();
+    }
+  }
+
+  /**
+   * Releases the database resources. Can be called more than once.
+   */
+  @Override
+  public void close() {
+    try {
+      blob.free();
+    } catch (SQLException e) {
+      // Not all drivers support to free a BLOB; it gets released together with the result set anyhow
+    }
+    close(resultSet, statement, transaction);
+  }
+
+  static void close(final ResultSet resultSet, final Statement statement, final EntityTransaction transaction) {
+    try {
+      if (resultSet != null)
+        resultSet.close();
+      if (statement != null)
+        statement.close();
+    } catch (SQLException e) {
+      // Closing is done on a best effort basis
+    } finally {
+      if (transaction != null && transaction.isActive())
+        transaction.rollback();
+    }
+  }
+}
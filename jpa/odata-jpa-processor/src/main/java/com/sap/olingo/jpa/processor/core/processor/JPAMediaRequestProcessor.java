@@ -0,0 +1,250 @@
+package com.sap.olingo.jpa.processor.core.processor;
+
+import java.lang.reflect.Field;
+import java.sql.Blob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.persistence.AttributeOverride;
+import javax.persistence.AttributeOverrides;
+import javax.persistence.Column;
+import javax.persistence.DiscriminatorColumn;
+import javax.persistence.DiscriminatorValue;
+import javax.persistence.Entity;
+import javax.persistence.EntityTransaction;
+import javax.persistence.Inheritance;
+import javax.persistence.PersistenceException;
+import javax.persistence.SecondaryTable;
+import javax.persistence.SecondaryTables;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.uri.UriParameter;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceEntitySet;
+import org.apache.olingo.server.api.uri.UriResourceKind;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAElement;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import com.sap.olingo.jpa.processor.core.api.JPAODataRequestContextAccess;
+import com.sap.olingo.jpa.processor.core.api.JPAODataSessionContextAccess;
+import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
+import com.sap.olingo.jpa.processor.core.query.ExpressionUtil;
+
+/**
+ * Reads the media resource of a media entity, e.g. .../PersonImages('99')/$value, directly from the BLOB column via
+ * JDBC. The BLOB is copied into the response with a fixed-size buffer, see {@link JPAMediaContent}, instead of being
+ * loaded into a byte array by JPA. A Range header with a single byte range is supported.<br>
+ * The statement addresses the table and the columns by the names given at @Table and @Column. If a name is chosen by
+ * the JPA provider, or the mapping contains something the statement does not take into account, the request is handed
+ * over to the {@link JPANavigationRequestProcessor}. The same happens if the entity manager does not provide a JDBC
+ * connection or the statement fails.
+ */
+public final class JPAMediaRequestProcessor extends JPAAbstractRequestProcessor implements JPARequestProcessor {
+  private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+  private static final String ACCEPT_RANGES = "Accept-Ranges";
+  private static final String CONTENT_RANGE = "Content-Range";
+
+  private final ServiceMetadata serviceMetadata;
+  private final JPAODataRequestContextAccess requestContext;
+
+  public JPAMediaRequestProcessor(final OData odata, final ServiceMetadata serviceMetadata,
+      final JPAODataSessionContextAccess context, final JPAODataRequestContextAccess requestContext)
+      throws ODataException {
+    super(odata, context, requestContext);
+    this.serviceMetadata = serviceMetadata;
+    this.requestContext = requestContext;
+  }
+
+  /**
+   * Media resources can be streamed if they are addressed directly via the key of the media entity:
+   * .../EntitySet(key)/$value
+   */
+  static boolean isMediaRequest(final List<UriResource> resourceParts) {
+    return resourceParts.size() == 2
+        && resourceParts.get(0).getKind() == UriResourceKind.entitySet
+        && !((UriResourceEntitySet) resourceParts.get(0)).getKeyPredicates().isEmpty()
+        && resourceParts.get(1).getKind() == UriResourceKind.value;
+  }
+
+  @Override
+  public void retrieveData(final ODataRequest request, final ODataResponse response, final ContentType responseFormat)
+      throws ODataException {
+
+    final int handle = debugger.startRuntimeMeasurement(this, "retrieveData");
+    final UriResourceEntitySet entitySet = (UriResourceEntitySet) uriInfo.getUriResourceParts().get(0);
+    try {
+      final JPAEntityType et = sd.getEntity(entitySet.getEntitySet().getEntityType());
+      if (et == null || !et.hasStream() || !isStreamable(et, entitySet.getKeyPredicates())
+          || !readMedia(request, response, et, entitySet.getKeyPredicates()))
+        new JPANavigationRequestProcessor(odata, serviceMetadata, sessionContext, requestContext).retrieveData(
+            request, response, responseFormat);
+    } catch (ODataJPAModelException e) {
+      throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.QUERY_PREPARATION_ERROR,
+          HttpStatusCode.INTERNAL_SERVER_ERROR, e);
+    } finally {
+      debugger.stopRuntimeMeasurement(handle);
+    }
+  }
+
+  /**
+   * The statement can only be created if table and columns are given explicitly and the entity is mapped to one table
+   * without a discriminator. Key values are bound as JDBC parameters, which is not possible for attributes that need a
+   * converter, as the database type is not known.
+   */
+  private boolean isStreamable(final JPAEntityType et, final List<UriParameter> keyPredicates)
+      throws ODataJPAModelException {
+
+    final Class<?> typeClass = et.getTypeClass();
+    if (et.getQualifiedTableName() == null
+        || typeClass.isAnnotationPresent(SecondaryTable.class)
+        || typeClass.isAnnotationPresent(SecondaryTables.class)
+        || typeClass.isAnnotationPresent(Inheritance.class)
+        || typeClass.isAnnotationPresent(DiscriminatorColumn.class)
+        || typeClass.isAnnotationPresent(DiscriminatorValue.class)
+        || typeClass.isAnnotationPresent(AttributeOverride.class)
+        || typeClass.isAnnotationPresent(AttributeOverrides.class)
+        || (typeClass.getSuperclass() != null && typeClass.getSuperclass().isAnnotationPresent(Entity.class)))
+      return false;
+    if (!hasExplicitColumn(typeClass, et.getStreamAttributePath())
+        || (et.getContentTypeAttributePath() != null && !hasExplicitColumn(typeClass, et
+            .getContentTypeAttributePath())))
+      return false;
+    for (final UriParameter keyPredicate : keyPredicates) {
+      final JPAPath keyPath = findKeyPath(et, keyPredicate);
+      if (keyPath == null || !hasExplicitColumn(typeClass, keyPath) || keyPredicate.getText() == null)
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * @return true if the attribute is a field of the entity, or one of its super classes, with a column name given at
+   * @Column and without a converter
+   */
+  private boolean hasExplicitColumn(final Class<?> typeClass, final JPAPath path) {
+    final List<JPAElement> pathElements = path.getPath();
+    if (pathElements.size() != 1 || path.getLeaf().getConverter() != null)
+      return false;
+    for (Class<?> clazz = typeClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+      for (final Field field : clazz.getDeclaredFields()) {
+        if (field.getName().equals(pathElements.get(0).getInternalName())) {
+          final Column column = field.getAnnotation(Column.class);
+          return column != null && !column.name().isEmpty();
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return false if no JDBC connection is available or the statement failed
+   */
+  private boolean readMedia(final ODataRequest request, final ODataResponse response, final JPAEntityType et,
+      final List<UriParameter> keyPredicates) throws ODataException {
+
+    final EntityTransaction transaction = em.getTransaction().isActive() ? null : em.getTransaction();
+    if (transaction != null)
+      // A connection is handed out only within a transaction
+      transaction.begin();
+    PreparedStatement statement = null;
+    ResultSet resultSet = null;
+    JPAMediaContent content = null;
+    try {
+      final Connection connection;
+      try {
+        connection = em.unwrap(Connection.class);
+      } catch (PersistenceException e) {
+        return false;
+      }
+      if (connection == null)
+        return false;
+
+      final JPAPath contentTypePath = et.getContentTypeAttributePath();
+      statement = connection.prepareStatement(createStatement(et, keyPredicates, contentTypePath));
+      int index = 1;
+      for (final UriParameter keyPredicate : keyPredicates)
+        statement.setObject(index++, ExpressionUtil.convertValueOnAttribute(odata, findKeyPath(et, keyPredicate)
+            .getLeaf(), keyPredicate.getText()));
+      resultSet = statement.executeQuery();
+
+      if (!resultSet.next())
+        throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.MEDIA_ENTITY_NOT_FOUND,
+            HttpStatusCode.NOT_FOUND);
+      final Blob blob = resultSet.getBlob(1);
+      if (blob == null) {
+        // 11.2.3 Requesting Individual Properties: a stream property with the null value results in 204 No Content
+        response.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
+        return true;
+      }
+      final String contentType = contentTypePath != null ? resultSet.getString(2) : et.getContentType();
+      final long length = blob.length();
+      final JPAByteRange range = JPAByteRange.parse(request.getHeader(HttpHeader.RANGE), length);
+
+      response.setHeader(ACCEPT_RANGES, JPAByteRange.UNIT);
+      if (range != null && !range.isSatisfiable()) {
+        response.setHeader(CONTENT_RANGE, range.toContentRange());
+        response.setStatusCode(HttpStatusCode.RANGE_NOT_SATISFIABLE.getStatusCode());
+        return true;
+      }
+      if (range != null) {
+        content = new JPAMediaContent(blob, range.getFirst(), range.getSize(), resultSet, statement, transaction);
+        response.setHeader(CONTENT_RANGE, range.toContentRange());
+        response.setStatusCode(HttpStatusCode.PARTIAL_CONTENT.getStatusCode());
+      } else {
+        content = new JPAMediaContent(blob, 0, length, resultSet, statement, transaction);
+        response.setStatusCode(successStatusCode);
+      }
+      response.setHeader(HttpHeader.CONTENT_LENGTH, Long.toString(range != null ? range.getSize() : length));
+      response.setHeader(HttpHeader.CONTENT_TYPE, contentType == null || contentType.isEmpty()
+          ? DEFAULT_CONTENT_TYPE : contentType);
+      response.setODataContent(content);
+      return true;
+    } catch (SQLException e) {
+      // The request is read via JPA, which will report an error in case the entity can not be read at all
+      return false;
+    } finally {
+      // Resources are released by the content after it has been written
+      if (content == null)
+        JPAMediaContent.close(resultSet, statement, transaction);
+    }
+  }
+
+  private String createStatement(final JPAEntityType et, final List<UriParameter> keyPredicates,
+      final JPAPath contentTypePath) throws ODataJPAModelException {
+
+    final StringBuilder sql = new StringBuilder("SELECT ");
+    sql.append(et.getStreamAttributePath().getDBFieldName());
+    if (contentTypePath != null)
+      sql.append(", ").append(contentTypePath.getDBFieldName());
+    sql.append(" FROM ").append(et.getQualifiedTableName()).append(" WHERE ");
+    boolean first = true;
+    for (final UriParameter keyPredicate : keyPredicates) {
+      if (!first)
+        sql.append(" AND ");
+      sql.append(findKeyPath(et, keyPredicate).getDBFieldName()).append(" = ?");
+      first = false;
+    }
+    return sql.toString();
+  }
+
+  private JPAPath findKeyPath(final JPAEntityType et, final UriParameter keyPredicate)
+      throws ODataJPAModelException {
+    for (final JPAPath keyPath : et.getKeyPath()) {
+      if (keyPath.getLeaf().getExternalName().equals(keyPredicate.getName()))
+        return keyPath;
+    }
+    return null;
+  }
+}
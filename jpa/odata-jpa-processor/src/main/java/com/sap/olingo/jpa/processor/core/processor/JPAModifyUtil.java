@@ -1,10 +1,9 @@
 package com.sap.olingo.jpa.processor.core.processor;
 
-import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.Map;
+import java.util.Map.Entry;
 
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 
@@ -15,6 +14,7 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAStructuredType;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAInvocationTargetException;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
+import com.sap.olingo.jpa.processor.core.processor.JPAAttributeAccessors.Setter;
 
 /**
  * This class provides some primitive util methods to support modifying
@@ -23,7 +23,7 @@ import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
  * The set method shall fill an object from a given Map. JPA processor provides
  * in a Map the internal, JAVA attribute, names. Based on the JAVA naming
  * conventions the corresponding Setter is called, as long as the Setter has the
- * correct type.
+ * correct type. Getter and setter are resolved once per class, see {@link JPAAttributeAccessors}.
  * 
  * @author Oliver Grande
  *
@@ -72,28 +72,24 @@ public final class JPAModifyUtil {
    */
   public void setAttributes(final Map<String, Object> jpaAttributes, final Object instanze, final JPAStructuredType st)
       throws ODataJPAProcessorException, ODataJPAInvocationTargetException {
-    Method[] methods = instanze.getClass().getMethods();
-    for (Method meth : methods) {
-      if (meth.getName().substring(0, 3).equals("set")) {
-        String attributeName = meth.getName().substring(3, 4).toLowerCase() + meth.getName().substring(4);
-        if (jpaAttributes.containsKey(attributeName)) {
-          Object value = jpaAttributes.get(attributeName);
-          if (!(value instanceof Map<?, ?>) && !(value instanceof JPARequestEntity)) {
+    final JPAAttributeAccessors accessors = JPAAttributeAccessors.of(instanze.getClass());
+    for (Entry<String, Object> attribute : jpaAttributes.entrySet()) {
+      final String attributeName = attribute.getKey();
+      final Object value = attribute.getValue();
+      if (!(value instanceof Map<?, ?>) && !(value instanceof JPARequestEntity)) {
+        final Setter setter = accessors.getSetter(attributeName, value == null ? null : value.getClass());
+        if (setter != null) {
+          try {
+            setter.set(instanze, value);
+          } catch (IllegalAccessException | IllegalArgumentException e) {
+            throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+          } catch (InvocationTargetException e) {
             try {
-              Class<?>[] parameters = meth.getParameterTypes();
-              if (parameters.length == 1 && (value == null || value.getClass() == parameters[0])) {
-                meth.invoke(instanze, value);
-              }
-            } catch (IllegalAccessException | IllegalArgumentException e) {
-              throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
-            } catch (InvocationTargetException e) {
-              try {
-                throw new ODataJPAInvocationTargetException(e.getCause(), st.getExternalName() + JPAPath.PATH_SEPERATOR
-                    + st.getAttribute(
-                        attributeName).getExternalName());
-              } catch (ODataJPAModelException e1) {
-                throw new ODataJPAProcessorException(e1, HttpStatusCode.INTERNAL_SERVER_ERROR);
-              }
+              throw new ODataJPAInvocationTargetException(e.getCause(), st.getExternalName() + JPAPath.PATH_SEPERATOR
+                  + st.getAttribute(
+                      attributeName).getExternalName());
+            } catch (ODataJPAModelException e1) {
+              throw new ODataJPAProcessorException(e1, HttpStatusCode.INTERNAL_SERVER_ERROR);
             }
           }
         }
@@ -119,48 +115,38 @@ public final class JPAModifyUtil {
   public void setAttributesDeep(final Map<String, Object> jpaAttributes, final Object instanze,
       final JPAStructuredType st) throws ODataJPAProcessorException, ODataJPAInvocationTargetException {
 
-    final Method[] methods = instanze.getClass().getMethods();
-    for (final Method meth : methods) {
-      if (meth.getName().substring(0, 3).equals("set")) {
-        final String attributeName = meth.getName().substring(3, 4).toLowerCase() + meth.getName().substring(4);
-        if (jpaAttributes.containsKey(attributeName)) {
-          final Object value = jpaAttributes.get(attributeName);
-          Class<?>[] parameters = meth.getParameterTypes();
-          if (!(value instanceof JPARequestEntity) && parameters.length == 1) {
-            try {
-              if (!(value instanceof Map<?, ?>)) {
-                if (value == null || value.getClass() == parameters[0]) {
-                  meth.invoke(instanze, value);
-                }
-              } else {
-                final String getterName = "g" + meth.getName().substring(1);
-                final Class<?>[] parameter = new Class<?>[0];
-                final Method getter = instanze.getClass().getMethod(getterName, parameter);
-                Object embedded = null;
-                if (getter != null)
-                  embedded = instanze.getClass().getMethod(getterName, parameter).invoke(instanze);
-                if (embedded == null) {
-                  Constructor<?> cons = parameters[0].getConstructor(parameter);
-                  embedded = cons.newInstance();
-                  meth.invoke(instanze, embedded);
-                }
-                if (embedded != null) {
-                  if (this.st == null)
-                    this.st = st;
-                  setAttributesDeep((Map<String, Object>) value, embedded, st.getAttribute(attributeName)
-                      .getStructuredType());
-                  if (this.st.equals(st)) {
-                    this.st = null;
-                  }
-                }
+    final JPAAttributeAccessors accessors = JPAAttributeAccessors.of(instanze.getClass());
+    for (final Entry<String, Object> attribute : jpaAttributes.entrySet()) {
+      final String attributeName = attribute.getKey();
+      final Object value = attribute.getValue();
+      if (!(value instanceof JPARequestEntity)) {
+        try {
+          if (!(value instanceof Map<?, ?>)) {
+            final Setter setter = accessors.getSetter(attributeName, value == null ? null : value.getClass());
+            if (setter != null)
+              setter.set(instanze, value);
+          } else {
+            final Setter setter = accessors.getSetter(attributeName, null);
+            if (setter != null) {
+              Object embedded = accessors.get(instanze, attributeName);
+              if (embedded == null) {
+                embedded = setter.getType().getConstructor().newInstance();
+                setter.set(instanze, embedded);
+              }
+              if (this.st == null)
+                this.st = st;
+              setAttributesDeep((Map<String, Object>) value, embedded, st.getAttribute(attributeName)
+                  .getStructuredType());
+              if (this.st.equals(st)) {
+                this.st = null;
               }
-            } catch (IllegalAccessException | IllegalArgumentException | ODataJPAModelException
-                | NoSuchMethodException | SecurityException | InstantiationException e) {
-              throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
-            } catch (InvocationTargetException | ODataJPAInvocationTargetException e) {
-              handleInvocationTargetException(st, attributeName, e);
             }
           }
+        } catch (IllegalAccessException | IllegalArgumentException | ODataJPAModelException
+            | NoSuchMethodException | SecurityException | InstantiationException e) {
+          throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+        } catch (InvocationTargetException | ODataJPAInvocationTargetException e) {
+          handleInvocationTargetException(st, attributeName, e);
         }
       }
     }
@@ -180,15 +166,15 @@ public final class JPAModifyUtil {
   public <T> void linkEntities(final Object sourceInstance, final T targetInstance, final JPAAssociationPath pathInfo)
       throws ODataJPAProcessorException {
     final String relationName = pathInfo.getPath().get(0).getInternalName();
-    final String methodSuffix = relationName.substring(0, 1).toUpperCase() + relationName.substring(1);
+    final JPAAttributeAccessors accessors = JPAAttributeAccessors.of(sourceInstance.getClass());
     try {
       if (pathInfo.isCollection()) {
-        final Method getter = sourceInstance.getClass().getMethod("get" + methodSuffix);
-        ((Collection<T>) getter.invoke(sourceInstance)).add(targetInstance);
+        ((Collection<T>) accessors.get(sourceInstance, relationName)).add(targetInstance);
       } else {
-        final Method setter = sourceInstance.getClass().getMethod("set" + methodSuffix,
-            targetInstance.getClass());
-        setter.invoke(sourceInstance, targetInstance);
+        final Setter setter = accessors.getSetter(relationName, targetInstance.getClass());
+        if (setter == null)
+          throw new NoSuchMethodException("No setter for " + relationName);
+        setter.set(sourceInstance, targetInstance);
       }
     } catch (NoSuchMethodException | SecurityException | IllegalAccessException | IllegalArgumentException
         | InvocationTargetException e) {
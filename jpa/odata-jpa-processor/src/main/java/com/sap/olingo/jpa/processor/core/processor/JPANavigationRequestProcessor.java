@@ -1,16 +1,24 @@
 package com.sap.olingo.jpa.processor.core.processor;
 
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
+import javax.persistence.PersistenceException;
 import javax.persistence.Tuple;
 import javax.persistence.TupleElement;
 
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.EntityIterator;
 import org.apache.olingo.commons.api.edm.EdmEntitySet;
 import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.OData;
@@ -19,29 +27,39 @@ import org.apache.olingo.server.api.ODataRequest;
 import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.serializer.SerializerResult;
+import org.apache.olingo.server.api.serializer.SerializerStreamResult;
 import org.apache.olingo.server.api.uri.UriInfoResource;
 import org.apache.olingo.server.api.uri.UriResource;
 import org.apache.olingo.server.api.uri.UriResourceComplexProperty;
 import org.apache.olingo.server.api.uri.UriResourceKind;
 import org.apache.olingo.server.api.uri.UriResourceNavigation;
 import org.apache.olingo.server.api.uri.UriResourcePrimitiveProperty;
+import org.apache.olingo.server.api.uri.queryoption.AliasQueryOption;
 import org.apache.olingo.server.api.uri.queryoption.CountOption;
+import org.apache.olingo.server.api.uri.queryoption.CustomQueryOption;
+import org.apache.olingo.server.api.uri.queryoption.SystemQueryOption;
 
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAssociationPath;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import com.sap.olingo.jpa.processor.core.api.JPAODataRequestContextAccess;
 import com.sap.olingo.jpa.processor.core.api.JPAODataSessionContextAccess;
+import com.sap.olingo.jpa.processor.core.converter.JPAJoinKey;
 import com.sap.olingo.jpa.processor.core.converter.JPATupleResultConverter;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
 import com.sap.olingo.jpa.processor.core.query.JPAExpandItemInfo;
 import com.sap.olingo.jpa.processor.core.query.JPAExpandItemInfoFactory;
+import com.sap.olingo.jpa.processor.core.query.JPAExpandKeyListStrategy;
 import com.sap.olingo.jpa.processor.core.query.JPAExpandQuery;
 import com.sap.olingo.jpa.processor.core.query.JPAExpandQueryResult;
+import com.sap.olingo.jpa.processor.core.query.JPAExpandStrategy;
 import com.sap.olingo.jpa.processor.core.query.JPANavigationProptertyInfo;
 import com.sap.olingo.jpa.processor.core.query.JPAQuery;
+import com.sap.olingo.jpa.processor.core.query.JPASkipToken;
 import com.sap.olingo.jpa.processor.core.query.Util;
+import com.sap.olingo.jpa.processor.core.serializer.JPAStreamSerializer;
 
 public final class JPANavigationRequestProcessor extends JPAAbstractGetRequestProcessor {
+  static final int STREAM_CHUNK_SIZE = 1000;
   private final ServiceMetadata serviceMetadata;
   private final UriResource lastItem;
 
@@ -73,8 +91,14 @@ public final class JPANavigationRequestProcessor extends JPAAbstractGetRequestPr
           HttpStatusCode.INTERNAL_SERVER_ERROR, e);
     }
 
+    if (sessionContext.isStreamingEnabled() && serializer instanceof JPAStreamSerializer) {
+      retrieveDataStreamed(request, response, responseFormat, query);
+      debugger.stopRuntimeMeasurement(handle);
+      return;
+    }
     final JPAExpandQueryResult result = query.execute();
-    result.putChildren(readExpandEntities(request.getAllHeaders(), null, uriInfo));
+    result.putChildren(readExpandEntities(request.getAllHeaders(), null, uriInfo, result, sessionContext
+        .getExpandStrategy()));
     // Convert tuple result into an OData Result
     final int converterHandle = debugger.startRuntimeMeasurement(this, "convertResult");
     EntityCollection entityCollection;
@@ -92,8 +116,10 @@ public final class JPANavigationRequestProcessor extends JPAAbstractGetRequestPr
     // Count results if requested
     final CountOption countOption = uriInfo.getCountOption();
     if (countOption != null && countOption.getValue())
-      // TODO SetCount expects an Integer why not a Long?
-      entityCollection.setCount(Integer.valueOf(query.countResults().intValue()));
+      entityCollection.setCount(countResults(query, response));
+    if (query.getNextSkipToken() != null)
+      entityCollection.setNext(createNextLink(request, query.getNextSkipToken(), result.getResult(JPAJoinKey.ROOT)
+          .size()));
 
     // 404 Not Found indicates that the resource specified by the request URL does not exist. The response body MAY
     // provide additional information.
@@ -115,7 +141,125 @@ public final class JPANavigationRequestProcessor extends JPAAbstractGetRequestPr
     debugger.stopRuntimeMeasurement(handle);
   }
 
-  private boolean isResultEmpty(List<Entity> entities, JPAExpandQueryResult result) throws ODataApplicationException {
+  /**
+   * Entity collections can be written into the response one entity after the other. The result is read via a
+   * forward-only cursor, see {@link JPAQuery#executeStreamed(int)}. Without $expand the rows are converted one after
+   * the other, so only one row has to be kept in memory. With $expand the rows are read in chunks of
+   * {@link #STREAM_CHUNK_SIZE} entities. The expanded entities of a chunk are read via the keys of the chunk, see
+   * {@link JPAExpandKeyListStrategy}, and the rows are converted not before the serializer requests them. So only one
+   * chunk has to be kept in memory.<p>
+   * The first chunk is read before the response is created, so an error within it leads to an error response. An error
+   * while reading a later chunk occurs after the status code and the first entities have been written. It can not be
+   * reported via the status code any more. The serializer is aborted by an ODataRuntimeException, so the client
+   * receives an incomplete response body instead of a seemingly complete one.
+   */
+  private void retrieveDataStreamed(final ODataRequest request, final ODataResponse response,
+      final ContentType responseFormat, final JPAQuery query) throws ODataException {
+
+    final boolean expand = uriInfo.getExpandOption() != null && !uriInfo.getExpandOption().getExpandItems().isEmpty();
+    final Iterator<JPAExpandQueryResult> chunks = query.executeStreamed(expand ? STREAM_CHUNK_SIZE : 1);
+    final JPAExpandQueryResult firstChunk = chunks.next();
+    if (isResultEmpty(firstChunk.getResult(JPAJoinKey.ROOT), firstChunk)) {
+      response.setStatusCode(HttpStatusCode.NOT_FOUND.getStatusCode());
+      return;
+    }
+    final JPATupleResultConverter converter = convertChunk(request.getAllHeaders(), firstChunk);
+    final EntityIterator entities = new ChunkedEntityIterator(request.getAllHeaders(), expand ? null : converter,
+        converter.getResultIterator(), chunks);
+    final CountOption countOption = uriInfo.getCountOption();
+    if (countOption != null && countOption.getValue())
+      entities.setCount(countResults(query, response));
+    if (query.getNextSkipToken() != null)
+      entities.setNext(createNextLink(request, query.getNextSkipToken(), firstChunk.getResult(JPAJoinKey.ROOT)
+          .size()));
+
+    final int serializerHandle = debugger.startRuntimeMeasurement(serializer, "serializeStreamed");
+    final SerializerStreamResult serializerResult = ((JPAStreamSerializer) serializer).serializeStreamed(request,
+        entities);
+    debugger.stopRuntimeMeasurement(serializerHandle);
+    createSuccessResponce(response, responseFormat, serializerResult);
+  }
+
+  private JPATupleResultConverter convertChunk(final Map<String, List<String>> headers,
+      final JPAExpandQueryResult chunk) throws ODataException {
+
+    final JPAExpandStrategy strategy = sessionContext.getExpandStrategy() instanceof JPAExpandKeyListStrategy
+        ? sessionContext.getExpandStrategy() : new JPAExpandKeyListStrategy();
+    chunk.putChildren(readExpandEntities(headers, null, uriInfo, chunk, strategy));
+    try {
+      return new JPATupleResultConverter(sd, chunk, odata.createUriHelper(), serviceMetadata);
+    } catch (ODataJPAModelException e) {
+      throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.QUERY_RESULT_CONV_ERROR,
+          HttpStatusCode.INTERNAL_SERVER_ERROR, e);
+    }
+  }
+
+  /**
+   * The next link repeats the request with the $skiptoken of the next page. It is build from the query options parsed
+   * by Olingo. A $skip has already been taken into account by the $skiptoken and a $top is reduced by the number of
+   * entities returned.
+   * @param request
+   * @param skipToken
+   * @param noEntities Number of entities of the current page
+   * @return
+   * @throws ODataJPAProcessorException
+   */
+  private URI createNextLink(final ODataRequest request, final JPASkipToken skipToken, final long noEntities)
+      throws ODataJPAProcessorException {
+
+    final StringBuilder nextLink = new StringBuilder(request.getRawBaseUri());
+    nextLink.append(request.getRawODataPath());
+    nextLink.append('?');
+    for (final SystemQueryOption option : uriInfo.getSystemQueryOptions()) {
+      switch (option.getKind()) {
+        case SKIP:
+        case SKIPTOKEN:
+          break;
+        case TOP:
+          nextLink.append("$top=").append(uriInfo.getTopOption().getValue() - noEntities).append('&');
+          break;
+        default:
+          appendQueryOption(nextLink, option.getName(), option.getText());
+      }
+    }
+    for (final AliasQueryOption alias : uriInfo.getAliases())
+      appendQueryOption(nextLink, alias.getName(), alias.getText());
+    for (final CustomQueryOption option : uriInfo.getCustomQueryOptions())
+      appendQueryOption(nextLink, option.getName(), option.getText());
+    nextLink.append("$skiptoken=").append(encode(skipToken.toString()));
+    try {
+      return new URI(nextLink.toString());
+    } catch (URISyntaxException e) {
+      throw new ODataJPAProcessorException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    }
+  }
+
+  private void appendQueryOption(final StringBuilder nextLink, final String name, final String text) {
+    nextLink.append(encode(name));
+    if (text != null)
+      nextLink.append('=').append(encode(text));
+    nextLink.append('&');
+  }
+
+  /**
+   * The text of a query option is decoded by Olingo. Characters that are not allowed within an URI, like blanks, as
+   * well as the characters that separate query options have to be encoded again.
+   */
+  private String encode(final String text) {
+    final StringBuilder encoded = new StringBuilder(text.length());
+    for (int i = 0; i < text.length(); i = text.offsetByCodePoints(i, 1)) {
+      final int c = text.codePointAt(i);
+      if (c > 0x20 && c < 0x7F && "\"<>\\^`{|}%&#+".indexOf(c) < 0)
+        encoded.append((char) c);
+      else
+        for (final byte b : new String(Character.toChars(c)).getBytes(StandardCharsets.UTF_8))
+          encoded.append(String.format("%%%02X", b));
+    }
+    return encoded.toString();
+  }
+
+  private boolean isResultEmpty(final List<?> entities, final JPAExpandQueryResult result)
+      throws ODataApplicationException {
 
     if (entities.isEmpty()
         && lastItem.getKind() == UriResourceKind.entitySet
@@ -132,7 +276,7 @@ public final class JPANavigationRequestProcessor extends JPAAbstractGetRequestPr
       String name = "";
       if (lastItem.getKind() == UriResourceKind.primitiveProperty) {
         name = ((UriResourcePrimitiveProperty) lastItem).getProperty().getName();
-        Tuple tuple = result.getResult("root").get(0);
+        Tuple tuple = result.getResult(JPAJoinKey.ROOT).get(0);
         for (TupleElement<?> element : tuple.getElements()) {
           if (element.getAlias().endsWith(name)) {
             resultElement = tuple.get(element.getAlias());
@@ -142,7 +286,7 @@ public final class JPANavigationRequestProcessor extends JPAAbstractGetRequestPr
       }
       if (lastItem.getKind() == UriResourceKind.complexProperty) {
         name = ((UriResourceComplexProperty) lastItem).getProperty().getName();
-        Tuple tuple = result.getResult("root").get(0);
+        Tuple tuple = result.getResult(JPAJoinKey.ROOT).get(0);
         for (TupleElement<?> element : tuple.getElements()) {
           if (element.getAlias().contains(name + "/")
               && tuple.get(element.getAlias()) != null) {
@@ -153,7 +297,7 @@ public final class JPANavigationRequestProcessor extends JPAAbstractGetRequestPr
       }
       if (lastItem.getKind() == UriResourceKind.navigationProperty) {
         name = ((UriResourceNavigation) lastItem).getProperty().getName();
-        Tuple tuple = result.getResult("root").get(0);
+        Tuple tuple = result.getResult(JPAJoinKey.ROOT).get(0);
         if (!tuple.getElements().isEmpty()) {
           resultElement = tuple;
         }
@@ -184,12 +328,14 @@ public final class JPANavigationRequestProcessor extends JPAAbstractGetRequestPr
    * @param naviStartEdmEntitySet
    * @param parentHops
    * @param uriResourceInfo
+   * @param parentResult
+   * @param strategy Determines how the expanded entities are read
    * @return
    * @throws ODataException
    */
   private Map<JPAAssociationPath, JPAExpandQueryResult> readExpandEntities(final Map<String, List<String>> headers,
-      final List<JPANavigationProptertyInfo> parentHops, final UriInfoResource uriResourceInfo)
-      throws ODataException {
+      final List<JPANavigationProptertyInfo> parentHops, final UriInfoResource uriResourceInfo,
+      final JPAExpandQueryResult parentResult, final JPAExpandStrategy strategy) throws ODataException {
 
     final int handle = debugger.startRuntimeMeasurement(this, "readExpandEntities");
 
@@ -202,20 +348,73 @@ public final class JPANavigationRequestProcessor extends JPAAbstractGetRequestPr
     // For $top and $skip things are more difficult as the criteria query does not support LIMIT and OFFSET, this is
     // done on the TypedQuery created out of the Criteria Query. In addition not all databases support LIMIT within a
     // sub-query used within EXISTS.
+    // How the restrictions are propagated is decided by the expand strategy, see JPAExpandStrategy.
 
     final List<JPAExpandItemInfo> itemInfoList = new JPAExpandItemInfoFactory()
         .buildExpandItemInfo(sd, uriResourceInfo, parentHops);
     // .buildExpandItemInfo(sd, uriResourceInfo.getUriResourceParts(), uriResourceInfo.getExpandOption(), parentHops);
     for (final JPAExpandItemInfo item : itemInfoList) {
       final JPAExpandQuery expandQuery = new JPAExpandQuery(odata, sessionContext, em, item, headers);
-      final JPAExpandQueryResult expandResult = expandQuery.execute();
-      if (expandResult.getNoResults() > 0)
-        // Only go the next hop if the current one has a result
-        expandResult.putChildren(readExpandEntities(headers, item.getHops(), item.getUriInfo()));
+      JPAExpandQueryResult expandResult = null;
+      if (expandQuery.isRecursive())
+        // All levels are read at once and are already linked with each other. If the database can not read all levels,
+        // they are read one after the other
+        expandResult = expandQuery.executeRecursive(parentResult.getAllResults(),
+            strategy instanceof JPAExpandKeyListStrategy ? ((JPAExpandKeyListStrategy) strategy).getChunkSize()
+                : JPAExpandKeyListStrategy.DEFAULT_CHUNK_SIZE);
+      if (expandResult == null) {
+        expandResult = strategy.execute(expandQuery, parentResult);
+        if (expandResult.getNoResults() > 0)
+          // Only go the next hop if the current one has a result
+          expandResult.putChildren(readExpandEntities(headers, item.getHops(), item.getUriInfo(), expandResult,
+              strategy));
+      }
       allExpResults.put(item.getExpandAssociation(), expandResult);
     }
 
     debugger.stopRuntimeMeasurement(handle);
     return allExpResults;
   }
+
+  /**
+   * Provides the entities of all chunks one after the other. The next chunk is read and converted not before the
+   * entities of the previous one have been consumed. Without $expand one converter is used for all chunks, so the
+   * conversion is prepared only once.
+   */
+  private class ChunkedEntityIterator extends EntityIterator {
+    private final Map<String, List<String>> headers;
+    private final JPATupleResultConverter converter;
+    private final Iterator<JPAExpandQueryResult> chunks;
+    private EntityIterator entities;
+
+    private ChunkedEntityIterator(final Map<String, List<String>> headers, final JPATupleResultConverter converter,
+        final EntityIterator firstEntities, final Iterator<JPAExpandQueryResult> chunks) {
+      super();
+      this.headers = headers;
+      this.converter = converter;
+      this.entities = firstEntities;
+      this.chunks = chunks;
+    }
+
+    @Override
+    public boolean hasNext() {
+      try {
+        while (!entities.hasNext() && chunks.hasNext()) {
+          final JPAExpandQueryResult chunk = chunks.next();
+          entities = converter != null ? converter.getResultIterator(chunk.getResult(JPAJoinKey.ROOT))
+              : convertChunk(headers, chunk).getResultIterator();
+        }
+      } catch (ODataException | PersistenceException e) {
+        throw new ODataRuntimeException(e);
+      }
+      return entities.hasNext();
+    }
+
+    @Override
+    public Entity next() {
+      if (!hasNext())
+        throw new NoSuchElementException();
+      return entities.next();
+    }
+  }
 }
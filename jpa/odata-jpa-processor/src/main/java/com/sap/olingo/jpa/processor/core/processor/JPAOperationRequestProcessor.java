@@ -23,8 +23,11 @@ import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.api.serializer.SerializerResult;
 import org.apache.olingo.server.api.uri.UriHelper;
 
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAJavaOperation;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAJavaOperationInvoker;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAOperation;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.impl.JPAJavaOperationInvokerImpl;
 import com.sap.olingo.jpa.processor.core.api.JPAODataRequestContextAccess;
 import com.sap.olingo.jpa.processor.core.api.JPAODataSessionContextAccess;
 import com.sap.olingo.jpa.processor.core.converter.JPAComplexResultConverter;
@@ -117,6 +120,16 @@ abstract class JPAOperationRequestProcessor extends JPAAbstractRequestProcessor
     }
   }
 
+  /**
+   * The operations of the intermediate model provide an invoker, which is created once per operation. For other
+   * implementations of {@link JPAJavaOperation} an invoker is created per call.
+   */
+  protected JPAJavaOperationInvoker getInvoker(final JPAJavaOperation operation) {
+    final JPAJavaOperationInvoker invoker = operation.getInvoker();
+    return invoker != null ? invoker : new JPAJavaOperationInvokerImpl(operation.getMethod(), operation
+        .getConstructor());
+  }
+
   protected void serializeResult(final EdmType returnType, final ODataResponse response,
       final ContentType responseFormat, final Annotatable result)
       throws ODataJPASerializerException, SerializerException {
@@ -17,6 +17,7 @@ import org.apache.olingo.server.api.uri.UriResourceKind;
 import com.sap.olingo.jpa.processor.core.api.JPAODataRequestContextAccess;
 import com.sap.olingo.jpa.processor.core.api.JPAODataSessionContextAccess;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
+import com.sap.olingo.jpa.processor.core.modify.JPACacheUpdates;
 import com.sap.olingo.jpa.processor.core.modify.JPAConversionHelper;
 import com.sap.olingo.jpa.processor.core.serializer.JPASerializerFactory;
 
@@ -25,14 +26,21 @@ public final class JPAProcessorFactory {
   private final JPASerializerFactory serializerFactory;
   private final OData odata;
   private final ServiceMetadata serviceMetadata;
+  private final JPACacheUpdates cacheUpdates;
 
   public JPAProcessorFactory(final OData odata, final ServiceMetadata serviceMetadata,
       final JPAODataSessionContextAccess context) {
+    this(odata, serviceMetadata, context, new JPACacheUpdates(context));
+  }
+
+  public JPAProcessorFactory(final OData odata, final ServiceMetadata serviceMetadata,
+      final JPAODataSessionContextAccess context, final JPACacheUpdates cacheUpdates) {
     super();
     this.sessionContext = context;
     this.serializerFactory = new JPASerializerFactory(odata, serviceMetadata);
     this.odata = odata;
     this.serviceMetadata = serviceMetadata;
+    this.cacheUpdates = cacheUpdates;
   }
 
   public JPACUDRequestProcessor createCUDRequestProcessor(final EntityManager em, final UriInfo uriInfo,
@@ -42,7 +50,7 @@ public final class JPAProcessorFactory {
         .createCUDSerializer(responseFormat, uriInfo));
 
     return new JPACUDRequestProcessor(odata, serviceMetadata, sessionContext, requestContext,
-        new JPAConversionHelper());
+        new JPAConversionHelper(), cacheUpdates);
   }
 
   public JPACUDRequestProcessor createCUDRequestProcessor(EntityManager em, UriInfo uriInfo) throws ODataException {
@@ -50,7 +58,7 @@ public final class JPAProcessorFactory {
     final JPAODataRequestContextAccess requestContext = new JPARequestContext(em, uriInfo, null);
 
     return new JPACUDRequestProcessor(odata, serviceMetadata, sessionContext, requestContext,
-        new JPAConversionHelper());
+        new JPAConversionHelper(), cacheUpdates);
   }
 
   public JPAActionRequestProcessor createActionProcessor(final EntityManager em, final UriInfo uriInfo,
@@ -83,6 +91,8 @@ public final class JPAProcessorFactory {
     case entitySet:
     case value:
       checkNavigationPathSupported(resourceParts);
+      if (JPAMediaRequestProcessor.isMediaRequest(resourceParts))
+        return new JPAMediaRequestProcessor(odata, serviceMetadata, sessionContext, requestContext);
       return new JPANavigationRequestProcessor(odata, serviceMetadata, sessionContext, requestContext);
     default:
       throw new ODataJPAProcessorException(ODataJPAProcessorException.MessageKeys.NOT_SUPPORTED_RESOURCE_TYPE,
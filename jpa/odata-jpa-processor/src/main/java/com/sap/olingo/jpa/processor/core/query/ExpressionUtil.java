@@ -39,12 +39,24 @@ public final class ExpressionUtil {
   public static Expression<Boolean> createEQExpression(final OData odata, CriteriaBuilder cb, From<?, ?> root,
       JPAEntityType jpaEntity, UriParameter keyPredicate) throws ODataJPAFilterException, ODataJPAModelException {
 
+    return createEQExpression(odata, cb, root, jpaEntity, keyPredicate, null);
+  }
+
+  /**
+   * Creates an equal condition for a key predicate. In case a parameter buffer is given, the value is passed as
+   * parameter.
+   */
+  public static Expression<Boolean> createEQExpression(final OData odata, CriteriaBuilder cb, From<?, ?> root,
+      JPAEntityType jpaEntity, UriParameter keyPredicate, final JPAQueryParameters parameters)
+      throws ODataJPAFilterException, ODataJPAModelException {
+
     JPAPath path = jpaEntity.getPath(keyPredicate.getName());
     JPAAttribute attribute = path.getLeaf();
+    final Object value = convertValueOnAttribute(odata, attribute, keyPredicate.getText());
 
-    return cb.equal(convertToCriteriaPath(root, path.getPath()), convertValueOnAttribute(odata, attribute, keyPredicate
-        .getText()));
-
+    if (parameters != null)
+      return cb.equal(convertToCriteriaPath(root, path.getPath()), parameters.add(value));
+    return cb.equal(convertToCriteriaPath(root, path.getPath()), value);
   }
 
   /**
@@ -109,6 +121,29 @@ public final class ExpressionUtil {
     }
   }
 
+  /**
+   * Converts the value of an attribute without converter into its OData string representation. The result can be
+   * converted back using {@link #convertValueOnAttribute(OData, JPAAttribute, String, Boolean)} with isUri = false.
+   * @param odata
+   * @param attribute
+   * @param value
+   * @return
+   * @throws ODataJPAFilterException
+   */
+  public static String convertValueToString(final OData odata, final JPAAttribute attribute, final Object value)
+      throws ODataJPAFilterException {
+
+    try {
+      final CsdlProperty edmProperty = (CsdlProperty) attribute.getProperty();
+      final EdmPrimitiveType edmType = odata.createPrimitiveTypeInstance(JPATypeConvertor.convertToEdmSimpleType(
+          attribute));
+      return edmType.valueToString(value, edmProperty.isNullable(), edmProperty.getMaxLength(),
+          edmProperty.getPrecision(), edmProperty.getScale(), true);
+    } catch (EdmPrimitiveTypeException | ODataJPAModelException e) {
+      throw new ODataJPAFilterException(e, HttpStatusCode.INTERNAL_SERVER_ERROR);
+    }
+  }
+
   public static Object convertValueOnFacet(final OData odata, JPAParamaterFacet returnType, final String value)
       throws ODataJPAFilterException {
     try {
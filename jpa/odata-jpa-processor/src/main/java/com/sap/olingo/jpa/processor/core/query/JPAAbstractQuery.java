@@ -96,7 +96,8 @@ public abstract class JPAAbstractQuery {
       for (final UriParameter keyPredicate : keyPredicates) {
         javax.persistence.criteria.Expression<Boolean> equalCondition;
         try {
-          equalCondition = ExpressionUtil.createEQExpression(odata, cb, root, jpaEntity, keyPredicate);
+          equalCondition = ExpressionUtil.createEQExpression(odata, cb, root, jpaEntity, keyPredicate,
+              getParameters());
         } catch (ODataJPAModelException e) {
           throw new ODataJPAQueryException(e, HttpStatusCode.BAD_REQUEST);
         }
@@ -182,6 +183,17 @@ public abstract class JPAAbstractQuery {
 
   abstract JPAODataSessionContextAccess getContext();
 
+  /**
+   * @return Buffer for the values of a query, which are passed as parameter. Null if values shall be put into the
+   * statement.
+   */
+  abstract JPAQueryParameters getParameters();
+
+  /**
+   * Records that a value became part of the statement, so the statement can not be shared
+   */
+  abstract void valueInlined();
+
   // TODO clean-up
   private class EmptyDebugger implements JPAServiceDebugger {
 
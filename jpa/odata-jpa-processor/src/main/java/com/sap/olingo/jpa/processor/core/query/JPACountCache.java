@@ -0,0 +1,127 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of the results of $count, which is shared by all requests of a service. Counts are only cached for
+ * entity sets a time to live has been set for, see {@link #setTimeToLive(String, long)}. A count is identified by the
+ * resource path including the key predicates, $filter, $search and the language of the request. As a consequence a
+ * request may get a count that does not reflect changes done within the time to live.<p>
+ * In case the cache is full, the least recently used count is removed. Hits and misses are counted and can be used to
+ * decide on the size of the cache and the time to live.
+ */
+public final class JPACountCache {
+  public static final int DEFAULT_MAX_SIZE = 1000;
+
+  private final int maxSize;
+  private final Clock clock;
+  private final Map<String, Long> timeToLive = new ConcurrentHashMap<>();
+  private final Map<String, CountEntry> counts;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  public JPACountCache() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  public JPACountCache(final int maxSize) {
+    this(maxSize, Clock.systemUTC());
+  }
+
+  JPACountCache(final int maxSize, final Clock clock) {
+    super();
+    if (maxSize <= 0)
+      throw new IllegalArgumentException("Maximum size of a count cache must be greater than 0");
+    this.maxSize = maxSize;
+    this.clock = clock;
+    this.counts = new LinkedHashMap<String, CountEntry>(16, 0.75F, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, CountEntry> eldest) {
+        return size() > JPACountCache.this.maxSize;
+      }
+    };
+  }
+
+  /**
+   * Switches on caching of counts for an entity set.
+   * @param entitySetName Name of the entity set
+   * @param timeToLive Time in milliseconds a count is taken from the cache. A value less or equal 0 switches caching off
+   */
+  public void setTimeToLive(final String entitySetName, final long timeToLive) {
+    if (timeToLive > 0)
+      this.timeToLive.put(entitySetName, Long.valueOf(timeToLive));
+    else
+      this.timeToLive.remove(entitySetName);
+  }
+
+  /**
+   * @return true if counts of the entity set are cached
+   */
+  public boolean isCached(final String entitySetName) {
+    return timeToLive.containsKey(entitySetName);
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public synchronized int size() {
+    return counts.size();
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  public synchronized void clear() {
+    counts.clear();
+  }
+
+  /**
+   * @param key Identifies the count, e.g. the resource path and the query options that restrict the result
+   * @return The cached count or null if none was found or the cached one has expired
+   */
+  public synchronized Long get(final String key) {
+    final CountEntry entry = counts.get(key);
+    if (entry != null && entry.expiresAt - clock.millis() > 0) {
+      hits.incrementAndGet();
+      return entry.count;
+    }
+    if (entry != null)
+      counts.remove(key);
+    misses.incrementAndGet();
+    return null;
+  }
+
+  /**
+   * Stores a count. The count is not stored, if no time to live was set for the entity set.
+   * @param entitySetName Name of the entity set, which determines the time to live
+   * @param key Identifies the count
+   * @param count
+   */
+  public synchronized void put(final String entitySetName, final String key, final Long count) {
+    final Long ttl = timeToLive.get(entitySetName);
+    if (ttl != null)
+      counts.put(key, new CountEntry(count, clock.millis() + ttl.longValue()));
+  }
+
+  private static class CountEntry {
+    private final Long count;
+    private final long expiresAt;
+
+    private CountEntry(final Long count, final long expiresAt) {
+      this.count = count;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
@@ -38,6 +38,7 @@ import org.apache.olingo.server.api.uri.UriResourceEntitySet;
 import org.apache.olingo.server.api.uri.UriResourceNavigation;
 import org.apache.olingo.server.api.uri.UriResourcePartTyped;
 import org.apache.olingo.server.api.uri.UriResourcePrimitiveProperty;
+import org.apache.olingo.server.api.uri.UriResourceProperty;
 import org.apache.olingo.server.api.uri.queryoption.OrderByItem;
 import org.apache.olingo.server.api.uri.queryoption.OrderByOption;
 import org.apache.olingo.server.api.uri.queryoption.SelectOption;
@@ -68,6 +69,7 @@ public abstract class JPAExecutableQuery extends JPAAbstractQuery {
   protected final Root<?> root;
   protected final JPAFilterComplier filter;
   protected final JPAODataSessionContextAccess context;
+  protected final JPAQueryParameters parameters;
 
   public JPAExecutableQuery(final OData odata, final JPAODataSessionContextAccess context,
       final JPAEntityType jpaEntityType, final EntityManager em, final Map<String, List<String>> requestHeaders,
@@ -78,8 +80,9 @@ public abstract class JPAExecutableQuery extends JPAAbstractQuery {
     this.uriResource = uriResource;
     this.cq = cb.createTupleQuery();
     this.root = cq.from(jpaEntity.getTypeClass());
+    this.parameters = new JPAQueryParameters(cb);
     this.filter = new JPAFilterCrossComplier(odata, sd, em, jpaEntity, new JPAOperationConverter(cb, context
-        .getOperationConverter()), uriResource, this);
+        .getOperationConverter(), parameters), uriResource, this);
     this.context = context;
   }
 
@@ -177,7 +180,8 @@ public abstract class JPAExecutableQuery extends JPAAbstractQuery {
 
     final List<JPAPath> jpaPathList = new ArrayList<>();
     try {
-      final List<? extends JPAAttribute> jpaKeyList = jpaEntity.getKey();
+      // The key list of a frozen entity type is immutable
+      final List<JPAAttribute> jpaKeyList = new ArrayList<>(jpaEntity.getKey());
 
       for (final String selectItem : selectList) {
         final JPAPath selectItemPath = jpaEntity.getPath(selectItem);
@@ -465,10 +469,19 @@ public abstract class JPAExecutableQuery extends JPAAbstractQuery {
           HttpStatusCode.BAD_REQUEST, e);
     }
 
-    if (uriResource.getSearchOption() != null && uriResource.getSearchOption().getSearchExpression() != null)
-      whereCondition = addWhereClause(whereCondition,
-          context.getDatabaseProcessor().createSearchWhereClause(cb, this.cq, root, jpaEntity, uriResource
-              .getSearchOption()));
+    if (uriResource.getSearchOption() != null && uriResource.getSearchOption().getSearchExpression() != null) {
+      final javax.persistence.criteria.Expression<Boolean> searchCondition;
+      if (context.getSearchIndex() != null)
+        // The database processor takes over in case the index finds too many entities
+        searchCondition = context.getSearchIndex().createSearchWhereClause(cb, this.cq, root, jpaEntity, uriResource
+            .getSearchOption(), context.getDatabaseProcessor());
+      else
+        searchCondition = context.getDatabaseProcessor().createSearchWhereClause(cb, this.cq, root, jpaEntity,
+            uriResource.getSearchOption());
+      // The search term or the keys found by the index are part of the statement
+      valueInlined();
+      whereCondition = addWhereClause(whereCondition, searchCondition);
+    }
 
     debugger.stopRuntimeMeasurement(handle);
     return whereCondition;
@@ -490,6 +503,44 @@ public abstract class JPAExecutableQuery extends JPAAbstractQuery {
     }
   }
 
+  /**
+   * @return true in case none of the attributes is complex, an enumeration or has a converter
+   */
+  protected boolean isPlainPath(final List<JPAPath> pathList) {
+    for (final JPAPath path : pathList) {
+      final JPAAttribute attribute = path.getLeaf();
+      if (attribute.isComplex() || attribute.isEnum() || attribute.getConverter() != null)
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * @return Path of the property an $orderby item refers to. Null in case the item does not refer to a property, e.g.
+   * $count of a navigation property, or the property is a description property
+   */
+  protected JPAPath determineOrderByPath(final OrderByItem orderByItem) throws ODataJPAModelException {
+    // Only properties and properties of complex types are supported, but not e.g. $count of a navigation property
+    if (!(orderByItem.getExpression() instanceof Member))
+      return null;
+    final StringBuilder externalName = new StringBuilder();
+    for (final UriResource uriResourceItem : ((Member) orderByItem.getExpression()).getResourcePath()
+        .getUriResourceParts()) {
+      if (uriResourceItem instanceof UriResourcePrimitiveProperty
+          || uriResourceItem instanceof UriResourceComplexProperty) {
+        externalName.append(JPAPath.PATH_SEPERATOR);
+        externalName.append(((UriResourceProperty) uriResourceItem).getProperty().getName());
+      } else
+        return null;
+    }
+    if (externalName.length() == 0)
+      return null;
+    final JPAPath orderByPath = jpaEntity.getPath(externalName.substring(1));
+    if (orderByPath == null || orderByPath.getLeaf() instanceof JPADescriptionAttribute)
+      return null;
+    return orderByPath;
+  }
+
   protected List<JPAPath> extractDescriptionAttributes(final List<JPAPath> jpaPathList) {
 
     final List<JPAPath> result = new ArrayList<>();
@@ -580,4 +631,14 @@ public abstract class JPAExecutableQuery extends JPAAbstractQuery {
   JPAODataSessionContextAccess getContext() {
     return context;
   }
+
+  @Override
+  JPAQueryParameters getParameters() {
+    return parameters;
+  }
+
+  @Override
+  void valueInlined() {
+    parameters.valueInlined();
+  }
 }
@@ -0,0 +1,37 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import org.apache.olingo.server.api.ODataApplicationException;
+
+/**
+ * Restricts the expand entities by the join column values taken from the result of the super-ordinate query. The
+ * values are send to the database in chunks. So instead of re-evaluating the restrictions of all super-ordinate queries
+ * the database has to perform a lookup via the join columns, which should be supported by an index.
+ * <p>
+ * The chunk size has to be chosen with respect to the database in use, as the number of parameter of a statement is
+ * limited.
+ */
+public final class JPAExpandKeyListStrategy implements JPAExpandStrategy {
+  public static final int DEFAULT_CHUNK_SIZE = 500;
+  private final int chunkSize;
+
+  public JPAExpandKeyListStrategy() {
+    this(DEFAULT_CHUNK_SIZE);
+  }
+
+  public JPAExpandKeyListStrategy(final int chunkSize) {
+    super();
+    if (chunkSize < 1)
+      throw new IllegalArgumentException("Chunk size must be at least 1");
+    this.chunkSize = chunkSize;
+  }
+
+  @Override
+  public JPAExpandQueryResult execute(final JPAExpandQuery query, final JPAExpandQueryResult parentResult)
+      throws ODataApplicationException {
+    return query.execute(parentResult.getAllResults(), chunkSize);
+  }
+
+  public int getChunkSize() {
+    return chunkSize;
+  }
+}
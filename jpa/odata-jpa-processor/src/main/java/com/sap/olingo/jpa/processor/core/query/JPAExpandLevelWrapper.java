@@ -146,6 +146,24 @@ public final class JPAExpandLevelWrapper implements JPAExpandItem {
     return null;
   }
 
+  /**
+   * @return Number of levels to be expanded; Integer.MAX_VALUE in case of $levels=max
+   */
+  int getLevels() {
+    return levelOptions.isMax() ? Integer.MAX_VALUE : levelOptions.getValue();
+  }
+
+  /**
+   * @return true if the expand item contains an $expand besides the levels
+   */
+  boolean hasNestedExpand() {
+    // Items of further levels return the expand of the next level
+    ExpandItem requestedItem = item;
+    while (requestedItem instanceof ExpandItemWrapper)
+      requestedItem = ((ExpandItemWrapper) requestedItem).parentItem;
+    return requestedItem.getExpandOption() != null;
+  }
+
   private LevelsExpandOption determineLevel(ExpandItem item2) {
     return item.getLevelsOption();
   }
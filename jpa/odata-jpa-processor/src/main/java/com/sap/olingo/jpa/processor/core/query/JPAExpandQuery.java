@@ -1,10 +1,17 @@
 package com.sap.olingo.jpa.processor.core.query;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import javax.persistence.Entity;
 import javax.persistence.EntityManager;
 import javax.persistence.Tuple;
 import javax.persistence.TypedQuery;
@@ -23,6 +30,7 @@ import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.uri.UriInfoResource;
 import org.apache.olingo.server.api.uri.UriResource;
 import org.apache.olingo.server.api.uri.UriResourceCount;
+import org.apache.olingo.server.api.uri.queryoption.OrderByItem;
 import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
 
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAssociationAttribute;
@@ -33,6 +41,7 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAOnConditionItem;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import com.sap.olingo.jpa.processor.core.api.JPAODataSessionContextAccess;
+import com.sap.olingo.jpa.processor.core.converter.JPAJoinKey;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAQueryException;
 
 /**
@@ -53,6 +62,7 @@ import com.sap.olingo.jpa.processor.core.exception.ODataJPAQueryException;
 public final class JPAExpandQuery extends JPAExecutableQuery {
   private final JPAAssociationPath assoziation;
   private final JPAExpandItemInfo item;
+  private List<List<Object>> parentKeys;
 
   public JPAExpandQuery(final OData odata, final JPAODataSessionContextAccess context, final EntityManager em,
       final UriInfoResource uriInfo, final JPAAssociationPath assoziation, final JPAEntityType entityType,
@@ -72,25 +82,389 @@ public final class JPAExpandQuery extends JPAExecutableQuery {
   }
 
   public JPAExpandQueryResult execute() throws ODataApplicationException {
-    if (uriResource.getTopOption() != null || uriResource.getSkipOption() != null)
+    if (uriResource.getTopOption() != null || uriResource.getSkipOption() != null) {
+      if (determineTopSkipOrderBy() != null)
+        // Let the database apply $top and $skip per parent
+        return executeKeyListQuery(readParentKeys(), determineChunkSize());
       return executeExpandTopSkipQuery();
-    else {
+    } else {
       return executeStandardQuery();
     }
   }
 
+  /**
+   * @return The chunk size of the configured key list strategy, see {@link JPAExpandKeyListStrategy#getChunkSize()}, or
+   * the default chunk size
+   */
+  private int determineChunkSize() {
+    final JPAExpandStrategy strategy = context.getExpandStrategy();
+    return strategy instanceof JPAExpandKeyListStrategy ? ((JPAExpandKeyListStrategy) strategy).getChunkSize()
+        : JPAExpandKeyListStrategy.DEFAULT_CHUNK_SIZE;
+  }
+
+  /**
+   * Process the expand query restricted by the join column values of the given parent rows instead of sub-queries,
+   * which repeat the restrictions of the parent query. The distinct join column values are send to the database in
+   * chunks of at most <code>chunkSize</code> keys. In case the association has one join column an IN condition is
+   * created, otherwise an OR of the key combinations. The key values are passed as parameter, so all chunks of the
+   * same size lead to the same statement.<p>
+   * In case the database supports it, $top and $skip are applied by the database per parent, see
+   * {@link com.sap.olingo.jpa.processor.core.database.JPAODataDatabaseExpand JPAODataDatabaseExpand}. The keys of the
+   * selected entities are restricted to <code>chunkSize</code> as well, so the number of parents per round trip is
+   * reduced accordingly. If already $top exceeds <code>chunkSize</code>, $top and $skip are applied after reading.
+   * @param parentRows Result of the super-ordinate query
+   * @param chunkSize Maximum number of parent keys and of selected entity keys per database round trip
+   * @return query result
+   * @throws ODataApplicationException
+   */
+  public JPAExpandQueryResult execute(final List<Tuple> parentRows, final int chunkSize)
+      throws ODataApplicationException {
+    return executeKeyListQuery(determineParentKeys(parentRows), chunkSize);
+  }
+
+  /**
+   * An $expand with $levels on an association that points to the same entity type, like Parent or Children, can be
+   * read with one recursive query instead of one query per level, in case the database supports it, see
+   * {@link com.sap.olingo.jpa.processor.core.database.JPAODataDatabaseExpand JPAODataDatabaseExpand}. This is not
+   * possible if further query options besides $select are given, as they would have to be applied per level, or if the
+   * table of the entity type is not known.
+   * @return true if the levels can be read by {@link #executeRecursive(List, int)}
+   * @throws ODataApplicationException
+   */
+  public boolean isRecursive() throws ODataApplicationException {
+    if (item == null || !(item.getUriInfo() instanceof JPAExpandLevelWrapper))
+      return false;
+    final JPAExpandLevelWrapper levelItem = (JPAExpandLevelWrapper) item.getUriInfo();
+    final Class<?> superType = jpaEntity.getTypeClass().getSuperclass();
+    if (!context.getDatabaseProcessor().supportsRecursiveExpand()
+        || jpaEntity.getQualifiedTableName() == null
+        || levelItem.getLevels() < 2
+        || levelItem.hasNestedExpand()
+        || !jpaEntity.equals(assoziation.getSourceType())
+        || !jpaEntity.equals(assoziation.getTargetType())
+        || uriResource.getFilterOption() != null
+        || uriResource.getSearchOption() != null
+        || uriResource.getOrderByOption() != null
+        || uriResource.getTopOption() != null
+        || uriResource.getSkipOption() != null
+        || uriResource.getCountOption() != null
+        || (superType != null && superType.isAnnotationPresent(Entity.class)))
+      return false;
+    try {
+      return isPlainPath(jpaEntity.getKeyPath()) && isPlainPath(determineJoinPath(true))
+          && isPlainPath(determineJoinPath(false));
+    } catch (ODataJPAModelException e) {
+      throw new ODataJPAQueryException(e, HttpStatusCode.BAD_REQUEST);
+    }
+  }
+
+  /**
+   * Reads all levels of an $expand with $levels at once. A recursive database query determines the keys of the
+   * entities of all levels, which are afterwards read in chunks. The entities are split into one result per level. The
+   * result of a level contains the result of the next level as child, as if each level had been read separately.
+   * @param parentRows Result of the super-ordinate query
+   * @param chunkSize Maximum number of parents per recursive query and of entities per read
+   * @return Result of the first level or null if the database could not read all levels at once. In that case the
+   * levels have to be read one after the other
+   * @throws ODataApplicationException
+   */
+  public JPAExpandQueryResult executeRecursive(final List<Tuple> parentRows, final int chunkSize)
+      throws ODataApplicationException {
+    final int handle = debugger.startRuntimeMeasurement(this, "executeRecursive");
+
+    final List<Map<JPAJoinKey, List<Tuple>>> levelResults = new ArrayList<>();
+    final List<List<Object>> keys = determineParentKeys(parentRows);
+    if (!keys.isEmpty()) {
+      try {
+        final List<JPAPath> keyPath = jpaEntity.getKeyPath();
+        final Map<JPAJoinKey, List<Integer>> entityLevels = new HashMap<>();
+        final List<List<Object>> entityKeys = new ArrayList<>();
+        for (int start = 0; start < keys.size(); start += chunkSize) {
+          final List<List<Object>> chunkKeys = readHierarchyKeys(keyPath, keys.subList(start, Math.min(start
+              + chunkSize, keys.size())), entityLevels);
+          if (chunkKeys == null) {
+            debugger.stopRuntimeMeasurement(handle);
+            return null;
+          }
+          entityKeys.addAll(chunkKeys);
+        }
+
+        final String[] keyAliases = new String[keyPath.size()];
+        for (int i = 0; i < keyAliases.length; i++)
+          keyAliases[i] = keyPath.get(i).getAlias();
+        final String[] joinAliases = getJoinAliases(assoziation);
+        prepareTupleQuery();
+        for (int start = 0; start < entityKeys.size(); start += chunkSize) {
+          cq.where(createEntityKeyRestriction(entityKeys.subList(start, Math.min(start + chunkSize, entityKeys
+              .size()))));
+          for (final Tuple row : readResultList()) {
+            final List<Integer> levels = entityLevels.get(JPAJoinKey.fromRow(row, keyAliases));
+            if (levels != null) {
+              for (final Integer level : levels)
+                addToLevel(levelResults, level, JPAJoinKey.fromRow(row, joinAliases), row);
+            }
+          }
+        }
+      } catch (ODataJPAModelException e) {
+        throw new ODataJPAQueryException(e, HttpStatusCode.BAD_REQUEST);
+      }
+    }
+    if (levelResults.isEmpty())
+      levelResults.add(new HashMap<JPAJoinKey, List<Tuple>>());
+
+    JPAExpandQueryResult firstLevel = null;
+    JPAExpandQueryResult previousLevel = null;
+    for (final Map<JPAJoinKey, List<Tuple>> levelResult : levelResults) {
+      final JPAExpandQueryResult level = new JPAExpandQueryResult(levelResult, null, jpaEntity);
+      if (previousLevel == null)
+        firstLevel = level;
+      else
+        previousLevel.putChildren(Collections.singletonMap(assoziation, level));
+      previousLevel = level;
+    }
+    debugger.stopRuntimeMeasurement(handle);
+    return firstLevel;
+  }
+
+  /**
+   * Reads the keys of the hierarchy below the given parents. Keys that are already known from the parents read before
+   * are not returned again, but get the additional levels.
+   * @return null if the database could not read all levels
+   */
+  private List<List<Object>> readHierarchyKeys(final List<JPAPath> keyPath, final List<List<Object>> parents,
+      final Map<JPAJoinKey, List<Integer>> entityLevels) throws ODataApplicationException, ODataJPAModelException {
+
+    final int handle = debugger.startRuntimeMeasurement(this, "readHierarchyKeys");
+    final List<List<Object>> hierarchy = context.getDatabaseProcessor().executeRecursiveExpandQuery(em, jpaEntity,
+        keyPath, determineJoinPath(true), determineJoinPath(false), parents, ((JPAExpandLevelWrapper) item
+            .getUriInfo()).getLevels());
+    if (hierarchy == null) {
+      debugger.stopRuntimeMeasurement(handle);
+      return null;
+    }
+    final List<List<Object>> entityKeys = new ArrayList<>();
+    for (final List<Object> row : hierarchy) {
+      // The database may return a different type than the attribute has e.g. BigDecimal instead of Integer
+      final List<Object> key = new ArrayList<>(keyPath.size());
+      for (int i = 0; i < keyPath.size(); i++)
+        key.add(convertKeyValue(keyPath.get(i).getLeaf().getType(), row.get(i)));
+      final JPAJoinKey entityKey = JPAJoinKey.of(key.toArray());
+      List<Integer> levels = entityLevels.get(entityKey);
+      if (levels == null) {
+        levels = new ArrayList<>(1);
+        entityLevels.put(entityKey, levels);
+        entityKeys.add(key);
+      }
+      final Integer level = Integer.valueOf(((Number) row.get(keyPath.size())).intValue());
+      if (!levels.contains(level))
+        levels.add(level);
+    }
+    debugger.stopRuntimeMeasurement(handle);
+    return entityKeys;
+  }
+
+  private void addToLevel(final List<Map<JPAJoinKey, List<Tuple>>> levelResults, final int level,
+      final JPAJoinKey parentKey, final Tuple row) {
+    while (levelResults.size() < level)
+      levelResults.add(new HashMap<JPAJoinKey, List<Tuple>>());
+    final Map<JPAJoinKey, List<Tuple>> levelResult = levelResults.get(level - 1);
+    List<Tuple> subResult = levelResult.get(parentKey);
+    if (subResult == null) {
+      subResult = new ArrayList<>();
+      levelResult.put(parentKey, subResult);
+    }
+    subResult.add(row);
+  }
+
+  /**
+   * @param left True for the attributes of the source of the association, false for the attributes of the target
+   */
+  private List<JPAPath> determineJoinPath(final boolean left) throws ODataJPAModelException {
+    final List<JPAPath> joinPath = new ArrayList<>();
+    for (final JPAOnConditionItem joinColumn : assoziation.getJoinColumnsList())
+      joinPath.add(left ? joinColumn.getLeftPath() : joinColumn.getRightPath());
+    return joinPath;
+  }
+
+  private JPAExpandQueryResult executeKeyListQuery(final List<List<Object>> keys, final int chunkSize)
+      throws ODataApplicationException {
+    final int handle = debugger.startRuntimeMeasurement(this, "executeKeyListQuery");
+
+    final Map<JPAJoinKey, List<Tuple>> result = new HashMap<>();
+    Map<JPAJoinKey, Long> counts = null;
+    if (!keys.isEmpty()) {
+      final long skip = uriResource.getSkipOption() != null ? uriResource.getSkipOption().getValue() : 0;
+      final long top = uriResource.getTopOption() != null ? uriResource.getTopOption().getValue() : Long.MAX_VALUE;
+      // The entity keys selected per parent end up in one condition, which must not exceed the chunk size either
+      final Map<JPAPath, Boolean> topSkipOrderBy = (skip > 0 || top < Long.MAX_VALUE) && top <= chunkSize
+          ? determineTopSkipOrderBy() : null;
+      final int parentChunkSize = topSkipOrderBy == null || top == 0 ? chunkSize : (int) (chunkSize / top);
+      final Map<String, From<?, ?>> joinTables = prepareTupleQuery();
+      final int parameterCount = parameters.size();
+      for (int start = 0; start < keys.size(); start += parentChunkSize) {
+        // Each chunk creates its restrictions again, so the parameter names of the previous chunk get re-used
+        parameters.reset(parameterCount);
+        parentKeys = keys.subList(start, Math.min(start + parentChunkSize, keys.size()));
+        if (topSkipOrderBy == null) {
+          cq.where(createWhere(joinTables));
+          result.putAll(convertResult(readResultList(), assoziation, skip, top));
+        } else {
+          final List<List<Object>> entityKeys = readTopSkipKeys(topSkipOrderBy, skip, top);
+          if (!entityKeys.isEmpty()) {
+            cq.where(createEntityKeyRestriction(entityKeys));
+            result.putAll(convertResult(readResultList(), assoziation, 0, Long.MAX_VALUE));
+          }
+        }
+        final Map<JPAJoinKey, Long> chunkCounts = count();
+        if (chunkCounts != null) {
+          if (counts == null)
+            counts = new HashMap<>();
+          counts.putAll(chunkCounts);
+        }
+      }
+      parentKeys = null;
+    }
+    debugger.stopRuntimeMeasurement(handle);
+    return new JPAExpandQueryResult(result, counts, jpaEntity);
+  }
+
+  private List<Tuple> readResultList() {
+    final TypedQuery<Tuple> tupleQuery = em.createQuery(cq);
+    parameters.bind(tupleQuery);
+
+    final int resultHandle = debugger.startRuntimeMeasurement(tupleQuery, "getResultList");
+    final List<Tuple> intermediateResult = tupleQuery.getResultList();
+    debugger.stopRuntimeMeasurement(resultHandle);
+    return intermediateResult;
+  }
+
+  /**
+   * Checks if $top and $skip can be applied by the database. This is the case if the database supports it, the table
+   * is given explicitly and only plain attributes are involved. As the entities of each parent are counted, a $filter has to be part of the
+   * database specific query, which is not possible, as well as the discriminator of a sub-type.
+   * @return Attributes to order by or null if $top and $skip have to be applied after reading all entities
+   * @throws ODataApplicationException
+   */
+  private Map<JPAPath, Boolean> determineTopSkipOrderBy() throws ODataApplicationException {
+    final Class<?> superType = jpaEntity.getTypeClass().getSuperclass();
+    if (!context.getDatabaseProcessor().supportsExpandTopSkip()
+        || jpaEntity.getQualifiedTableName() == null
+        || uriResource.getFilterOption() != null
+        || uriResource.getSearchOption() != null
+        || (superType != null && superType.isAnnotationPresent(Entity.class)))
+      return null;
+    try {
+      final List<JPAPath> joinPath = new ArrayList<>();
+      for (final JPAOnConditionItem joinColumn : assoziation.getJoinColumnsList())
+        joinPath.add(joinColumn.getRightPath());
+      if (!isPlainPath(jpaEntity.getKeyPath()) || !isPlainPath(joinPath))
+        return null;
+
+      final Map<JPAPath, Boolean> orderBy = new LinkedHashMap<>();
+      if (uriResource.getOrderByOption() != null) {
+        for (final OrderByItem orderByItem : uriResource.getOrderByOption().getOrders()) {
+          final JPAPath orderByPath = determineOrderByPath(orderByItem);
+          if (orderByPath == null)
+            return null;
+          orderBy.put(orderByPath, orderByItem.isDescending());
+        }
+      }
+      return orderBy;
+    } catch (ODataJPAModelException e) {
+      throw new ODataJPAQueryException(e, HttpStatusCode.BAD_REQUEST);
+    }
+  }
+
+  private List<List<Object>> readTopSkipKeys(final Map<JPAPath, Boolean> orderBy, final long skip, final long top)
+      throws ODataApplicationException {
+    if (top == 0)
+      return new ArrayList<>(0);
+    final int handle = debugger.startRuntimeMeasurement(this, "readTopSkipKeys");
+    try {
+      final List<JPAPath> keyPath = jpaEntity.getKeyPath();
+      final List<JPAPath> joinPath = new ArrayList<>();
+      for (final JPAOnConditionItem joinColumn : assoziation.getJoinColumnsList())
+        joinPath.add(joinColumn.getRightPath());
+      final List<List<Object>> keys = context.getDatabaseProcessor().executeExpandTopSkipQuery(em, jpaEntity,
+          keyPath, joinPath, parentKeys, orderBy, skip, top);
+      // The database may return a different type than the attribute has e.g. BigDecimal instead of Integer
+      for (final List<Object> key : keys) {
+        for (int i = 0; i < keyPath.size(); i++)
+          key.set(i, convertKeyValue(keyPath.get(i).getLeaf().getType(), key.get(i)));
+      }
+      return keys;
+    } catch (ODataJPAModelException e) {
+      throw new ODataJPAQueryException(e, HttpStatusCode.BAD_REQUEST);
+    } finally {
+      debugger.stopRuntimeMeasurement(handle);
+    }
+  }
+
+  private Object convertKeyValue(final Class<?> type, final Object value) {
+    if (!(value instanceof Number) || type.isInstance(value))
+      return value;
+    final Number number = (Number) value;
+    if (type == Integer.class || type == int.class)
+      return number.intValue();
+    if (type == Long.class || type == long.class)
+      return number.longValue();
+    if (type == Short.class || type == short.class)
+      return number.shortValue();
+    if (type == BigInteger.class)
+      return new BigInteger(number.toString());
+    if (type == BigDecimal.class)
+      return new BigDecimal(number.toString());
+    return value;
+  }
+
+  /**
+   * Reads the distinct join column values of the entities to be expanded, so the parents.
+   * @return
+   * @throws ODataApplicationException
+   */
+  private List<List<Object>> readParentKeys() throws ODataApplicationException {
+    final int handle = debugger.startRuntimeMeasurement(this, "readParentKeys");
+
+    final CriteriaQuery<Tuple> parentKeyQuery = cb.createTupleQuery();
+    final List<Selection<?>> selectionPath = buildExpandJoinPath();
+    final Map<String, From<?, ?>> joinTables = createFromClause(new ArrayList<JPAAssociationAttribute>(0),
+        new ArrayList<>(0));
+    parentKeyQuery.multiselect(selectionPath);
+    parentKeyQuery.distinct(true);
+    parentKeyQuery.where(createWhere(joinTables));
+    final TypedQuery<Tuple> parentKeyTypedQuery = em.createQuery(parentKeyQuery);
+    parameters.bind(parentKeyTypedQuery);
+    final List<Tuple> intermediateResult = parentKeyTypedQuery.getResultList();
+
+    final List<List<Object>> keys = new ArrayList<>(intermediateResult.size());
+    try {
+      final List<JPAOnConditionItem> joinColumns = assoziation.getJoinColumnsList();
+      for (final Tuple row : intermediateResult) {
+        final List<Object> key = new ArrayList<>(joinColumns.size());
+        for (final JPAOnConditionItem joinColumn : joinColumns)
+          key.add(row.get(joinColumn.getRightPath().getAlias()));
+        keys.add(key);
+      }
+    } catch (ODataJPAModelException e) {
+      throw new ODataJPAQueryException(e, HttpStatusCode.BAD_REQUEST);
+    }
+    debugger.stopRuntimeMeasurement(handle);
+    return keys;
+  }
+
   /**
    * Process a expand query, which contains a $skip and/or a $top option.<p>
    * This is a tricky problem, as it can not be done easily with SQL. It could be that a database offers special
    * solutions.
    * There is an worth reading blog regards this topic:
    * <a href="http://www.xaprb.com/blog/2006/12/07/how-to-select-the-firstleastmax-row-per-group-in-sql/">How to select
-   * the first/least/max row per group in SQL</a>
+   * the first/least/max row per group in SQL</a><p>
+   * This is the fallback for databases that do not support restricting the entities per parent, see
+   * {@link com.sap.olingo.jpa.processor.core.database.JPAODataDatabaseExpand JPAODataDatabaseExpand}.
    * @return query result
    * @throws ODataApplicationException
    */
   private JPAExpandQueryResult executeExpandTopSkipQuery() throws ODataApplicationException {
-    // TODO make this replacable e.g. by UNION ALL
     final int handle = debugger.startRuntimeMeasurement(this, "executeExpandTopSkipQuery");
 
     long skip = 0;
@@ -103,7 +477,7 @@ public final class JPAExpandQuery extends JPAExecutableQuery {
     if (uriResource.getTopOption() != null)
       top = uriResource.getTopOption().getValue();
 
-    Map<String, List<Tuple>> result = convertResult(intermediateResult, assoziation, skip, top);
+    Map<JPAJoinKey, List<Tuple>> result = convertResult(intermediateResult, assoziation, skip, top);
     debugger.stopRuntimeMeasurement(handle);
     return new JPAExpandQueryResult(result, count(), jpaEntity);
   }
@@ -117,7 +491,7 @@ public final class JPAExpandQuery extends JPAExecutableQuery {
     final List<Tuple> intermediateResult = tupleQuery.getResultList();
 
     debugger.stopRuntimeMeasurement(resultHandle);
-    Map<String, List<Tuple>> result = convertResult(intermediateResult, assoziation, 0, Long.MAX_VALUE);
+    Map<JPAJoinKey, List<Tuple>> result = convertResult(intermediateResult, assoziation, 0, Long.MAX_VALUE);
 
     debugger.stopRuntimeMeasurement(handle);
     return new JPAExpandQueryResult(result, count(), jpaEntity);
@@ -126,6 +500,22 @@ public final class JPAExpandQuery extends JPAExecutableQuery {
   private TypedQuery<Tuple> createTupleQuery() throws ODataApplicationException {
     final int handle = debugger.startRuntimeMeasurement(this, "createTupleQuery");
 
+    final Map<String, From<?, ?>> joinTables = prepareTupleQuery();
+    cq.where(createWhere(joinTables));
+    final TypedQuery<Tuple> query = em.createQuery(cq);
+    parameters.bind(query);
+
+    debugger.stopRuntimeMeasurement(handle);
+    return query;
+  }
+
+  /**
+   * Creates the select, from and order by clause of the query. The where clause is left out, so the same query can be
+   * executed with different restrictions.
+   * @return join tables
+   * @throws ODataApplicationException
+   */
+  private Map<String, From<?, ?>> prepareTupleQuery() throws ODataApplicationException {
     final List<JPAPath> selectionPath = buildSelectionPathList(this.uriResource);
     final List<JPAPath> descriptionAttributes = extractDescriptionAttributes(selectionPath);
     final Map<String, From<?, ?>> joinTables = createFromClause(new ArrayList<JPAAssociationAttribute>(),
@@ -133,19 +523,86 @@ public final class JPAExpandQuery extends JPAExecutableQuery {
 
     // TODO handle Join Column is ignored
     cq.multiselect(createSelectClause(joinTables, selectionPath));
-    cq.where(createWhere(joinTables));
 
     final List<Order> orderBy = createOrderByJoinCondition(assoziation);
     orderBy.addAll(createOrderByList(joinTables, uriResource.getOrderByOption()));
     cq.orderBy(orderBy);
     // TODO group by also at $expand
-    final TypedQuery<Tuple> query = em.createQuery(cq);
+    return joinTables;
+  }
 
-    debugger.stopRuntimeMeasurement(handle);
-    return query;
+  private List<List<Object>> determineParentKeys(final List<Tuple> parentRows) throws ODataJPAQueryException {
+    // Rows with the same join column values, as well as rows having a null value, do not need to be requested
+    final Set<List<Object>> keys = new LinkedHashSet<>();
+    try {
+      final List<JPAOnConditionItem> joinColumns = assoziation.getJoinColumnsList();
+      for (final Tuple row : parentRows) {
+        final List<Object> key = new ArrayList<>(joinColumns.size());
+        for (final JPAOnConditionItem joinColumn : joinColumns) {
+          final Object value = row.get(joinColumn.getLeftPath().getAlias());
+          if (value == null)
+            break;
+          key.add(value);
+        }
+        if (key.size() == joinColumns.size())
+          keys.add(key);
+      }
+    } catch (ODataJPAModelException e) {
+      throw new ODataJPAQueryException(e, HttpStatusCode.BAD_REQUEST);
+    }
+    return new ArrayList<>(keys);
+  }
+
+  private Expression<Boolean> createParentKeyRestriction(final List<List<Object>> keys)
+      throws ODataApplicationException {
+    try {
+      final List<JPAPath> joinPath = new ArrayList<>();
+      for (final JPAOnConditionItem joinColumn : assoziation.getJoinColumnsList())
+        joinPath.add(joinColumn.getRightPath());
+      return createKeyRestriction(joinPath, keys);
+    } catch (ODataJPAModelException e) {
+      throw new ODataJPAQueryException(e, HttpStatusCode.BAD_REQUEST);
+    }
+  }
+
+  private Expression<Boolean> createEntityKeyRestriction(final List<List<Object>> keys)
+      throws ODataApplicationException {
+    try {
+      return createKeyRestriction(jpaEntity.getKeyPath(), keys);
+    } catch (ODataJPAModelException e) {
+      throw new ODataJPAQueryException(e, HttpStatusCode.BAD_REQUEST);
+    }
   }
 
-  private Map<String, Long> count() throws ODataApplicationException {
+  private Expression<Boolean> createKeyRestriction(final List<JPAPath> keyPath, final List<List<Object>> keys)
+      throws ODataApplicationException {
+    if (keyPath.size() == 1) {
+      final List<Expression<?>> values = new ArrayList<>(keys.size());
+      for (final List<Object> key : keys) {
+        // A null never matches an IN condition
+        if (key.get(0) != null)
+          values.add(parameters.add(key.get(0)));
+      }
+      if (values.isEmpty())
+        return cb.disjunction();
+      return ExpressionUtil.convertToCriteriaPath(root, keyPath.get(0).getPath()).in(values.toArray(
+          new Expression<?>[values.size()]));
+    }
+    Expression<Boolean> restriction = null;
+    for (final List<Object> key : keys) {
+      Expression<Boolean> keyCondition = null;
+      for (int i = 0; i < keyPath.size(); i++) {
+        final Path<?> path = ExpressionUtil.convertToCriteriaPath(root, keyPath.get(i).getPath());
+        final Expression<Boolean> equalCondition = key.get(i) == null ? cb.isNull(path)
+            : cb.equal(path, parameters.add(key.get(i)));
+        keyCondition = keyCondition == null ? equalCondition : cb.and(keyCondition, equalCondition);
+      }
+      restriction = restriction == null ? keyCondition : cb.or(restriction, keyCondition);
+    }
+    return restriction;
+  }
+
+  private Map<JPAJoinKey, Long> count() throws ODataApplicationException {
     final int handle = debugger.startRuntimeMeasurement(this, "count");
     final List<UriResource> uriResourceParts = uriResource.getUriResourceParts();
     if (uriResource.getCountOption() != null
@@ -168,6 +625,7 @@ public final class JPAExpandQuery extends JPAExecutableQuery {
       countQuery.where(createWhere(joinTables));
       countQuery.groupBy(buildExpandCountGroupBy());
       final TypedQuery<Tuple> query = em.createQuery(countQuery);
+      parameters.bind(query);
       List<Tuple> intermediateResult = query.getResultList();
       return convertCountResult(intermediateResult);
     }
@@ -175,16 +633,12 @@ public final class JPAExpandQuery extends JPAExecutableQuery {
     return null;
   }
 
-  private Map<String, Long> convertCountResult(List<Tuple> intermediateResult) throws ODataJPAQueryException {
-    final Map<String, Long> result = new HashMap<>();
+  private Map<JPAJoinKey, Long> convertCountResult(List<Tuple> intermediateResult) throws ODataJPAQueryException {
+    final Map<JPAJoinKey, Long> result = new HashMap<>();
+    final String[] joinAliases = getJoinAliases(assoziation);
     for (Tuple row : intermediateResult) {
-      try {
-        final String actuallKey = buildConcatenatedKey(row, assoziation.getJoinColumnsList());
-        final Long count = (Long) row.get("$count");
-        result.put(actuallKey, count);
-      } catch (ODataJPAModelException e) {
-        throw new ODataJPAQueryException(e, HttpStatusCode.BAD_REQUEST);
-      }
+      final Long count = (Long) row.get("$count");
+      result.put(JPAJoinKey.fromRow(row, joinAliases), count);
     }
     return result;
   }
@@ -218,21 +672,17 @@ public final class JPAExpandQuery extends JPAExecutableQuery {
     return selections;
   }
 
-  Map<String, List<Tuple>> convertResult(final List<Tuple> intermediateResult, final JPAAssociationPath a,
+  Map<JPAJoinKey, List<Tuple>> convertResult(final List<Tuple> intermediateResult, final JPAAssociationPath a,
       final long skip, final long top) throws ODataApplicationException {
-    String joinKey = "";
+    JPAJoinKey joinKey = null;
     long skiped = 0;
     long taken = 0;
 
     List<Tuple> subResult = null;
-    final Map<String, List<Tuple>> convertedResult = new HashMap<>();
+    final Map<JPAJoinKey, List<Tuple>> convertedResult = new HashMap<>();
+    final String[] joinAliases = getJoinAliases(a);
     for (final Tuple row : intermediateResult) {
-      String actuallKey;
-      try {
-        actuallKey = buildConcatenatedKey(row, a.getJoinColumnsList());
-      } catch (ODataJPAModelException e) {
-        throw new ODataJPAQueryException(e, HttpStatusCode.BAD_REQUEST);
-      }
+      final JPAJoinKey actuallKey = JPAJoinKey.fromRow(row, joinAliases);
 
       if (!actuallKey.equals(joinKey)) {
         subResult = new ArrayList<>();
@@ -249,14 +699,12 @@ public final class JPAExpandQuery extends JPAExecutableQuery {
     return convertedResult;
   }
 
-  private String buildConcatenatedKey(final Tuple row, final List<JPAOnConditionItem> joinColumns) {
-    final StringBuilder buffer = new StringBuilder();
-    for (final JPAOnConditionItem item : joinColumns) {
-      buffer.append(JPAPath.PATH_SEPERATOR);
-      buffer.append(row.get(item.getRightPath().getAlias()));
+  private String[] getJoinAliases(final JPAAssociationPath a) throws ODataJPAQueryException {
+    try {
+      return JPAJoinKey.getAliases(a.getJoinColumnsList(), false);
+    } catch (ODataJPAModelException e) {
+      throw new ODataJPAQueryException(e, HttpStatusCode.BAD_REQUEST);
     }
-    buffer.deleteCharAt(0);
-    return buffer.toString();
   }
 
   private List<Order> createOrderByJoinCondition(final JPAAssociationPath a) throws ODataApplicationException {
@@ -288,10 +736,12 @@ public final class JPAExpandQuery extends JPAExecutableQuery {
           HttpStatusCode.BAD_REQUEST, e);
     }
 
+    final Expression<Boolean> parentRestriction = parentKeys == null ? cb.exists(buildSubQueries())
+        : createParentKeyRestriction(parentKeys);
     if (whereCondition == null)
-      whereCondition = cb.exists(buildSubQueries());
+      whereCondition = parentRestriction;
     else
-      whereCondition = cb.and(whereCondition, cb.exists(buildSubQueries()));
+      whereCondition = cb.and(whereCondition, parentRestriction);
 
     return whereCondition;
   }
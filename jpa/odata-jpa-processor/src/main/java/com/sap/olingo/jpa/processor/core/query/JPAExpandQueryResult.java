@@ -1,5 +1,6 @@
 package com.sap.olingo.jpa.processor.core.query;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -12,23 +13,25 @@ import org.apache.olingo.server.api.ODataApplicationException;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAssociationPath;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
 import com.sap.olingo.jpa.processor.core.converter.JPAExpandResult;
+import com.sap.olingo.jpa.processor.core.converter.JPAJoinKey;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAQueryException;
 
 /**
  * Builds a hierarchy of expand results. One instance contains on the on hand of the result itself, a map which has the
  * join columns values of the parent as its key and on the other hand a map that point the results of the next expand.
- * The join columns are concatenated in the order they are stored in the corresponding Association Path.
+ * The key contains the join column values in the order they are stored in the corresponding Association Path, see
+ * {@link JPAJoinKey}.
  * @author Oliver Grande
  *
  */
 public final class JPAExpandQueryResult implements JPAExpandResult {
 
   private final Map<JPAAssociationPath, JPAExpandResult> childrenResult;
-  private final Map<String, List<Tuple>> result;
-  private final Map<String, Long> counts;
+  private final Map<JPAJoinKey, List<Tuple>> result;
+  private final Map<JPAJoinKey, Long> counts;
   private final JPAEntityType jpaEntityType;
 
-  public JPAExpandQueryResult(final Map<String, List<Tuple>> result, final Map<String, Long> counts,
+  public JPAExpandQueryResult(final Map<JPAJoinKey, List<Tuple>> result, final Map<JPAJoinKey, Long> counts,
       final JPAEntityType jpaEntityType) {
     super();
     assertNotNull(jpaEntityType);
@@ -56,10 +59,10 @@ public final class JPAExpandQueryResult implements JPAExpandResult {
   /*
    * (non-Javadoc)
    * 
-   * @see org.apache.org.jpa.processor.core.converter.JPAExpandResult#getResult(java.lang.String)
+   * @see org.apache.org.jpa.processor.core.converter.JPAExpandResult#getResult(JPAJoinKey)
    */
   @Override
-  public List<Tuple> getResult(final String key) {
+  public List<Tuple> getResult(final JPAJoinKey key) {
     return result.get(key);
   }
 
@@ -89,7 +92,7 @@ public final class JPAExpandQueryResult implements JPAExpandResult {
    * @see org.apache.org.jpa.processor.core.converter.JPAExpandResult#getCount()
    */
   @Override
-  public Long getCount(final String key) {
+  public Long getCount(final JPAJoinKey key) {
     return counts != null ? counts.get(key) : null;
   }
 
@@ -103,14 +106,26 @@ public final class JPAExpandQueryResult implements JPAExpandResult {
     return jpaEntityType;
   }
 
+  /**
+   * Returns the rows of all keys. This is e.g. needed to determine the join column values of the next expand level.
+   * @return
+   */
+  public List<Tuple> getAllResults() {
+    final List<Tuple> allResults = new ArrayList<>();
+    for (final List<Tuple> subResult : result.values()) {
+      allResults.addAll(subResult);
+    }
+    return allResults;
+  }
+
   public long getNoResults() {
     return result.size();
   }
 
   public long getNoResultsDeep() {
     long count = 0;
-    for (String key : result.keySet()) {
-      count += result.get(key).size();
+    for (final List<Tuple> subResult : result.values()) {
+      count += subResult.size();
     }
     return count;
   }
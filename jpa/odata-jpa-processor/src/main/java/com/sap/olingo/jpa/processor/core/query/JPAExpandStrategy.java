@@ -0,0 +1,28 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import org.apache.olingo.server.api.ODataApplicationException;
+
+/**
+ * Determines how the entities requested by an $expand are read from the database. The strategy gets the expand query
+ * of an expand item together with the result of the super-ordinate query, which was read before.
+ * <p>
+ * Two strategies are provided:
+ * <ul>
+ * <li>{@link JPAExpandSubQueryStrategy}: The restrictions of the super-ordinate queries are repeated as sub-queries
+ * (default)
+ * <li>{@link JPAExpandKeyListStrategy}: The expand entities are selected via the join column values of the
+ * super-ordinate result
+ * </ul>
+ */
+public interface JPAExpandStrategy {
+
+  /**
+   * 
+   * @param query Expand query of one expand item
+   * @param parentResult Result of the super-ordinate query
+   * @return
+   * @throws ODataApplicationException
+   */
+  JPAExpandQueryResult execute(final JPAExpandQuery query, final JPAExpandQueryResult parentResult)
+      throws ODataApplicationException;
+}
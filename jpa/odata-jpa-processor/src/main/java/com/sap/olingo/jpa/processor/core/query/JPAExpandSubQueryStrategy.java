@@ -0,0 +1,17 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import org.apache.olingo.server.api.ODataApplicationException;
+
+/**
+ * Restricts the expand entities by an EXISTS sub-query chain, which repeats the restrictions of all super-ordinate
+ * queries. The result of the super-ordinate query is not used.
+ */
+public final class JPAExpandSubQueryStrategy implements JPAExpandStrategy {
+
+  @Override
+  public JPAExpandQueryResult execute(final JPAExpandQuery query, final JPAExpandQueryResult parentResult)
+      throws ODataApplicationException {
+    return query.execute();
+  }
+
+}
@@ -0,0 +1,126 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import java.util.List;
+
+import org.apache.olingo.commons.api.edm.EdmEnumType;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriParameter;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceFunction;
+import org.apache.olingo.server.api.uri.UriResourceLambdaAll;
+import org.apache.olingo.server.api.uri.UriResourceLambdaAny;
+import org.apache.olingo.server.api.uri.UriResourceNavigation;
+import org.apache.olingo.server.api.uri.queryoption.expression.BinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitor;
+import org.apache.olingo.server.api.uri.queryoption.expression.Literal;
+import org.apache.olingo.server.api.uri.queryoption.expression.Member;
+import org.apache.olingo.server.api.uri.queryoption.expression.MethodKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.UnaryOperatorKind;
+
+/**
+ * Creates a textual representation of a $filter expression, which does not contain the values of the literals. Two
+ * filter with the same shape differ only in the values compared with.
+ */
+final class JPAFilterShapeVisitor implements ExpressionVisitor<String> {
+  private static final String VALUE = "?";
+
+  @Override
+  public String visitBinaryOperator(final BinaryOperatorKind operator, final String left, final String right)
+      throws ExpressionVisitException, ODataApplicationException {
+    return "(" + left + " " + operator.toString() + " " + right + ")";
+  }
+
+  @Override
+  public String visitUnaryOperator(final UnaryOperatorKind operator, final String operand)
+      throws ExpressionVisitException, ODataApplicationException {
+    return operator.toString() + "(" + operand + ")";
+  }
+
+  @Override
+  public String visitMethodCall(final MethodKind methodCall, final List<String> parameters)
+      throws ExpressionVisitException, ODataApplicationException {
+    final StringBuilder shape = new StringBuilder(methodCall.toString());
+    shape.append("(");
+    for (int i = 0; i < parameters.size(); i++) {
+      if (i > 0)
+        shape.append(",");
+      shape.append(parameters.get(i));
+    }
+    return shape.append(")").toString();
+  }
+
+  @Override
+  public String visitLambdaExpression(final String lambdaFunction, final String lambdaVariable,
+      final Expression expression) throws ExpressionVisitException, ODataApplicationException {
+    return lambdaFunction + "(" + lambdaVariable + ":" + expression.accept(this) + ")";
+  }
+
+  @Override
+  public String visitLiteral(final Literal literal) throws ExpressionVisitException, ODataApplicationException {
+    // null changes the statement e.g. eq null becomes IS NULL
+    if ("null".equals(literal.getText()))
+      return "null";
+    return VALUE + (literal.getType() != null ? literal.getType().getFullQualifiedName().getFullQualifiedNameAsString()
+        : "");
+  }
+
+  @Override
+  public String visitMember(final Member member) throws ExpressionVisitException, ODataApplicationException {
+    final StringBuilder shape = new StringBuilder();
+    if (member.getStartTypeFilter() != null)
+      shape.append(member.getStartTypeFilter().getFullQualifiedName().getFullQualifiedNameAsString()).append("/");
+    for (final UriResource uriResourceItem : member.getResourcePath().getUriResourceParts()) {
+      if (shape.length() > 0 && shape.charAt(shape.length() - 1) != '/')
+        shape.append("/");
+      if (uriResourceItem instanceof UriResourceLambdaAny) {
+        final UriResourceLambdaAny any = (UriResourceLambdaAny) uriResourceItem;
+        shape.append(visitLambdaExpression("any", any.getLambdaVariable(), any.getExpression()));
+      } else if (uriResourceItem instanceof UriResourceLambdaAll) {
+        final UriResourceLambdaAll all = (UriResourceLambdaAll) uriResourceItem;
+        shape.append(visitLambdaExpression("all", all.getLambdaVariable(), all.getExpression()));
+      } else {
+        shape.append(uriResourceItem.getSegmentValue());
+        // Values of key predicates and function parameter are kept, as they are not provided as literals
+        if (uriResourceItem instanceof UriResourceNavigation)
+          appendParameter(shape, ((UriResourceNavigation) uriResourceItem).getKeyPredicates());
+        else if (uriResourceItem instanceof UriResourceFunction)
+          appendParameter(shape, ((UriResourceFunction) uriResourceItem).getParameters());
+      }
+    }
+    return shape.toString();
+  }
+
+  @Override
+  public String visitAlias(final String aliasName) throws ExpressionVisitException, ODataApplicationException {
+    return aliasName;
+  }
+
+  @Override
+  public String visitTypeLiteral(final EdmType type) throws ExpressionVisitException, ODataApplicationException {
+    return type.getFullQualifiedName().getFullQualifiedNameAsString();
+  }
+
+  @Override
+  public String visitLambdaReference(final String variableName) throws ExpressionVisitException,
+      ODataApplicationException {
+    return variableName;
+  }
+
+  @Override
+  public String visitEnum(final EdmEnumType type, final List<String> enumValues) throws ExpressionVisitException,
+      ODataApplicationException {
+    return VALUE + type.getFullQualifiedName().getFullQualifiedNameAsString() + "#" + enumValues.size();
+  }
+
+  private void appendParameter(final StringBuilder shape, final List<UriParameter> parameters) {
+    if (parameters != null && !parameters.isEmpty()) {
+      shape.append("(");
+      for (final UriParameter parameter : parameters)
+        shape.append(parameter.getName()).append("=").append(parameter.getText()).append(",");
+      shape.setCharAt(shape.length() - 1, ')');
+    }
+  }
+}
@@ -0,0 +1,237 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.olingo.server.api.uri.UriParameter;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceEntitySet;
+import org.apache.olingo.server.api.uri.UriResourceFunction;
+import org.apache.olingo.server.api.uri.UriResourceNavigation;
+
+/**
+ * Bounded cache of the results of functions, which is shared by all requests of a service. Only results of functions
+ * a time to live is given for are cached, see
+ * {@link com.sap.olingo.jpa.metadata.core.edm.annotation.EdmFunction#cacheTimeToLive() EdmFunction}. A result is
+ * identified by the resource path including the parameters of the function, see {@link #createKey(List)}. The result
+ * is cached after it has been converted, so no entity managed by the entity manager of a request is handed over to
+ * other requests.<p>
+ * Creating, changing or deleting an entity via the service removes all results depending on the type of the entity or
+ * on a type the change is cascaded to, see {@link #invalidate(Class)}. This is done after the change has been
+ * committed; within a change set or a transaction of the caller after its commit. A result that has been calculated
+ * while one of its dependencies got invalidated is not stored, see {@link #getGeneration()}.
+ * Changes done besides the service, e.g. by an action, are not recognized, so a request may get a result that does not
+ * reflect them within the time to live.<p>
+ * In case the cache is full, the least recently used result is removed. Hits and misses are counted and can be used to
+ * decide on the size of the cache and the time to live.
+ */
+public final class JPAFunctionResultCache {
+  public static final int DEFAULT_MAX_SIZE = 1000;
+
+  private final int maxSize;
+  private final Clock clock;
+  private final Map<String, ResultEntry> results;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final Map<Class<?>, Long> invalidations = new HashMap<>();
+  private long generation;
+
+  public JPAFunctionResultCache() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  public JPAFunctionResultCache(final int maxSize) {
+    this(maxSize, Clock.systemUTC());
+  }
+
+  JPAFunctionResultCache(final int maxSize, final Clock clock) {
+    super();
+    if (maxSize <= 0)
+      throw new IllegalArgumentException("Maximum size of a function result cache must be greater than 0");
+    this.maxSize = maxSize;
+    this.clock = clock;
+    this.results = new LinkedHashMap<String, ResultEntry>(16, 0.75F, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, ResultEntry> eldest) {
+        return size() > JPAFunctionResultCache.this.maxSize;
+      }
+    };
+  }
+
+  /**
+   * Creates the key of a function result from the resource path. The parameters of a function as well as the key
+   * predicates of an entity set, a navigation or a function are sorted by name, so their sequence within the URI does
+   * not matter.
+   * @param resourceParts
+   * @return Key of the result or null if the result can not be identified, e.g. because a parameter is given as alias
+   */
+  public static String createKey(final List<UriResource> resourceParts) {
+    final StringBuilder key = new StringBuilder();
+    for (final UriResource part : resourceParts) {
+      key.append('/');
+      if (part instanceof UriResourceFunction) {
+        final UriResourceFunction function = (UriResourceFunction) part;
+        key.append(function.getFunction().getNamespace());
+        key.append('.');
+        key.append(function.getFunction().getName());
+        if (!appendParameter(key, function.getParameters()) || !appendParameter(key, function.getKeyPredicates()))
+          return null;
+      } else if (part instanceof UriResourceEntitySet) {
+        key.append(part.getSegmentValue());
+        if (!appendParameter(key, ((UriResourceEntitySet) part).getKeyPredicates()))
+          return null;
+      } else if (part instanceof UriResourceNavigation) {
+        key.append(part.getSegmentValue());
+        if (!appendParameter(key, ((UriResourceNavigation) part).getKeyPredicates()))
+          return null;
+      } else
+        key.append(part.getSegmentValue());
+    }
+    return key.toString();
+  }
+
+  private static boolean appendParameter(final StringBuilder key, final List<UriParameter> parameters) {
+    if (parameters == null || parameters.isEmpty())
+      return true;
+    final List<String> values = new ArrayList<>(parameters.size());
+    for (final UriParameter parameter : parameters) {
+      if (parameter.getText() == null)
+        return false;
+      values.add(parameter.getName() + "=" + parameter.getText());
+    }
+    Collections.sort(values);
+    key.append('(');
+    key.append(String.join(",", values));
+    key.append(')');
+    return true;
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public synchronized int size() {
+    return results.size();
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  public synchronized void clear() {
+    results.clear();
+  }
+
+  /**
+   * @param key Identifies the result, see {@link #createKey(List)}
+   * @return The cached result or null if none was found or the cached one has expired
+   */
+  public synchronized Object get(final String key) {
+    final ResultEntry entry = results.get(key);
+    if (entry != null && entry.expiresAt - clock.millis() > 0) {
+      hits.incrementAndGet();
+      return entry.result;
+    }
+    if (entry != null)
+      results.remove(key);
+    misses.incrementAndGet();
+    return null;
+  }
+
+  /**
+   * The generation is increased with each invalidation. It has to be taken before the calculation of a result starts,
+   * see {@link #put(String, Object, long, Collection, long)}.
+   * @return The current generation
+   */
+  public synchronized long getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Stores the result of a function, that has been calculated with the current generation. Null results are not
+   * stored.
+   * @see #put(String, Object, long, Collection, long)
+   */
+  public synchronized void put(final String key, final Object result, final long timeToLive,
+      final Collection<Class<?>> dependencies) {
+    put(key, result, timeToLive, dependencies, generation);
+  }
+
+  /**
+   * Stores the result of a function. Null results are not stored. The result is also not stored if one of its
+   * dependencies got invalidated after the given generation, as it may have been calculated from the data before the
+   * change.
+   * @param key Identifies the result, see {@link #createKey(List)}
+   * @param result
+   * @param timeToLive Time in milliseconds the result is taken from the cache. A value less or equal 0 prevents caching
+   * @param dependencies Types of the entities the result depends on
+   * @param calculationGeneration Generation taken before the result was calculated, see {@link #getGeneration()}
+   */
+  public synchronized void put(final String key, final Object result, final long timeToLive,
+      final Collection<Class<?>> dependencies, final long calculationGeneration) {
+    if (result != null && timeToLive > 0 && !isInvalidatedSince(dependencies, calculationGeneration))
+      results.put(key, new ResultEntry(result, clock.millis() + timeToLive, new HashSet<Class<?>>(dependencies)));
+  }
+
+  /**
+   * Removes all results that depend on an entity type. Super and sub types of the entity type are taken into account
+   * as well, as a result depending on a super type contains also entities of the sub types.
+   * @param entityType Class of the entity that has been created, changed or deleted
+   */
+  public synchronized void invalidate(final Class<?> entityType) {
+    invalidations.put(entityType, ++generation);
+    final Iterator<ResultEntry> iterator = results.values().iterator();
+    while (iterator.hasNext()) {
+      for (final Class<?> dependency : iterator.next().dependencies) {
+        if (isRelated(dependency, entityType)) {
+          iterator.remove();
+          break;
+        }
+      }
+    }
+  }
+
+  private boolean isInvalidatedSince(final Collection<Class<?>> dependencies, final long calculationGeneration) {
+    for (final Map.Entry<Class<?>, Long> invalidation : invalidations.entrySet()) {
+      if (invalidation.getValue() > calculationGeneration) {
+        for (final Class<?> dependency : dependencies) {
+          if (isRelated(dependency, invalidation.getKey()))
+            return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean isRelated(final Class<?> dependency, final Class<?> entityType) {
+    return dependency.isAssignableFrom(entityType) || entityType.isAssignableFrom(dependency);
+  }
+
+  private static class ResultEntry {
+    private final Object result;
+    private final long expiresAt;
+    private final Set<Class<?>> dependencies;
+
+    private ResultEntry(final Object result, final long expiresAt, final Set<Class<?>> dependencies) {
+      this.result = result;
+      this.expiresAt = expiresAt;
+      this.dependencies = dependencies;
+    }
+  }
+}
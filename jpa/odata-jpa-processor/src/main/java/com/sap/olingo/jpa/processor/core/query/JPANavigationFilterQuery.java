@@ -48,7 +48,7 @@ public final class JPANavigationFilterQuery extends JPANavigationQuery {
 
     super(odata, sd, uriResourceItem, parent, em, association);
     this.filterComplier = new JPAFilterElementComplier(odata, sd, em, jpaEntity, new JPAOperationConverter(cb,
-        getContext().getOperationConverter()), null, this, expression);
+        getContext().getOperationConverter(), getParameters()), null, this, expression);
     createDescriptionJoin(filterComplier);
   }
 
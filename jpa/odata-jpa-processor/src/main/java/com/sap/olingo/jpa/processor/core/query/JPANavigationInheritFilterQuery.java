@@ -25,7 +25,7 @@ public final class JPANavigationInheritFilterQuery extends JPANavigationQuery {
     super(odata, sd, naviInfo.getUriResiource(), parent, em, naviInfo.getAssociationPath());
     this.item = naviInfo;
     this.filterComplier = new JPAFilterElementComplier(odata, sd, em, jpaEntity, new JPAOperationConverter(cb,
-        getContext().getOperationConverter()), null, this, naviInfo.getExpression());
+        getContext().getOperationConverter(), getParameters()), null, this, naviInfo.getExpression());
   }
 
   @Override
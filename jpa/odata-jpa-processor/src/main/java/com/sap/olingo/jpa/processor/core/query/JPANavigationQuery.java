@@ -55,6 +55,7 @@ public class JPANavigationQuery extends JPAAbstractQuery {
     this.keyPredicates = Util.determineKeyPredicates(uriResourceItem);
     this.association = association;
     this.parentQuery = parent;
+    this.parentQuery.valueInlined();
     this.subQuery = parent.getQuery().subquery(this.jpaEntity.getKeyType());
     this.queryRoot = subQuery.from(this.jpaEntity.getTypeClass());
     this.locale = parent.getLocale();
@@ -151,6 +152,20 @@ public class JPANavigationQuery extends JPAAbstractQuery {
     return parentQuery.getContext();
   }
 
+  /**
+   * EclipseLink does not take over the parameters of a sub-query into the query that executes it, so the values of
+   * a sub-query are put into the statement.
+   */
+  @Override
+  JPAQueryParameters getParameters() {
+    return null;
+  }
+
+  @Override
+  void valueInlined() {
+    parentQuery.valueInlined();
+  }
+
   Expression<Boolean> applyAdditionalFilter(JPAFilterElementComplier filterComplier,
       Expression<Boolean> whereCondition) throws ODataApplicationException, ODataJPAQueryException {
 
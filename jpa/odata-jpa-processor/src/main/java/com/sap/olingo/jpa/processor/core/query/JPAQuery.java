@@ -1,41 +1,65 @@
 package com.sap.olingo.jpa.processor.core.query;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 
 import javax.persistence.EntityManager;
 import javax.persistence.Tuple;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.From;
+import javax.persistence.criteria.Order;
 
 import org.apache.olingo.commons.api.edm.EdmEntitySet;
 import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
+import org.apache.olingo.commons.api.edm.provider.CsdlProperty;
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.uri.UriInfo;
 import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.api.uri.UriParameter;
 import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceEntitySet;
+import org.apache.olingo.server.api.uri.UriResourceKind;
 import org.apache.olingo.server.api.uri.UriResourceNavigation;
+import org.apache.olingo.server.api.uri.UriResourcePartTyped;
+import org.apache.olingo.server.api.uri.queryoption.AliasQueryOption;
+import org.apache.olingo.server.api.uri.queryoption.ExpandItem;
 import org.apache.olingo.server.api.uri.queryoption.OrderByItem;
 import org.apache.olingo.server.api.uri.queryoption.OrderByOption;
 import org.apache.olingo.server.api.uri.queryoption.SelectOption;
+import org.apache.olingo.server.api.uri.queryoption.SkipTokenOption;
+import org.apache.olingo.server.api.uri.queryoption.TopOption;
 import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
 import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
 import org.apache.olingo.server.api.uri.queryoption.expression.Member;
 
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAssociationAttribute;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAttribute;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAStructuredType;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import com.sap.olingo.jpa.processor.core.api.JPAODataSessionContextAccess;
+import com.sap.olingo.jpa.processor.core.converter.JPAJoinKey;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAQueryException;
 
 public class JPAQuery extends JPAExecutableQuery {
+  private final String entitySetName;
+  private JPASkipToken nextSkipToken;
+  // Restriction compiled by the last execute(), without the one of a keyset $skiptoken
+  private javax.persistence.criteria.Expression<Boolean> compiledWhere;
+  private boolean whereCompiled;
+  private boolean countApproximate;
+  private Map<JPAPath, Boolean> keysetOrderBy;
 
   public JPAQuery(final OData odata, final EdmEntitySet entitySet, final JPAODataSessionContextAccess context,
       final UriInfo uriInfo, final EntityManager em, final Map<String, List<String>> requestHeaders)
@@ -43,6 +67,7 @@ public class JPAQuery extends JPAExecutableQuery {
 
     super(odata, context, context.getEdmProvider().getServiceDocument().getEntity(entitySet.getName()), em,
         requestHeaders, uriInfo);
+    this.entitySetName = entitySet.getName();
   }
 
   /**
@@ -52,7 +77,12 @@ public class JPAQuery extends JPAExecutableQuery {
    * of results across all pages including only those results matching any specified $filter and $search.</i><p>
    * For details see: <a href=
    * "http://docs.oasis-open.org/odata/odata/v4.0/errata02/os/complete/part1-protocol/odata-v4.0-errata02-os-part1-protocol-complete.html#_Toc406398308"
-   * >OData Version 4.0 Part 1 - 11.2.5.5 System Query Option $count</a>
+   * >OData Version 4.0 Part 1 - 11.2.5.5 System Query Option $count</a><p>
+   * If the query has been executed before, the restriction compiled for it is re-used, so $filter, $search and the
+   * navigation sub-queries are not compiled a second time. The parameter values of the restriction are still known.<p>
+   * An unrestricted count of an entity set that has been switched to approximate counts is answered by the estimate of
+   * the database processor, see {@link #isCountApproximate()}. In case a count cache is registered, counts of entity
+   * sets with a time to live are taken from the cache.
    * 
    * @return Number of results
    * @throws ODataApplicationException
@@ -66,18 +96,120 @@ public class JPAQuery extends JPAExecutableQuery {
      * .../Organizations('3')/Roles/$count
      */
     final int handle = debugger.startRuntimeMeasurement(this, "countResults");
-    final HashMap<String, From<?, ?>> joinTables = new HashMap<>();
+    try {
+      countApproximate = false;
+      if (context.isApproximateCount(entitySetName) && isUnrestricted()) {
+        final Long estimate = context.getDatabaseProcessor().estimateCount(em, jpaEntity);
+        if (estimate != null) {
+          countApproximate = true;
+          return estimate;
+        }
+      }
+      final JPACountCache countCache = context.getCountCache();
+      if (countCache == null || !countCache.isCached(entitySetName))
+        return countExact();
 
-    final CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+      final String key = createCountKey();
+      Long count = countCache.get(key);
+      if (count == null) {
+        count = countExact();
+        countCache.put(entitySetName, key, count);
+      }
+      return count;
+    } finally {
+      debugger.stopRuntimeMeasurement(handle);
+    }
+  }
 
-    joinTables.put(jpaEntity.getTypeClass().getCanonicalName(), root);
+  /**
+   * @return true if the last {@link #countResults()} returned an estimate of the database instead of an exact count
+   */
+  public boolean isCountApproximate() {
+    return countApproximate;
+  }
 
-    final javax.persistence.criteria.Expression<Boolean> whereClause = createWhere(joinTables);
-    if (whereClause != null)
-      cq.where(whereClause);
+  private Long countExact() throws ODataApplicationException {
+    final CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+
+    if (!whereCompiled) {
+      final HashMap<String, From<?, ?>> joinTables = new HashMap<>();
+      joinTables.put(jpaEntity.getTypeClass().getCanonicalName(), root);
+      compiledWhere = createWhere(joinTables);
+      whereCompiled = true;
+    }
+    if (compiledWhere != null)
+      cq.where(compiledWhere);
     cq.select(cb.count(root));
-    debugger.stopRuntimeMeasurement(handle);
-    return em.createQuery(cq).getSingleResult();
+    final TypedQuery<Long> countQuery = em.createQuery(cq);
+    parameters.bind(countQuery);
+    return countQuery.getSingleResult();
+  }
+
+  /**
+   * An estimate can only be given for all entities of an entity set: .../Organizations/$count or
+   * .../Organizations?$count=true
+   */
+  private boolean isUnrestricted() {
+    final List<UriResource> resourceParts = uriResource.getUriResourceParts();
+    final int noParts = resourceParts.get(resourceParts.size() - 1).getKind() == UriResourceKind.count
+        ? resourceParts.size() - 1 : resourceParts.size();
+    return noParts == 1
+        && resourceParts.get(0) instanceof UriResourceEntitySet
+        && ((UriResourceEntitySet) resourceParts.get(0)).getKeyPredicates().isEmpty()
+        && uriResource.getFilterOption() == null
+        && uriResource.getSearchOption() == null;
+  }
+
+  /**
+   * Identifies a count by the resource path including the key predicates, the values of $filter and $search and the
+   * aliases used by them. Descriptions are joined with the language of the request, so it is part of the key as well.
+   */
+  private String createCountKey() throws ODataApplicationException {
+    final StringBuilder key = new StringBuilder();
+    for (final UriResource resourcePart : uriResource.getUriResourceParts()) {
+      // .../Organizations/$count and .../Organizations?$count=true share a count
+      if (resourcePart.getKind() == UriResourceKind.count)
+        continue;
+      key.append("/").append(resourcePart.getSegmentValue());
+      if ((resourcePart instanceof UriResourceEntitySet || resourcePart instanceof UriResourceNavigation)
+          && Util.determineKeyPredicates(resourcePart) != null)
+        for (final UriParameter keyPredicate : Util.determineKeyPredicates(resourcePart))
+          key.append("(").append(keyPredicate.getName()).append("=").append(keyPredicate.getText()).append(")");
+    }
+    if (uriResource.getFilterOption() != null)
+      key.append("?$filter=").append(normalize(uriResource.getFilterOption().getText()));
+    if (uriResource.getSearchOption() != null)
+      key.append("?$search=").append(normalize(uriResource.getSearchOption().getText()));
+    if (uriResource instanceof UriInfo)
+      for (final AliasQueryOption alias : ((UriInfo) uriResource).getAliases())
+        key.append("?").append(alias.getName()).append("=").append(alias.getText());
+    key.append("#").append(getLocale());
+    return key.toString();
+  }
+
+  /**
+   * Removes redundant white spaces outside of string literals, so e.g. <code>Name  eq 'A'</code> and
+   * <code>Name eq 'A'</code> share a count
+   */
+  private static String normalize(final String text) {
+    if (text == null)
+      return "";
+    final StringBuilder normalized = new StringBuilder(text.length());
+    boolean literal = false;
+    boolean space = false;
+    for (final char c : text.trim().toCharArray()) {
+      if (c == '\'')
+        literal = !literal;
+      if (!literal && Character.isWhitespace(c)) {
+        space = true;
+        continue;
+      }
+      if (space)
+        normalized.append(' ');
+      space = false;
+      normalized.append(c);
+    }
+    return normalized.toString();
   }
 
   public JPAExpandQueryResult execute() throws ODataApplicationException {
@@ -85,33 +217,120 @@ public class JPAQuery extends JPAExecutableQuery {
     // TODO check if Path is also required for OrderBy Attributes, as it is for descriptions
     final int handle = debugger.startRuntimeMeasurement(this, "execute");
 
-    final List<JPAAssociationAttribute> orderByNaviAttributes = extractOrderByNaviAttributes();
-    final List<JPAPath> selectionPath = buildSelectionPathList(this.uriResource);
-    final List<JPAPath> descriptionAttributes = extractDescriptionAttributes(selectionPath);
-    final Map<String, From<?, ?>> joinTables = createFromClause(orderByNaviAttributes, descriptionAttributes);
+    // Server-driven paging
+    final Integer pageSize = determinePageSize();
+    final JPASkipToken skipToken = determineSkipToken();
+    final TypedQuery<Tuple> tq = createQuery(pageSize != null || skipToken != null, skipToken);
+    final TopOption topOption = uriResource.getTopOption();
+    final boolean limitPage = pageSize != null && (topOption == null || topOption.getValue() > pageSize);
+    if (limitPage)
+      // Read one more entity to find out if a next page exists
+      tq.setMaxResults(pageSize + 1);
 
-    cq.multiselect(createSelectClause(joinTables, selectionPath));
+    final HashMap<JPAJoinKey, List<Tuple>> result = new HashMap<>(1);
+    final int resultHandle = debugger.startRuntimeMeasurement(tq, "getResultList");
+    List<Tuple> intermediateResult = tq.getResultList();
+    debugger.stopRuntimeMeasurement(resultHandle);
+    if (limitPage && intermediateResult.size() > pageSize) {
+      intermediateResult = new ArrayList<>(intermediateResult.subList(0, pageSize));
+      nextSkipToken = createNextSkipToken(intermediateResult.get(pageSize - 1), keysetOrderBy, tq.getFirstResult()
+          + pageSize);
+    }
+    result.put(JPAJoinKey.ROOT, intermediateResult);
 
-    final javax.persistence.criteria.Expression<Boolean> whereClause = createWhere(joinTables);
-    if (whereClause != null)
-      cq.where(whereClause);
+    debugger.stopRuntimeMeasurement(handle);
+    return new JPAExpandQueryResult(result, null, jpaEntity);
+  }
 
-    cq.orderBy(createOrderByList(joinTables, uriResource.getOrderByOption()));
+  /**
+   * Reads the result via a forward-only cursor, see {@link JPAQueryCursor}. The rows are fetched from the database
+   * while the chunks are requested, and the rows of a chunk are given free before the next chunk is read. So only one
+   * chunk of at most <code>chunkSize</code> entities needs to be kept in memory. In case server-driven paging applies,
+   * the page is read at once, as it is limited anyhow.<p>
+   * The entity manager has to stay open until the last chunk has been read.
+   * @param chunkSize
+   * @return Results of the chunks. An empty result is returned as one empty chunk.
+   * @throws ODataApplicationException
+   */
+  public Iterator<JPAExpandQueryResult> executeStreamed(final int chunkSize) throws ODataApplicationException {
+    if (chunkSize < 1)
+      throw new IllegalArgumentException("Chunk size must be at least 1");
+    if (determinePageSize() != null || determineSkipToken() != null)
+      return Collections.singletonList(execute()).iterator();
+    final TypedQuery<Tuple> tq = createQuery(false, null);
+    final int resultHandle = debugger.startRuntimeMeasurement(tq, "getResultStream");
+    final JPAQueryCursor cursor = new JPAQueryCursor(tq, chunkSize);
+    debugger.stopRuntimeMeasurement(resultHandle);
+    return new ChunkIterator(cursor, chunkSize);
+  }
 
-    if (!orderByNaviAttributes.isEmpty())
-      cq.groupBy(createGroupBy(joinTables, selectionPath));
+  /**
+   * Creates the typed query of the request, with all parameters bound and $top and $skip set. In case the plan of the
+   * request shape provides a named query, the query is created from it. Then only the restriction is built, as it
+   * provides the values of the parameters, but neither the joins, nor the selection or the ordering.
+   * @param ordered True if the result has to have a stable order, as it is read in pages
+   */
+  private TypedQuery<Tuple> createQuery(final boolean ordered, final JPASkipToken skipToken)
+      throws ODataApplicationException {
 
-    final TypedQuery<Tuple> tq = em.createQuery(cq);
-    addTopSkip(tq);
+    parameters.clear();
+    final JPAQueryPlanCache planCache = context.getQueryPlanCache();
+    final String shape = planCache != null ? createQueryShape(ordered, skipToken) : null;
+    final JPAQueryPlan plan = shape != null ? planCache.get(shape) : null;
+    JPAQueryPlan newPlan = null;
 
-    final HashMap<String, List<Tuple>> result = new HashMap<>(1);
-    final int resultHandle = debugger.startRuntimeMeasurement(tq, "getResultList");
-    final List<Tuple> intermediateResult = tq.getResultList();
-    debugger.stopRuntimeMeasurement(resultHandle);
-    result.put("root", intermediateResult);
+    final List<JPAPath> additionalKeyOrder;
+    final List<JPAAssociationAttribute> orderByNaviAttributes;
+    final List<JPAPath> selectionPath;
+    if (plan != null) {
+      additionalKeyOrder = plan.getAdditionalKeyOrder();
+      keysetOrderBy = plan.getKeysetOrderBy();
+      orderByNaviAttributes = plan.getOrderByNaviAttributes();
+      selectionPath = plan.getSelectionPath();
+    } else {
+      additionalKeyOrder = ordered ? determineAdditionalKeyOrder() : null;
+      keysetOrderBy = ordered ? determineKeysetOrderBy(additionalKeyOrder) : null;
+      orderByNaviAttributes = extractOrderByNaviAttributes();
+      selectionPath = buildSelectionPathList(this.uriResource);
+      if (shape != null)
+        newPlan = new JPAQueryPlan(selectionPath, orderByNaviAttributes, additionalKeyOrder, keysetOrderBy);
+    }
+    if (keysetOrderBy != null)
+      addKeysetSelection(selectionPath, keysetOrderBy);
 
-    debugger.stopRuntimeMeasurement(handle);
-    return new JPAExpandQueryResult(result, null, jpaEntity);
+    TypedQuery<Tuple> tq = null;
+    if (plan != null && plan.getQueryName() != null) {
+      // The restriction does not depend on the joins, as the keyset attributes are plain attributes
+      final Map<String, From<?, ?>> rootTable = new HashMap<>();
+      rootTable.put(jpaEntity.getTypeClass().getCanonicalName(), root);
+      createRestriction(rootTable, keysetOrderBy, skipToken);
+      if (!parameters.isValueInlined())
+        tq = planCache.createNamedQuery(em, shape, plan);
+      if (tq == null)
+        // The values of the parameters are collected again with the complete query
+        parameters.clear();
+    }
+    if (tq == null) {
+      final List<JPAPath> descriptionAttributes = extractDescriptionAttributes(selectionPath);
+      final Map<String, From<?, ?>> joinTables = createFromClause(orderByNaviAttributes, descriptionAttributes);
+      final javax.persistence.criteria.Expression<Boolean> whereClause = createRestriction(joinTables, keysetOrderBy,
+          skipToken);
+      tq = createTupleQuery(joinTables, whereClause, orderByNaviAttributes, selectionPath, additionalKeyOrder);
+      if (newPlan != null)
+        planCache.putIfAbsent(shape, newPlan, em.getEntityManagerFactory(), parameters.isValueInlined() ? null : tq);
+    }
+    parameters.bind(tq);
+    addTopSkip(tq);
+    if (skipToken != null && !skipToken.isKeyset())
+      tq.setFirstResult(tq.getFirstResult() + (int) skipToken.getOffset());
+    return tq;
+  }
+
+  /**
+   * @return $skiptoken of the next page or null in case the result of the last {@link #execute()} is the last page
+   */
+  public JPASkipToken getNextSkipToken() {
+    return nextSkipToken;
   }
 
   public JPAStructuredType getEntityType() {
@@ -122,6 +341,91 @@ public class JPAQuery extends JPAExecutableQuery {
     return uriResource.getSelectOption();
   }
 
+  private TypedQuery<Tuple> createTupleQuery(final Map<String, From<?, ?>> joinTables,
+      final javax.persistence.criteria.Expression<Boolean> whereClause,
+      final List<JPAAssociationAttribute> orderByNaviAttributes, final List<JPAPath> selectionPath,
+      final List<JPAPath> additionalKeyOrder) throws ODataApplicationException {
+
+    cq.multiselect(createSelectClause(joinTables, selectionPath));
+    if (whereClause != null)
+      cq.where(whereClause);
+
+    final List<Order> orderBy = createOrderByList(joinTables, uriResource.getOrderByOption());
+    if (additionalKeyOrder != null)
+      // Paging requires a stable order
+      for (final JPAPath keyPath : additionalKeyOrder)
+        orderBy.add(cb.asc(ExpressionUtil.convertToCriteriaPath(joinTables, root, keyPath.getPath())));
+    cq.orderBy(orderBy);
+
+    if (!orderByNaviAttributes.isEmpty())
+      cq.groupBy(createGroupBy(joinTables, selectionPath));
+
+    return em.createQuery(cq);
+  }
+
+  private javax.persistence.criteria.Expression<Boolean> createRestriction(final Map<String, From<?, ?>> joinTables,
+      final Map<JPAPath, Boolean> keysetOrderBy, final JPASkipToken skipToken) throws ODataApplicationException {
+
+    compiledWhere = createWhere(joinTables);
+    whereCompiled = true;
+    if (skipToken != null && skipToken.isKeyset()) {
+      final javax.persistence.criteria.Expression<Boolean> keysetRestriction = createKeysetWhere(joinTables,
+          keysetOrderBy, skipToken);
+      return compiledWhere == null ? keysetRestriction : cb.and(compiledWhere, keysetRestriction);
+    }
+    return compiledWhere;
+  }
+
+  /**
+   * Creates a key that is the same for all requests, which differ only in values e.g. of $filter, $top or $skip.
+   */
+  private String createQueryShape(final boolean paged, final JPASkipToken skipToken)
+      throws ODataApplicationException {
+
+    final JPAFilterShapeVisitor visitor = new JPAFilterShapeVisitor();
+    final StringBuilder shape = new StringBuilder(entitySetName);
+    try {
+      for (final UriResource resourcePart : uriResource.getUriResourceParts()) {
+        shape.append("/").append(resourcePart.getSegmentValue());
+        if ((resourcePart instanceof UriResourceEntitySet || resourcePart instanceof UriResourceNavigation)
+            && Util.determineKeyPredicates(resourcePart) != null)
+          for (final UriParameter keyPredicate : Util.determineKeyPredicates(resourcePart))
+            shape.append("(").append(keyPredicate.getName()).append(")");
+      }
+      if (uriResource.getSelectOption() != null)
+        shape.append("?$select=").append(uriResource.getSelectOption().getText());
+      if (uriResource.getExpandOption() != null) {
+        shape.append("?$expand=");
+        for (final ExpandItem item : uriResource.getExpandOption().getExpandItems()) {
+          if (item.isStar())
+            shape.append(SELECT_ALL);
+          else if (item.getResourcePath() != null)
+            for (final UriResource resourcePart : item.getResourcePath().getUriResourceParts())
+              shape.append(resourcePart.getSegmentValue()).append("/");
+          shape.append(SELECT_ITEM_SEPERATOR);
+        }
+      }
+      if (uriResource.getOrderByOption() != null) {
+        shape.append("?$orderby=");
+        for (final OrderByItem orderByItem : uriResource.getOrderByOption().getOrders())
+          shape.append(orderByItem.getExpression().accept(visitor)).append(orderByItem.isDescending() ? " desc" : "")
+              .append(SELECT_ITEM_SEPERATOR);
+      }
+      if (uriResource.getFilterOption() != null && uriResource.getFilterOption().getExpression() != null)
+        shape.append("?$filter=").append(uriResource.getFilterOption().getExpression().accept(visitor));
+    } catch (ExpressionVisitException e) {
+      throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_FILTER_ERROR,
+          HttpStatusCode.BAD_REQUEST, e);
+    }
+    if (uriResource.getSearchOption() != null)
+      shape.append("?$search");
+    if (paged)
+      shape.append("?$skiptoken=").append(skipToken == null ? "" : skipToken.isKeyset() ? "k" : "o");
+    // Descriptions are joined with the language of the request
+    shape.append("#").append(getLocale());
+    return shape.toString();
+  }
+
   private List<javax.persistence.criteria.Expression<?>> createGroupBy(final Map<String, From<?, ?>> joinTables,
       final List<JPAPath> selectionPathList) {
     final int handle = debugger.startRuntimeMeasurement(this, "createGroupBy");
@@ -137,6 +441,161 @@ public class JPAQuery extends JPAExecutableQuery {
     return groupBy;
   }
 
+  private void addKeysetSelection(final List<JPAPath> selectionPath, final Map<JPAPath, Boolean> keysetOrderBy) {
+    // The values of the last entity of a page are needed to create the $skiptoken
+    for (final JPAPath orderByPath : keysetOrderBy.keySet()) {
+      if (!selectionPath.contains(orderByPath))
+        selectionPath.add(orderByPath);
+    }
+  }
+
+  /**
+   * Restricts the result to the entities behind the entity the $skiptoken was created for. Row value comparisons like
+   * (a, b) > (x, y) can not be expressed with JPA and do not allow mixed sort directions, so the condition is created
+   * as: (a > x) OR (a = x AND b > y)
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private javax.persistence.criteria.Expression<Boolean> createKeysetWhere(final Map<String, From<?, ?>> joinTables,
+      final Map<JPAPath, Boolean> keysetOrderBy, final JPASkipToken skipToken) throws ODataApplicationException {
+
+    if (keysetOrderBy == null || keysetOrderBy.size() != skipToken.getValues().size())
+      // Token does not fit to the requested order
+      throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_INVALID_VALUE,
+          HttpStatusCode.BAD_REQUEST, skipToken.toString(), "$skiptoken");
+
+    javax.persistence.criteria.Expression<Boolean> keysetCondition = null;
+    javax.persistence.criteria.Expression<Boolean> equalCondition = null;
+    int i = 0;
+    for (final Entry<JPAPath, Boolean> orderByItem : keysetOrderBy.entrySet()) {
+      final javax.persistence.criteria.Expression path = ExpressionUtil.convertToCriteriaPath(joinTables, root,
+          orderByItem.getKey().getPath());
+      final Comparable value = (Comparable) ExpressionUtil.convertValueOnAttribute(odata, orderByItem.getKey()
+          .getLeaf(), skipToken.getValues().get(i++), false);
+      javax.persistence.criteria.Expression<Boolean> behind = orderByItem.getValue().booleanValue() ? cb.lessThan(path,
+          parameters.add(value)) : cb.greaterThan(path, parameters.add(value));
+      if (equalCondition != null)
+        behind = cb.and(equalCondition, behind);
+      keysetCondition = keysetCondition == null ? behind : cb.or(keysetCondition, behind);
+      final javax.persistence.criteria.Expression<Boolean> equal = cb.equal(path, parameters.add(value));
+      equalCondition = equalCondition == null ? equal : cb.and(equalCondition, equal);
+    }
+    return keysetCondition;
+  }
+
+  private JPASkipToken createNextSkipToken(final Tuple lastRow, final Map<JPAPath, Boolean> keysetOrderBy,
+      final long offset) throws ODataApplicationException {
+
+    if (keysetOrderBy == null)
+      return JPASkipToken.ofOffset(offset);
+    final List<String> values = new ArrayList<>(keysetOrderBy.size());
+    for (final JPAPath orderByPath : keysetOrderBy.keySet())
+      values.add(ExpressionUtil.convertValueToString(odata, orderByPath.getLeaf(), lastRow.get(orderByPath
+          .getAlias())));
+    return JPASkipToken.ofValues(values);
+  }
+
+  /**
+   * Key attributes, which are not part of $orderby. They are added to the ordering to get a stable order.
+   */
+  private List<JPAPath> determineAdditionalKeyOrder() throws ODataApplicationException {
+    try {
+      final List<JPAPath> keyPath = new ArrayList<>(jpaEntity.getKeyPath());
+      if (uriResource.getOrderByOption() != null) {
+        for (final OrderByItem orderByItem : uriResource.getOrderByOption().getOrders())
+          keyPath.remove(determineOrderByPath(orderByItem));
+      }
+      return keyPath;
+    } catch (ODataJPAModelException e) {
+      throw new ODataJPAQueryException(e, HttpStatusCode.BAD_REQUEST);
+    }
+  }
+
+  /**
+   * A page can only be selected by comparing with the values of the last entity of the previous page, if the
+   * ordering is based on not nullable properties. Otherwise null is returned and the position of the next page is
+   * used.
+   * @return Properties to order by and if they are sorted descending
+   */
+  private Map<JPAPath, Boolean> determineKeysetOrderBy(final List<JPAPath> additionalKeyOrder)
+      throws ODataApplicationException {
+
+    try {
+      final Map<JPAPath, Boolean> orderBy = new LinkedHashMap<>();
+      if (uriResource.getOrderByOption() != null) {
+        for (final OrderByItem orderByItem : uriResource.getOrderByOption().getOrders()) {
+          final JPAPath orderByPath = determineOrderByPath(orderByItem);
+          if (orderByPath == null || isNullable(orderByPath.getLeaf()))
+            return null;
+          orderBy.put(orderByPath, orderByItem.isDescending());
+        }
+      }
+      for (final JPAPath keyPath : additionalKeyOrder)
+        orderBy.put(keyPath, Boolean.FALSE);
+      if (!isPlainPath(new ArrayList<>(orderBy.keySet())))
+        return null;
+      return orderBy;
+    } catch (ODataJPAModelException e) {
+      throw new ODataJPAQueryException(e, HttpStatusCode.BAD_REQUEST);
+    }
+  }
+
+  /**
+   * Server-driven paging is applied only on requests that return a collection of entities
+   * @return Maximum number of entities to be returned or null if no paging shall be applied
+   */
+  private Integer determinePageSize() {
+    final List<UriResource> resourceParts = uriResource.getUriResourceParts();
+    final UriResource lastItem = resourceParts.get(resourceParts.size() - 1);
+    if ((lastItem instanceof UriResourceEntitySet || lastItem instanceof UriResourceNavigation)
+        && ((UriResourcePartTyped) lastItem).isCollection()) {
+      final Integer pageSize = context.getMaxPageSize(entitySetName);
+      if (pageSize != null && pageSize.intValue() > 0)
+        return pageSize;
+    }
+    return null;
+  }
+
+  private JPASkipToken determineSkipToken() throws ODataJPAQueryException {
+    final SkipTokenOption skipTokenOption = uriResource.getSkipTokenOption();
+    if (skipTokenOption != null && skipTokenOption.getValue() != null)
+      return JPASkipToken.parse(skipTokenOption.getValue());
+    return null;
+  }
+
+  private boolean isNullable(final JPAAttribute attribute) throws ODataJPAModelException {
+    return !attribute.isKey() && ((CsdlProperty) attribute.getProperty()).isNullable();
+  }
+
+  private class ChunkIterator implements Iterator<JPAExpandQueryResult> {
+    private final JPAQueryCursor cursor;
+    private final int chunkSize;
+    private boolean empty = true;
+
+    private ChunkIterator(final JPAQueryCursor cursor, final int chunkSize) {
+      this.cursor = cursor;
+      this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return empty || cursor.hasNext();
+    }
+
+    @Override
+    public JPAExpandQueryResult next() {
+      if (!hasNext())
+        throw new NoSuchElementException();
+      empty = false;
+      cursor.release();
+      final List<Tuple> chunk = new ArrayList<>(chunkSize);
+      while (chunk.size() < chunkSize && cursor.hasNext())
+        chunk.add(cursor.next());
+      final HashMap<JPAJoinKey, List<Tuple>> result = new HashMap<>(1);
+      result.put(JPAJoinKey.ROOT, chunk);
+      return new JPAExpandQueryResult(result, null, jpaEntity);
+    }
+  }
+
   private List<JPAAssociationAttribute> extractOrderByNaviAttributes() throws ODataApplicationException {
     final List<JPAAssociationAttribute> naviAttributes = new ArrayList<>();
 
@@ -0,0 +1,118 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+import javax.persistence.PersistenceException;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+
+/**
+ * Forward-only cursor on the result of a query. The rows are fetched from the database while they are read, so only
+ * the rows not yet released have to be kept in memory. The cursor is created in the following sequence:
+ * <ol>
+ * <li>EclipseLink: cursored stream, see hint <code>eclipselink.cursor</code>. The rows read are given free via
+ * {@link #release()}</li>
+ * <li>JPA 2.2: <code>getResultStream()</code></li>
+ * <li>Otherwise the result list is read at once</li>
+ * </ol>
+ * In addition the JDBC fetch size is set, so the JDBC driver does not read the complete result set either. The
+ * cursor is closed as soon as the last row has been read or by {@link #close()}.
+ */
+final class JPAQueryCursor implements Iterator<Tuple> {
+  static final String ECLIPSELINK_CURSOR = "eclipselink.cursor";
+  static final String ECLIPSELINK_PAGE_SIZE = "eclipselink.cursor.page-size";
+  static final String ECLIPSELINK_FETCH_SIZE = "eclipselink.jdbc.fetch-size";
+  static final String HIBERNATE_FETCH_SIZE = "org.hibernate.fetchSize";
+  private static final String ECLIPSELINK_PACKAGE = "org.eclipse.persistence";
+
+  private final Iterator<?> rows;
+  private final Object cursor;
+  private final Stream<?> stream;
+  private boolean closed;
+
+  /**
+   * @param tq Query with all parameters bound
+   * @param fetchSize Number of rows fetched from the database at once
+   */
+  JPAQueryCursor(final TypedQuery<Tuple> tq, final int fetchSize) {
+    tq.setHint(ECLIPSELINK_FETCH_SIZE, fetchSize);
+    tq.setHint(HIBERNATE_FETCH_SIZE, fetchSize);
+    if (tq.getClass().getName().startsWith(ECLIPSELINK_PACKAGE)) {
+      tq.setHint(ECLIPSELINK_CURSOR, Boolean.TRUE);
+      tq.setHint(ECLIPSELINK_PAGE_SIZE, fetchSize);
+      cursor = tq.getSingleResult();
+      stream = null;
+      rows = (Iterator<?>) cursor;
+    } else {
+      cursor = null;
+      stream = getResultStream(tq);
+      rows = stream != null ? stream.iterator() : tq.getResultList().iterator();
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (closed)
+      return false;
+    if (rows.hasNext())
+      return true;
+    close();
+    return false;
+  }
+
+  @Override
+  public Tuple next() {
+    if (!hasNext())
+      throw new NoSuchElementException();
+    return (Tuple) rows.next();
+  }
+
+  /**
+   * Gives the rows read so far free, so they can be garbage collected.
+   */
+  void release() {
+    if (!closed)
+      invoke("releasePrevious");
+  }
+
+  void close() {
+    if (!closed) {
+      closed = true;
+      if (stream != null)
+        stream.close();
+      invoke("close");
+    }
+  }
+
+  private void invoke(final String methodName) {
+    if (cursor != null) {
+      try {
+        final Method method = cursor.getClass().getMethod(methodName);
+        method.invoke(cursor);
+      } catch (NoSuchMethodException e) {
+        // Nothing to release
+      } catch (IllegalAccessException e) {
+        throw new PersistenceException(e);
+      } catch (InvocationTargetException e) {
+        throw new PersistenceException(e.getCause());
+      }
+    }
+  }
+
+  private static Stream<?> getResultStream(final TypedQuery<Tuple> tq) {
+    try {
+      return (Stream<?>) TypedQuery.class.getMethod("getResultStream").invoke(tq);
+    } catch (NoSuchMethodException e) {
+      return null;
+    } catch (IllegalAccessException e) {
+      throw new PersistenceException(e);
+    } catch (InvocationTargetException e) {
+      throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new PersistenceException(e
+          .getCause());
+    }
+  }
+}
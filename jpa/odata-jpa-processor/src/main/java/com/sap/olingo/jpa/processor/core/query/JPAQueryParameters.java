@@ -0,0 +1,90 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.persistence.Parameter;
+import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.ParameterExpression;
+
+/**
+ * Collects the values of literals and key predicates of a query. The values are not put into the statement, but
+ * passed as parameter. This way requests that differ only in their values lead to the same statement, so the JPA
+ * provider and the database can re-use a prepared statement and its execution plan.<p>
+ * The parameter are named in the sequence of their creation. As the criteria tree of a request shape is always
+ * created in the same sequence, the names are stable for one shape.
+ */
+public final class JPAQueryParameters {
+  private static final String PARAMETER_PREFIX = "p";
+  private final CriteriaBuilder cb;
+  private final Map<String, Object> values = new HashMap<>();
+  private int count;
+  private boolean valueInlined;
+
+  public JPAQueryParameters(final CriteriaBuilder cb) {
+    super();
+    this.cb = cb;
+  }
+
+  /**
+   * Creates a new parameter for the given value
+   * @param value
+   * @return
+   */
+  @SuppressWarnings("unchecked")
+  public <T> ParameterExpression<T> add(final T value) {
+    final String name = PARAMETER_PREFIX + (++count);
+    values.put(name, value);
+    return cb.parameter((Class<T>) value.getClass(), name);
+  }
+
+  /**
+   * Records that a value became part of the statement, so the statement can not be shared with requests that have
+   * the same shape, see {@link JPAQueryPlanCache}.
+   */
+  public void valueInlined() {
+    valueInlined = true;
+  }
+
+  /**
+   * @return True if at least one value is part of the statement
+   */
+  public boolean isValueInlined() {
+    return valueInlined;
+  }
+
+  /**
+   * Sets the values of all parameters used by the query
+   * @param query
+   */
+  public void bind(final Query query) {
+    for (final Parameter<?> parameter : query.getParameters()) {
+      if (parameter.getName() != null && values.containsKey(parameter.getName()))
+        query.setParameter(parameter.getName(), values.get(parameter.getName()));
+    }
+  }
+
+  public int size() {
+    return count;
+  }
+
+  /**
+   * Continues naming after the first <code>size</code> parameters, so the names of the following parameters get
+   * re-used, e.g. by the next chunk of a key list. The values of the parameters after <code>size</code> are kept until
+   * they get replaced, as a criteria query that is re-used keeps all parameters ever used by it.
+   * @param size Number of parameters to keep
+   */
+  public void reset(final int size) {
+    count = size;
+  }
+
+  /**
+   * Removes all values, so parameter names start from the beginning again
+   */
+  public void clear() {
+    values.clear();
+    count = 0;
+    valueInlined = false;
+  }
+}
@@ -0,0 +1,72 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAssociationAttribute;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
+
+/**
+ * Request independent information of a query, see {@link JPAQueryPlanCache}. A plan contains the resolved
+ * attributes, which do not change after creation, and the name of the named query of the shape, if any. The criteria
+ * query itself is bound to the entity manager of the request and can not be used by several requests at once.
+ */
+final class JPAQueryPlan {
+  private final List<JPAPath> selectionPath;
+  private final List<JPAAssociationAttribute> orderByNaviAttributes;
+  private final List<JPAPath> additionalKeyOrder;
+  private final Map<JPAPath, Boolean> keysetOrderBy;
+  private String queryName;
+
+  JPAQueryPlan(final List<JPAPath> selectionPath, final List<JPAAssociationAttribute> orderByNaviAttributes) {
+    this(selectionPath, orderByNaviAttributes, null, null);
+  }
+
+  /**
+   * @param additionalKeyOrder Key attributes added to the ordering of a paged result or null
+   * @param keysetOrderBy Ordering used to select the next page or null
+   */
+  JPAQueryPlan(final List<JPAPath> selectionPath, final List<JPAAssociationAttribute> orderByNaviAttributes,
+      final List<JPAPath> additionalKeyOrder, final Map<JPAPath, Boolean> keysetOrderBy) {
+    super();
+    this.selectionPath = Collections.unmodifiableList(new ArrayList<>(selectionPath));
+    this.orderByNaviAttributes = Collections.unmodifiableList(new ArrayList<>(orderByNaviAttributes));
+    this.additionalKeyOrder = additionalKeyOrder == null ? null : Collections.unmodifiableList(new ArrayList<>(
+        additionalKeyOrder));
+    this.keysetOrderBy = keysetOrderBy == null ? null : Collections.unmodifiableMap(new LinkedHashMap<>(
+        keysetOrderBy));
+  }
+
+  /**
+   * @return A modifiable copy of the selected attributes
+   */
+  List<JPAPath> getSelectionPath() {
+    return new ArrayList<>(selectionPath);
+  }
+
+  List<JPAAssociationAttribute> getOrderByNaviAttributes() {
+    return orderByNaviAttributes;
+  }
+
+  List<JPAPath> getAdditionalKeyOrder() {
+    return additionalKeyOrder;
+  }
+
+  Map<JPAPath, Boolean> getKeysetOrderBy() {
+    return keysetOrderBy;
+  }
+
+  /**
+   * @return Name of the named query of the shape or null if the query can not be shared
+   */
+  String getQueryName() {
+    return queryName;
+  }
+
+  void setQueryName(final String queryName) {
+    this.queryName = queryName;
+  }
+}
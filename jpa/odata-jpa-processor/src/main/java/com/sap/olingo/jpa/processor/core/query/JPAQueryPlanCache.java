@@ -0,0 +1,175 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Query;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+
+/**
+ * Bounded cache of query plans, which are shared by all requests of a service. A plan is identified by the shape of a
+ * request: the entity set, the resource path, $select, $expand, $orderby and $filter without the literal values. It
+ * contains the resolved attribute paths of the selection and the ordering, so later requests of the shape do not need
+ * to resolve them again.<p>
+ * In addition the parameterized query of a shape is registered as named query at the entity manager factory, see
+ * {@link EntityManagerFactory#addNamedQuery(String, Query)}. Later requests of the shape create their query from it,
+ * so the JPA provider does not need to translate the criteria query again. The values of the request are bound as
+ * parameter. A query is not registered in case values are part of the statement, see
+ * {@link JPAQueryParameters#isValueInlined()}.<p>
+ * In case the cache is full, the least recently used plan is removed. A named query can not be removed from the
+ * entity manager factory, so its name is given to the next plan, which replaces the query. This way at most
+ * <code>maxSize</code> queries are registered. Registering a query and creating a query from a named query are
+ * synchronized with each other, so a query is never created from a name that has just been given to another plan. In
+ * case several requests of a new shape miss the cache at the same time, only the plan of the first one is kept.<p>
+ * Hits, misses and evictions are counted and can be used to decide on the size of the cache.
+ */
+public final class JPAQueryPlanCache {
+  public static final int DEFAULT_MAX_SIZE = 500;
+
+  private final int maxSize;
+  private final String namePrefix;
+  private final Map<String, JPAQueryPlan> plans;
+  private final Deque<String> freeNames = new ArrayDeque<>();
+  private int noNames;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  public JPAQueryPlanCache() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  public JPAQueryPlanCache(final int maxSize) {
+    super();
+    if (maxSize <= 0)
+      throw new IllegalArgumentException("Maximum size of a query plan cache must be greater than 0");
+    this.maxSize = maxSize;
+    this.namePrefix = JPAQueryPlanCache.class.getName() + "@" + Integer.toHexString(System.identityHashCode(this))
+        + ".";
+    this.plans = new LinkedHashMap<>(16, 0.75F, true);
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public synchronized int size() {
+    return plans.size();
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  public long getEvictionCount() {
+    return evictions.get();
+  }
+
+  /**
+   * @return Share of requests that have found a plan. 0 if the cache has not been used yet.
+   */
+  public double getHitRatio() {
+    final long noHits = hits.get();
+    final long noRequests = noHits + misses.get();
+    return noRequests == 0 ? 0.0 : (double) noHits / noRequests;
+  }
+
+  public synchronized void clear() {
+    for (final JPAQueryPlan plan : plans.values())
+      release(plan);
+    plans.clear();
+  }
+
+  synchronized JPAQueryPlan get(final String shape) {
+    final JPAQueryPlan plan = plans.get(shape);
+    if (plan == null)
+      misses.incrementAndGet();
+    else
+      hits.incrementAndGet();
+    return plan;
+  }
+
+  synchronized void put(final String shape, final JPAQueryPlan plan) {
+    put(shape, plan, null, null);
+  }
+
+  /**
+   * Adds a plan and registers its query as named query.
+   * @param shape
+   * @param plan
+   * @param emf Entity manager factory the query is registered at
+   * @param query Query of the plan without values, $top and $skip. Null in case the query shall not be shared.
+   */
+  synchronized void put(final String shape, final JPAQueryPlan plan, final EntityManagerFactory emf,
+      final Query query) {
+    release(plans.remove(shape));
+    while (plans.size() >= maxSize) {
+      final Iterator<JPAQueryPlan> eldest = plans.values().iterator();
+      release(eldest.next());
+      eldest.remove();
+      evictions.incrementAndGet();
+    }
+    if (query != null) {
+      final String name = freeNames.isEmpty() ? namePrefix + noNames++ : freeNames.pop();
+      emf.addNamedQuery(name, query);
+      plan.setQueryName(name);
+    }
+    plans.put(shape, plan);
+  }
+
+  /**
+   * Adds a plan and registers its query as named query, unless another plan of the shape has been added in the
+   * meantime.
+   * @param shape
+   * @param plan
+   * @param emf Entity manager factory the query is registered at
+   * @param query Query of the plan without values, $top and $skip. Null in case the query shall not be shared.
+   * @return The plan of the shape within the cache
+   */
+  synchronized JPAQueryPlan putIfAbsent(final String shape, final JPAQueryPlan plan, final EntityManagerFactory emf,
+      final Query query) {
+    final JPAQueryPlan existingPlan = plans.get(shape);
+    if (existingPlan != null)
+      return existingPlan;
+    put(shape, plan, emf, query);
+    return plan;
+  }
+
+  /**
+   * Creates a query from the named query of the plan.
+   * @param em
+   * @param shape
+   * @param plan
+   * @return Null in case the plan has no named query or has been removed from the cache in the meantime, so the name
+   * may belong to another shape
+   */
+  synchronized TypedQuery<Tuple> createNamedQuery(final EntityManager em, final String shape,
+      final JPAQueryPlan plan) {
+    if (plan.getQueryName() == null || plans.get(shape) != plan)
+      return null;
+    return em.createNamedQuery(plan.getQueryName(), Tuple.class);
+  }
+
+  /**
+   * @return True if the plan is still part of the cache, so its named query has not been replaced
+   */
+  synchronized boolean contains(final String shape, final JPAQueryPlan plan) {
+    return plans.get(shape) == plan;
+  }
+
+  private void release(final JPAQueryPlan plan) {
+    if (plan != null && plan.getQueryName() != null)
+      freeNames.push(plan.getQueryName());
+  }
+}
@@ -0,0 +1,92 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+
+import com.sap.olingo.jpa.processor.core.exception.ODataJPAQueryException;
+
+/**
+ * Continuation information of server-driven paging, which is handed over to the client as $skiptoken. A token either
+ * contains the values of the ordering attributes of the last entity of a page, so the next page can be selected by a
+ * comparison with these values, or the position of the first entity of the next page. The later is only used if the
+ * ordering does not allow such a comparison, e.g. in case of an ordering by the number of related entities.
+ */
+public final class JPASkipToken {
+  private static final String KEYSET = "k";
+  private static final String OFFSET = "o";
+  private static final String SEPARATOR = ".";
+
+  private final List<String> values;
+  private final long offset;
+
+  private JPASkipToken(final List<String> values, final long offset) {
+    super();
+    this.values = values;
+    this.offset = offset;
+  }
+
+  public static JPASkipToken ofValues(final List<String> values) {
+    return new JPASkipToken(Collections.unmodifiableList(values), 0);
+  }
+
+  public static JPASkipToken ofOffset(final long offset) {
+    return new JPASkipToken(null, offset);
+  }
+
+  public static JPASkipToken parse(final String token) throws ODataJPAQueryException {
+    final String[] parts = token.split("\\" + SEPARATOR, -1);
+    try {
+      if (KEYSET.equals(parts[0]) && parts.length > 1) {
+        final List<String> values = new ArrayList<>(parts.length - 1);
+        for (int i = 1; i < parts.length; i++)
+          values.add(new String(Base64.getUrlDecoder().decode(parts[i]), StandardCharsets.UTF_8));
+        return ofValues(values);
+      } else if (OFFSET.equals(parts[0]) && parts.length == 2) {
+        final long offset = Long.parseLong(parts[1]);
+        if (offset >= 0)
+          return ofOffset(offset);
+      }
+    } catch (IllegalArgumentException e) {
+      // NumberFormatException is an IllegalArgumentException
+    }
+    throw new ODataJPAQueryException(ODataJPAQueryException.MessageKeys.QUERY_PREPARATION_INVALID_VALUE,
+        HttpStatusCode.BAD_REQUEST, token, "$skiptoken");
+  }
+
+  /**
+   * @return true in case the token contains the ordering values of the last entity of the previous page
+   */
+  public boolean isKeyset() {
+    return values != null;
+  }
+
+  public List<String> getValues() {
+    return values;
+  }
+
+  public long getOffset() {
+    return offset;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder token = new StringBuilder();
+    if (isKeyset()) {
+      token.append(KEYSET);
+      for (final String value : values) {
+        token.append(SEPARATOR);
+        token.append(Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8)));
+      }
+    } else {
+      token.append(OFFSET);
+      token.append(SEPARATOR);
+      token.append(offset);
+    }
+    return token.toString();
+  }
+}
@@ -3,6 +3,7 @@ package com.sap.olingo.jpa.processor.core.serializer;
 import org.apache.olingo.commons.api.data.Annotatable;
 import org.apache.olingo.commons.api.data.ContextURL;
 import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.EntityIterator;
 import org.apache.olingo.commons.api.edm.EdmEntitySet;
 import org.apache.olingo.commons.api.edm.EdmEntityType;
 import org.apache.olingo.commons.api.edm.EdmType;
@@ -13,13 +14,14 @@ import org.apache.olingo.server.api.serializer.EntityCollectionSerializerOptions
 import org.apache.olingo.server.api.serializer.ODataSerializer;
 import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.api.serializer.SerializerResult;
+import org.apache.olingo.server.api.serializer.SerializerStreamResult;
 import org.apache.olingo.server.api.uri.UriHelper;
 import org.apache.olingo.server.api.uri.UriInfo;
 
 import com.sap.olingo.jpa.processor.core.exception.ODataJPASerializerException;
 import com.sap.olingo.jpa.processor.core.query.Util;
 
-final class JPASerializeEntityCollection implements JPASerializer, JPAOperationSerializer {
+final class JPASerializeEntityCollection implements JPAStreamSerializer, JPAOperationSerializer {
   private final ServiceMetadata serviceMetadata;
   private final UriInfo uriInfo;
   private final UriHelper uriHelper;
@@ -40,6 +42,21 @@ final class JPASerializeEntityCollection implements JPASerializer, JPAOperationS
       throws SerializerException {
 
     final EdmEntitySet targetEdmEntitySet = Util.determineTargetEntitySet(uriInfo.getUriResourceParts());
+    return serializer.entityCollection(this.serviceMetadata, targetEdmEntitySet.getEntityType(), result,
+        createOptions(request, targetEdmEntitySet));
+  }
+
+  @Override
+  public SerializerStreamResult serializeStreamed(final ODataRequest request, final EntityIterator result)
+      throws SerializerException {
+
+    final EdmEntitySet targetEdmEntitySet = Util.determineTargetEntitySet(uriInfo.getUriResourceParts());
+    return serializer.entityCollectionStreamed(this.serviceMetadata, targetEdmEntitySet.getEntityType(), result,
+        createOptions(request, targetEdmEntitySet));
+  }
+
+  private EntityCollectionSerializerOptions createOptions(final ODataRequest request,
+      final EdmEntitySet targetEdmEntitySet) throws SerializerException {
 
     final String selectList = uriHelper.buildContextURLSelectList(targetEdmEntitySet.getEntityType(),
         uriInfo.getExpandOption(), uriInfo.getSelectOption());
@@ -50,16 +67,13 @@ final class JPASerializeEntityCollection implements JPASerializer, JPAOperationS
         .build();
 
     final String id = request.getRawBaseUri() + "/" + targetEdmEntitySet.getEntityType().getName();
-    final EntityCollectionSerializerOptions opts = EntityCollectionSerializerOptions.with()
+    return EntityCollectionSerializerOptions.with()
         .contextURL(contextUrl)
         .id(id)
         .count(uriInfo.getCountOption())
         .select(uriInfo.getSelectOption())
         .expand(uriInfo.getExpandOption())
         .build();
-
-    return serializer.entityCollection(this.serviceMetadata, targetEdmEntitySet.getEntityType(), result, opts);
-
   }
 
   @Override
@@ -0,0 +1,18 @@
+package com.sap.olingo.jpa.processor.core.serializer;
+
+import org.apache.olingo.commons.api.data.EntityIterator;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.api.serializer.SerializerStreamResult;
+
+import com.sap.olingo.jpa.processor.core.exception.ODataJPASerializerException;
+
+/**
+ * Serializer that is able to write the entities of a result one by one into the response, so neither the complete
+ * entity collection nor the complete serialized response have to be kept in memory.
+ */
+public interface JPAStreamSerializer extends JPASerializer {
+
+  public SerializerStreamResult serializeStreamed(final ODataRequest request, final EntityIterator result)
+      throws SerializerException, ODataJPASerializerException;
+}
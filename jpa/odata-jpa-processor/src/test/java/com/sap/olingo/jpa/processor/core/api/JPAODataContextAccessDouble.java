@@ -3,23 +3,44 @@ package com.sap.olingo.jpa.processor.core.api;
 import static org.junit.Assert.fail;
 
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import javax.sql.DataSource;
 
 import org.apache.olingo.commons.api.edmx.EdmxReference;
 import org.apache.olingo.server.api.debug.DebugSupport;
+import org.apache.olingo.server.api.processor.ErrorProcessor;
 
 import com.sap.olingo.jpa.metadata.api.JPAEdmProvider;
 import com.sap.olingo.jpa.processor.core.database.JPADefaultDatabaseProcessor;
 import com.sap.olingo.jpa.processor.core.database.JPAODataDatabaseOperations;
 import com.sap.olingo.jpa.processor.core.database.JPAODataDatabaseProcessorFactory;
+import com.sap.olingo.jpa.processor.core.database.JPASearchIndex;
+import com.sap.olingo.jpa.processor.core.query.JPACountCache;
+import com.sap.olingo.jpa.processor.core.query.JPAExpandStrategy;
+import com.sap.olingo.jpa.processor.core.query.JPAExpandSubQueryStrategy;
+import com.sap.olingo.jpa.processor.core.query.JPAFunctionResultCache;
+import com.sap.olingo.jpa.processor.core.query.JPAQueryPlanCache;
 
 public class JPAODataContextAccessDouble implements JPAODataSessionContextAccess {
   private final JPAEdmProvider edmProvider;
   private final DataSource ds;
   private final JPAODataDatabaseOperations context;
   private final String[] packageNames;
+  private JPAExpandStrategy expandStrategy;
+  private boolean streamingEnabled;
+  private final Map<String, Integer> maxPageSizes = new HashMap<>();
+  private JPAQueryPlanCache queryPlanCache;
+  private JPACountCache countCache;
+  private JPAFunctionResultCache functionResultCache;
+  private ExecutorService batchExecutor;
+  private JPASearchIndex searchIndex;
+  private final Set<String> approximateCounts = new HashSet<>();
 
   public JPAODataContextAccessDouble(final JPAEdmProvider edmProvider, final DataSource ds, final String... packages) {
     super();
@@ -27,6 +48,7 @@ public class JPAODataContextAccessDouble implements JPAODataSessionContextAccess
     this.ds = ds;
     this.context = new JPADefaultDatabaseProcessor();
     this.packageNames = packages;
+    this.expandStrategy = new JPAExpandSubQueryStrategy();
   }
 
   @Override
@@ -77,4 +99,98 @@ public class JPAODataContextAccessDouble implements JPAODataSessionContextAccess
     return packageNames;
   }
 
+  @Override
+  public JPAExpandStrategy getExpandStrategy() {
+    return expandStrategy;
+  }
+
+  public void setExpandStrategy(final JPAExpandStrategy expandStrategy) {
+    this.expandStrategy = expandStrategy;
+  }
+
+  @Override
+  public boolean isStreamingEnabled() {
+    return streamingEnabled;
+  }
+
+  public void setStreamingEnabled(final boolean streamingEnabled) {
+    this.streamingEnabled = streamingEnabled;
+  }
+
+  @Override
+  public Integer getMaxPageSize(final String entitySetName) {
+    return maxPageSizes.get(entitySetName);
+  }
+
+  public void setMaxPageSize(final String entitySetName, final int maxPageSize) {
+    maxPageSizes.put(entitySetName, Integer.valueOf(maxPageSize));
+  }
+
+  @Override
+  public JPAQueryPlanCache getQueryPlanCache() {
+    return queryPlanCache;
+  }
+
+  public void setQueryPlanCache(final JPAQueryPlanCache queryPlanCache) {
+    this.queryPlanCache = queryPlanCache;
+  }
+
+  @Override
+  public JPASearchIndex getSearchIndex() {
+    return searchIndex;
+  }
+
+  public void setSearchIndex(final JPASearchIndex searchIndex) {
+    this.searchIndex = searchIndex;
+  }
+
+  @Override
+  public ExecutorService getBatchExecutor() {
+    return batchExecutor;
+  }
+
+  public void setBatchExecutor(final ExecutorService batchExecutor) {
+    this.batchExecutor = batchExecutor;
+  }
+
+  @Override
+  public int getChangeSetFlushInterval() {
+    return 0;
+  }
+
+  @Override
+  public ErrorProcessor getErrorProcessor() {
+    return new JPADefaultErrorProcessor();
+  }
+
+  @Override
+  public JPACountCache getCountCache() {
+    return countCache;
+  }
+
+  public void setCountCache(final JPACountCache countCache) {
+    this.countCache = countCache;
+  }
+
+  @Override
+  public JPAFunctionResultCache getFunctionResultCache() {
+    return functionResultCache;
+  }
+
+  public void setFunctionResultCache(final JPAFunctionResultCache functionResultCache) {
+    this.functionResultCache = functionResultCache;
+  }
+
+  @Override
+  public boolean isApproximateCount(final String entitySetName) {
+    return approximateCounts.contains(entitySetName);
+  }
+
+  public void setApproximateCount(final String entitySetName, final boolean approximateCount) {
+    if (approximateCount)
+      approximateCounts.add(entitySetName);
+    else
+      approximateCounts.remove(entitySetName);
+  }
+
 }
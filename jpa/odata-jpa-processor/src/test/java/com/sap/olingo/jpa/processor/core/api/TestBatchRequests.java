@@ -5,6 +5,7 @@ import static org.junit.Assert.assertNotNull;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.junit.Test;
@@ -58,6 +59,49 @@ public class TestBatchRequests extends TestBase {
     assertEquals("5", value.get("ID").asText());
   }
 
+  @Test
+  public void testParallelGetRequestsKeepOrder() throws IOException, ODataException {
+    final ExecutorService executor = JPAODataBatchProcessor.createBatchExecutor(4);
+    try {
+      final StringBuffer requestBody = new StringBuffer();
+      for (int i = 1; i <= 10; i++)
+        appendGet(requestBody, "Organizations('" + i + "')");
+      requestBody.append("--abc123--");
+
+      final IntegrationTestHelper helper = new IntegrationTestHelper(emf, "$batch", requestBody, executor);
+      for (int i = 1; i <= 10; i++) {
+        assertEquals(200, helper.getBatchResultStatus(i));
+        assertEquals(Integer.toString(i), helper.getBatchResult(i).get("ID").asText());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testParallelGetRequestSecondFailCheckStatus() throws IOException, ODataException {
+    final ExecutorService executor = JPAODataBatchProcessor.createBatchExecutor(2);
+    try {
+      final IntegrationTestHelper helper = new IntegrationTestHelper(emf, "$batch", createBodyTwoGetOneFail(),
+          executor);
+      assertEquals(200, helper.getBatchResultStatus(1));
+      assertEquals(404, helper.getBatchResultStatus(2));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private void appendGet(final StringBuffer requestBody, final String resourcePath) {
+    requestBody.append("--abc123\r\n");
+    requestBody.append("Content-Type: application/http\r\n");
+    requestBody.append("Content-Transfer-Encoding: binary\r\n");
+    requestBody.append("\r\n");
+    requestBody.append("GET " + resourcePath + " HTTP/1.1\r\n");
+    requestBody.append("Content-Type: application/json\r\n");
+    requestBody.append("\r\n");
+    requestBody.append("\r\n");
+  }
+
   private StringBuffer createBodyTwoGetOneFail() {
     StringBuffer requestBody = new StringBuffer("--abc123\r\n");
     requestBody.append("Content-Type: application/http\r\n");
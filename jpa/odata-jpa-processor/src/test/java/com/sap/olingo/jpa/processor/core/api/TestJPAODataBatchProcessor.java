@@ -0,0 +1,386 @@
+package com.sap.olingo.jpa.processor.core.api;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.PersistenceException;
+import javax.persistence.RollbackException;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataLibraryException;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.batch.BatchFacade;
+import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
+import com.sap.olingo.jpa.processor.core.modify.JPACacheUpdates;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TestJPAODataBatchProcessor {
+  private JPAODataBatchProcessor cut;
+
+  @Mock
+  private EntityManager em;
+  @Mock
+  private EntityTransaction transaction;
+  @Mock
+  private OData odata;
+  @Mock
+  private ServiceMetadata serviceMetadata;
+  @Mock
+  private BatchFacade facade;
+  @Mock
+  private ODataRequest request;
+  @Mock
+  private ODataResponse response;
+  @Mock
+  private RollbackException e;
+  @Mock
+  private JPAODataSessionContextAccess context;
+  @Mock
+  private JPACUDRequestHandler cudHandler;
+
+  private List<ODataRequest> requests;
+
+  @Before
+  public void setup() {
+    cut = new JPAODataBatchProcessor(context, em);
+    cut.init(odata, serviceMetadata);
+    requests = new ArrayList<>();
+    requests.add(request);
+    when(context.getDebugger()).thenReturn(new JPAEmptyDebugger());
+    when(context.getCUDRequestHandler()).thenReturn(cudHandler);
+  }
+
+  @Test
+  public void whenNotOptimisticLockRollBackExceptionThenThrowODataJPAProcessorExceptionWithHttpCode500()
+      throws ODataApplicationException, ODataLibraryException {
+    when(em.getTransaction()).thenReturn(transaction);
+    when(response.getStatusCode()).thenReturn(HttpStatusCode.OK.getStatusCode());
+    when(facade.handleODataRequest(request)).thenReturn(response);
+    doThrow(e).when(transaction).commit();
+
+    try {
+      cut.processChangeSet(facade, requests);
+      Assert.fail("Should have thrown ODataJPAProcessorException!");
+    } catch (ODataJPAProcessorException e) {
+      Assert.assertEquals(HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), e.getStatusCode());
+    }
+
+  }
+
+  @Test
+  public void whenOptimisticLockRollBackExceptionThenThrowODataJPAProcessorExceptionWithHttpCode412()
+      throws ODataApplicationException, ODataLibraryException {
+    when(em.getTransaction()).thenReturn(transaction);
+    when(response.getStatusCode()).thenReturn(HttpStatusCode.OK.getStatusCode());
+    when(facade.handleODataRequest(request)).thenReturn(response);
+    doThrow(e).when(transaction).commit();
+    when(e.getCause()).thenReturn(new OptimisticLockException());
+
+    try {
+      cut.processChangeSet(facade, requests);
+      Assert.fail("Should have thrown ODataJPAProcessorException!");
+    } catch (ODataJPAProcessorException e) {
+      Assert.assertEquals(HttpStatusCode.PRECONDITION_FAILED.getStatusCode(), e.getStatusCode());
+    }
+  }
+
+  @Test
+  public void whenProcessChangeSetCallValidateChangesOnSccess() throws ODataApplicationException,
+      ODataLibraryException {
+    cut = new JPAODataBatchProcessor(context, em);
+
+    when(em.getTransaction()).thenReturn(transaction);
+    when(response.getStatusCode()).thenReturn(HttpStatusCode.OK.getStatusCode());
+    when(facade.handleODataRequest(request)).thenReturn(response);
+
+    cut.processChangeSet(facade, requests);
+    verify(cudHandler, times(1)).validateChanges(em);
+  }
+
+  @Test
+  public void whenProcessChangeSetCacheUpdatesCollectedUntilCommit() throws ODataApplicationException,
+      ODataLibraryException {
+    final JPACacheUpdates cacheUpdates = new JPACacheUpdates(context);
+    cut = new JPAODataBatchProcessor(context, em, cacheUpdates);
+    final List<Boolean> collecting = new ArrayList<>();
+
+    when(em.getTransaction()).thenReturn(transaction);
+    when(response.getStatusCode()).thenReturn(HttpStatusCode.OK.getStatusCode());
+    when(facade.handleODataRequest(request)).thenAnswer(new Answer<ODataResponse>() {
+      @Override
+      public ODataResponse answer(final InvocationOnMock invocation) throws Throwable {
+        collecting.add(cacheUpdates.isCollecting());
+        return response;
+      }
+    });
+
+    cut.processChangeSet(facade, requests);
+    Assert.assertEquals(Arrays.asList(true), collecting);
+    Assert.assertFalse(cacheUpdates.isCollecting());
+  }
+
+  @Test
+  public void whenProcessChangeSetRolledBackCacheUpdatesDiscarded() throws ODataApplicationException,
+      ODataLibraryException {
+    final JPACacheUpdates cacheUpdates = new JPACacheUpdates(context);
+    cut = new JPAODataBatchProcessor(context, em, cacheUpdates);
+
+    when(em.getTransaction()).thenReturn(transaction);
+    when(response.getStatusCode()).thenReturn(HttpStatusCode.OK.getStatusCode());
+    when(facade.handleODataRequest(request)).thenReturn(response);
+    doThrow(e).when(transaction).commit();
+
+    try {
+      cut.processChangeSet(facade, requests);
+      Assert.fail("Should have thrown ODataJPAProcessorException!");
+    } catch (ODataJPAProcessorException e) {
+      Assert.assertFalse(cacheUpdates.isCollecting());
+    }
+  }
+
+  @Test
+  public void whenFlushIntervalSetChangesFlushedAndClearedPerChunk() throws ODataApplicationException,
+      ODataLibraryException {
+    final List<ODataRequest> changeSet = createChangeSet("/Organizations", "/Organizations", "/Organizations",
+        "/Organizations", "/Organizations");
+    when(context.getChangeSetFlushInterval()).thenReturn(2);
+    when(em.getTransaction()).thenReturn(transaction);
+    when(facade.handleODataRequest(Matchers.any(ODataRequest.class))).thenReturn(createResponse());
+
+    cut.processChangeSet(facade, changeSet);
+    verify(em, times(2)).flush();
+    verify(em, times(2)).clear();
+    verify(cudHandler, times(3)).validateChanges(em);
+    verify(transaction, times(1)).commit();
+  }
+
+  @Test
+  public void whenFlushIntervalSetRequestsKeepOrder() throws ODataApplicationException, ODataLibraryException {
+    final List<ODataRequest> changeSet = createChangeSet("/Organizations", "/Persons", "/Organizations('3')/Roles",
+        "/Persons");
+    final List<ODataRequest> handled = recordHandledRequests();
+    when(context.getChangeSetFlushInterval()).thenReturn(2);
+    when(em.getTransaction()).thenReturn(transaction);
+
+    final ODataResponsePart act = cut.processChangeSet(facade, changeSet);
+    Assert.assertEquals(changeSet, handled);
+    for (int i = 0; i < changeSet.size(); i++)
+      Assert.assertEquals(changeSet.get(i).getRawODataPath(), act.getResponses().get(i).getHeader(
+          HttpHeader.LOCATION));
+    verify(em, times(2)).flush();
+  }
+
+  @Test
+  public void whenFlushIntervalNotSetRequestsKeepOrder() throws ODataApplicationException, ODataLibraryException {
+    final List<ODataRequest> changeSet = createChangeSet("/Organizations", "/Persons", "/Organizations");
+    final List<ODataRequest> handled = recordHandledRequests();
+    when(em.getTransaction()).thenReturn(transaction);
+
+    cut.processChangeSet(facade, changeSet);
+    Assert.assertEquals(changeSet, handled);
+    verify(em, times(0)).flush();
+  }
+
+  @Test
+  public void whenFlushOfChunkFailsChangeSetRolledBack() throws ODataApplicationException, ODataLibraryException {
+    final List<ODataRequest> changeSet = createChangeSet("/Organizations", "/Organizations");
+    when(context.getChangeSetFlushInterval()).thenReturn(1);
+    when(em.getTransaction()).thenReturn(transaction);
+    when(facade.handleODataRequest(Matchers.any(ODataRequest.class))).thenReturn(createResponse());
+    doThrow(new PersistenceException()).when(em).flush();
+
+    try {
+      cut.processChangeSet(facade, changeSet);
+      Assert.fail("Should have thrown ODataJPAProcessorException!");
+    } catch (ODataJPAProcessorException e) {
+      Assert.assertEquals(HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), e.getStatusCode());
+    }
+    verify(transaction, times(1)).rollback();
+    verify(transaction, times(0)).commit();
+  }
+
+  @Test
+  public void checkBatchWritingPropertiesContainBatchSize() {
+    final Map<String, Object> act = JPAODataBatchProcessor.createBatchWritingProperties(50);
+    Assert.assertEquals("JDBC", act.get(JPAODataBatchProcessor.ECLIPSELINK_BATCH_WRITING));
+    Assert.assertEquals("50", act.get(JPAODataBatchProcessor.ECLIPSELINK_BATCH_WRITING_SIZE));
+    Assert.assertEquals("50", act.get(JPAODataBatchProcessor.HIBERNATE_BATCH_SIZE));
+  }
+
+  @Test
+  public void whenParallelReadFailsErrorResponseForPart() throws ODataException, ODataApplicationException,
+      ODataLibraryException, IOException {
+    final EntityManagerFactory emf = mock(EntityManagerFactory.class);
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    when(em.getEntityManagerFactory()).thenReturn(emf);
+    when(emf.createEntityManager()).thenReturn(mock(EntityManager.class));
+    when(context.getEdmProvider()).thenThrow(new ODataException("Test"));
+    when(context.getErrorProcessor()).thenReturn(new JPADefaultErrorProcessor());
+    when(context.getBatchExecutor()).thenReturn(executor);
+    final ODataResponse batchResponse = new ODataResponse();
+    try {
+      cut = new JPAODataBatchProcessor(context, em);
+      cut.init(OData.newInstance(), serviceMetadata);
+      cut.processBatch(facade, createBatchRequest(2), batchResponse);
+    } finally {
+      executor.shutdown();
+    }
+    final String act = asString(batchResponse.getContent());
+    Assert.assertEquals(HttpStatusCode.ACCEPTED.getStatusCode(), batchResponse.getStatusCode());
+    Assert.assertEquals(2, act.split("HTTP/1.1 500").length - 1);
+  }
+
+  @Test
+  public void whenBatchAbortsOutstandingReadsCancelled() throws ODataApplicationException, ODataLibraryException,
+      InterruptedException, ExecutionException {
+    final ExecutorService executor = mock(ExecutorService.class);
+    @SuppressWarnings("unchecked")
+    final Future<ODataResponsePart> first = mock(Future.class);
+    @SuppressWarnings("unchecked")
+    final Future<ODataResponsePart> second = mock(Future.class);
+    when(context.getBatchExecutor()).thenReturn(executor);
+    when(executor.submit(Matchers.<Callable<ODataResponsePart>> any())).thenReturn(first).thenReturn(second);
+    when(first.get()).thenThrow(new InterruptedException());
+    try {
+      cut = new JPAODataBatchProcessor(context, em);
+      cut.init(OData.newInstance(), serviceMetadata);
+      cut.processBatch(facade, createBatchRequest(2), new ODataResponse());
+      Assert.fail();
+    } catch (ODataJPAProcessorException e) {
+      Assert.assertEquals(HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), e.getStatusCode());
+    } finally {
+      Thread.interrupted();
+    }
+    verify(second, times(1)).cancel(true);
+  }
+
+  @Test
+  public void whenConcurrencyLimitedAtMostLimitRunning() throws InterruptedException, ExecutionException {
+    final AtomicInteger running = new AtomicInteger();
+    final AtomicInteger maxRunning = new AtomicInteger();
+    final ExecutorService executor = JPAODataBatchProcessor.limitConcurrency(Executors.newCachedThreadPool(), 2);
+    final List<Future<Integer>> results = new ArrayList<>();
+    try {
+      for (int i = 0; i < 6; i++) {
+        results.add(executor.submit(new Callable<Integer>() {
+          @Override
+          public Integer call() throws InterruptedException {
+            final int now = running.incrementAndGet();
+            maxRunning.accumulateAndGet(now, Math::max);
+            Thread.sleep(20);
+            running.decrementAndGet();
+            return now;
+          }
+        }));
+      }
+      for (final Future<Integer> result : results)
+        result.get();
+    } finally {
+      executor.shutdown();
+    }
+    Assert.assertTrue(maxRunning.get() <= 2);
+  }
+
+  private List<ODataRequest> createChangeSet(final String... paths) {
+    final List<ODataRequest> changeSet = new ArrayList<>();
+    for (final String path : paths) {
+      final ODataRequest changeRequest = new ODataRequest();
+      changeRequest.setRawODataPath(path);
+      changeSet.add(changeRequest);
+    }
+    return changeSet;
+  }
+
+  private ODataResponse createResponse() {
+    final ODataResponse changeResponse = new ODataResponse();
+    changeResponse.setStatusCode(HttpStatusCode.CREATED.getStatusCode());
+    return changeResponse;
+  }
+
+  /**
+   * Each response gets the path of its request as location, so responses can be matched with their requests
+   */
+  private List<ODataRequest> recordHandledRequests() throws ODataApplicationException, ODataLibraryException {
+    final List<ODataRequest> handled = new ArrayList<>();
+    when(facade.handleODataRequest(Matchers.any(ODataRequest.class))).thenAnswer(new Answer<ODataResponse>() {
+      @Override
+      public ODataResponse answer(final InvocationOnMock invocation) throws Throwable {
+        final ODataRequest changeRequest = (ODataRequest) invocation.getArguments()[0];
+        handled.add(changeRequest);
+        final ODataResponse changeResponse = createResponse();
+        changeResponse.setHeader(HttpHeader.LOCATION, changeRequest.getRawODataPath());
+        return changeResponse;
+      }
+    });
+    return handled;
+  }
+
+  private ODataRequest createBatchRequest(final int numberOfReads) throws ODataApplicationException,
+      ODataLibraryException {
+    final StringBuilder body = new StringBuilder();
+    for (int i = 1; i <= numberOfReads; i++) {
+      body.append("--abc123\r\n");
+      body.append("Content-Type: application/http\r\n");
+      body.append("Content-Transfer-Encoding: binary\r\n");
+      body.append("Content-ID: " + i + "\r\n");
+      body.append("\r\n");
+      body.append("GET Organizations('" + i + "') HTTP/1.1\r\n");
+      body.append("\r\n");
+      body.append("\r\n");
+    }
+    body.append("--abc123--");
+    final ODataRequest batchRequest = new ODataRequest();
+    batchRequest.setBody(new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)));
+    batchRequest.setRawBaseUri("http://localhost:8080/Test/Olingo.svc");
+    batchRequest.setHeader(HttpHeader.CONTENT_TYPE, "multipart/mixed;boundary=abc123");
+    when(facade.extractBoundaryFromContentType(anyString())).thenReturn("abc123");
+    return batchRequest;
+  }
+
+  private String asString(final InputStream content) throws IOException {
+    try (Scanner scanner = new Scanner(content, "UTF-8")) {
+      return scanner.useDelimiter("\\A").next();
+    }
+  }
+}
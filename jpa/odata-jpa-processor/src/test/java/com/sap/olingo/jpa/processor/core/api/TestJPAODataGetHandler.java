@@ -0,0 +1,118 @@
+package com.sap.olingo.jpa.processor.core.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sap.olingo.jpa.metadata.api.JPAEdmMetadataPostProcessor;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAException;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.extention.IntermediateEntityTypeAccess;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.extention.IntermediateNavigationPropertyAccess;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.extention.IntermediatePropertyAccess;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.extention.IntermediateReferenceList;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+
+public class TestJPAODataGetHandler extends TestBase {
+  private JPAODataGetHandler cut;
+
+  @Before
+  public void setup() throws ODataException {
+    cut = new JPAODataGetHandler(PUNIT_NAME, ds);
+    cut.getJPAODataContext().setTypePackage(enumPackages);
+  }
+
+  @Test
+  public void checkServiceMetadataCreated() throws ODataException {
+    final JPAODataContextImpl context = (JPAODataContextImpl) cut.getJPAODataContext();
+    assertNotNull(context.getServiceMetadata());
+  }
+
+  @Test
+  public void checkServiceMetadataReused() throws ODataException {
+    final JPAODataContextImpl context = (JPAODataContextImpl) cut.getJPAODataContext();
+    final ServiceMetadata first = context.getServiceMetadata();
+    assertSame(first, context.getServiceMetadata());
+  }
+
+  @Test
+  public void checkServiceMetadataRecreatedAfterNewPostProcessor() throws ODataException {
+    final JPAODataContextImpl context = (JPAODataContextImpl) cut.getJPAODataContext();
+    final ServiceMetadata first = context.getServiceMetadata();
+    context.setMetadataPostProcessor(new PostProcessor());
+    assertNotSame(first, context.getServiceMetadata());
+  }
+
+  @Test
+  public void checkRequestContextsKeepOwnDebugger() {
+    final JPAODataContextImpl context = (JPAODataContextImpl) cut.getJPAODataContext();
+    final JPAODataSessionContextAccess first = context.createRequestContext(null);
+    final JPAODataSessionContextAccess second = context.createRequestContext(null);
+    assertNotNull(first.getDebugger());
+    assertNotSame(first.getDebugger(), second.getDebugger());
+    assertNotSame(first.getDebugSupport(), second.getDebugSupport());
+  }
+
+  @Test
+  public void checkServiceContextProvidesDebuggerWithoutRequest() {
+    assertNotNull(((JPAODataContextImpl) cut.getJPAODataContext()).getDebugger());
+  }
+
+  @Test
+  public void checkRequestLocalesKeptPerThread() throws Exception {
+    final JPAODataContextImpl context = (JPAODataContextImpl) cut.getJPAODataContext();
+    context.getEdmProvider().setRequestLocales(Collections.enumeration(Collections.singletonList(Locale.GERMAN)));
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      assertNull(executor.submit(new Callable<Enumeration<Locale>>() {
+        @Override
+        public Enumeration<Locale> call() {
+          return ODataJPAException.getLocales();
+        }
+      }).get());
+      assertEquals(Locale.GERMAN, ODataJPAException.getLocales().nextElement());
+      // Can be read more than once
+      assertEquals(Locale.GERMAN, ODataJPAException.getLocales().nextElement());
+    } finally {
+      executor.shutdown();
+      context.getEdmProvider().setRequestLocales(null);
+    }
+  }
+
+  private class PostProcessor extends JPAEdmMetadataPostProcessor {
+
+    @Override
+    public void processNavigationProperty(IntermediateNavigationPropertyAccess property, String jpaManagedTypeClassName) {
+      // Not needed
+    }
+
+    @Override
+    public void processProperty(IntermediatePropertyAccess property, String jpaManagedTypeClassName) {
+      // Not needed
+    }
+
+    @Override
+    public void processEntityType(IntermediateEntityTypeAccess entityType) {
+      // Not needed
+    }
+
+    @Override
+    public void provideReferences(IntermediateReferenceList references) throws ODataJPAModelException {
+      // Not needed
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package com.sap.olingo.jpa.processor.core.api;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import javax.persistence.EntityManager;
+
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sap.olingo.jpa.metadata.api.JPAEdmProvider;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+
+public class TestJPAODataRequestProcessor extends TestBase {
+  private OData odata;
+  private ServiceMetadata serviceMetadata;
+  private EntityManager em;
+  private JPAODataRequestProcessor cut;
+
+  @Before
+  public void setup() throws ODataException {
+    odata = OData.newInstance();
+    final JPAODataContextAccessDouble context = new JPAODataContextAccessDouble(new JPAEdmProvider(PUNIT_NAME, emf,
+        null, TestBase.enumPackages), ds);
+    serviceMetadata = odata.createServiceMetadata(context.getEdmProvider(), Collections.<EdmxReference> emptyList());
+    em = emf.createEntityManager();
+    cut = new JPAODataRequestProcessor(context, em);
+    cut.init(odata, serviceMetadata);
+    storeImage(new byte[] { 1, 2, 3 });
+  }
+
+  @After
+  public void teardown() {
+    em.close();
+    storeImage(null);
+  }
+
+  @Test
+  public void checkMediaContentNotWrittenGetsReleased() throws ODataException {
+    final ODataResponse response = new ODataResponse();
+
+    cut.readMediaEntity(new ODataRequest(), response, parse("PersonImages('99')/$value"),
+        ContentType.APPLICATION_OCTET_STREAM);
+    assertNotNull(response.getODataContent());
+    assertTrue(em.getTransaction().isActive());
+
+    cut.releaseResources();
+    assertFalse(em.getTransaction().isActive());
+  }
+
+  @Test
+  public void checkReleaseResourcesWithoutContent() {
+    cut.releaseResources();
+    assertFalse(em.getTransaction().isActive());
+  }
+
+  private UriInfo parse(final String path) throws ODataException {
+    return new Parser(serviceMetadata.getEdm(), odata).parseUri(path, null, null,
+        "http://localhost:8080/Test/Olingo.svc");
+  }
+
+  private void storeImage(final byte[] content) {
+    final EntityManager local = emf.createEntityManager();
+    try {
+      local.getTransaction().begin();
+      final String statement = "UPDATE \"OLINGO\".\"PersonImage\" SET \"Image\" = ";
+      if (content == null)
+        local.createNativeQuery(statement + "NULL WHERE \"ID\" = '99'").executeUpdate();
+      else
+        local.createNativeQuery(statement + "?1 WHERE \"ID\" = '99'").setParameter(1, content).executeUpdate();
+      local.getTransaction().commit();
+    } finally {
+      local.close();
+    }
+  }
+}
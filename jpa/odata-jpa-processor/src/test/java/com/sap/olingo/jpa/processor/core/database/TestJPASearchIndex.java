@@ -0,0 +1,283 @@
+package com.sap.olingo.jpa.processor.core.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.uri.queryoption.SearchOption;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchTerm;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import com.sap.olingo.jpa.processor.core.exception.ODataJPADBAdaptorException;
+import com.sap.olingo.jpa.processor.core.testmodel.AdministrativeDivisionDescription;
+import com.sap.olingo.jpa.processor.core.util.IntegrationTestHelper;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+import com.sap.olingo.jpa.processor.core.util.TestHelper;
+
+public class TestJPASearchIndex extends TestBase {
+  private JPASearchIndex cut;
+  private JPAEntityType et;
+
+  @Before
+  public void setup() throws ODataException {
+    cut = new JPASearchIndex(emf);
+    helper = new TestHelper(emf, PUNIT_NAME);
+    et = helper.getJPAEntityType("AdministrativeDivisionDescriptions");
+  }
+
+  @Test
+  public void testTokenizeSplitsAtNonLetters() {
+    assertEquals(Arrays.asList("north", "rhine", "westphalia"), JPASearchIndex.tokenize("North Rhine-Westphalia"));
+    assertEquals(Arrays.asList("baden", "württemberg"), JPASearchIndex.tokenize(" Baden-Württemberg "));
+  }
+
+  @Test
+  public void testSearchOneTerm() throws IOException, ODataException {
+    final ArrayNode act = search("saxony");
+    assertEquals(3, act.size());
+  }
+
+  @Test
+  public void testSearchIgnoresCase() throws IOException, ODataException {
+    final ArrayNode act = search("SAXONY");
+    assertEquals(3, act.size());
+  }
+
+  @Test
+  public void testSearchTermMatchesBeginningOfWord() throws IOException, ODataException {
+    final ArrayNode act = search("anh");
+    assertEquals(2, act.size());
+    assertEquals("DE-ST", act.get(0).get("DivisionCode").asText());
+    assertEquals("DE-ST", act.get(1).get("DivisionCode").asText());
+  }
+
+  @Test
+  public void testSearchPhrase() throws IOException, ODataException {
+    final ArrayNode act = search("%22lower%20saxony%22");
+    assertEquals(1, act.size());
+    assertEquals("Lower Saxony", act.get(0).get("Name").asText());
+  }
+
+  @Test
+  public void testSearchAnd() throws IOException, ODataException {
+    final ArrayNode act = search("saxony%20AND%20anhalt");
+    assertEquals(1, act.size());
+  }
+
+  @Test
+  public void testSearchOr() throws IOException, ODataException {
+    final ArrayNode act = search("bavaria%20OR%20berlin");
+    assertEquals(3, act.size());
+  }
+
+  @Test
+  public void testSearchNot() throws IOException, ODataException {
+    final ArrayNode act = search("saxony%20AND%20NOT%20anhalt");
+    assertEquals(2, act.size());
+  }
+
+  @Test
+  public void testSearchOrNot() throws IOException, ODataException {
+    final ArrayNode act = search("berlin%20OR%20NOT%20saxony");
+    assertEquals(282, act.size());
+  }
+
+  @Test
+  public void testSearchNotFindsEntityUnknownToIndex() throws IOException, ODataException {
+    final int before = search("NOT%20saxony").size();
+    executeUpdate("INSERT INTO \"OLINGO\".\"AdministrativeDivisionDescription\" VALUES ('Test', '1', 'A', 'en', "
+        + "'Atlantis')");
+    try {
+      assertEquals(before + 1, search("NOT%20saxony").size());
+      assertEquals(0, search("atlantis").size());
+    } finally {
+      executeUpdate("DELETE FROM \"OLINGO\".\"AdministrativeDivisionDescription\" WHERE \"CodePublisher\" = 'Test'");
+    }
+  }
+
+  @Test
+  public void testSearchKeysInChunks() throws IOException, ODataException {
+    cut = new JPASearchIndex(emf, 2);
+    assertEquals(3, search("saxony").size());
+    assertEquals(282, search("NOT%20saxony").size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testChunkSizeZeroRejected() {
+    new JPASearchIndex(emf, 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMaxParametersZeroRejected() {
+    new JPASearchIndex(emf, 2, 0);
+  }
+
+  @Test
+  public void testSearchTooManyKeysHandedOverToDatabase() throws IOException, ODataException {
+    // Each key of a description has four values
+    cut = new JPASearchIndex(emf, 2, 8);
+    assertEquals(2, search("berlin").size());
+
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, cut,
+        "AdministrativeDivisionDescriptions?$search=saxony");
+    helper.assertStatus(HttpStatusCode.NOT_IMPLEMENTED.getStatusCode());
+  }
+
+  @Test
+  public void testSearchTooManyKeysWithoutFallbackRejected() throws ODataException {
+    cut = new JPASearchIndex(emf, 2, 8);
+    final SearchTerm term = mock(SearchTerm.class);
+    when(term.isSearchTerm()).thenReturn(true);
+    when(term.asSearchTerm()).thenReturn(term);
+    when(term.getSearchTerm()).thenReturn("saxony");
+    final SearchOption searchOption = mock(SearchOption.class);
+    when(searchOption.getSearchExpression()).thenReturn(term);
+    final EntityManager em = emf.createEntityManager();
+    try {
+      final CriteriaBuilder cb = em.getCriteriaBuilder();
+      final CriteriaQuery<?> cq = cb.createQuery();
+      final Root<?> root = cq.from(AdministrativeDivisionDescription.class);
+      cut.createSearchWhereClause(cb, cq, root, et, searchOption);
+    } catch (ODataJPADBAdaptorException e) {
+      assertEquals(HttpStatusCode.BAD_REQUEST.getStatusCode(), e.getStatusCode());
+      return;
+    } finally {
+      em.close();
+    }
+    fail();
+  }
+
+  @Test
+  public void testSearchNoMatch() throws IOException, ODataException {
+    final ArrayNode act = search("atlantis");
+    assertEquals(0, act.size());
+  }
+
+  @Test
+  public void testSearchCombinedWithFilter() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, cut,
+        "AdministrativeDivisionDescriptions?$search=berlin&$filter=Language eq 'de'");
+    helper.assertStatus(200);
+    assertEquals(1, helper.getValues().size());
+  }
+
+  @Test
+  public void testIndexBuildOnFirstSearch() throws IOException, ODataException {
+    assertEquals(0, cut.size(et));
+    search("berlin");
+    assertEquals(285, cut.size(et));
+  }
+
+  @Test
+  public void testPutAddsEntityAfterFirstSearch() throws IOException, ODataException {
+    final Map<String, Object> entity = createEntity();
+
+    cut.put(et, entity);
+    assertEquals(0, cut.size(et));
+    search("berlin");
+    cut.put(et, entity);
+    assertEquals(286, cut.size(et));
+  }
+
+  @Test
+  public void testPutReplacesWordsOfEntity() throws IOException, ODataException {
+    final Map<String, Object> entity = new HashMap<>();
+    entity.put("codePublisher", "ISO");
+    entity.put("codeID", "3166-2");
+    entity.put("divisionCode", "DE-BE");
+    entity.put("language", "de");
+    entity.put("name", "Atlantis");
+
+    assertEquals(2, search("berlin").size());
+    cut.put(et, entity);
+    assertEquals(1, search("berlin").size());
+    assertEquals(1, search("atlantis").size());
+  }
+
+  @Test
+  public void testPutWhileIndexIsBuildApplied() throws IOException, ODataException {
+    final Map<String, Object> entity = createEntity();
+    // The entity is reported after the index has been registered as loading, but before it reads the database
+    cut = new JPASearchIndex((EntityManagerFactory) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] { EntityManagerFactory.class }, new InvocationHandler() {
+          @Override
+          public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            if ("createEntityManager".equals(method.getName()))
+              cut.put(et, entity);
+            try {
+              return method.invoke(emf, args);
+            } catch (InvocationTargetException e) {
+              throw e.getCause();
+            }
+          }
+        }));
+    search("berlin");
+    assertEquals(286, cut.size(et));
+  }
+
+  @Test
+  public void testRemoveDropsEntity() throws IOException, ODataException {
+    final Map<String, Object> entity = createEntity();
+
+    search("berlin");
+    cut.put(et, entity);
+    cut.remove(et, entity);
+    assertEquals(285, cut.size(et));
+  }
+
+  @Test
+  public void testInvalidateDropsIndex() throws IOException, ODataException {
+    search("berlin");
+    cut.invalidate(et);
+    assertEquals(0, cut.size(et));
+  }
+
+  private Map<String, Object> createEntity() {
+    final Map<String, Object> entity = new HashMap<>();
+    entity.put("codePublisher", "Test");
+    entity.put("codeID", "1");
+    entity.put("divisionCode", "A");
+    entity.put("language", "en");
+    entity.put("name", "Atlantis");
+    return entity;
+  }
+
+  private void executeUpdate(final String statement) {
+    final EntityManager em = emf.createEntityManager();
+    try {
+      em.getTransaction().begin();
+      em.createNativeQuery(statement).executeUpdate();
+      em.getTransaction().commit();
+    } finally {
+      em.close();
+    }
+  }
+
+  private ArrayNode search(final String searchTerm) throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, cut,
+        "AdministrativeDivisionDescriptions?$search=" + searchTerm);
+    helper.assertStatus(200);
+    return helper.getValues();
+  }
+}
@@ -0,0 +1,30 @@
+package com.sap.olingo.jpa.processor.core.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class TestJPATableName {
+
+  @Test
+  public void checkQuotedSchemaAndTable() {
+    final JPATableName cut = JPATableName.parse("\"OLINGO\".\"BusinessPartner\"");
+    assertEquals("OLINGO", cut.getSchema());
+    assertEquals("BusinessPartner", cut.getTable());
+  }
+
+  @Test
+  public void checkUnquotedNamesUpperCase() {
+    final JPATableName cut = JPATableName.parse("olingo.BusinessPartner");
+    assertEquals("OLINGO", cut.getSchema());
+    assertEquals("BUSINESSPARTNER", cut.getTable());
+  }
+
+  @Test
+  public void checkTableWithoutSchema() {
+    final JPATableName cut = JPATableName.parse("\"Business.Partner\"");
+    assertNull(cut.getSchema());
+    assertEquals("Business.Partner", cut.getTable());
+  }
+}
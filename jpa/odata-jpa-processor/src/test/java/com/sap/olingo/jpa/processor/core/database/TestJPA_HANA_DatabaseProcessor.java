@@ -0,0 +1,142 @@
+package com.sap.olingo.jpa.processor.core.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
+
+public class TestJPA_HANA_DatabaseProcessor {
+  private JPA_HANA_DatabaseProcessor cut;
+  private JPAEntityType et;
+  private List<JPAPath> keyPath;
+  private List<JPAPath> joinPath;
+  private Map<JPAPath, Boolean> orderBy;
+
+  @Before
+  public void setup() {
+    cut = new JPA_HANA_DatabaseProcessor();
+    et = mock(JPAEntityType.class);
+    when(et.getQualifiedTableName()).thenReturn("\"OLINGO\".\"BusinessPartnerRole\"");
+    keyPath = new ArrayList<>();
+    keyPath.add(createPath("\"BusinessPartnerID\""));
+    keyPath.add(createPath("\"BusinessPartnerRole\""));
+    joinPath = new ArrayList<>();
+    joinPath.add(keyPath.get(0));
+    orderBy = new LinkedHashMap<>();
+  }
+
+  @Test
+  public void checkExpandQueryTop() {
+    assertEquals("SELECT \"BusinessPartnerID\",\"BusinessPartnerRole\" FROM (SELECT \"BusinessPartnerID\","
+        + "\"BusinessPartnerRole\", ROW_NUMBER() OVER (PARTITION BY \"BusinessPartnerID\" ORDER BY "
+        + "\"BusinessPartnerID\",\"BusinessPartnerRole\") AS \"ROW_NO\" FROM \"OLINGO\".\"BusinessPartnerRole\" "
+        + "WHERE (\"BusinessPartnerID\" = ?1) OR (\"BusinessPartnerID\" = ?2)) WHERE \"ROW_NO\" > 0 AND "
+        + "\"ROW_NO\" <= 3",
+        cut.generateExpandQueryString(et, keyPath, joinPath, 2, orderBy, 0, 3));
+  }
+
+  @Test
+  public void checkExpandQuerySkipOrderBy() {
+    orderBy.put(keyPath.get(1), Boolean.TRUE);
+    assertEquals("SELECT \"BusinessPartnerID\",\"BusinessPartnerRole\" FROM (SELECT \"BusinessPartnerID\","
+        + "\"BusinessPartnerRole\", ROW_NUMBER() OVER (PARTITION BY \"BusinessPartnerID\" ORDER BY "
+        + "\"BusinessPartnerRole\" DESC,\"BusinessPartnerID\") AS \"ROW_NO\" FROM \"OLINGO\".\"BusinessPartnerRole\" "
+        + "WHERE (\"BusinessPartnerID\" = ?1)) WHERE \"ROW_NO\" > 2",
+        cut.generateExpandQueryString(et, keyPath, joinPath, 1, orderBy, 2, Long.MAX_VALUE));
+  }
+
+  @Test
+  public void checkExpandQueryCompoundJoin() {
+    joinPath.add(keyPath.get(1));
+    assertEquals("SELECT \"BusinessPartnerID\",\"BusinessPartnerRole\" FROM (SELECT \"BusinessPartnerID\","
+        + "\"BusinessPartnerRole\", ROW_NUMBER() OVER (PARTITION BY \"BusinessPartnerID\",\"BusinessPartnerRole\" "
+        + "ORDER BY \"BusinessPartnerID\",\"BusinessPartnerRole\") AS \"ROW_NO\" FROM "
+        + "\"OLINGO\".\"BusinessPartnerRole\" WHERE (\"BusinessPartnerID\" = ?1 AND \"BusinessPartnerRole\" = ?2) OR "
+        + "(\"BusinessPartnerID\" = ?3 AND \"BusinessPartnerRole\" = ?4)) WHERE \"ROW_NO\" > 1 AND \"ROW_NO\" <= 2",
+        cut.generateExpandQueryString(et, keyPath, joinPath, 2, orderBy, 1, 1));
+  }
+
+  @Test
+  public void checkSupportsRecursiveExpand() {
+    assertTrue(cut.supportsRecursiveExpand());
+  }
+
+  @Test
+  public void checkRecursiveExpandQueryLevels() {
+    final List<JPAPath> idPath = Arrays.asList(createPath("\"ID\""));
+    assertEquals("SELECT DISTINCT K0, HIERARCHY_LEVEL FROM HIERARCHY (SOURCE (SELECT \"ID\" AS K0,\"ParentID\" AS J0, "
+        + "\"ParentID\" AS PARENT_ID, \"ID\" AS NODE_ID FROM \"OLINGO\".\"BusinessPartnerRole\") START WHERE "
+        + "(J0 = ?1) OR (J0 = ?2) DEPTH 2 ORPHAN IGNORE CYCLE BREAKUP)",
+        cut.generateRecursiveExpandQueryString(et, idPath, idPath, Arrays.asList(createPath("\"ParentID\"")), 2, 3));
+  }
+
+  @Test
+  public void checkRecursiveExpandQueryMaxLevelsCompoundKey() {
+    final List<JPAPath> sourcePath = Arrays.asList(keyPath.get(0), createPath("\"Code\""));
+    final List<JPAPath> parentPath = Arrays.asList(keyPath.get(0), createPath("\"ParentCode\""));
+    assertEquals("SELECT DISTINCT K0,K1, HIERARCHY_LEVEL FROM HIERARCHY (SOURCE (SELECT \"BusinessPartnerID\" AS K0,"
+        + "\"BusinessPartnerRole\" AS K1,\"BusinessPartnerID\" AS J0,\"ParentCode\" AS J1, "
+        + "TO_NVARCHAR(\"BusinessPartnerID\") || '/' || TO_NVARCHAR(\"ParentCode\") AS PARENT_ID, "
+        + "TO_NVARCHAR(\"BusinessPartnerID\") || '/' || TO_NVARCHAR(\"Code\") AS NODE_ID FROM "
+        + "\"OLINGO\".\"BusinessPartnerRole\") START WHERE (J0 = ?1 AND J1 = ?2) ORPHAN IGNORE CYCLE BREAKUP)",
+        cut.generateRecursiveExpandQueryString(et, keyPath, sourcePath, parentPath, 1, Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void checkEstimateCountReadsTableStatistics() throws ODataApplicationException {
+    final EntityManager em = mock(EntityManager.class);
+    final Query query = mock(Query.class);
+    when(em.createNativeQuery(anyString())).thenReturn(query);
+    when(query.setParameter(anyInt(), anyObject())).thenReturn(query);
+    when(query.getResultList()).thenReturn(Arrays.<Object> asList(BigInteger.valueOf(42)));
+
+    assertEquals(Long.valueOf(42), cut.estimateCount(em, et));
+    verify(em).createNativeQuery("SELECT RECORD_COUNT FROM M_TABLES WHERE TABLE_NAME = ?1 AND SCHEMA_NAME = ?2");
+    verify(query).setParameter(1, "BusinessPartnerRole");
+    verify(query).setParameter(2, "OLINGO");
+  }
+
+  @Test
+  public void checkEstimateCountNullIfNoStatistics() throws ODataApplicationException {
+    final EntityManager em = mock(EntityManager.class);
+    final Query query = mock(Query.class);
+    when(et.getQualifiedTableName()).thenReturn("BusinessPartnerRole");
+    when(em.createNativeQuery(anyString())).thenReturn(query);
+    when(query.setParameter(anyInt(), anyObject())).thenReturn(query);
+    when(query.getResultList()).thenReturn(Collections.emptyList());
+
+    assertNull(cut.estimateCount(em, et));
+    verify(em).createNativeQuery(
+        "SELECT RECORD_COUNT FROM M_TABLES WHERE TABLE_NAME = ?1 AND SCHEMA_NAME = CURRENT_SCHEMA");
+    verify(query).setParameter(1, "BUSINESSPARTNERROLE");
+  }
+
+  private JPAPath createPath(final String dbFieldName) {
+    final JPAPath path = mock(JPAPath.class);
+    when(path.getDBFieldName()).thenReturn(dbFieldName);
+    return path;
+  }
+}
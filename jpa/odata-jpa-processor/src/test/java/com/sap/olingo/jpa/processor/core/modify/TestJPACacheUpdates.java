@@ -0,0 +1,165 @@
+package com.sap.olingo.jpa.processor.core.modify;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sap.olingo.jpa.metadata.api.JPAEdmProvider;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import com.sap.olingo.jpa.processor.core.api.JPAODataContextAccessDouble;
+import com.sap.olingo.jpa.processor.core.database.JPASearchIndex;
+import com.sap.olingo.jpa.processor.core.query.JPAFunctionResultCache;
+import com.sap.olingo.jpa.processor.core.testmodel.AdministrativeDivision;
+import com.sap.olingo.jpa.processor.core.testmodel.AdministrativeDivisionDescription;
+import com.sap.olingo.jpa.processor.core.testmodel.BusinessPartnerRole;
+import com.sap.olingo.jpa.processor.core.testmodel.Organization;
+import com.sap.olingo.jpa.processor.core.util.IntegrationTestHelper;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+import com.sap.olingo.jpa.processor.core.util.TestHelper;
+
+public class TestJPACacheUpdates extends TestBase {
+  private JPACacheUpdates cut;
+  private JPASearchIndex index;
+  private JPAEntityType et;
+  private JPAFunctionResultCache functionResults;
+
+  @Before
+  public void setup() throws ODataException, IOException {
+    index = new JPASearchIndex(emf);
+    final JPAODataContextAccessDouble context = new JPAODataContextAccessDouble(new JPAEdmProvider(PUNIT_NAME, emf,
+        null, TestBase.enumPackages), ds);
+    context.setSearchIndex(index);
+    functionResults = new JPAFunctionResultCache();
+    context.setFunctionResultCache(functionResults);
+    cut = new JPACacheUpdates(context);
+    helper = new TestHelper(emf, PUNIT_NAME);
+    et = helper.getJPAEntityType("AdministrativeDivisionDescriptions");
+    new IntegrationTestHelper(emf, index, "AdministrativeDivisionDescriptions?$search=berlin").assertStatus(200);
+  }
+
+  @Test
+  public void checkUpdateAppliedImmediatelyWithoutCollecting() {
+    assertFalse(cut.isCollecting());
+    cut.put(et, createEntity());
+    assertEquals(286, index.size(et));
+  }
+
+  @Test
+  public void checkCollectedUpdatesAppliedOnApply() {
+    cut.collect();
+    cut.put(et, createEntity());
+    assertTrue(cut.isCollecting());
+    assertEquals(285, index.size(et));
+
+    cut.apply();
+    assertFalse(cut.isCollecting());
+    assertEquals(286, index.size(et));
+  }
+
+  @Test
+  public void checkCollectedUpdatesDroppedOnDiscard() {
+    cut.collect();
+    cut.put(et, createEntity());
+    cut.discard();
+    assertFalse(cut.isCollecting());
+    assertEquals(285, index.size(et));
+  }
+
+  @Test
+  public void checkCollectedRemoveAppliedOnApply() {
+    cut.put(et, createEntity());
+    cut.collect();
+    cut.remove(et, createEntity());
+    assertEquals(286, index.size(et));
+
+    cut.apply();
+    assertEquals(285, index.size(et));
+  }
+
+  @Test
+  public void checkCollectedInvalidateAppliedOnApply() {
+    cut.collect();
+    cut.invalidate(et);
+    assertEquals(285, index.size(et));
+
+    cut.apply();
+    assertEquals(0, index.size(et));
+  }
+
+  @Test
+  public void checkCollectedUpdatesAppliedAsInvalidations() {
+    functionResults.put("/Descriptions", "1", 1000, Arrays.<Class<?>> asList(et.getTypeClass()));
+    cut.collect();
+    cut.put(et, createEntity());
+
+    cut.applyAsInvalidations();
+    assertFalse(cut.isCollecting());
+    assertEquals(0, index.size(et));
+    assertNull(functionResults.get("/Descriptions"));
+  }
+
+  @Test
+  public void checkFunctionResultsRemovedOnApply() {
+    functionResults.put("/Descriptions", "1", 1000, Arrays.<Class<?>> asList(et.getTypeClass()));
+    functionResults.put("/Organization", "2", 1000, Arrays.<Class<?>> asList(Organization.class));
+    cut.collect();
+    cut.put(et, createEntity());
+    assertEquals("1", functionResults.get("/Descriptions"));
+
+    cut.apply();
+    assertNull(functionResults.get("/Descriptions"));
+    assertEquals("2", functionResults.get("/Organization"));
+  }
+
+  @Test
+  public void checkFunctionResultsKeptOnDiscard() {
+    functionResults.put("/Descriptions", "1", 1000, Arrays.<Class<?>> asList(et.getTypeClass()));
+    cut.collect();
+    cut.remove(et, createEntity());
+    cut.discard();
+    assertEquals("1", functionResults.get("/Descriptions"));
+  }
+
+  @Test
+  public void checkFunctionResultsOfCascadedTypesRemovedOnApply() throws ODataJPAModelException {
+    functionResults.put("/Roles", "1", 1000, Arrays.<Class<?>> asList(BusinessPartnerRole.class));
+    functionResults.put("/Divisions", "2", 1000, Arrays.<Class<?>> asList(AdministrativeDivision.class));
+    cut.collect();
+    cut.invalidate(helper.getJPAEntityType("Organizations"));
+
+    cut.apply();
+    assertNull(functionResults.get("/Roles"));
+    assertEquals("2", functionResults.get("/Divisions"));
+  }
+
+  @Test
+  public void checkCascadedTypesFollowCascadeOnly() {
+    final Set<Class<?>> act = JPACacheUpdates.determineCascadedTypes(Organization.class);
+    assertTrue(act.contains(Organization.class));
+    assertTrue(act.contains(BusinessPartnerRole.class));
+    assertTrue(act.contains(AdministrativeDivisionDescription.class));
+    assertFalse(act.contains(AdministrativeDivision.class));
+  }
+
+  private Map<String, Object> createEntity() {
+    final Map<String, Object> entity = new HashMap<>();
+    entity.put("codePublisher", "Test");
+    entity.put("codeID", "1");
+    entity.put("divisionCode", "A");
+    entity.put("language", "en");
+    entity.put("name", "Atlantis");
+    return entity;
+  }
+}
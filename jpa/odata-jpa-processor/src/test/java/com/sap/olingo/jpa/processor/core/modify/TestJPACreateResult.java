@@ -14,6 +14,7 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAssociationPath;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAEntityType;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import com.sap.olingo.jpa.processor.core.converter.JPAExpandResult;
+import com.sap.olingo.jpa.processor.core.converter.JPAJoinKey;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessException;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
 import com.sap.olingo.jpa.processor.core.util.TestBase;
@@ -44,7 +45,7 @@ public abstract class TestJPACreateResult extends TestBase {
 
     createCutGetResultSimpleEntity();
 
-    List<Tuple> act = cut.getResult("root");
+    List<Tuple> act = cut.getResult(JPAJoinKey.ROOT);
 
     assertNotNull(act);
     assertEquals(1, act.size());
@@ -57,7 +58,7 @@ public abstract class TestJPACreateResult extends TestBase {
 
     createCutGetResultWithOneLevelEmbedded();
 
-    List<Tuple> act = cut.getResult("root");
+    List<Tuple> act = cut.getResult(JPAJoinKey.ROOT);
 
     assertNotNull(act);
     assertEquals(1, act.size());
@@ -70,7 +71,7 @@ public abstract class TestJPACreateResult extends TestBase {
 
     createCutGetResultWithTwoLevelEmbedded();
 
-    List<Tuple> act = cut.getResult("root");
+    List<Tuple> act = cut.getResult(JPAJoinKey.ROOT);
     assertNotNull(act);
     assertEquals(1, act.size());
     assertEquals("01", act.get(0).get("ID"));
@@ -85,7 +86,7 @@ public abstract class TestJPACreateResult extends TestBase {
     assertEquals(1, act.size());
     for (JPAAssociationPath actPath : act.keySet()) {
       assertEquals("Children", actPath.getAlias());
-      List<Tuple> subResult = act.get(actPath).getResult("Eurostat/NUTS1/BE2");
+      List<Tuple> subResult = act.get(actPath).getResult(JPAJoinKey.of("Eurostat", "NUTS1", "BE2"));
       assertEquals(1, subResult.size());
     }
 
@@ -100,7 +101,7 @@ public abstract class TestJPACreateResult extends TestBase {
     assertEquals(1, act.size());
     for (JPAAssociationPath actPath : act.keySet()) {
       assertEquals("Children", actPath.getAlias());
-      List<Tuple> subResult = act.get(actPath).getResult("Eurostat/NUTS1/BE2");
+      List<Tuple> subResult = act.get(actPath).getResult(JPAJoinKey.of("Eurostat", "NUTS1", "BE2"));
       assertEquals(2, subResult.size());
     }
   }
@@ -66,6 +66,7 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAServiceDocument;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAStructuredType;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.impl.JPAJavaOperationInvokerImpl;
 import com.sap.olingo.jpa.processor.core.api.JPAODataRequestContextAccess;
 import com.sap.olingo.jpa.processor.core.api.JPAODataSessionContextAccess;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessException;
@@ -173,12 +174,32 @@ public class TestJPAActionProcessor {
     Method m = TestJavaActions.class.getMethod("unboundWithOutParameter");
     when(action.getConstructor()).thenReturn(c);
     when(action.getMethod()).thenReturn(m);
+    when(action.getInvoker()).thenReturn(new JPAJavaOperationInvokerImpl(m, c));
     when(action.getReturnType()).thenReturn(null);
     cut.performAction(request, response, requestFormat);
 
     assertEquals(1, TestJavaActions.constructorCalls);
   }
 
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testCallsActionWithoutInvokerOfOperation() throws ODataJPAProcessException, NoSuchMethodException,
+      SecurityException, ODataApplicationException {
+    TestJavaActions.constructorCalls = 0;
+
+    @SuppressWarnings("rawtypes")
+    Constructor c = TestJavaActions.class.getConstructors()[0];
+    Method m = TestJavaActions.class.getMethod("unboundWithOutParameter");
+    when(action.getConstructor()).thenReturn(c);
+    when(action.getMethod()).thenReturn(m);
+    when(action.getInvoker()).thenReturn(null);
+    when(action.getReturnType()).thenReturn(null);
+
+    cut.performAction(request, response, requestFormat);
+    assertEquals(1, TestJavaActions.constructorCalls);
+    verify(response, times(1)).setStatusCode(204);
+  }
+
   @SuppressWarnings("unchecked")
   @Test
   public void testCallsActionVoidNoParameterReturnNoContent() throws ODataJPAProcessException, NoSuchMethodException,
@@ -189,6 +210,7 @@ public class TestJPAActionProcessor {
     Method m = TestJavaActions.class.getMethod("unboundWithOutParameter");
     when(action.getConstructor()).thenReturn(c);
     when(action.getMethod()).thenReturn(m);
+    when(action.getInvoker()).thenReturn(new JPAJavaOperationInvokerImpl(m, c));
     when(action.getReturnType()).thenReturn(null);
 
     cut.performAction(request, response, requestFormat);
@@ -205,6 +227,7 @@ public class TestJPAActionProcessor {
     Method m = TestJavaActions.class.getMethod("unboundReturnFacetNoParameter");
     when(action.getConstructor()).thenReturn(c);
     when(action.getMethod()).thenReturn(m);
+    when(action.getInvoker()).thenReturn(new JPAJavaOperationInvokerImpl(m, c));
     final JPAOperationResultParameter rParam = mock(JPAOperationResultParameter.class);
     when(action.getResultParameter()).thenReturn(rParam);
 
@@ -229,6 +252,7 @@ public class TestJPAActionProcessor {
     Method m = TestJavaActions.class.getMethod("returnEmbeddable");
     when(action.getConstructor()).thenReturn(c);
     when(action.getMethod()).thenReturn(m);
+    when(action.getInvoker()).thenReturn(new JPAJavaOperationInvokerImpl(m, c));
     final JPAOperationResultParameter rParam = mock(JPAOperationResultParameter.class);
     when(action.getResultParameter()).thenReturn(rParam);
 
@@ -449,6 +473,7 @@ public class TestJPAActionProcessor {
     Method m = TestJavaActionNoParameter.class.getMethod(methodName, parameterTypes);
     when(action.getConstructor()).thenReturn(c);
     when(action.getMethod()).thenReturn(m);
+    when(action.getInvoker()).thenReturn(new JPAJavaOperationInvokerImpl(m, c));
     when(action.getReturnType()).thenReturn(null);
     return m;
   }
@@ -0,0 +1,63 @@
+package com.sap.olingo.jpa.processor.core.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationTargetException;
+
+import org.junit.Test;
+
+import com.sap.olingo.jpa.processor.core.testmodel.BusinessPartner;
+import com.sap.olingo.jpa.processor.core.testmodel.Organization;
+import com.sap.olingo.jpa.processor.core.testmodel.PostalAddressData;
+
+public class TestJPAAttributeAccessors {
+
+  @Test
+  public void testAccessorsResolvedOncePerClass() {
+    assertSame(JPAAttributeAccessors.of(Organization.class), JPAAttributeAccessors.of(Organization.class));
+  }
+
+  @Test
+  public void testGetterNamesFollowNamingConvention() {
+    final JPAAttributeAccessors cut = JPAAttributeAccessors.of(Organization.class);
+    assertTrue(cut.hasGetter("iD"));
+    assertTrue(cut.hasGetter("address"));
+    assertFalse(cut.hasGetter("ID"));
+    assertTrue(cut.getSetterNames().contains("customString1"));
+  }
+
+  @Test
+  public void testGetReturnsValue() throws IllegalAccessException, InvocationTargetException {
+    final BusinessPartner partner = new Organization();
+    partner.setID("Willi");
+    assertEquals("Willi", JPAAttributeAccessors.of(Organization.class).get(partner, "iD"));
+  }
+
+  @Test
+  public void testSetterMatchesExactType() throws IllegalAccessException, InvocationTargetException {
+    final JPAAttributeAccessors cut = JPAAttributeAccessors.of(Organization.class);
+    assertNull(cut.getSetter("eTag", Long.class));
+    assertNull(cut.getSetter("iD", Integer.class));
+    assertNotNull(cut.getSetter("eTag", null));
+
+    final BusinessPartner partner = new Organization();
+    cut.getSetter("address", PostalAddressData.class).set(partner, new PostalAddressData());
+    assertNotNull(partner.getAddress());
+  }
+
+  @Test
+  public void testGetUnknownAttributeThrowsException() throws IllegalAccessException, InvocationTargetException {
+    try {
+      JPAAttributeAccessors.of(Organization.class).get(new Organization(), "dummy");
+    } catch (IllegalArgumentException e) {
+      return;
+    }
+    fail();
+  }
+}
@@ -0,0 +1,81 @@
+package com.sap.olingo.jpa.processor.core.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TestJPAByteRange {
+
+  @Test
+  public void checkNoHeaderReturnsNull() {
+    assertNull(JPAByteRange.parse(null, 100));
+  }
+
+  @Test
+  public void checkOtherUnitReturnsNull() {
+    assertNull(JPAByteRange.parse("items=0-9", 100));
+  }
+
+  @Test
+  public void checkInvalidRangeReturnsNull() {
+    assertNull(JPAByteRange.parse("bytes=a-9", 100));
+    assertNull(JPAByteRange.parse("bytes=10-9", 100));
+    assertNull(JPAByteRange.parse("bytes=-", 100));
+    assertNull(JPAByteRange.parse("bytes=10", 100));
+  }
+
+  @Test
+  public void checkMultipleRangesReturnNull() {
+    assertNull(JPAByteRange.parse("bytes=0-9,20-29", 100));
+  }
+
+  @Test
+  public void checkClosedRange() {
+    final JPAByteRange cut = JPAByteRange.parse("bytes=10-19", 100);
+
+    assertTrue(cut.isSatisfiable());
+    assertEquals(10, cut.getFirst());
+    assertEquals(10, cut.getSize());
+    assertEquals("bytes 10-19/100", cut.toContentRange());
+  }
+
+  @Test
+  public void checkRangeCutAtEnd() {
+    final JPAByteRange cut = JPAByteRange.parse("bytes=90-199", 100);
+
+    assertEquals(99, cut.getLast());
+    assertEquals(10, cut.getSize());
+  }
+
+  @Test
+  public void checkOpenRange() {
+    final JPAByteRange cut = JPAByteRange.parse("bytes=90-", 100);
+
+    assertEquals(90, cut.getFirst());
+    assertEquals(99, cut.getLast());
+  }
+
+  @Test
+  public void checkSuffixRange() {
+    final JPAByteRange cut = JPAByteRange.parse("bytes=-150", 100);
+
+    assertEquals(0, cut.getFirst());
+    assertEquals(100, cut.getSize());
+  }
+
+  @Test
+  public void checkRangeBehindEndNotSatisfiable() {
+    final JPAByteRange cut = JPAByteRange.parse("bytes=100-", 100);
+
+    assertFalse(cut.isSatisfiable());
+    assertEquals("bytes */100", cut.toContentRange());
+  }
+
+  @Test
+  public void checkEmptySuffixNotSatisfiable() {
+    assertFalse(JPAByteRange.parse("bytes=-0", 100).isSatisfiable());
+  }
+}
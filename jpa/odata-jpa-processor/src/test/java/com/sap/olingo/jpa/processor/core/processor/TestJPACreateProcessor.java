@@ -2,6 +2,7 @@ package com.sap.olingo.jpa.processor.core.processor;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
@@ -13,6 +14,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -20,6 +22,9 @@ import java.util.Map;
 
 import javax.persistence.EntityManager;
 
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Link;
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.commons.api.http.HttpHeader;
@@ -39,6 +44,9 @@ import com.sap.olingo.jpa.processor.core.api.JPAAbstractCUDRequestHandler;
 import com.sap.olingo.jpa.processor.core.api.JPACUDRequestHandler;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessException;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
+import com.sap.olingo.jpa.processor.core.modify.JPACacheUpdates;
+import com.sap.olingo.jpa.processor.core.query.JPAFunctionResultCache;
+import com.sap.olingo.jpa.processor.core.testmodel.BusinessPartnerRole;
 import com.sap.olingo.jpa.processor.core.testmodel.Organization;
 
 public class TestJPACreateProcessor extends TestJPAModifyProcessor {
@@ -351,6 +359,54 @@ public class TestJPACreateProcessor extends TestJPAModifyProcessor {
     fail();
   }
 
+  @Test
+  public void testCacheUpdatesCollectedWithinForeignTransaction() throws ODataException {
+    final JPAFunctionResultCache functionResults = new JPAFunctionResultCache();
+    functionResults.put("/Organization", "1", 1000, Arrays.<Class<?>> asList(Organization.class));
+    when(sessionContext.getFunctionResultCache()).thenReturn(functionResults);
+    final JPACacheUpdates cacheUpdates = new JPACacheUpdates(sessionContext);
+    processor = new JPACUDRequestProcessor(odata, serviceMetadata, sessionContext, requestContext, convHelper,
+        cacheUpdates);
+
+    ODataResponse response = new ODataResponse();
+    ODataRequest request = prepareSimpleRequest();
+    when(em.getTransaction().isActive()).thenReturn(true);
+    when(sessionContext.getCUDRequestHandler()).thenReturn(new RequestHandleSpy());
+
+    processor.createEntity(request, response, ContentType.JSON, ContentType.JSON);
+    assertTrue(cacheUpdates.isCollecting());
+    assertEquals("1", functionResults.get("/Organization"));
+
+    cacheUpdates.apply();
+    assertNull(functionResults.get("/Organization"));
+  }
+
+  @Test
+  public void testCacheOfDeepInsertedEntitiesUpdated() throws ODataException {
+    final JPAFunctionResultCache functionResults = new JPAFunctionResultCache();
+    functionResults.put("/Roles", "1", 1000, Arrays.<Class<?>> asList(BusinessPartnerRole.class));
+    when(sessionContext.getFunctionResultCache()).thenReturn(functionResults);
+    processor = new JPACUDRequestProcessor(odata, serviceMetadata, sessionContext, requestContext, convHelper,
+        new JPACacheUpdates(sessionContext));
+
+    ODataResponse response = new ODataResponse();
+    ODataRequest request = prepareSimpleRequest();
+    final Entity odataEntity = mock(Entity.class);
+    final Link navigationLink = mock(Link.class);
+    final EntityCollection inlineEntities = mock(EntityCollection.class);
+    when(navigationLink.getTitle()).thenReturn("Roles");
+    when(navigationLink.getInlineEntitySet()).thenReturn(inlineEntities);
+    when(inlineEntities.getEntities()).thenReturn(Arrays.asList(mock(Entity.class)));
+    final List<Link> navigationLinks = new ArrayList<>();
+    navigationLinks.add(navigationLink);
+    when(odataEntity.getNavigationLinks()).thenReturn(navigationLinks);
+    when(convHelper.convertInputStream(odata, request, ContentType.JSON, ets)).thenReturn(odataEntity);
+    when(sessionContext.getCUDRequestHandler()).thenReturn(new RequestHandleSpy());
+
+    processor.createEntity(request, response, ContentType.JSON, ContentType.JSON);
+    assertNull(functionResults.get("/Roles"));
+  }
+
   class RequestHandleSpy extends JPAAbstractCUDRequestHandler {
     public int noValidateCalls;
     public JPAEntityType et;
@@ -2,6 +2,7 @@ package com.sap.olingo.jpa.processor.core.processor;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
@@ -52,7 +53,10 @@ import com.sap.olingo.jpa.processor.core.api.JPAServiceDebugger;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessException;
 import com.sap.olingo.jpa.processor.core.exception.ODataJPAProcessorException;
 import com.sap.olingo.jpa.processor.core.modify.JPAConversionHelper;
+import com.sap.olingo.jpa.processor.core.query.JPAFunctionResultCache;
+import com.sap.olingo.jpa.processor.core.testmodel.AdministrativeDivision;
 import com.sap.olingo.jpa.processor.core.testmodel.DataSourceHelper;
+import com.sap.olingo.jpa.processor.core.testmodel.Organization;
 import com.sap.olingo.jpa.processor.core.util.TestBase;
 
 public class TestJPADeleteProcessor {
@@ -121,6 +125,21 @@ public class TestJPADeleteProcessor {
     assertEquals(204, response.getStatusCode());
   }
 
+  @Test
+  public void testInvalidatesDependentFunctionResults() throws ODataApplicationException {
+    ODataResponse response = new ODataResponse();
+    ODataRequest request = mock(ODataRequest.class);
+    JPAFunctionResultCache cache = new JPAFunctionResultCache();
+    cache.put("/Organization", "1", 1000, Arrays.<Class<?>> asList(Organization.class));
+    cache.put("/AdministrativeDivision", "2", 1000, Arrays.<Class<?>> asList(AdministrativeDivision.class));
+    when(sessionContext.getCUDRequestHandler()).thenReturn(new RequestHandleSpy());
+    when(sessionContext.getFunctionResultCache()).thenReturn(cache);
+
+    processor.deleteEntity(request, response);
+    assertNull(cache.get("/Organization"));
+    assertEquals("2", cache.get("/AdministrativeDivision"));
+  }
+
   @Test
   public void testThrowUnexpectedExceptionInCaseOfError() throws ODataJPAProcessException {
     ODataResponse response = new ODataResponse();
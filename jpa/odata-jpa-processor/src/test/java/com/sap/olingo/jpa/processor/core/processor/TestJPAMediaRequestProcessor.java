@@ -0,0 +1,154 @@
+package com.sap.olingo.jpa.processor.core.processor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sap.olingo.jpa.processor.core.util.IntegrationTestHelper;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+
+public class TestJPAMediaRequestProcessor extends TestBase {
+  private static final int IMAGE_SIZE = 3 * JPAMediaContent.BUFFER_SIZE + 17;
+  private byte[] image;
+
+  @Before
+  public void setup() {
+    image = new byte[IMAGE_SIZE];
+    for (int i = 0; i < image.length; i++)
+      image[i] = (byte) (i * 7);
+    storeImages(image);
+  }
+
+  @After
+  public void teardown() {
+    storeImages(null);
+  }
+
+  @Test
+  public void testReadMediaStreamsCompleteContent() throws IOException, ODataException {
+
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, "PersonImages('99')/$value");
+    helper.assertStatus(200);
+
+    assertArrayEquals(image, helper.getBinaryResult());
+    assertEquals("image/png", helper.getResponce().getHeader("Content-Type"));
+    assertEquals(Integer.toString(IMAGE_SIZE), helper.getResponce().getHeader("Content-Length"));
+    assertEquals("bytes", helper.getResponce().getHeader("Accept-Ranges"));
+  }
+
+  @Test
+  public void testReadMediaContentTypeFromAttribute() throws IOException, ODataException {
+
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, "OrganizationImages('9')/$value");
+    helper.assertStatus(200);
+
+    assertArrayEquals(image, helper.getBinaryResult());
+    assertEquals("image/svg+xml", helper.getResponce().getHeader("Content-Type"));
+  }
+
+  @Test
+  public void testReadMediaRange() throws IOException, ODataException {
+
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, "PersonImages('99')/$value",
+        createRange("bytes=8190-8199"));
+    helper.assertStatus(206);
+
+    assertArrayEquals(Arrays.copyOfRange(image, 8190, 8200), helper.getBinaryResult());
+    assertEquals("bytes 8190-8199/" + IMAGE_SIZE, helper.getResponce().getHeader("Content-Range"));
+    assertEquals("10", helper.getResponce().getHeader("Content-Length"));
+  }
+
+  @Test
+  public void testReadMediaOpenRange() throws IOException, ODataException {
+
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, "PersonImages('99')/$value",
+        createRange("bytes=100-"));
+    helper.assertStatus(206);
+
+    assertArrayEquals(Arrays.copyOfRange(image, 100, IMAGE_SIZE), helper.getBinaryResult());
+  }
+
+  @Test
+  public void testReadMediaSuffixRange() throws IOException, ODataException {
+
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, "PersonImages('99')/$value",
+        createRange("bytes=-20"));
+    helper.assertStatus(206);
+
+    assertArrayEquals(Arrays.copyOfRange(image, IMAGE_SIZE - 20, IMAGE_SIZE), helper.getBinaryResult());
+    assertEquals("bytes " + (IMAGE_SIZE - 20) + "-" + (IMAGE_SIZE - 1) + "/" + IMAGE_SIZE, helper.getResponce()
+        .getHeader("Content-Range"));
+  }
+
+  @Test
+  public void testReadMediaRangeNotSatisfiable() throws IOException, ODataException {
+
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, "PersonImages('99')/$value",
+        createRange("bytes=" + IMAGE_SIZE + "-"));
+    helper.assertStatus(416);
+
+    assertEquals("bytes */" + IMAGE_SIZE, helper.getResponce().getHeader("Content-Range"));
+  }
+
+  @Test
+  public void testReadMediaMultipleRangesReturnsCompleteContent() throws IOException, ODataException {
+
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, "PersonImages('99')/$value",
+        createRange("bytes=0-9,20-29"));
+    helper.assertStatus(200);
+
+    assertArrayEquals(image, helper.getBinaryResult());
+  }
+
+  @Test
+  public void testReadMediaNullReturnsNoContent() throws IOException, ODataException {
+    storeImages(null);
+
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, "PersonImages('99')/$value");
+    helper.assertStatus(204);
+  }
+
+  @Test
+  public void testReadMediaEntityNotFound() throws IOException, ODataException {
+
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, "PersonImages('9999')/$value");
+    helper.assertStatus(404);
+  }
+
+  private Map<String, List<String>> createRange(final String range) {
+    return Collections.singletonMap("Range", Arrays.asList(range));
+  }
+
+  private void storeImages(final byte[] content) {
+    final EntityManager em = emf.createEntityManager();
+    try {
+      em.getTransaction().begin();
+      storeImage(em, "\"PersonImage\"", "99", content);
+      storeImage(em, "\"OrganizationImage\"", "9", content);
+      em.getTransaction().commit();
+    } finally {
+      em.close();
+    }
+  }
+
+  private void storeImage(final EntityManager em, final String table, final String id, final byte[] content) {
+    final String statement = "UPDATE \"OLINGO\"." + table + " SET \"Image\" = ";
+    if (content == null)
+      em.createNativeQuery(statement + "NULL WHERE \"ID\" = ?1").setParameter(1, id).executeUpdate();
+    else
+      em.createNativeQuery(statement + "?1 WHERE \"ID\" = ?2").setParameter(1, content).setParameter(2, id)
+          .executeUpdate();
+  }
+}
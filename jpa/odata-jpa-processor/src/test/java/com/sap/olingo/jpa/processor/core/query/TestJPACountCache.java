@@ -0,0 +1,114 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestJPACountCache {
+  private JPACountCache cut;
+  private ClockDouble clock;
+
+  @Before
+  public void setup() {
+    clock = new ClockDouble();
+    cut = new JPACountCache(2, clock);
+    cut.setTimeToLive("Organizations", 1000);
+    cut.setTimeToLive("Persons", 1000);
+  }
+
+  @Test
+  public void checkDefaultMaxSize() {
+    assertEquals(JPACountCache.DEFAULT_MAX_SIZE, new JPACountCache().getMaxSize());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void checkMaxSizeZeroRejected() {
+    new JPACountCache(0);
+  }
+
+  @Test
+  public void checkGetReturnsCount() {
+    cut.put("Organizations", "/Organizations", 10L);
+    assertEquals(Long.valueOf(10), cut.get("/Organizations"));
+    assertEquals(1, cut.getHitCount());
+    assertEquals(0, cut.getMissCount());
+  }
+
+  @Test
+  public void checkOnlyConfiguredEntitySetCached() {
+    assertTrue(cut.isCached("Organizations"));
+    assertFalse(cut.isCached("BusinessPartnerRoles"));
+    cut.put("BusinessPartnerRoles", "/BusinessPartnerRoles", 11L);
+    assertNull(cut.get("/BusinessPartnerRoles"));
+    assertEquals(0, cut.size());
+  }
+
+  @Test
+  public void checkTimeToLiveZeroSwitchesCachingOff() {
+    cut.setTimeToLive("Organizations", 0);
+    assertFalse(cut.isCached("Organizations"));
+  }
+
+  @Test
+  public void checkCountExpires() {
+    cut.put("Organizations", "/Organizations", 10L);
+    clock.millis = 999;
+    assertEquals(Long.valueOf(10), cut.get("/Organizations"));
+    clock.millis = 1000;
+    assertNull(cut.get("/Organizations"));
+    assertEquals(0, cut.size());
+    assertEquals(1, cut.getMissCount());
+  }
+
+  @Test
+  public void checkLeastRecentlyUsedEvicted() {
+    cut.put("Organizations", "/Organizations", 10L);
+    cut.put("Persons", "/Persons", 2L);
+    cut.get("/Organizations");
+    cut.put("Organizations", "/Organizations?$filter=ID eq '3'", 1L);
+
+    assertEquals(2, cut.size());
+    assertEquals(Long.valueOf(10), cut.get("/Organizations"));
+    assertNull(cut.get("/Persons"));
+  }
+
+  @Test
+  public void checkClearRemovesCounts() {
+    cut.put("Organizations", "/Organizations", 10L);
+    cut.clear();
+    assertNull(cut.get("/Organizations"));
+  }
+
+  private static class ClockDouble extends Clock {
+    private long millis;
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(final ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public long millis() {
+      return millis;
+    }
+
+    @Override
+    public Instant instant() {
+      return Instant.ofEpochMilli(millis);
+    }
+  }
+}
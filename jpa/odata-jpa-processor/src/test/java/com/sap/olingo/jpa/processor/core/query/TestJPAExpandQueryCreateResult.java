@@ -21,6 +21,7 @@ import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAssociationPath;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
 import com.sap.olingo.jpa.processor.core.api.JPAODataContextAccessDouble;
 import com.sap.olingo.jpa.processor.core.api.JPAODataSessionContextAccess;
+import com.sap.olingo.jpa.processor.core.converter.JPAJoinKey;
 import com.sap.olingo.jpa.processor.core.util.EdmEntityTypeDouble;
 import com.sap.olingo.jpa.processor.core.util.ExpandItemDouble;
 import com.sap.olingo.jpa.processor.core.util.TestBase;
@@ -54,11 +55,11 @@ public class TestJPAExpandQueryCreateResult extends TestBase {
     Tuple t = new TupleDouble(oneResult);
     result.add(t);
 
-    Map<String, List<Tuple>> act = cut.convertResult(result, exp, 0, Long.MAX_VALUE);
+    Map<JPAJoinKey, List<Tuple>> act = cut.convertResult(result, exp, 0, Long.MAX_VALUE);
 
-    assertNotNull(act.get("1"));
-    assertEquals(1, act.get("1").size());
-    assertEquals("1", act.get("1").get(0).get("BusinessPartnerID"));
+    assertNotNull(act.get(JPAJoinKey.of("1")));
+    assertEquals(1, act.get(JPAJoinKey.of("1")).size());
+    assertEquals("1", act.get(JPAJoinKey.of("1")).get(0).get("BusinessPartnerID"));
   }
 
   @Test
@@ -79,12 +80,12 @@ public class TestJPAExpandQueryCreateResult extends TestBase {
     t = new TupleDouble(oneResult);
     result.add(t);
 
-    Map<String, List<Tuple>> act = cut.convertResult(result, exp, 0, Long.MAX_VALUE);
+    Map<JPAJoinKey, List<Tuple>> act = cut.convertResult(result, exp, 0, Long.MAX_VALUE);
 
     assertEquals(1, act.size());
-    assertNotNull(act.get("2"));
-    assertEquals(2, act.get("2").size());
-    assertEquals("2", act.get("2").get(0).get("BusinessPartnerID"));
+    assertNotNull(act.get(JPAJoinKey.of("2")));
+    assertEquals(2, act.get(JPAJoinKey.of("2")).size());
+    assertEquals("2", act.get(JPAJoinKey.of("2")).get(0).get("BusinessPartnerID"));
   }
 
   @Test
@@ -105,12 +106,12 @@ public class TestJPAExpandQueryCreateResult extends TestBase {
     t = new TupleDouble(oneResult);
     result.add(t);
 
-    Map<String, List<Tuple>> act = cut.convertResult(result, exp, 0, 1);
+    Map<JPAJoinKey, List<Tuple>> act = cut.convertResult(result, exp, 0, 1);
 
     assertEquals(1, act.size());
-    assertNotNull(act.get("2"));
-    assertEquals(1, act.get("2").size());
-    assertEquals("A", act.get("2").get(0).get("RoleCategory"));
+    assertNotNull(act.get(JPAJoinKey.of("2")));
+    assertEquals(1, act.get(JPAJoinKey.of("2")).size());
+    assertEquals("A", act.get(JPAJoinKey.of("2")).get(0).get("RoleCategory"));
   }
 
   @Test
@@ -131,12 +132,12 @@ public class TestJPAExpandQueryCreateResult extends TestBase {
     t = new TupleDouble(oneResult);
     result.add(t);
 
-    Map<String, List<Tuple>> act = cut.convertResult(result, exp, 1, 1000);
+    Map<JPAJoinKey, List<Tuple>> act = cut.convertResult(result, exp, 1, 1000);
 
     assertEquals(1, act.size());
-    assertNotNull(act.get("2"));
-    assertEquals(1, act.get("2").size());
-    assertEquals("C", act.get("2").get(0).get("RoleCategory"));
+    assertNotNull(act.get(JPAJoinKey.of("2")));
+    assertEquals(1, act.get(JPAJoinKey.of("2")).size());
+    assertEquals("C", act.get(JPAJoinKey.of("2")).get(0).get("RoleCategory"));
   }
 
   @Test
@@ -157,13 +158,13 @@ public class TestJPAExpandQueryCreateResult extends TestBase {
     t = new TupleDouble(oneResult);
     result.add(t);
 
-    Map<String, List<Tuple>> act = cut.convertResult(result, exp, 0, Long.MAX_VALUE);
+    Map<JPAJoinKey, List<Tuple>> act = cut.convertResult(result, exp, 0, Long.MAX_VALUE);
 
     assertEquals(2, act.size());
-    assertNotNull(act.get("1"));
-    assertNotNull(act.get("2"));
-    assertEquals(1, act.get("2").size());
-    assertEquals("C", act.get("2").get(0).get("RoleCategory"));
+    assertNotNull(act.get(JPAJoinKey.of("1")));
+    assertNotNull(act.get(JPAJoinKey.of("2")));
+    assertEquals(1, act.get(JPAJoinKey.of("2")).size());
+    assertEquals("C", act.get(JPAJoinKey.of("2")).get(0).get("RoleCategory"));
   }
 
   @Test
@@ -179,11 +180,11 @@ public class TestJPAExpandQueryCreateResult extends TestBase {
     Tuple t = new TupleDouble(oneResult);
     result.add(t);
 
-    Map<String, List<Tuple>> act = cut.convertResult(result, exp, 0, Long.MAX_VALUE);
+    Map<JPAJoinKey, List<Tuple>> act = cut.convertResult(result, exp, 0, Long.MAX_VALUE);
 
-    assertNotNull(act.get("NUTS/2/BE25"));
-    assertEquals(1, act.get("NUTS/2/BE25").size());
-    assertEquals("BE2", act.get("NUTS/2/BE25").get(0).get("ParentDivisionCode"));
+    assertNotNull(act.get(JPAJoinKey.of("NUTS", "2", "BE25")));
+    assertEquals(1, act.get(JPAJoinKey.of("NUTS", "2", "BE25")).size());
+    assertEquals("BE2", act.get(JPAJoinKey.of("NUTS", "2", "BE25")).get(0).get("ParentDivisionCode"));
   }
 
   @Test
@@ -211,15 +212,15 @@ public class TestJPAExpandQueryCreateResult extends TestBase {
     t = new TupleDouble(oneResult);
     result.add(t);
 
-    Map<String, List<Tuple>> act = cut.convertResult(result, exp, 0, Long.MAX_VALUE);
+    Map<JPAJoinKey, List<Tuple>> act = cut.convertResult(result, exp, 0, Long.MAX_VALUE);
 
     assertEquals(2, act.size());
-    assertNotNull(act.get("NUTS/2/BE25"));
-    assertEquals(1, act.get("NUTS/2/BE25").size());
-    assertEquals("BE2", act.get("NUTS/2/BE25").get(0).get("ParentDivisionCode"));
-    assertNotNull(act.get("NUTS/2/BE10"));
-    assertEquals(1, act.get("NUTS/2/BE10").size());
-    assertEquals("BE1", act.get("NUTS/2/BE10").get(0).get("ParentDivisionCode"));
+    assertNotNull(act.get(JPAJoinKey.of("NUTS", "2", "BE25")));
+    assertEquals(1, act.get(JPAJoinKey.of("NUTS", "2", "BE25")).size());
+    assertEquals("BE2", act.get(JPAJoinKey.of("NUTS", "2", "BE25")).get(0).get("ParentDivisionCode"));
+    assertNotNull(act.get(JPAJoinKey.of("NUTS", "2", "BE10")));
+    assertEquals(1, act.get(JPAJoinKey.of("NUTS", "2", "BE10")).size());
+    assertEquals("BE1", act.get(JPAJoinKey.of("NUTS", "2", "BE10")).get(0).get("ParentDivisionCode"));
   }
 
 }
@@ -1,6 +1,8 @@
 package com.sap.olingo.jpa.processor.core.query;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -17,12 +19,14 @@ import javax.persistence.Persistence;
 import javax.sql.DataSource;
 
 import org.apache.olingo.commons.api.data.Annotatable;
+import org.apache.olingo.commons.api.data.Property;
 import org.apache.olingo.commons.api.edm.EdmFunction;
 import org.apache.olingo.commons.api.edm.EdmParameter;
 import org.apache.olingo.commons.api.edm.EdmReturnType;
 import org.apache.olingo.commons.api.edm.EdmType;
 import org.apache.olingo.commons.api.edm.constants.EdmTypeKind;
 import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.commons.core.edm.primitivetype.EdmInt32;
 import org.apache.olingo.server.api.OData;
@@ -150,6 +154,87 @@ public class TestJPAFunctionJava {
     assertEquals(7, TestFunctionParameter.param2);
   }
 
+  @Test
+  public void testMissingParameterRejected() throws ODataApplicationException, ODataLibraryException {
+    EdmParameter edmParamA = mock(EdmParameter.class);
+    EdmReturnType edmReturn = mock(EdmReturnType.class);
+    EdmType edmType = mock(EdmType.class);
+
+    when(edmFunction.getReturnType()).thenReturn(edmReturn);
+    when(edmFunction.getName()).thenReturn("Sum");
+    when(edmFunction.getNamespace()).thenReturn(PUNIT_NAME);
+    when(edmFunction.getParameter("A")).thenReturn(edmParamA);
+    when(edmParamA.getType()).thenReturn(new EdmInt32());
+    List<UriParameter> parameterList = buildParameters().subList(0, 1);
+    when(uriResource.getParameters()).thenReturn(parameterList);
+    when(edmReturn.getType()).thenReturn(edmType);
+    when(edmType.getKind()).thenReturn(EdmTypeKind.PRIMITIVE);
+
+    try {
+      cut.retrieveData(request, response, ContentType.JSON);
+    } catch (ODataApplicationException e) {
+      assertEquals(HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), e.getStatusCode());
+      assertEquals(0, TestFunctionParameter.calls);
+      return;
+    }
+    fail();
+  }
+
+  @Test
+  public void testTakesCachedResult() throws ODataApplicationException, ODataLibraryException {
+    EdmParameter edmParamA = mock(EdmParameter.class);
+    EdmParameter edmParamB = mock(EdmParameter.class);
+    EdmReturnType edmReturn = mock(EdmReturnType.class);
+    EdmType edmType = mock(EdmType.class);
+    JPAFunctionResultCache cache = new JPAFunctionResultCache();
+
+    when(context.getFunctionResultCache()).thenReturn(cache);
+    when(edmFunction.getReturnType()).thenReturn(edmReturn);
+    when(edmFunction.getName()).thenReturn("CachedSum");
+    when(edmFunction.getNamespace()).thenReturn(PUNIT_NAME);
+    when(edmFunction.getParameter("A")).thenReturn(edmParamA);
+    when(edmParamA.getType()).thenReturn(new EdmInt32());
+    when(edmFunction.getParameter("B")).thenReturn(edmParamB);
+    when(edmParamB.getType()).thenReturn(new EdmInt32());
+    List<UriParameter> parameterList = buildParameters();
+    when(uriResource.getParameters()).thenReturn(parameterList);
+    when(edmReturn.getType()).thenReturn(edmType);
+    when(edmType.getKind()).thenReturn(EdmTypeKind.PRIMITIVE);
+
+    cut.retrieveData(request, response, ContentType.JSON);
+    cut.retrieveData(request, response, ContentType.JSON);
+    assertEquals(1, TestFunctionParameter.calls);
+    assertEquals(1, cache.getHitCount());
+    assertTrue(cache.get(JPAFunctionResultCache.createKey(uriResources)) instanceof Property);
+  }
+
+  @Test
+  public void testDoesNotCacheWithoutTimeToLive() throws ODataApplicationException, ODataLibraryException {
+    EdmParameter edmParamA = mock(EdmParameter.class);
+    EdmParameter edmParamB = mock(EdmParameter.class);
+    EdmReturnType edmReturn = mock(EdmReturnType.class);
+    EdmType edmType = mock(EdmType.class);
+    JPAFunctionResultCache cache = new JPAFunctionResultCache();
+
+    when(context.getFunctionResultCache()).thenReturn(cache);
+    when(edmFunction.getReturnType()).thenReturn(edmReturn);
+    when(edmFunction.getName()).thenReturn("Sum");
+    when(edmFunction.getNamespace()).thenReturn(PUNIT_NAME);
+    when(edmFunction.getParameter("A")).thenReturn(edmParamA);
+    when(edmParamA.getType()).thenReturn(new EdmInt32());
+    when(edmFunction.getParameter("B")).thenReturn(edmParamB);
+    when(edmParamB.getType()).thenReturn(new EdmInt32());
+    List<UriParameter> parameterList = buildParameters();
+    when(uriResource.getParameters()).thenReturn(parameterList);
+    when(edmReturn.getType()).thenReturn(edmType);
+    when(edmType.getKind()).thenReturn(EdmTypeKind.PRIMITIVE);
+
+    cut.retrieveData(request, response, ContentType.JSON);
+    cut.retrieveData(request, response, ContentType.JSON);
+    assertEquals(2, TestFunctionParameter.calls);
+    assertEquals(0, cache.size());
+  }
+
   private List<UriParameter> buildParameters() {
     UriParameter param1 = mock(UriParameter.class);
     UriParameter param2 = mock(UriParameter.class);
@@ -0,0 +1,233 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.commons.api.edm.EdmFunction;
+import org.apache.olingo.server.api.uri.UriParameter;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceFunction;
+import org.apache.olingo.server.api.uri.UriResourceNavigation;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sap.olingo.jpa.processor.core.testmodel.AdministrativeDivision;
+import com.sap.olingo.jpa.processor.core.testmodel.BusinessPartner;
+import com.sap.olingo.jpa.processor.core.testmodel.Organization;
+import com.sap.olingo.jpa.processor.core.testmodel.Person;
+
+public class TestJPAFunctionResultCache {
+  private JPAFunctionResultCache cut;
+  private ClockDouble clock;
+
+  @Before
+  public void setup() {
+    clock = new ClockDouble();
+    cut = new JPAFunctionResultCache(2, clock);
+  }
+
+  @Test
+  public void checkDefaultMaxSize() {
+    assertEquals(JPAFunctionResultCache.DEFAULT_MAX_SIZE, new JPAFunctionResultCache().getMaxSize());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void checkMaxSizeZeroRejected() {
+    new JPAFunctionResultCache(0);
+  }
+
+  @Test
+  public void checkGetReturnsResult() {
+    cut.put("/Test.Sum(A=1)", Integer.valueOf(3), 1000, dependsOn(Organization.class));
+    assertEquals(Integer.valueOf(3), cut.get("/Test.Sum(A=1)"));
+    assertEquals(1, cut.getHitCount());
+    assertEquals(0, cut.getMissCount());
+  }
+
+  @Test
+  public void checkGetCountsMiss() {
+    assertNull(cut.get("/Test.Sum(A=1)"));
+    assertEquals(0, cut.getHitCount());
+    assertEquals(1, cut.getMissCount());
+  }
+
+  @Test
+  public void checkNullResultNotStored() {
+    cut.put("/Test.Sum(A=1)", null, 1000, dependsOn(Organization.class));
+    assertEquals(0, cut.size());
+  }
+
+  @Test
+  public void checkTimeToLiveZeroNotStored() {
+    cut.put("/Test.Sum(A=1)", Integer.valueOf(3), 0, dependsOn(Organization.class));
+    assertEquals(0, cut.size());
+  }
+
+  @Test
+  public void checkResultExpires() {
+    cut.put("/Test.Sum(A=1)", Integer.valueOf(3), 1000, dependsOn(Organization.class));
+    clock.millis = 999;
+    assertEquals(Integer.valueOf(3), cut.get("/Test.Sum(A=1)"));
+    clock.millis = 1000;
+    assertNull(cut.get("/Test.Sum(A=1)"));
+    assertEquals(0, cut.size());
+  }
+
+  @Test
+  public void checkLeastRecentlyUsedEvicted() {
+    cut.put("/Test.Sum(A=1)", Integer.valueOf(1), 1000, dependsOn(Organization.class));
+    cut.put("/Test.Sum(A=2)", Integer.valueOf(2), 1000, dependsOn(Organization.class));
+    cut.get("/Test.Sum(A=1)");
+    cut.put("/Test.Sum(A=3)", Integer.valueOf(3), 1000, dependsOn(Organization.class));
+
+    assertEquals(2, cut.size());
+    assertEquals(Integer.valueOf(1), cut.get("/Test.Sum(A=1)"));
+    assertNull(cut.get("/Test.Sum(A=2)"));
+    assertEquals(Integer.valueOf(3), cut.get("/Test.Sum(A=3)"));
+  }
+
+  @Test
+  public void checkClearRemovesAll() {
+    cut.put("/Test.Sum(A=1)", Integer.valueOf(1), 1000, dependsOn(Organization.class));
+    cut.clear();
+    assertEquals(0, cut.size());
+  }
+
+  @Test
+  public void checkInvalidateRemovesOnlyDependentResults() {
+    cut.put("/Test.Sum(A=1)", Integer.valueOf(1), 1000, dependsOn(Organization.class));
+    cut.put("/Test.Sum(A=2)", Integer.valueOf(2), 1000, dependsOn(AdministrativeDivision.class));
+
+    cut.invalidate(Organization.class);
+
+    assertNull(cut.get("/Test.Sum(A=1)"));
+    assertEquals(Integer.valueOf(2), cut.get("/Test.Sum(A=2)"));
+  }
+
+  @Test
+  public void checkInvalidateRespectsSuperType() {
+    cut.put("/Test.Sum(A=1)", Integer.valueOf(1), 1000, dependsOn(BusinessPartner.class));
+    cut.invalidate(Organization.class);
+    assertEquals(0, cut.size());
+  }
+
+  @Test
+  public void checkInvalidateRespectsSubType() {
+    cut.put("/Test.Sum(A=1)", Integer.valueOf(1), 1000, dependsOn(Person.class));
+    cut.put("/Test.Sum(A=2)", Integer.valueOf(2), 1000, dependsOn(AdministrativeDivision.class));
+    cut.invalidate(BusinessPartner.class);
+    assertEquals(1, cut.size());
+  }
+
+  @Test
+  public void checkPutAfterInvalidationOfDependencyDropped() {
+    final long generation = cut.getGeneration();
+    cut.invalidate(Organization.class);
+    cut.put("/Test.Sum(A=1)", Integer.valueOf(1), 1000, dependsOn(BusinessPartner.class), generation);
+    assertEquals(0, cut.size());
+  }
+
+  @Test
+  public void checkPutAfterInvalidationOfOtherTypeStored() {
+    final long generation = cut.getGeneration();
+    cut.invalidate(AdministrativeDivision.class);
+    cut.put("/Test.Sum(A=1)", Integer.valueOf(1), 1000, dependsOn(Organization.class), generation);
+    assertEquals(Integer.valueOf(1), cut.get("/Test.Sum(A=1)"));
+  }
+
+  @Test
+  public void checkPutWithCurrentGenerationStored() {
+    cut.invalidate(Organization.class);
+    cut.put("/Test.Sum(A=1)", Integer.valueOf(1), 1000, dependsOn(Organization.class), cut.getGeneration());
+    assertEquals(Integer.valueOf(1), cut.get("/Test.Sum(A=1)"));
+  }
+
+  @Test
+  public void checkCreateKeyContainsNavigationKeys() {
+    final List<UriResource> resourceParts = createFunction();
+    final List<UriParameter> keys = Arrays.asList(createParameter("RoleCategory", "'A'"));
+    final UriResourceNavigation navigation = mock(UriResourceNavigation.class);
+    when(navigation.getSegmentValue()).thenReturn("Roles");
+    when(navigation.getKeyPredicates()).thenReturn(keys);
+    resourceParts.add(navigation);
+
+    assertEquals("/Test.Sum/Roles(RoleCategory='A')", JPAFunctionResultCache.createKey(resourceParts));
+  }
+
+  @Test
+  public void checkCreateKeySortsParameter() {
+    final String act = JPAFunctionResultCache.createKey(createFunction(createParameter("B", "7"), createParameter("A",
+        "5")));
+    assertEquals("/Test.Sum(A=5,B=7)", act);
+    assertEquals(act, JPAFunctionResultCache.createKey(createFunction(createParameter("A", "5"), createParameter("B",
+        "7"))));
+  }
+
+  @Test
+  public void checkCreateKeyWithoutParameter() {
+    assertEquals("/Test.Sum", JPAFunctionResultCache.createKey(createFunction()));
+  }
+
+  @Test
+  public void checkCreateKeyReturnsNullWithoutParameterText() {
+    assertNull(JPAFunctionResultCache.createKey(createFunction(createParameter("A", null))));
+  }
+
+  private List<Class<?>> dependsOn(final Class<?> type) {
+    return Collections.<Class<?>> singletonList(type);
+  }
+
+  private List<UriResource> createFunction(final UriParameter... parameters) {
+    final UriResourceFunction resource = mock(UriResourceFunction.class);
+    final EdmFunction function = mock(EdmFunction.class);
+    when(function.getNamespace()).thenReturn("Test");
+    when(function.getName()).thenReturn("Sum");
+    when(resource.getFunction()).thenReturn(function);
+    when(resource.getParameters()).thenReturn(Arrays.asList(parameters));
+    final List<UriResource> resourceParts = new ArrayList<>();
+    resourceParts.add(resource);
+    return resourceParts;
+  }
+
+  private UriParameter createParameter(final String name, final String text) {
+    final UriParameter parameter = mock(UriParameter.class);
+    when(parameter.getName()).thenReturn(name);
+    when(parameter.getText()).thenReturn(text);
+    return parameter;
+  }
+
+  private static class ClockDouble extends Clock {
+    private long millis;
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(final ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public long millis() {
+      return millis;
+    }
+
+    @Override
+    public Instant instant() {
+      return Instant.ofEpochMilli(millis);
+    }
+  }
+}
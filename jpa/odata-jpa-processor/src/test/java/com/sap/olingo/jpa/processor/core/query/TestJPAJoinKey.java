@@ -0,0 +1,80 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.junit.Test;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAssociationPath;
+import com.sap.olingo.jpa.processor.core.converter.JPAJoinKey;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+import com.sap.olingo.jpa.processor.core.util.TestHelper;
+import com.sap.olingo.jpa.processor.core.util.TupleDouble;
+
+public class TestJPAJoinKey extends TestBase {
+
+  @Test
+  public void checkSingleStringKeyEquals() {
+    assertEquals(JPAJoinKey.of("1"), JPAJoinKey.of(new String("1")));
+    assertEquals(JPAJoinKey.of("1").hashCode(), JPAJoinKey.of(new String("1")).hashCode());
+  }
+
+  @Test
+  public void checkIntegralKeysEqualIndependentOfType() {
+    assertEquals(JPAJoinKey.of(Long.valueOf(5)), JPAJoinKey.of(Integer.valueOf(5)));
+    assertEquals(JPAJoinKey.of(Long.valueOf(5)), JPAJoinKey.of(Short.valueOf((short) 5)));
+    assertEquals(JPAJoinKey.of(Long.valueOf(5)).hashCode(), JPAJoinKey.of(Integer.valueOf(5)).hashCode());
+    assertEquals(JPAJoinKey.of("A", Long.valueOf(5)), JPAJoinKey.of("A", Integer.valueOf(5)));
+  }
+
+  @Test
+  public void checkNumberAndStringKeyNotEqual() {
+    assertNotEquals(JPAJoinKey.of("5"), JPAJoinKey.of(Integer.valueOf(5)));
+  }
+
+  @Test
+  public void checkCompositeKeyDoesNotCollideWithSeparator() {
+    assertNotEquals(JPAJoinKey.of("A/B", "C"), JPAJoinKey.of("A", "B/C"));
+    assertNotEquals(JPAJoinKey.of("A", "B", "C"), JPAJoinKey.of("A/B/C"));
+  }
+
+  @Test
+  public void checkOtherTypeKeyEquals() {
+    assertEquals(JPAJoinKey.of(new BigDecimal("1.5")), JPAJoinKey.of(new BigDecimal("1.5")));
+    assertEquals(JPAJoinKey.of((Object) null), JPAJoinKey.of((Object) null));
+    assertNotEquals(JPAJoinKey.of((Object) null), JPAJoinKey.of("null"));
+  }
+
+  @Test
+  public void checkRootKeyOnlyEqualsItself() {
+    assertEquals(JPAJoinKey.ROOT, JPAJoinKey.ROOT);
+    assertNotEquals(JPAJoinKey.ROOT, JPAJoinKey.of("root"));
+    assertNotEquals(JPAJoinKey.of("root"), JPAJoinKey.ROOT);
+  }
+
+  @Test
+  public void checkToStringConcatenatesValues() {
+    assertEquals("NUTS/2/BE25", JPAJoinKey.of("NUTS", Integer.valueOf(2), "BE25").toString());
+    assertEquals("7", JPAJoinKey.of(Long.valueOf(7)).toString());
+  }
+
+  @Test
+  public void checkFromRowCompoundKey() throws ODataException {
+    helper = new TestHelper(emf, PUNIT_NAME);
+    final JPAAssociationPath exp = helper.getJPAAssociationPath("AdministrativeDivisions", "Parent");
+    final String[] aliases = JPAJoinKey.getAliases(exp.getJoinColumnsList(), false);
+    final HashMap<String, Object> row = new HashMap<>();
+    row.put("CodePublisher", "NUTS");
+    row.put("DivisionCode", "BE25");
+    row.put("CodeID", "2");
+    row.put("ParentCodeID", "1");
+    row.put("ParentDivisionCode", "BE2");
+
+    assertEquals(3, aliases.length);
+    assertEquals(JPAJoinKey.of("NUTS", "2", "BE25"), JPAJoinKey.fromRow(new TupleDouble(row), aliases));
+  }
+}
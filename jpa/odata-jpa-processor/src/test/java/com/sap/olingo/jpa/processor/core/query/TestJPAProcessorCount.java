@@ -0,0 +1,147 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.sql.DataSource;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sap.olingo.jpa.processor.core.testmodel.DataSourceHelper;
+import com.sap.olingo.jpa.processor.core.util.IntegrationTestHelper;
+
+/**
+ * $count answered from the count cache or by an estimate of the database
+ */
+public class TestJPAProcessorCount {
+  protected static final String PUNIT_NAME = "com.sap.olingo.jpa";
+  private static final String APPROXIMATE_COUNT = "X-Approximate-Count";
+  protected static EntityManagerFactory emf;
+  protected static DataSource ds;
+  private JPACountCache cache;
+
+  @BeforeClass
+  public static void setupClass() {
+    ds = DataSourceHelper.createDataSource(DataSourceHelper.DB_HSQLDB);
+    final Map<String, Object> properties = new HashMap<String, Object>();
+    properties.put("javax.persistence.nonJtaDataSource", ds);
+    emf = Persistence.createEntityManagerFactory(PUNIT_NAME, properties);
+  }
+
+  @Before
+  public void setup() {
+    cache = new JPACountCache();
+    cache.setTimeToLive("Organizations", 60000);
+  }
+
+  @Test
+  public void testSameFilterTakenFromCache() throws IOException, ODataException {
+    final String first = count("Organizations/$count?$filter=Address/Region eq 'US-CA'");
+    final String second = count("Organizations/$count?$filter=Address/Region  eq   'US-CA'");
+
+    assertEquals("3", first);
+    assertEquals("3", second);
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testDifferentFilterValuesNotShared() throws IOException, ODataException {
+    count("Organizations/$count?$filter=Address/Region eq 'US-CA'");
+    final String count = count("Organizations/$count?$filter=Address/Region eq 'US-XX'");
+
+    assertEquals("0", count);
+    assertEquals(0, cache.getHitCount());
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void testKeyPredicatesNotShared() throws IOException, ODataException {
+    assertEquals("3", count("Organizations('3')/Roles/$count"));
+    assertEquals("1", count("Organizations('1')/Roles/$count"));
+    assertEquals(0, cache.getHitCount());
+  }
+
+  @Test
+  public void testCountTrueTakenFromCache() throws IOException, ODataException {
+    count("Organizations/$count?$filter=Address/Region eq 'US-CA'");
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, ds, cache, Collections.<String> emptyList(),
+        "Organizations?$count=true&$filter=Address/Region eq 'US-CA'&$top=1");
+    helper.assertStatus(200);
+
+    final ObjectNode result = helper.getValue();
+    assertEquals(3, result.get("@odata.count").asInt());
+    assertEquals(1, cache.getHitCount());
+  }
+
+  @Test
+  public void testEntitySetWithoutTimeToLiveNotCached() throws IOException, ODataException {
+    count("BusinessPartnerRoles/$count");
+    count("BusinessPartnerRoles/$count");
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.getHitCount());
+  }
+
+  @Test
+  public void testApproximateCountTakenFromStatistics() throws IOException, ODataException {
+    final String exact = count("BusinessPartnerRoles/$count");
+    final IntegrationTestHelper helper = countApproximate("BusinessPartnerRoles/$count");
+    helper.assertStatus(200);
+
+    assertEquals(exact, helper.getRawResult());
+    assertEquals("true", helper.getResponce().getHeader(APPROXIMATE_COUNT));
+  }
+
+  @Test
+  public void testApproximateCountTrueTakenFromStatistics() throws IOException, ODataException {
+    final IntegrationTestHelper helper = countApproximate("BusinessPartnerRoles?$count=true&$top=2");
+    helper.assertStatus(200);
+
+    final ObjectNode result = helper.getValue();
+    assertEquals(Integer.parseInt(count("BusinessPartnerRoles/$count")), result.get("@odata.count").asInt());
+    assertEquals("true", helper.getResponce().getHeader(APPROXIMATE_COUNT));
+  }
+
+  @Test
+  public void testApproximateCountNotUsedWithFilter() throws IOException, ODataException {
+    final IntegrationTestHelper helper = countApproximate("BusinessPartnerRoles/$count?$filter=RoleCategory eq 'A'");
+    helper.assertStatus(200);
+
+    assertEquals("3", helper.getRawResult());
+    assertNull(helper.getResponce().getHeader(APPROXIMATE_COUNT));
+  }
+
+  @Test
+  public void testExactCountWithoutApproximateSwitch() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, ds, null, Collections.<String> emptyList(),
+        "BusinessPartnerRoles/$count");
+    helper.assertStatus(200);
+
+    assertNull(helper.getResponce().getHeader(APPROXIMATE_COUNT));
+  }
+
+  private String count(final String urlPath) throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, ds, cache, Collections.<String> emptyList(),
+        urlPath);
+    helper.assertStatus(200);
+    return helper.getRawResult();
+  }
+
+  private IntegrationTestHelper countApproximate(final String urlPath) throws IOException, ODataException {
+    final List<String> approximateCounts = Arrays.asList("BusinessPartnerRoles");
+    return new IntegrationTestHelper(emf, ds, null, approximateCounts, urlPath);
+  }
+}
@@ -0,0 +1,213 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sap.olingo.jpa.processor.core.util.IntegrationTestHelper;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+
+public class TestJPAProcessorExpandKeyList extends TestBase {
+
+  @Test
+  public void testExpandEntitySet() throws IOException, ODataException {
+
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, "Organizations?$orderby=ID&$expand=Roles",
+        new JPAExpandKeyListStrategy());
+    helper.assertStatus(200);
+
+    final ArrayNode orgs = helper.getValues();
+    ObjectNode org = (ObjectNode) orgs.get(0);
+    ArrayNode roles = (ArrayNode) org.get("Roles");
+    assertEquals(1, roles.size());
+
+    org = (ObjectNode) orgs.get(3);
+    roles = (ArrayNode) org.get("Roles");
+    assertEquals(3, roles.size());
+  }
+
+  @Test
+  public void testExpandEntitySetChunkSizeOne() throws IOException, ODataException {
+
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, "Organizations?$orderby=ID&$expand=Roles",
+        new JPAExpandKeyListStrategy(1));
+    helper.assertStatus(200);
+
+    final ArrayNode orgs = helper.getValues();
+    ObjectNode org = (ObjectNode) orgs.get(0);
+    ArrayNode roles = (ArrayNode) org.get("Roles");
+    assertEquals(1, roles.size());
+
+    org = (ObjectNode) orgs.get(3);
+    roles = (ArrayNode) org.get("Roles");
+    assertEquals(3, roles.size());
+  }
+
+  @Test
+  public void testExpandEntitySetWithFilterChunkSizeOne() throws IOException, ODataException {
+
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "Organizations?$orderby=ID&$expand=Roles($filter=RoleCategory ne 'A')", new JPAExpandKeyListStrategy(1));
+    helper.assertStatus(200);
+
+    final ArrayNode orgs = helper.getValues();
+    ObjectNode org = (ObjectNode) orgs.get(0);
+    ArrayNode roles = (ArrayNode) org.get("Roles");
+    assertEquals(0, roles.size());
+
+    org = (ObjectNode) orgs.get(3);
+    roles = (ArrayNode) org.get("Roles");
+    assertEquals(2, roles.size());
+  }
+
+  @Test
+  public void testExpandEntitySetRespectsTopOfParent() throws IOException, ODataException {
+
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "Organizations?$orderby=ID desc&$top=2&$expand=Roles", new JPAExpandKeyListStrategy());
+    helper.assertStatus(200);
+
+    final ArrayNode orgs = helper.getValues();
+    assertEquals(2, orgs.size());
+    final ObjectNode org = (ObjectNode) orgs.get(0);
+    assertEquals("9", org.get("ID").asText());
+    assertNotNull(org.get("Roles"));
+  }
+
+  @Test
+  public void testExpandOneEntityCompoundKeyCollection() throws IOException, ODataException {
+
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "AdministrativeDivisions(DivisionCode='BE25',CodeID='NUTS2',CodePublisher='Eurostat')?$expand=Children($orderby=DivisionCode asc)",
+        new JPAExpandKeyListStrategy());
+    helper.assertStatus(200);
+
+    final ObjectNode divsion = helper.getValue();
+    final ArrayNode children = (ArrayNode) divsion.get("Children");
+    assertEquals(8, children.size());
+    assertEquals("BE251", children.get(0).get("DivisionCode").asText());
+  }
+
+  @Test
+  public void testExpandCompleteEntitySetCompoundKeyChunkSizeTwo() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "AdministrativeDivisions?$filter=CodeID eq 'NUTS1'&$orderby=DivisionCode&$expand=Children",
+        new JPAExpandKeyListStrategy(2));
+    helper.assertStatus(200);
+
+    final ArrayNode divisions = helper.getValues();
+    for (int i = 0; i < divisions.size(); i++) {
+      final ObjectNode division = (ObjectNode) divisions.get(i);
+      if ("BE2".equals(division.get("DivisionCode").asText())) {
+        assertEquals(5, ((ArrayNode) division.get("Children")).size());
+        return;
+      }
+    }
+    fail("BE2 not found");
+  }
+
+  @Test
+  public void testNestedExpandNestedExpand3LevelsSelf() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "AdministrativeDivisions(DivisionCode='33016',CodeID='LAU2',CodePublisher='Eurostat')?$expand=Parent($expand=Parent($expand=Parent))",
+        new JPAExpandKeyListStrategy());
+    helper.assertStatus(200);
+
+    final ObjectNode div = helper.getValue();
+    final ObjectNode parent = (ObjectNode) div.get("Parent");
+    assertEquals("NUTS3", parent.get("CodeID").asText());
+    final ObjectNode grandParent = (ObjectNode) parent.get("Parent");
+    assertEquals("NUTS2", grandParent.get("CodeID").asText());
+    final ObjectNode greateGrandParent = (ObjectNode) grandParent.get("Parent");
+    assertEquals("NUTS1", greateGrandParent.get("CodeID").asText());
+  }
+
+  @Test
+  public void testNestedExpandNestedExpand2LevelsMixed() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "Organizations('3')/Address?$select=Country&$expand=AdministrativeDivision($expand=Parent)",
+        new JPAExpandKeyListStrategy());
+    helper.assertStatus(200);
+
+    final ObjectNode div = helper.getValue();
+    final ObjectNode admin = (ObjectNode) div.get("AdministrativeDivision");
+    assertNotNull(admin);
+    final ObjectNode parent = (ObjectNode) admin.get("Parent");
+    assertEquals("3166-1", parent.get("CodeID").asText());
+  }
+
+  @Test
+  public void testExpandWithOrderByDescTopSkip() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "AdministrativeDivisions(DivisionCode='BE2',CodeID='NUTS1',CodePublisher='Eurostat')?$expand=Children($top=2;$skip=2;$orderby=DivisionCode desc)",
+        new JPAExpandKeyListStrategy());
+    helper.assertStatus(200);
+
+    final ObjectNode div = helper.getValue();
+    final ArrayNode children = (ArrayNode) div.get("Children");
+    assertEquals(2, children.size());
+    assertEquals("BE23", children.get(0).get("DivisionCode").asText());
+  }
+
+  @Test
+  public void testExpandWithCountAndTop() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "Organizations?$count=true&$expand=Roles($count=true;$top=1)&$orderby=Roles/$count desc",
+        new JPAExpandKeyListStrategy(3));
+    helper.assertStatus(200);
+
+    final ArrayNode orgs = helper.getValues();
+    final ObjectNode org = (ObjectNode) orgs.get(0);
+    assertNotNull(org.get("Roles"));
+    assertEquals(1, ((ArrayNode) org.get("Roles")).size());
+    assertEquals(3, org.get("Roles@odata.count").asInt());
+  }
+
+  @Test
+  public void testExpandWithFilter() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "AdministrativeDivisions(DivisionCode='BE25',CodeID='NUTS2',CodePublisher='Eurostat')?$expand=Children($filter=DivisionCode eq 'BE252')",
+        new JPAExpandKeyListStrategy());
+    helper.assertStatus(200);
+
+    final ObjectNode division = helper.getValue();
+    final ArrayNode children = (ArrayNode) division.get("Children");
+    assertEquals(1, children.size());
+    assertEquals("BE252", children.get(0).get("DivisionCode").asText());
+  }
+
+  @Test
+  public void testExpandLevelMax() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "AdministrativeDivisions(DivisionCode='BE241',CodeID='NUTS3',CodePublisher='Eurostat')?$expand=Parent($levels=max)",
+        new JPAExpandKeyListStrategy());
+    helper.assertStatus(200);
+
+    final ObjectNode org = helper.getValue();
+    assertFalse(org.get("Parent") instanceof NullNode);
+    final ObjectNode parent = (ObjectNode) org.get("Parent");
+    assertEquals("BE24", parent.get("DivisionCode").asText());
+    final ObjectNode grandParent = (ObjectNode) parent.get("Parent");
+    assertEquals("BE2", grandParent.get("DivisionCode").asText());
+  }
+
+  @Test
+  public void testExpandAllNavigationPathWithComplex() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, "Organizations('3')?$expand=*",
+        new JPAExpandKeyListStrategy());
+    helper.assertStatus(200);
+
+    final ObjectNode org = helper.getValue();
+    assertNotNull(org.get("Roles"));
+    assertEquals(3, ((ArrayNode) org.get("Roles")).size());
+  }
+}
@@ -0,0 +1,186 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.sql.DataSource;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sap.olingo.jpa.processor.core.testmodel.DataSourceHelper;
+import com.sap.olingo.jpa.processor.core.util.IntegrationTestHelper;
+
+/**
+ * $levels at $expand executed by a database that supports reading all levels with one recursive query
+ */
+public class TestJPAProcessorExpandLevels {
+  protected static final String PUNIT_NAME = "com.sap.olingo.jpa";
+  protected static EntityManagerFactory emf;
+  protected static DataSource ds;
+
+  @BeforeClass
+  public static void setupClass() {
+    ds = DataSourceHelper.createDataSource(DataSourceHelper.DB_HSQLDB);
+    final Map<String, Object> properties = new HashMap<String, Object>();
+    properties.put("javax.persistence.nonJtaDataSource", ds);
+    emf = Persistence.createEntityManagerFactory(PUNIT_NAME, properties);
+  }
+
+  @Test
+  public void testExpandChildrenTwoLevels() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, ds,
+        "AdministrativeDivisions(DivisionCode='BE2',CodeID='NUTS1',CodePublisher='Eurostat')?$expand=Children($levels=2)");
+    helper.assertStatus(200);
+
+    final ObjectNode div = helper.getValue();
+    final ArrayNode children = (ArrayNode) div.get("Children");
+    assertEquals(5, children.size());
+    for (int i = 0; i < children.size(); i++) {
+      final ObjectNode child = (ObjectNode) children.get(i);
+      if ("BE24".equals(child.get("DivisionCode").asText())) {
+        final ArrayNode grandChildren = (ArrayNode) child.get("Children");
+        assertEquals(2, grandChildren.size());
+        assertEquals("NUTS3", grandChildren.get(0).get("CodeID").asText());
+        assertNull(grandChildren.get(0).get("Children"));
+        return;
+      }
+    }
+    throw new AssertionError("BE24 not found");
+  }
+
+  @Test
+  public void testExpandChildrenMaxLevels() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, ds,
+        "AdministrativeDivisions(DivisionCode='BE25',CodeID='NUTS2',CodePublisher='Eurostat')?$expand=Children($levels=max)");
+    helper.assertStatus(200);
+
+    final ObjectNode div = helper.getValue();
+    final ArrayNode children = (ArrayNode) div.get("Children");
+    assertEquals(8, children.size());
+    for (int i = 0; i < children.size(); i++) {
+      final ObjectNode child = (ObjectNode) children.get(i);
+      if ("BE253".equals(child.get("DivisionCode").asText())) {
+        final ArrayNode grandChildren = (ArrayNode) child.get("Children");
+        assertEquals(8, grandChildren.size());
+        assertEquals("LAU2", grandChildren.get(0).get("CodeID").asText());
+        return;
+      }
+    }
+    throw new AssertionError("BE253 not found");
+  }
+
+  @Test
+  public void testExpandParentMaxLevels() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, ds,
+        "AdministrativeDivisions(DivisionCode='BE241',CodeID='NUTS3',CodePublisher='Eurostat')?$expand=Parent($levels=max)");
+    helper.assertStatus(200);
+
+    final ObjectNode div = helper.getValue();
+    final ObjectNode parent = (ObjectNode) div.get("Parent");
+    assertNotNull(parent);
+    assertEquals("BE24", parent.get("DivisionCode").asText());
+    final ObjectNode grandParent = (ObjectNode) parent.get("Parent");
+    assertNotNull(grandParent);
+    assertEquals("BE2", grandParent.get("DivisionCode").asText());
+    assertEquals("NUTS1", grandParent.get("CodeID").asText());
+  }
+
+  @Test
+  public void testExpandChildrenMaxLevelsStopsAtCycle() throws IOException, ODataException {
+    executeUpdate("INSERT INTO \"OLINGO\".\"AdministrativeDivision\" VALUES ('Test', 'T', 'A', 'BEL', 'T', 'B', null, "
+        + "0, 0)");
+    executeUpdate("INSERT INTO \"OLINGO\".\"AdministrativeDivision\" VALUES ('Test', 'T', 'B', 'BEL', 'T', 'A', null, "
+        + "0, 0)");
+    try {
+      final IntegrationTestHelper helper = new IntegrationTestHelper(emf, ds,
+          "AdministrativeDivisions(DivisionCode='A',CodeID='T',CodePublisher='Test')?$expand=Children($levels=max)");
+      helper.assertStatus(200);
+
+      final ArrayNode children = (ArrayNode) helper.getValue().get("Children");
+      assertEquals(1, children.size());
+      assertEquals("B", children.get(0).get("DivisionCode").asText());
+    } finally {
+      executeUpdate("DELETE FROM \"OLINGO\".\"AdministrativeDivision\" WHERE \"CodePublisher\" = 'Test'");
+    }
+  }
+
+  @Test
+  public void testExpandChildrenMaxLevelsDeeperThanMaxDepthReadPerLevel() throws IOException, ODataException {
+    executeUpdate("INSERT INTO \"OLINGO\".\"AdministrativeDivision\" VALUES ('Test', 'T', 'D0', 'BEL', null, null, "
+        + "null, 0, 0)");
+    // One level more than HSQLDB reads at most
+    for (int i = 0; i <= 100; i++)
+      executeUpdate("INSERT INTO \"OLINGO\".\"AdministrativeDivision\" VALUES ('Test', 'T', 'D" + (i + 1)
+          + "', 'BEL', 'T', 'D" + i + "', null, 0, 0)");
+    try {
+      final IntegrationTestHelper helper = new IntegrationTestHelper(emf, ds,
+          "AdministrativeDivisions(DivisionCode='D0',CodeID='T',CodePublisher='Test')?$expand=Children($levels=max)");
+      helper.assertStatus(200);
+
+      ObjectNode division = helper.getValue();
+      for (int i = 1; i <= 101; i++) {
+        final ArrayNode children = (ArrayNode) division.get("Children");
+        assertEquals(1, children.size());
+        division = (ObjectNode) children.get(0);
+        assertEquals("D" + i, division.get("DivisionCode").asText());
+      }
+      assertEquals(0, ((ArrayNode) division.get("Children")).size());
+    } finally {
+      executeUpdate("DELETE FROM \"OLINGO\".\"AdministrativeDivision\" WHERE \"CodePublisher\" = 'Test'");
+    }
+  }
+
+  @Test
+  public void testExpandParentTwoLevelsInChunks() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, ds,
+        "AdministrativeDivisions?$filter=CodeID eq 'NUTS3' and ParentDivisionCode eq 'BE24'&$orderby=DivisionCode&$expand=Parent($levels=2)",
+        null, null, new JPAExpandKeyListStrategy(1));
+    helper.assertStatus(200);
+
+    final ArrayNode divs = helper.getValues();
+    assertEquals(2, divs.size());
+    for (int i = 0; i < divs.size(); i++) {
+      final ObjectNode parent = (ObjectNode) divs.get(i).get("Parent");
+      assertEquals("BE24", parent.get("DivisionCode").asText());
+      assertEquals("BE2", parent.get("Parent").get("DivisionCode").asText());
+    }
+  }
+
+  @Test
+  public void testExpandParentTwoLevelsOfEntitySet() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, ds,
+        "AdministrativeDivisions?$filter=CodeID eq 'NUTS3' and ParentDivisionCode eq 'BE24'&$orderby=DivisionCode&$expand=Parent($levels=2)");
+    helper.assertStatus(200);
+
+    final ArrayNode divs = helper.getValues();
+    assertEquals(2, divs.size());
+    for (int i = 0; i < divs.size(); i++) {
+      final ObjectNode parent = (ObjectNode) divs.get(i).get("Parent");
+      assertEquals("BE24", parent.get("DivisionCode").asText());
+      assertEquals("BE2", parent.get("Parent").get("DivisionCode").asText());
+    }
+  }
+
+  private void executeUpdate(final String statement) {
+    final EntityManager em = emf.createEntityManager();
+    try {
+      em.getTransaction().begin();
+      em.createNativeQuery(statement).executeUpdate();
+      em.getTransaction().commit();
+    } finally {
+      em.close();
+    }
+  }
+}
@@ -0,0 +1,193 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.sql.DataSource;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sap.olingo.jpa.processor.core.testmodel.DataSourceHelper;
+import com.sap.olingo.jpa.processor.core.util.IntegrationTestHelper;
+
+/**
+ * $top and $skip at $expand executed by a database that supports restricting the entities per parent
+ */
+public class TestJPAProcessorExpandTopSkip {
+  protected static final String PUNIT_NAME = "com.sap.olingo.jpa";
+  protected static EntityManagerFactory emf;
+  protected static DataSource ds;
+
+  @BeforeClass
+  public static void setupClass() {
+    ds = DataSourceHelper.createDataSource(DataSourceHelper.DB_HSQLDB);
+    final Map<String, Object> properties = new HashMap<String, Object>();
+    properties.put("javax.persistence.nonJtaDataSource", ds);
+    emf = Persistence.createEntityManagerFactory(PUNIT_NAME, properties);
+  }
+
+  @Test
+  public void testExpandWithOrderByDescTop() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, ds,
+        "AdministrativeDivisions(DivisionCode='BE2',CodeID='NUTS1',CodePublisher='Eurostat')?$expand=Children($top=2;$orderby=DivisionCode desc)");
+    helper.assertStatus(200);
+
+    final ObjectNode div = helper.getValue();
+    final ArrayNode children = (ArrayNode) div.get("Children");
+    assertEquals(2, children.size());
+    assertEquals("BE25", children.get(0).get("DivisionCode").asText());
+    assertEquals("BE24", children.get(1).get("DivisionCode").asText());
+  }
+
+  @Test
+  public void testExpandWithOrderByDescTopSkip() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, ds,
+        "AdministrativeDivisions(DivisionCode='BE2',CodeID='NUTS1',CodePublisher='Eurostat')?$expand=Children($top=2;$skip=2;$orderby=DivisionCode desc)");
+    helper.assertStatus(200);
+
+    final ObjectNode div = helper.getValue();
+    final ArrayNode children = (ArrayNode) div.get("Children");
+    assertEquals(2, children.size());
+    assertEquals("BE23", children.get(0).get("DivisionCode").asText());
+    assertEquals("BE22", children.get(1).get("DivisionCode").asText());
+  }
+
+  @Test
+  public void testExpandEntitySetTopPerParent() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, ds,
+        "Organizations?$orderby=ID&$expand=Roles($top=2;$orderby=RoleCategory desc)");
+    helper.assertStatus(200);
+
+    final ArrayNode orgs = helper.getValues();
+    ObjectNode org = (ObjectNode) orgs.get(0);
+    assertEquals("1", org.get("ID").asText());
+    assertEquals(1, ((ArrayNode) org.get("Roles")).size());
+
+    org = (ObjectNode) orgs.get(3);
+    assertEquals("3", org.get("ID").asText());
+    final ArrayNode roles = (ArrayNode) org.get("Roles");
+    assertEquals(2, roles.size());
+    assertEquals("C", roles.get(0).get("RoleCategory").asText());
+    assertEquals("B", roles.get(1).get("RoleCategory").asText());
+  }
+
+  @Test
+  public void testExpandEntitySetSkipPerParent() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, ds,
+        "Organizations?$orderby=ID&$expand=Roles($skip=1)");
+    helper.assertStatus(200);
+
+    final ArrayNode orgs = helper.getValues();
+    ObjectNode org = (ObjectNode) orgs.get(0);
+    assertEquals(0, ((ArrayNode) org.get("Roles")).size());
+
+    org = (ObjectNode) orgs.get(3);
+    final ArrayNode roles = (ArrayNode) org.get("Roles");
+    assertEquals(2, roles.size());
+    assertEquals("B", roles.get(0).get("RoleCategory").asText());
+    assertEquals("C", roles.get(1).get("RoleCategory").asText());
+  }
+
+  @Test
+  public void testExpandEntitySetTopZero() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, ds,
+        "Organizations('3')?$expand=Roles($top=0)");
+    helper.assertStatus(200);
+
+    final ObjectNode org = helper.getValue();
+    assertEquals(0, ((ArrayNode) org.get("Roles")).size());
+  }
+
+  @Test
+  public void testExpandWithCountAndTop() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, ds,
+        "Organizations?$count=true&$expand=Roles($count=true;$top=1)&$orderby=Roles/$count desc");
+    helper.assertStatus(200);
+
+    final ArrayNode orgs = helper.getValues();
+    final ObjectNode org = (ObjectNode) orgs.get(0);
+    assertEquals(1, ((ArrayNode) org.get("Roles")).size());
+    assertEquals(3, org.get("Roles@odata.count").asInt());
+  }
+
+  @Test
+  public void testExpandWithFilterAndTopReadsAll() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, ds,
+        "Organizations('3')?$expand=Roles($filter=RoleCategory ne 'A';$top=1)");
+    helper.assertStatus(200);
+
+    final ObjectNode org = helper.getValue();
+    final ArrayNode roles = (ArrayNode) org.get("Roles");
+    assertEquals(1, roles.size());
+    assertEquals("B", roles.get(0).get("RoleCategory").asText());
+  }
+
+  @Test
+  public void testNestedExpandWithTop() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, ds,
+        "AdministrativeDivisions(DivisionCode='BE2',CodeID='NUTS1',CodePublisher='Eurostat')?$expand=Children($top=2;$orderby=DivisionCode;$expand=Children($top=1;$orderby=DivisionCode desc))");
+    helper.assertStatus(200);
+
+    final ObjectNode div = helper.getValue();
+    final ArrayNode children = (ArrayNode) div.get("Children");
+    assertEquals(2, children.size());
+    assertEquals("BE21", children.get(0).get("DivisionCode").asText());
+    final ArrayNode grandChildren = (ArrayNode) children.get(0).get("Children");
+    assertEquals(1, grandChildren.size());
+    assertEquals("BE213", grandChildren.get(0).get("DivisionCode").asText());
+  }
+
+  @Test
+  public void testExpandWithTopKeyListStrategy() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, ds,
+        "Organizations?$orderby=ID&$expand=Roles($top=2;$orderby=RoleCategory desc)", null, null,
+        new JPAExpandKeyListStrategy(2));
+    helper.assertStatus(200);
+
+    final ArrayNode orgs = helper.getValues();
+    final ObjectNode org = (ObjectNode) orgs.get(3);
+    final ArrayNode roles = (ArrayNode) org.get("Roles");
+    assertEquals(2, roles.size());
+    assertEquals("C", roles.get(0).get("RoleCategory").asText());
+    assertEquals("B", roles.get(1).get("RoleCategory").asText());
+  }
+
+  @Test
+  public void testExpandWithTopKeyListStrategyOneParentPerChunk() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, ds,
+        "Organizations?$orderby=ID&$expand=Roles($top=2;$orderby=RoleCategory desc)", null, null,
+        new JPAExpandKeyListStrategy(3));
+    helper.assertStatus(200);
+
+    final ArrayNode orgs = helper.getValues();
+    assertEquals(1, ((ArrayNode) orgs.get(0).get("Roles")).size());
+    final ArrayNode roles = (ArrayNode) orgs.get(3).get("Roles");
+    assertEquals(2, roles.size());
+    assertEquals("C", roles.get(0).get("RoleCategory").asText());
+    assertEquals("B", roles.get(1).get("RoleCategory").asText());
+  }
+
+  @Test
+  public void testExpandWithTopExceedingChunkSizeKeyListStrategy() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, ds,
+        "Organizations?$orderby=ID&$expand=Roles($top=2;$skip=1;$orderby=RoleCategory desc)", null, null,
+        new JPAExpandKeyListStrategy(1));
+    helper.assertStatus(200);
+
+    final ArrayNode orgs = helper.getValues();
+    assertEquals(0, ((ArrayNode) orgs.get(0).get("Roles")).size());
+    final ArrayNode roles = (ArrayNode) orgs.get(3).get("Roles");
+    assertEquals(2, roles.size());
+    assertEquals("B", roles.get(0).get("RoleCategory").asText());
+    assertEquals("A", roles.get(1).get("RoleCategory").asText());
+  }
+}
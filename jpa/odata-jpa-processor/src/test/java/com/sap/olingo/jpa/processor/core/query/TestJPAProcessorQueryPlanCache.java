@@ -0,0 +1,176 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sap.olingo.jpa.processor.core.database.JPASearchIndex;
+import com.sap.olingo.jpa.processor.core.util.IntegrationTestHelper;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+
+public class TestJPAProcessorQueryPlanCache extends TestBase {
+  private JPAQueryPlanCache cache;
+
+  @Before
+  public void setup() {
+    cache = new JPAQueryPlanCache();
+  }
+
+  @Test
+  public void testSameRequestUsesPlan() throws IOException, ODataException {
+    final ArrayNode first = read("Organizations?$select=ID,Name1&$orderby=ID desc");
+    final ArrayNode second = read("Organizations?$select=ID,Name1&$orderby=ID desc");
+
+    assertEquals(1, cache.getMissCount());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(first, second);
+    assertEquals("9", second.get(0).get("ID").asText());
+  }
+
+  @Test
+  public void testTopSkipNotPartOfPlan() throws IOException, ODataException {
+    read("Organizations?$orderby=ID");
+    final ArrayNode orgs = read("Organizations?$orderby=ID&$top=2&$skip=1");
+    final ArrayNode all = read("Organizations?$orderby=ID");
+
+    assertEquals(1, cache.size());
+    assertEquals(2, cache.getHitCount());
+    assertEquals(2, orgs.size());
+    assertEquals("10", orgs.get(0).get("ID").asText());
+    assertEquals(10, all.size());
+  }
+
+  @Test
+  public void testFilterValuesShareOnePlan() throws IOException, ODataException {
+    final ArrayNode first = read("Organizations?$filter=ID eq '3'");
+    final ArrayNode second = read("Organizations?$filter=ID eq '4'");
+
+    assertEquals(1, cache.size());
+    assertEquals(1, cache.getHitCount());
+    assertEquals("3", first.get(0).get("ID").asText());
+    assertEquals(1, second.size());
+    assertEquals("4", second.get(0).get("ID").asText());
+  }
+
+  @Test
+  public void testFilterValuesShareOneStatement() throws IOException, ODataException {
+    read("Organizations?$filter=ID gt '5' and contains(Name1,'Org')&$orderby=ID");
+    final ArrayNode orgs = read("Organizations?$filter=ID gt '7' and contains(Name1,'Org')&$orderby=ID");
+
+    assertEquals(1, cache.getHitCount());
+    assertEquals(2, orgs.size());
+    assertEquals("8", orgs.get(0).get("ID").asText());
+    assertEquals("9", orgs.get(1).get("ID").asText());
+  }
+
+  @Test
+  public void testPlanWithDescriptionJoinUsed() throws IOException, ODataException {
+    read("Organizations?$select=ID,LocationName&$filter=ID eq '4'");
+    final ArrayNode orgs = read("Organizations?$select=ID,LocationName&$filter=ID eq '3'");
+
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, orgs.size());
+    assertEquals("3", orgs.get(0).get("ID").asText());
+    assertEquals("Vereinigte Staaten von Amerika", orgs.get(0).get("LocationName").asText());
+  }
+
+  @Test
+  public void testNavigationValuesNotShared() throws IOException, ODataException {
+    read("Organizations('3')/Roles");
+    final ArrayNode roles = read("Organizations('1')/Roles");
+
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, roles.size());
+    assertEquals("1", roles.get(0).get("BusinessPartnerID").asText());
+  }
+
+  @Test
+  public void testSearchTermsNotShared() throws IOException, ODataException {
+    final JPASearchIndex index = new JPASearchIndex(emf);
+    final ArrayNode first = search(index, "berlin");
+    final ArrayNode second = search(index, "brandenburg");
+
+    assertEquals(1, cache.getHitCount());
+    assertEquals(2, first.size());
+    assertEquals("Brandenburg", second.get(0).get("Name").asText());
+  }
+
+  @Test
+  public void testFilterNullCreatesOwnPlan() throws IOException, ODataException {
+    read("Organizations?$filter=Name2 eq 'x'");
+    read("Organizations?$filter=Name2 eq null");
+
+    assertEquals(2, cache.size());
+    assertEquals(0, cache.getHitCount());
+  }
+
+  @Test
+  public void testDifferentSelectCreatesOwnPlan() throws IOException, ODataException {
+    read("Organizations?$select=ID");
+    final ArrayNode orgs = read("Organizations?$select=ID,Name1");
+
+    assertEquals(2, cache.size());
+    assertEquals("First Org.", orgs.get(0).get("Name1").asText());
+  }
+
+  @Test
+  public void testKeyValuesShareOnePlan() throws IOException, ODataException {
+    readOne("Organizations('3')");
+    final ObjectNode org = readOne("Organizations('4')");
+
+    assertEquals(1, cache.getHitCount());
+    assertEquals("4", org.get("ID").asText());
+  }
+
+  @Test
+  public void testNavigationWithExpandUsesPlan() throws IOException, ODataException {
+    readOne("Organizations('3')?$expand=Roles");
+    final ObjectNode org = readOne("Organizations('3')?$expand=Roles");
+
+    assertEquals(1, cache.getHitCount());
+    assertEquals(3, ((ArrayNode) org.get("Roles")).size());
+  }
+
+  @Test
+  public void testEvictedPlanIsRebuilt() throws IOException, ODataException {
+    cache = new JPAQueryPlanCache(1);
+    read("Organizations?$filter=ID eq '3'");
+    read("Organizations?$filter=Name1 eq 'x'");
+    final ArrayNode orgs = read("Organizations?$filter=ID eq '4'");
+
+    assertEquals(1, cache.size());
+    assertEquals(2, cache.getEvictionCount());
+    assertEquals(0, cache.getHitCount());
+    assertEquals("4", orgs.get(0).get("ID").asText());
+  }
+
+  private ArrayNode read(final String urlPath) throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, cache, urlPath);
+    helper.assertStatus(200);
+    return helper.getValues();
+  }
+
+  private ArrayNode search(final JPASearchIndex index, final String searchTerm) throws IOException,
+      ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, null,
+        "AdministrativeDivisionDescriptions?$search=" + searchTerm, null, null, new JPAExpandSubQueryStrategy(), false,
+        Collections.<String, Integer> emptyMap(), cache, Collections.<String, List<String>> emptyMap(), null,
+        Collections.<String> emptyList(), null, index);
+    helper.assertStatus(200);
+    return helper.getValues();
+  }
+
+  private ObjectNode readOne(final String urlPath) throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, cache, urlPath);
+    helper.assertStatus(200);
+    return helper.getValue();
+  }
+}
@@ -0,0 +1,73 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sap.olingo.jpa.processor.core.util.IntegrationTestHelper;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+
+public class TestJPAProcessorStreaming extends TestBase {
+
+  @Test
+  public void testEntitySetStreamed() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, "Organizations?$orderby=ID", null, true);
+    helper.assertStatus(200);
+
+    final ArrayNode orgs = helper.getValues();
+    assertEquals(10, orgs.size());
+    assertEquals("1", orgs.get(0).get("ID").asText());
+  }
+
+  @Test
+  public void testEntitySetStreamedSameAsNotStreamed() throws IOException, ODataException {
+    final String url = "Organizations?$orderby=ID desc&$top=3&$expand=Roles&$select=ID,Name1";
+    final IntegrationTestHelper streamed = new IntegrationTestHelper(emf, url, null, true);
+    final IntegrationTestHelper notStreamed = new IntegrationTestHelper(emf, url, null, false);
+    streamed.assertStatus(200);
+    notStreamed.assertStatus(200);
+
+    assertEquals(notStreamed.getValues(), streamed.getValues());
+  }
+
+  @Test
+  public void testEntitySetStreamedWithCount() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "Organizations?$count=true&$top=2&$expand=Roles($count=true)", null, true);
+    helper.assertStatus(200);
+
+    final ObjectNode result = helper.getValue();
+    assertEquals(10, result.get("@odata.count").asInt());
+    assertEquals(2, ((ArrayNode) result.get("value")).size());
+  }
+
+  @Test
+  public void testNavigationToEntityStreamedNotFound() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, "Organizations('999')/Roles", null, true);
+    helper.assertStatus(404);
+  }
+
+  @Test
+  public void testBatchWithStreamedResponse() throws IOException, ODataException {
+    final StringBuffer requestBody = new StringBuffer("--abc123\r\n");
+    requestBody.append("Content-Type: application/http\r\n");
+    requestBody.append("Content-Transfer-Encoding: binary\r\n");
+    requestBody.append("\r\n");
+    requestBody.append("GET Organizations('3')/Roles HTTP/1.1\r\n");
+    requestBody.append("Content-Type: application/json\r\n");
+    requestBody.append("\r\n");
+    requestBody.append("\r\n");
+    requestBody.append("--abc123--");
+
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, "$batch", requestBody, true);
+    assertEquals(200, helper.getBatchResultStatus(1));
+    final JsonNode value = helper.getBatchResult(1);
+    assertEquals(3, ((ArrayNode) value.get("value")).size());
+  }
+}
@@ -0,0 +1,124 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.persistence.Tuple;
+
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sap.olingo.jpa.metadata.api.JPAEdmProvider;
+import com.sap.olingo.jpa.processor.core.api.JPAODataContextAccessDouble;
+import com.sap.olingo.jpa.processor.core.converter.JPAJoinKey;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+
+public class TestJPAQueryChunks extends TestBase {
+  private OData odata;
+  private JPAODataContextAccessDouble context;
+  private ServiceMetadata serviceMetadata;
+
+  @Before
+  public void setup() throws ODataException {
+    odata = OData.newInstance();
+    context = new JPAODataContextAccessDouble(new JPAEdmProvider(PUNIT_NAME, emf, null, TestBase.enumPackages), ds);
+    serviceMetadata = odata.createServiceMetadata(context.getEdmProvider(), Collections.<EdmxReference> emptyList());
+    createHeaders();
+  }
+
+  @Test
+  public void checkChunksContainAllEntities() throws ODataException {
+    final List<List<Tuple>> chunks = readChunks("Organizations", null, 3);
+
+    assertEquals(4, chunks.size());
+    assertEquals(3, chunks.get(0).size());
+    assertEquals(1, chunks.get(3).size());
+    assertEquals(10, new HashSet<>(getIds(chunks)).size());
+  }
+
+  @Test
+  public void checkChunksRespectTopSkip() throws ODataException {
+    final List<List<Tuple>> chunks = readChunks("Organizations", "$orderby=ID desc&$skip=1&$top=5", 2);
+
+    assertEquals(3, chunks.size());
+    assertEquals(5, getIds(chunks).size());
+    assertEquals("8", getIds(chunks).get(0));
+    assertEquals("4", getIds(chunks).get(4));
+  }
+
+  @Test
+  public void checkChunkSizeMatchesResult() throws ODataException {
+    final List<List<Tuple>> chunks = readChunks("Organizations", "$top=4", 2);
+
+    assertEquals(2, chunks.size());
+  }
+
+  @Test
+  public void checkEmptyResultProvidesOneEmptyChunk() throws ODataException {
+    final Iterator<JPAExpandQueryResult> act = createQuery("Organizations", "$filter=ID eq 'X'").executeStreamed(3);
+
+    assertTrue(act.hasNext());
+    assertTrue(act.next().getResult(JPAJoinKey.ROOT).isEmpty());
+    assertFalse(act.hasNext());
+  }
+
+  @Test
+  public void checkChunkOfOneEntity() throws ODataException {
+    final List<List<Tuple>> chunks = readChunks("Organizations", "$orderby=ID", 1);
+
+    assertEquals(10, chunks.size());
+    assertEquals("1", chunks.get(0).get(0).get("ID"));
+    assertEquals("9", chunks.get(9).get(0).get("ID"));
+  }
+
+  @Test
+  public void checkChunksOrderedByNullablePropertyContainAllEntities() throws ODataException {
+    final List<List<Tuple>> chunks = readChunks("Organizations", "$orderby=Name2", 3);
+
+    assertEquals(4, chunks.size());
+    assertEquals(10, new HashSet<>(getIds(chunks)).size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void checkChunkSizeZeroRejected() throws ODataException {
+    createQuery("Organizations", null).executeStreamed(0);
+  }
+
+  private List<List<Tuple>> readChunks(final String path, final String query, final int chunkSize)
+      throws ODataException {
+
+    final List<List<Tuple>> chunks = new ArrayList<>();
+    final Iterator<JPAExpandQueryResult> act = createQuery(path, query).executeStreamed(chunkSize);
+    while (act.hasNext())
+      chunks.add(act.next().getResult(JPAJoinKey.ROOT));
+    return chunks;
+  }
+
+  private List<String> getIds(final List<List<Tuple>> chunks) {
+    final List<String> ids = new ArrayList<>();
+    for (final List<Tuple> chunk : chunks)
+      for (final Tuple row : chunk)
+        ids.add((String) row.get("ID"));
+    return ids;
+  }
+
+  private JPAQuery createQuery(final String path, final String query) throws ODataException {
+    final UriInfo uriInfo = new Parser(serviceMetadata.getEdm(), odata).parseUri(path, query, null,
+        "http://localhost:8080/Test/Olingo.svc");
+    return new JPAQuery(odata, Util.determineTargetEntitySet(uriInfo.getUriResourceParts()), context, uriInfo, emf
+        .createEntityManager(), headers);
+  }
+}
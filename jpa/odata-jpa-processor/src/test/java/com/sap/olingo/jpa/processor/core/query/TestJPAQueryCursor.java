@@ -0,0 +1,80 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+
+import org.junit.Test;
+
+import com.sap.olingo.jpa.processor.core.testmodel.Organization;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+
+public class TestJPAQueryCursor extends TestBase {
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void checkFetchSizeSet() {
+    final TypedQuery<Tuple> tq = mock(TypedQuery.class);
+    when(tq.getResultList()).thenReturn(Arrays.asList(mock(Tuple.class)));
+
+    new JPAQueryCursor(tq, 5);
+    verify(tq).setHint(JPAQueryCursor.ECLIPSELINK_FETCH_SIZE, 5);
+    verify(tq).setHint(JPAQueryCursor.HIBERNATE_FETCH_SIZE, 5);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void checkResultListUsedIfNoCursorAvailable() {
+    final TypedQuery<Tuple> tq = mock(TypedQuery.class);
+    final Tuple row = mock(Tuple.class);
+    when(tq.getResultList()).thenReturn(Arrays.asList(row));
+
+    final JPAQueryCursor cut = new JPAQueryCursor(tq, 5);
+    assertTrue(cut.hasNext());
+    assertEquals(row, cut.next());
+    assertFalse(cut.hasNext());
+  }
+
+  @Test
+  public void checkCursorReadsAllRows() {
+    final JPAQueryCursor cut = new JPAQueryCursor(createQuery(), 2);
+    int count = 0;
+    while (cut.hasNext()) {
+      cut.next();
+      count += 1;
+      if (count % 2 == 0)
+        cut.release();
+    }
+    assertEquals(10, count);
+  }
+
+  @Test
+  public void checkClosedCursorHasNoNext() {
+    final JPAQueryCursor cut = new JPAQueryCursor(createQuery(), 2);
+    cut.next();
+    cut.close();
+    assertFalse(cut.hasNext());
+  }
+
+  private TypedQuery<Tuple> createQuery() {
+    final EntityManager em = emf.createEntityManager();
+    final CriteriaBuilder cb = em.getCriteriaBuilder();
+    final CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+    final Root<Organization> root = cq.from(Organization.class);
+    cq.multiselect(root.get("iD").alias("ID"));
+    cq.orderBy(cb.asc(root.get("iD")));
+    return em.createQuery(cq);
+  }
+}
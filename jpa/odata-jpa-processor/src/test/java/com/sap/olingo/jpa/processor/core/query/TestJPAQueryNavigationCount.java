@@ -7,6 +7,9 @@ import java.io.IOException;
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.junit.Test;
 
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
 import com.sap.olingo.jpa.processor.core.util.IntegrationTestHelper;
 import com.sap.olingo.jpa.processor.core.util.TestBase;
 
@@ -30,4 +33,38 @@ public class TestJPAQueryNavigationCount extends TestBase {
     assertEquals("3", helper.getRawResult());
   }
 
+  @Test
+  public void testEntitySetCountWithFilter() throws IOException, ODataException {
+
+    IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "Organizations/$count?$filter=Address/Region eq 'US-CA'");
+    assertEquals(200, helper.getStatus());
+
+    assertEquals("3", helper.getRawResult());
+  }
+
+  @Test
+  public void testCountTrueUsesFilterOfQuery() throws IOException, ODataException {
+
+    IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "Organizations?$count=true&$filter=Address/Region eq 'US-CA'&$top=1");
+    assertEquals(200, helper.getStatus());
+
+    ObjectNode result = helper.getValue();
+    assertEquals(3, result.get("@odata.count").asInt());
+    assertEquals(1, ((ArrayNode) result.get("value")).size());
+  }
+
+  @Test
+  public void testCountTrueOnNavigationUsesFilterOfQuery() throws IOException, ODataException {
+
+    IntegrationTestHelper helper = new IntegrationTestHelper(emf,
+        "Organizations('3')/Roles?$count=true&$filter=RoleCategory ne 'A'&$skip=1");
+    assertEquals(200, helper.getStatus());
+
+    ObjectNode result = helper.getValue();
+    assertEquals(2, result.get("@odata.count").asInt());
+    assertEquals(1, ((ArrayNode) result.get("value")).size());
+  }
+
 }
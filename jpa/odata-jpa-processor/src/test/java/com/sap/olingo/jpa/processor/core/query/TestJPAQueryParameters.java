@@ -0,0 +1,94 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.persistence.Parameter;
+import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaBuilder;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestJPAQueryParameters {
+  private JPAQueryParameters cut;
+  private CriteriaBuilder cb;
+
+  @Before
+  public void setup() {
+    cb = mock(CriteriaBuilder.class);
+    cut = new JPAQueryParameters(cb);
+  }
+
+  @Test
+  public void checkParameterNamedInSequence() {
+    cut.add("3");
+    cut.add(Integer.valueOf(5));
+    verify(cb).parameter(String.class, "p1");
+    verify(cb).parameter(Integer.class, "p2");
+    assertEquals(2, cut.size());
+  }
+
+  @Test
+  public void checkBindSetsOnlyParameterOfQuery() {
+    cut.add("3");
+    cut.add("4");
+    final Query query = createQuery("p2");
+
+    cut.bind(query);
+    verify(query).setParameter("p2", "4");
+    verify(query, never()).setParameter("p1", "3");
+  }
+
+  @Test
+  public void checkValueInlined() {
+    assertFalse(cut.isValueInlined());
+    cut.valueInlined();
+    assertTrue(cut.isValueInlined());
+  }
+
+  @Test
+  public void checkClearRestartsNaming() {
+    cut.add("3");
+    cut.valueInlined();
+    cut.clear();
+    cut.add("4");
+    verify(cb, times(2)).parameter(String.class, "p1");
+    assertFalse(cut.isValueInlined());
+  }
+
+  @Test
+  public void checkResetReusesNamesAfterSize() {
+    cut.add("3");
+    cut.add("4");
+    cut.reset(1);
+    cut.add("5");
+    verify(cb, times(2)).parameter(String.class, "p2");
+    assertEquals(2, cut.size());
+  }
+
+  @SuppressWarnings("unchecked")
+  private Query createQuery(final String... names) {
+    final Query query = mock(Query.class);
+    final Set<Parameter<?>> parameters = new HashSet<>();
+    for (final String name : names) {
+      final Parameter<Object> parameter = mock(Parameter.class);
+      when(parameter.getName()).thenReturn(name);
+      parameters.add(parameter);
+    }
+    when(query.getParameters()).thenReturn(parameters);
+    when(query.setParameter(anyString(), any())).thenReturn(query);
+    return query;
+  }
+}
@@ -0,0 +1,201 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Query;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAssociationAttribute;
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAPath;
+
+public class TestJPAQueryPlanCache {
+  private JPAQueryPlanCache cut;
+
+  @Before
+  public void setup() {
+    cut = new JPAQueryPlanCache(2);
+  }
+
+  @Test
+  public void checkDefaultMaxSize() {
+    assertEquals(JPAQueryPlanCache.DEFAULT_MAX_SIZE, new JPAQueryPlanCache().getMaxSize());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void checkMaxSizeZeroRejected() {
+    new JPAQueryPlanCache(0);
+  }
+
+  @Test
+  public void checkGetReturnsNullIfUnknown() {
+    assertNull(cut.get("Organizations"));
+    assertEquals(0, cut.getHitCount());
+    assertEquals(1, cut.getMissCount());
+  }
+
+  @Test
+  public void checkGetReturnsPlan() {
+    final JPAQueryPlan plan = createPlan();
+    cut.put("Organizations", plan);
+    assertSame(plan, cut.get("Organizations"));
+    assertEquals(1, cut.getHitCount());
+    assertEquals(0, cut.getMissCount());
+  }
+
+  @Test
+  public void checkHitRatio() {
+    assertEquals(0.0, cut.getHitRatio(), 0.0);
+    cut.get("Organizations");
+    cut.put("Organizations", createPlan());
+    cut.get("Organizations");
+    cut.get("Organizations");
+    cut.get("Organizations");
+    assertEquals(0.75, cut.getHitRatio(), 0.0);
+  }
+
+  @Test
+  public void checkLeastRecentlyUsedEvicted() {
+    cut.put("Organizations", createPlan());
+    cut.put("Persons", createPlan());
+    cut.get("Organizations");
+    cut.put("AdministrativeDivisions", createPlan());
+
+    assertEquals(2, cut.size());
+    assertEquals(1, cut.getEvictionCount());
+    assertNotNull(cut.get("Organizations"));
+    assertNull(cut.get("Persons"));
+  }
+
+  @Test
+  public void checkClearRemovesPlans() {
+    cut.put("Organizations", createPlan());
+    cut.clear();
+    assertEquals(0, cut.size());
+    assertNull(cut.get("Organizations"));
+  }
+
+  @Test
+  public void checkQueryRegisteredAsNamedQuery() {
+    final EntityManagerFactory emf = mock(EntityManagerFactory.class);
+    final Query query = mock(Query.class);
+    final JPAQueryPlan plan = createPlan();
+    cut.put("Organizations", plan, emf, query);
+
+    assertNotNull(plan.getQueryName());
+    verify(emf).addNamedQuery(plan.getQueryName(), query);
+    assertTrue(cut.contains("Organizations", plan));
+  }
+
+  @Test
+  public void checkPlanWithoutQueryHasNoName() {
+    final JPAQueryPlan plan = createPlan();
+    cut.put("Organizations", plan);
+
+    assertNull(plan.getQueryName());
+  }
+
+  @Test
+  public void checkNameOfEvictedPlanReused() {
+    final EntityManagerFactory emf = mock(EntityManagerFactory.class);
+    final JPAQueryPlan first = createPlan();
+    final JPAQueryPlan second = createPlan();
+    final JPAQueryPlan third = createPlan();
+    cut.put("Organizations", first, emf, mock(Query.class));
+    cut.put("Persons", second, emf, mock(Query.class));
+    cut.put("AdministrativeDivisions", third, emf, mock(Query.class));
+
+    assertFalse(first.getQueryName().equals(second.getQueryName()));
+    assertEquals(first.getQueryName(), third.getQueryName());
+    assertFalse(cut.contains("Organizations", first));
+  }
+
+  @Test
+  public void checkReplacedPlanNotContained() {
+    final JPAQueryPlan first = createPlan();
+    cut.put("Organizations", first);
+    cut.put("Organizations", createPlan());
+
+    assertFalse(cut.contains("Organizations", first));
+    assertEquals(0, cut.getEvictionCount());
+  }
+
+  @Test
+  public void checkPutIfAbsentKeepsFirstPlan() {
+    final EntityManagerFactory emf = mock(EntityManagerFactory.class);
+    final JPAQueryPlan first = createPlan();
+    final JPAQueryPlan second = createPlan();
+    final Query secondQuery = mock(Query.class);
+    assertSame(first, cut.putIfAbsent("Organizations", first, emf, mock(Query.class)));
+    assertSame(first, cut.putIfAbsent("Organizations", second, emf, secondQuery));
+
+    assertTrue(cut.contains("Organizations", first));
+    assertNull(second.getQueryName());
+    verify(emf, never()).addNamedQuery(first.getQueryName(), secondQuery);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void checkNamedQueryCreatedForContainedPlan() {
+    final EntityManager em = mock(EntityManager.class);
+    final JPAQueryPlan plan = createPlan();
+    cut.put("Organizations", plan, mock(EntityManagerFactory.class), mock(Query.class));
+    final TypedQuery<Tuple> query = mock(TypedQuery.class);
+    when(em.createNamedQuery(plan.getQueryName(), Tuple.class)).thenReturn(query);
+
+    assertSame(query, cut.createNamedQuery(em, "Organizations", plan));
+  }
+
+  @Test
+  public void checkNoNamedQueryCreatedForReplacedPlan() {
+    final EntityManager em = mock(EntityManager.class);
+    final JPAQueryPlan first = createPlan();
+    cut.put("Organizations", first, mock(EntityManagerFactory.class), mock(Query.class));
+    cut.put("Organizations", createPlan(), mock(EntityManagerFactory.class), mock(Query.class));
+
+    assertNull(cut.createNamedQuery(em, "Organizations", first));
+    verify(em, never()).createNamedQuery(first.getQueryName(), Tuple.class);
+  }
+
+  @Test
+  public void checkPlanReturnsCopyOfSelection() {
+    final JPAQueryPlan plan = createPlan();
+    plan.getSelectionPath().add(null);
+    assertEquals(0, plan.getSelectionPath().size());
+  }
+
+  @Test
+  public void checkPlanWithoutPagingHasNoOrdering() {
+    final JPAQueryPlan plan = createPlan();
+    assertNull(plan.getAdditionalKeyOrder());
+    assertNull(plan.getKeysetOrderBy());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void checkPlanOrderingCanNotBeChanged() {
+    final JPAQueryPlan plan = new JPAQueryPlan(new ArrayList<JPAPath>(), new ArrayList<JPAAssociationAttribute>(),
+        new ArrayList<JPAPath>(), new HashMap<JPAPath, Boolean>());
+    plan.getKeysetOrderBy().put(null, Boolean.TRUE);
+  }
+
+  private JPAQueryPlan createPlan() {
+    return new JPAQueryPlan(new ArrayList<JPAPath>(), new ArrayList<JPAAssociationAttribute>());
+  }
+}
@@ -0,0 +1,232 @@
+package com.sap.olingo.jpa.processor.core.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sap.olingo.jpa.processor.core.util.IntegrationTestHelper;
+import com.sap.olingo.jpa.processor.core.util.TestBase;
+
+public class TestJPAServerDrivenPaging extends TestBase {
+  private static final String SERVICE_ROOT = "http://localhost:8080/Test/Olingo.svc/";
+  private Map<String, Integer> maxPageSizes;
+
+  @Before
+  public void setup() {
+    maxPageSizes = new HashMap<>();
+    maxPageSizes.put("Organizations", 3);
+    maxPageSizes.put("AdministrativeDivisions", 2);
+  }
+
+  @Test
+  public void testFirstPageContainsNextLink() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, maxPageSizes, "Organizations?$orderby=ID",
+        false);
+    helper.assertStatus(200);
+
+    final ObjectNode page = helper.getValue();
+    assertEquals(3, ((ArrayNode) page.get("value")).size());
+    assertNotNull(page.get("@odata.nextLink"));
+    assertTrue(page.get("@odata.nextLink").asText().startsWith(SERVICE_ROOT + "Organizations?$orderby=ID&$skiptoken="));
+  }
+
+  @Test
+  public void testNextLinkKeepsEncodedQueryOptions() throws IOException, ODataException {
+    final List<String> ids = readAllPages("Organizations?$filter=Name1%20ne%20'A%26B'&$orderby=ID&$select=ID,Name1",
+        "ID", false);
+    assertEquals(10, ids.size());
+    assertEquals("9", ids.get(9));
+  }
+
+  @Test
+  public void testNextLinkBuildFromParsedOptions() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, maxPageSizes,
+        "Organizations?$orderby=ID&$skip=1&$top=5&$count=true", false);
+    helper.assertStatus(200);
+
+    final String nextLink = helper.getValue().get("@odata.nextLink").asText();
+    assertTrue(nextLink.contains("$orderby=ID&"));
+    assertTrue(nextLink.contains("$top=2&"));
+    assertTrue(nextLink.contains("$count=true&"));
+    assertFalse(nextLink.contains("$skip="));
+  }
+
+  @Test
+  public void testNoNextLinkWithoutMaxPageSize() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, new HashMap<String, Integer>(),
+        "Organizations?$orderby=ID", false);
+    helper.assertStatus(200);
+
+    final ObjectNode page = helper.getValue();
+    assertEquals(10, ((ArrayNode) page.get("value")).size());
+    assertNull(page.get("@odata.nextLink"));
+  }
+
+  @Test
+  public void testReadAllPagesOrderByKey() throws IOException, ODataException {
+    final List<String> ids = readAllPages("Organizations?$orderby=ID", "ID", false);
+    assertEquals(readWithoutPaging("Organizations?$orderby=ID", "ID"), ids);
+  }
+
+  @Test
+  public void testReadAllPagesOrderByKeyDescending() throws IOException, ODataException {
+    final List<String> ids = readAllPages("Organizations?$orderby=ID desc", "ID", false);
+    assertEquals(readWithoutPaging("Organizations?$orderby=ID desc", "ID"), ids);
+  }
+
+  @Test
+  public void testReadAllPagesWithoutOrderBy() throws IOException, ODataException {
+    final List<String> ids = readAllPages("Organizations", "ID", false);
+    assertEquals(10, ids.size());
+    assertEquals(readWithoutPaging("Organizations?$orderby=ID", "ID"), ids);
+  }
+
+  @Test
+  public void testReadAllPagesOrderByNavigationCount() throws IOException, ODataException {
+    final List<String> ids = readAllPages("Organizations?$orderby=Roles/$count desc", "ID", false);
+    assertEquals(readWithoutPaging("Organizations?$orderby=Roles/$count desc,ID", "ID"), ids);
+  }
+
+  @Test
+  public void testReadAllPagesCompoundKeyWithFilter() throws IOException, ODataException {
+    final String url = "AdministrativeDivisions?$filter=CodeID eq 'NUTS2'&$orderby=ParentDivisionCode desc";
+    final List<String> codes = readAllPages(url, "DivisionCode", false);
+    final List<String> exp = readWithoutPaging(url + ",CodePublisher,CodeID,DivisionCode", "DivisionCode");
+    assertEquals(exp, codes);
+  }
+
+  @Test
+  public void testReadAllPagesCompoundKeyKeyset() throws IOException, ODataException {
+    final String url = "AdministrativeDivisions?$filter=CodeID eq 'NUTS2'";
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, maxPageSizes, url, false);
+    assertTrue(helper.getValue().get("@odata.nextLink").asText().contains("$skiptoken=k."));
+
+    final List<String> codes = readAllPages(url, "DivisionCode", false);
+    final List<String> exp = readWithoutPaging(url + "&$orderby=CodePublisher,CodeID,DivisionCode", "DivisionCode");
+    assertEquals(exp, codes);
+  }
+
+  @Test
+  public void testReadAllPagesStreamed() throws IOException, ODataException {
+    final List<String> ids = readAllPages("Organizations?$orderby=ID", "ID", true);
+    assertEquals(readWithoutPaging("Organizations?$orderby=ID", "ID"), ids);
+  }
+
+  @Test
+  public void testTopLessThanPageSizeNoNextLink() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, maxPageSizes,
+        "Organizations?$orderby=ID&$top=2", false);
+    helper.assertStatus(200);
+
+    final ObjectNode page = helper.getValue();
+    assertEquals(2, ((ArrayNode) page.get("value")).size());
+    assertNull(page.get("@odata.nextLink"));
+  }
+
+  @Test
+  public void testTopGreaterThanPageSizeReducedAtNextLink() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, maxPageSizes,
+        "Organizations?$orderby=ID&$top=5", false);
+    helper.assertStatus(200);
+
+    final ObjectNode page = helper.getValue();
+    assertTrue(page.get("@odata.nextLink").asText().contains("$top=2"));
+    final List<String> ids = readAllPages("Organizations?$orderby=ID&$top=5", "ID", false);
+    assertEquals(readWithoutPaging("Organizations?$orderby=ID&$top=5", "ID"), ids);
+  }
+
+  @Test
+  public void testSkipTakenIntoAccountOnce() throws IOException, ODataException {
+    final List<String> ids = readAllPages("Organizations?$orderby=ID&$skip=2", "ID", false);
+    assertEquals(readWithoutPaging("Organizations?$orderby=ID&$skip=2", "ID"), ids);
+  }
+
+  @Test
+  public void testCountIgnoresPaging() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, maxPageSizes, "Organizations?$count=true",
+        false);
+    helper.assertStatus(200);
+
+    final ObjectNode page = helper.getValue();
+    assertEquals(10, page.get("@odata.count").asInt());
+    assertEquals(3, ((ArrayNode) page.get("value")).size());
+  }
+
+  @Test
+  public void testNavigationCollectionPaged() throws IOException, ODataException {
+    maxPageSizes.put("BusinessPartnerRoles", 2);
+    final List<String> roles = readAllPages("Organizations('3')/Roles", "RoleCategory", false);
+    assertEquals(3, roles.size());
+  }
+
+  @Test
+  public void testSingleEntityNotPaged() throws IOException, ODataException {
+    maxPageSizes.put("Organizations", 1);
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, maxPageSizes,
+        "Organizations('3')?$expand=Roles", false);
+    helper.assertStatus(200);
+    assertEquals(3, ((ArrayNode) helper.getValue().get("Roles")).size());
+  }
+
+  @Test
+  public void testInvalidSkipTokenReturnsBadRequest() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, maxPageSizes,
+        "Organizations?$orderby=ID&$skiptoken=x.1", false);
+    helper.assertStatus(400);
+  }
+
+  @Test
+  public void testSkipTokenNotMatchingOrderReturnsBadRequest() throws IOException, ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, maxPageSizes, "Organizations?$orderby=ID",
+        false);
+    final String nextLink = helper.getValue().get("@odata.nextLink").asText();
+    final String skipToken = nextLink.substring(nextLink.indexOf("$skiptoken="));
+
+    final IntegrationTestHelper next = new IntegrationTestHelper(emf, maxPageSizes,
+        "Organizations?$orderby=Name1,ID&" + skipToken, false);
+    next.assertStatus(400);
+  }
+
+  private List<String> readAllPages(final String url, final String property, final boolean streamed)
+      throws IOException, ODataException {
+    final List<String> values = new ArrayList<>();
+    String nextUrl = url;
+    int noPages = 0;
+    while (nextUrl != null) {
+      final IntegrationTestHelper helper = new IntegrationTestHelper(emf, maxPageSizes, nextUrl, streamed);
+      helper.assertStatus(200);
+      final ObjectNode page = helper.getValue();
+      for (final JsonNode entity : page.get("value"))
+        values.add(entity.get(property).asText());
+      final JsonNode nextLink = page.get("@odata.nextLink");
+      nextUrl = nextLink == null ? null : nextLink.asText().substring(SERVICE_ROOT.length());
+      assertTrue("Too many pages", ++noPages < 50);
+    }
+    return values;
+  }
+
+  private List<String> readWithoutPaging(final String url, final String property) throws IOException,
+      ODataException {
+    final IntegrationTestHelper helper = new IntegrationTestHelper(emf, new HashMap<String, Integer>(), url, false);
+    helper.assertStatus(200);
+    final List<String> values = new ArrayList<>();
+    for (final JsonNode entity : helper.getValues())
+      values.add(entity.get(property).asText());
+    return values;
+  }
+}
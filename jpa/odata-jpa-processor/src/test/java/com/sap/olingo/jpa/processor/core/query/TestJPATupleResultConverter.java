@@ -1,7 +1,11 @@
 package com.sap.olingo.jpa.processor.core.query;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -11,14 +15,18 @@ import java.util.Map;
 import javax.persistence.Tuple;
 
 import org.apache.olingo.commons.api.data.ComplexValue;
+import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.EntityIterator;
 import org.apache.olingo.commons.api.data.ValueType;
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.sap.olingo.jpa.metadata.core.edm.mapper.api.JPAAssociationPath;
 import com.sap.olingo.jpa.metadata.core.edm.mapper.exception.ODataJPAModelException;
+import com.sap.olingo.jpa.processor.core.converter.JPAJoinKey;
 import com.sap.olingo.jpa.processor.core.converter.JPATupleResultConverter;
 import com.sap.olingo.jpa.processor.core.util.ServiceMetadataDouble;
 import com.sap.olingo.jpa.processor.core.util.TestBase;
@@ -38,8 +46,8 @@ public class TestJPATupleResultConverter extends TestBase {
   public void setup() throws ODataException {
     helper = new TestHelper(emf, PUNIT_NAME);
     jpaQueryResult = new ArrayList<>();
-    HashMap<String, List<Tuple>> result = new HashMap<>(1);
-    result.put("root", jpaQueryResult);
+    HashMap<JPAJoinKey, List<Tuple>> result = new HashMap<>(1);
+    result.put(JPAJoinKey.ROOT, jpaQueryResult);
     uriHelper = new UriHelperDouble();
     keyPredicates = new HashMap<>();
     uriHelper.setKeyPredicates(keyPredicates, "ID");
@@ -103,6 +111,27 @@ public class TestJPATupleResultConverter extends TestBase {
     assertEquals("5", act.getEntities().get(1).getProperty("ID").getValue().toString());
   }
 
+  @Test
+  public void checkIteratorConvertsTwoResultsOneElement() throws ODataApplicationException {
+    HashMap<String, Object> result;
+
+    result = new HashMap<>();
+    result.put("ID", new String("1"));
+    jpaQueryResult.add(new TupleDouble(result));
+
+    result = new HashMap<>();
+    result.put("ID", new String("5"));
+    jpaQueryResult.add(new TupleDouble(result));
+
+    keyPredicates.put("1", "Organizations('1')");
+    keyPredicates.put("5", "Organizations('5')");
+
+    EntityIterator act = cut.getResultIterator();
+    assertEquals("1", act.next().getProperty("ID").getValue().toString());
+    assertEquals("5", act.next().getProperty("ID").getValue().toString());
+    assertFalse(act.hasNext());
+  }
+
   @Test
   public void checkConvertsOneResultsTwoElements() throws ODataApplicationException {
     HashMap<String, Object> result;
@@ -190,12 +219,36 @@ public class TestJPATupleResultConverter extends TestBase {
         .getValue().toString());
   }
 
+  @Test
+  public void checkConvertsRowsWithDifferentSelection() throws ODataApplicationException {
+    HashMap<String, Object> result;
+
+    result = new HashMap<>();
+    result.put("ID", "1");
+    result.put("Address/Region", new String("CA"));
+    jpaQueryResult.add(new TupleDouble(result));
+    result = new HashMap<>();
+    result.put("ID", "5");
+    result.put("Name1", new String("Fifth"));
+    jpaQueryResult.add(new TupleDouble(result));
+
+    keyPredicates.put("1", "Organizations('1')");
+    keyPredicates.put("5", "Organizations('5')");
+
+    EntityCollection act = cut.getResult();
+    assertEquals(2, act.getEntities().size());
+    assertEquals("CA", ((ComplexValue) act.getEntities().get(0).getProperty("Address").getValue()).getValue().get(0)
+        .getValue().toString());
+    assertEquals("Fifth", act.getEntities().get(1).getProperty("Name1").getValue());
+    assertNull(act.getEntities().get(1).getProperty("Address"));
+  }
+
   @Test
   public void checkConvertMediaStreamStaticMime() throws ODataJPAModelException, NumberFormatException,
       ODataApplicationException {
 
-    HashMap<String, List<Tuple>> result = new HashMap<>(1);
-    result.put("root", jpaQueryResult);
+    HashMap<JPAJoinKey, List<Tuple>> result = new HashMap<>(1);
+    result.put(JPAJoinKey.ROOT, jpaQueryResult);
     JPATupleResultConverter converter = new JPATupleResultConverter(
         helper.sd,
         new JPAExpandQueryResult(result, null, helper.getJPAEntityType("PersonImages")),
@@ -217,8 +270,8 @@ public class TestJPATupleResultConverter extends TestBase {
   public void checkConvertMediaStreamDynamicMime() throws ODataJPAModelException, NumberFormatException,
       ODataApplicationException {
 
-    HashMap<String, List<Tuple>> result = new HashMap<>(1);
-    result.put("root", jpaQueryResult);
+    HashMap<JPAJoinKey, List<Tuple>> result = new HashMap<>(1);
+    result.put(JPAJoinKey.ROOT, jpaQueryResult);
     JPATupleResultConverter converter = new JPATupleResultConverter(
         helper.sd,
         new JPAExpandQueryResult(result, null, helper.getJPAEntityType("OrganizationImages")),
@@ -237,4 +290,58 @@ public class TestJPATupleResultConverter extends TestBase {
     assertEquals("image/svg+xml", act.getEntities().get(0).getMediaContentType());
     assertEquals(2, act.getEntities().get(0).getProperties().size());
   }
+  @Test
+  public void checkExpandSharedByEntityAndComplexValue() throws ODataApplicationException, ODataJPAModelException {
+    final JPATupleResultConverter converter = createConverterWithRolesExpand();
+    HashMap<String, Object> result;
+
+    result = new HashMap<>();
+    result.put("ID", "1");
+    result.put("Address/CityName", "Test City");
+    jpaQueryResult.add(new TupleDouble(result));
+    keyPredicates.put("1", "Organizations('1')");
+
+    final Entity act = converter.getResult().getEntities().get(0);
+    final ComplexValue value = (ComplexValue) act.getProperty("Address").getValue();
+    assertEquals(1, act.getNavigationLinks().size());
+    assertSame(act.getNavigationLink("Roles"), value.getNavigationLink("Roles"));
+  }
+
+  @Test
+  public void checkExpandConvertedOncePerParentKey() throws ODataApplicationException, ODataJPAModelException {
+    final JPATupleResultConverter converter = createConverterWithRolesExpand();
+    HashMap<String, Object> result;
+
+    result = new HashMap<>();
+    result.put("ID", "1");
+    jpaQueryResult.add(new TupleDouble(result));
+    result = new HashMap<>();
+    result.put("ID", "1");
+    jpaQueryResult.add(new TupleDouble(result));
+    result = new HashMap<>();
+    result.put("ID", "2");
+    jpaQueryResult.add(new TupleDouble(result));
+    keyPredicates.put("1", "Organizations('1')");
+    keyPredicates.put("2", "Organizations('2')");
+
+    final List<Entity> act = converter.getResult().getEntities();
+    assertSame(act.get(0).getNavigationLink("Roles"), act.get(1).getNavigationLink("Roles"));
+    assertNotSame(act.get(0).getNavigationLink("Roles"), act.get(2).getNavigationLink("Roles"));
+  }
+
+  private JPATupleResultConverter createConverterWithRolesExpand() throws ODataJPAModelException,
+      ODataApplicationException {
+
+    final HashMap<JPAJoinKey, List<Tuple>> result = new HashMap<>(1);
+    result.put(JPAJoinKey.ROOT, jpaQueryResult);
+    final JPAExpandQueryResult queryResult = new JPAExpandQueryResult(result, null,
+        helper.getJPAEntityType("Organizations"));
+    final Map<JPAAssociationPath, JPAExpandQueryResult> children = new HashMap<>(1);
+    children.put(helper.getJPAEntityType("Organizations").getAssociationPath("Roles"),
+        new JPAExpandQueryResult(new HashMap<JPAJoinKey, List<Tuple>>(), null,
+            helper.getJPAEntityType("BusinessPartnerRoles")));
+    queryResult.putChildren(children);
+    return new JPATupleResultConverter(helper.sd, queryResult, uriHelper,
+        new ServiceMetadataDouble(nameBuilder, "Organization"));
+  }
 }
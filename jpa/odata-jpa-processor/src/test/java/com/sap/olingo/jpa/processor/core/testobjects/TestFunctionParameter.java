@@ -25,4 +25,9 @@ public class TestFunctionParameter implements ODataFunction {
     param2 = b;
     return a + b;
   }
+
+  @EdmFunction(name = "", returnType = @ReturnType, cacheTimeToLive = 60000)
+  public Integer cachedSum(@EdmParameter(name = "A") Integer a, @EdmParameter(name = "B") Integer b) {
+    return sum(a, b);
+  }
 }
@@ -5,6 +5,9 @@ import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 public class HttpRequestHeaderDouble {
@@ -54,6 +57,11 @@ public class HttpRequestHeaderDouble {
     headers.put("content-type", headerValue);
   }
 
+  public void setHeaders(final Map<String, List<String>> additionalHeaders) {
+    for (final Entry<String, List<String>> header : additionalHeaders.entrySet())
+      headers.put(header.getKey().toLowerCase(Locale.ENGLISH), header.getValue());
+  }
+
   class HeaderEnumerator implements Enumeration<String> {
 
     private final Iterator<String> keys;
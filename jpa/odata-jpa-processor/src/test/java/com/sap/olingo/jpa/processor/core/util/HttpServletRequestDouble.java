@@ -7,6 +7,7 @@ import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.security.Principal;
 import java.util.Enumeration;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -29,6 +30,11 @@ public class HttpServletRequestDouble implements HttpServletRequest {
   }
 
   public HttpServletRequestDouble(final String uri, StringBuffer body) throws IOException {
+    this(uri, body, null);
+  }
+
+  public HttpServletRequestDouble(final String uri, StringBuffer body, final Map<String, List<String>> headers)
+      throws IOException {
     super();
     this.reqHeader = new HttpRequestHeaderDouble();
     String[] uriParts = uri.split("\\?");
@@ -40,6 +46,8 @@ public class HttpServletRequestDouble implements HttpServletRequest {
     if (uri.contains("$batch")) {
       reqHeader.setBatchRequest();
     }
+    if (headers != null)
+      reqHeader.setHeaders(headers);
     this.input = body;
   }
 
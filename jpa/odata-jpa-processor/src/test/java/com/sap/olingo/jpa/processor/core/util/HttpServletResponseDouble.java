@@ -6,9 +6,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.Cookie;
@@ -17,6 +19,7 @@ import javax.servlet.http.HttpServletResponse;
 public class HttpServletResponseDouble implements HttpServletResponse {
 
   private int setStatus;
+  private final Map<String, List<String>> headers = new HashMap<String, List<String>>();
   private ServletOutputStream outputStream = new OutPutStream();
 
   @Override
@@ -181,7 +184,17 @@ public class HttpServletResponseDouble implements HttpServletResponse {
 
   @Override
   public void addHeader(String name, String value) {
-    // TODO
+    List<String> values = headers.get(name);
+    if (values == null) {
+      values = new ArrayList<String>();
+      headers.put(name, values);
+    }
+    values.add(value);
+  }
+
+  public String getHeader(String name) {
+    final List<String> values = headers.get(name);
+    return values == null ? null : values.get(0);
   }
 
   @Override
@@ -216,7 +229,7 @@ public class HttpServletResponseDouble implements HttpServletResponse {
 
     @Override
     public void write(int b) throws IOException {
-      buffer.add(new Integer(b));
+      buffer.add(new Integer(b & 0xFF));
     }
 
     public Iterator<Integer> getBuffer() {
@@ -8,7 +8,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
@@ -29,7 +33,12 @@ import com.sap.olingo.jpa.metadata.api.JPAEdmProvider;
 import com.sap.olingo.jpa.processor.core.api.JPAODataBatchProcessor;
 import com.sap.olingo.jpa.processor.core.api.JPAODataContextAccessDouble;
 import com.sap.olingo.jpa.processor.core.api.JPAODataRequestProcessor;
-import com.sap.olingo.jpa.processor.core.api.JPAODataSessionContextAccess;
+import com.sap.olingo.jpa.processor.core.database.JPASearchIndex;
+import com.sap.olingo.jpa.processor.core.modify.JPACacheUpdates;
+import com.sap.olingo.jpa.processor.core.query.JPACountCache;
+import com.sap.olingo.jpa.processor.core.query.JPAExpandStrategy;
+import com.sap.olingo.jpa.processor.core.query.JPAExpandSubQueryStrategy;
+import com.sap.olingo.jpa.processor.core.query.JPAQueryPlanCache;
 
 public class IntegrationTestHelper {
   public final HttpServletRequestDouble req;
@@ -62,26 +71,143 @@ public class IntegrationTestHelper {
     this(localEmf, ds, urlPath, requestBody, null);
   }
 
+  public IntegrationTestHelper(EntityManagerFactory localEmf, String urlPath, JPAExpandStrategy expandStrategy)
+      throws IOException, ODataException {
+    this(localEmf, null, urlPath, null, null, expandStrategy);
+  }
+
   public IntegrationTestHelper(EntityManagerFactory localEmf, DataSource ds, String urlPath, StringBuffer requestBody,
       String functionPackage) throws IOException, ODataException {
+    this(localEmf, ds, urlPath, requestBody, functionPackage, new JPAExpandSubQueryStrategy());
+  }
+
+  public IntegrationTestHelper(EntityManagerFactory localEmf, DataSource ds, String urlPath, StringBuffer requestBody,
+      String functionPackage, JPAExpandStrategy expandStrategy) throws IOException, ODataException {
+    this(localEmf, ds, urlPath, requestBody, functionPackage, expandStrategy, false);
+  }
+
+  public IntegrationTestHelper(EntityManagerFactory localEmf, String urlPath, StringBuffer requestBody,
+      boolean streamingEnabled) throws IOException, ODataException {
+    this(localEmf, null, urlPath, requestBody, null, new JPAExpandSubQueryStrategy(), streamingEnabled);
+  }
+
+  public IntegrationTestHelper(EntityManagerFactory localEmf, Map<String, Integer> maxPageSizes, String urlPath,
+      boolean streamingEnabled) throws IOException, ODataException {
+    this(localEmf, null, urlPath, null, null, new JPAExpandSubQueryStrategy(), streamingEnabled, maxPageSizes);
+  }
+
+  public IntegrationTestHelper(EntityManagerFactory localEmf, DataSource ds, String urlPath, StringBuffer requestBody,
+      String functionPackage, JPAExpandStrategy expandStrategy, boolean streamingEnabled) throws IOException,
+      ODataException {
+    this(localEmf, ds, urlPath, requestBody, functionPackage, expandStrategy, streamingEnabled, Collections
+        .<String, Integer> emptyMap());
+  }
+
+  public IntegrationTestHelper(EntityManagerFactory localEmf, String urlPath, Map<String, List<String>> headers)
+      throws IOException, ODataException {
+    this(localEmf, null, urlPath, null, null, new JPAExpandSubQueryStrategy(), false, Collections
+        .<String, Integer> emptyMap(), null, headers);
+  }
+
+  public IntegrationTestHelper(EntityManagerFactory localEmf, JPAQueryPlanCache queryPlanCache, String urlPath)
+      throws IOException, ODataException {
+    this(localEmf, null, urlPath, null, null, new JPAExpandSubQueryStrategy(), false, Collections
+        .<String, Integer> emptyMap(), queryPlanCache);
+  }
+
+  public IntegrationTestHelper(EntityManagerFactory localEmf, DataSource ds, String urlPath, StringBuffer requestBody,
+      String functionPackage, JPAExpandStrategy expandStrategy, boolean streamingEnabled,
+      Map<String, Integer> maxPageSizes) throws IOException, ODataException {
+    this(localEmf, ds, urlPath, requestBody, functionPackage, expandStrategy, streamingEnabled, maxPageSizes, null);
+  }
+
+  public IntegrationTestHelper(EntityManagerFactory localEmf, DataSource ds, String urlPath, StringBuffer requestBody,
+      String functionPackage, JPAExpandStrategy expandStrategy, boolean streamingEnabled,
+      Map<String, Integer> maxPageSizes, JPAQueryPlanCache queryPlanCache) throws IOException, ODataException {
+    this(localEmf, ds, urlPath, requestBody, functionPackage, expandStrategy, streamingEnabled, maxPageSizes,
+        queryPlanCache, Collections.<String, List<String>> emptyMap());
+  }
+
+  public IntegrationTestHelper(EntityManagerFactory localEmf, DataSource ds, JPACountCache countCache,
+      List<String> approximateCounts, String urlPath) throws IOException, ODataException {
+    this(localEmf, ds, urlPath, null, null, new JPAExpandSubQueryStrategy(), false, Collections
+        .<String, Integer> emptyMap(), null, Collections.<String, List<String>> emptyMap(), countCache,
+        approximateCounts);
+  }
+
+  public IntegrationTestHelper(EntityManagerFactory localEmf, DataSource ds, String urlPath, StringBuffer requestBody,
+      String functionPackage, JPAExpandStrategy expandStrategy, boolean streamingEnabled,
+      Map<String, Integer> maxPageSizes, JPAQueryPlanCache queryPlanCache, Map<String, List<String>> headers)
+      throws IOException, ODataException {
+    this(localEmf, ds, urlPath, requestBody, functionPackage, expandStrategy, streamingEnabled, maxPageSizes,
+        queryPlanCache, headers, null, Collections.<String> emptyList());
+  }
+
+  public IntegrationTestHelper(EntityManagerFactory localEmf, String urlPath, StringBuffer requestBody,
+      ExecutorService batchExecutor) throws IOException, ODataException {
+    this(localEmf, null, urlPath, requestBody, null, new JPAExpandSubQueryStrategy(), false, Collections
+        .<String, Integer> emptyMap(), null, Collections.<String, List<String>> emptyMap(), null, Collections
+            .<String> emptyList(), batchExecutor);
+  }
+
+  public IntegrationTestHelper(EntityManagerFactory localEmf, DataSource ds, String urlPath, StringBuffer requestBody,
+      String functionPackage, JPAExpandStrategy expandStrategy, boolean streamingEnabled,
+      Map<String, Integer> maxPageSizes, JPAQueryPlanCache queryPlanCache, Map<String, List<String>> headers,
+      JPACountCache countCache, List<String> approximateCounts) throws IOException, ODataException {
+    this(localEmf, ds, urlPath, requestBody, functionPackage, expandStrategy, streamingEnabled, maxPageSizes,
+        queryPlanCache, headers, countCache, approximateCounts, null);
+  }
+
+  public IntegrationTestHelper(EntityManagerFactory localEmf, JPASearchIndex searchIndex, String urlPath)
+      throws IOException, ODataException {
+    this(localEmf, null, urlPath, null, null, new JPAExpandSubQueryStrategy(), false, Collections
+        .<String, Integer> emptyMap(), null, Collections.<String, List<String>> emptyMap(), null, Collections
+            .<String> emptyList(), null, searchIndex);
+  }
+
+  public IntegrationTestHelper(EntityManagerFactory localEmf, DataSource ds, String urlPath, StringBuffer requestBody,
+      String functionPackage, JPAExpandStrategy expandStrategy, boolean streamingEnabled,
+      Map<String, Integer> maxPageSizes, JPAQueryPlanCache queryPlanCache, Map<String, List<String>> headers,
+      JPACountCache countCache, List<String> approximateCounts, ExecutorService batchExecutor) throws IOException,
+      ODataException {
+    this(localEmf, ds, urlPath, requestBody, functionPackage, expandStrategy, streamingEnabled, maxPageSizes,
+        queryPlanCache, headers, countCache, approximateCounts, batchExecutor, null);
+  }
+
+  public IntegrationTestHelper(EntityManagerFactory localEmf, DataSource ds, String urlPath, StringBuffer requestBody,
+      String functionPackage, JPAExpandStrategy expandStrategy, boolean streamingEnabled,
+      Map<String, Integer> maxPageSizes, JPAQueryPlanCache queryPlanCache, Map<String, List<String>> headers,
+      JPACountCache countCache, List<String> approximateCounts, ExecutorService batchExecutor,
+      JPASearchIndex searchIndex) throws IOException, ODataException {
 
     super();
     EntityManager em = localEmf.createEntityManager();
-    this.req = new HttpServletRequestDouble(uriPrefix + urlPath, requestBody);
+    this.req = new HttpServletRequestDouble(uriPrefix + urlPath, requestBody, headers);
     this.resp = new HttpServletResponseDouble();
     OData odata = OData.newInstance();
     String[] packages = TestBase.enumPackages;
     if (functionPackage != null)
       packages = ArrayUtils.add(packages, functionPackage);
 
-    JPAODataSessionContextAccess context = new JPAODataContextAccessDouble(new JPAEdmProvider(PUNIT_NAME, localEmf,
+    JPAODataContextAccessDouble context = new JPAODataContextAccessDouble(new JPAEdmProvider(PUNIT_NAME, localEmf,
         null, packages), ds, functionPackage);
+    context.setExpandStrategy(expandStrategy);
+    context.setStreamingEnabled(streamingEnabled);
+    for (Entry<String, Integer> maxPageSize : maxPageSizes.entrySet())
+      context.setMaxPageSize(maxPageSize.getKey(), maxPageSize.getValue());
+    context.setQueryPlanCache(queryPlanCache);
+    context.setCountCache(countCache);
+    for (String entitySetName : approximateCounts)
+      context.setApproximateCount(entitySetName, true);
+    context.setBatchExecutor(batchExecutor);
+    context.setSearchIndex(searchIndex);
 
     ODataHttpHandler handler = odata.createHandler(odata.createServiceMetadata(context.getEdmProvider(),
         new ArrayList<EdmxReference>()));
 
-    handler.register(new JPAODataRequestProcessor(context, em));
-    handler.register(new JPAODataBatchProcessor(context, em));
+    final JPACacheUpdates cacheUpdates = new JPACacheUpdates(context);
+    handler.register(new JPAODataRequestProcessor(context, em, cacheUpdates));
+    handler.register(new JPAODataBatchProcessor(context, em, cacheUpdates));
     handler.process(req, resp);
 
   }